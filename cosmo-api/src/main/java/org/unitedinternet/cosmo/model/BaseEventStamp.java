@@ -45,7 +45,8 @@ public interface BaseEventStamp extends Stamp {
     public Calendar getEventCalendar();
 
     /**
-     * Set the Calendar that contains the VEvent
+     * Set the Calendar that contains the VEvent. The stamp may keep the given
+     * calendar until it is saved, so callers must not modify it afterwards.
      * 
      * @param calendar Calendar containing VEvent
      */
@@ -47,6 +47,14 @@ public interface CollectionItem extends Item {
 
     public void setHue(Long value);
 
+    /**
+     * Return the sync sequence of the collection. It is incremented by every
+     * transaction that adds, changes or removes a member of the collection,
+     * and each changed member is stamped with the value it got.
+     * @return sync sequence, or null if the collection never changed
+     */
+    public Long getSyncSequence();
+
     /**
      * Generate alternative hash code for collection.
      * This hash code will return a different value if
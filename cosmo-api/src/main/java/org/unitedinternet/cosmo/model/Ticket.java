@@ -80,6 +80,12 @@ public interface Ticket extends AuditableObject {
      */
     public boolean hasTimedOut();
 
+    /**
+     * Returns the time at which the ticket times out, or
+     * <code>null</code> if it never does.
+     */
+    public Date getExpires();
+
     /**
      * Determines whether or not the ticket is granted on the given
      * item or one of its ancestors.
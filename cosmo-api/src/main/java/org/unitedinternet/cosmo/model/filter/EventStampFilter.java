@@ -59,6 +59,10 @@ public class EventStampFilter extends StampFilter {
     private Date fend;
     private TimeZone timezone = null;
     private boolean expandRecurringEvents = false;
+    private FilterCriteria status = null;
+    private FilterCriteria organizer = null;
+    private FilterCriteria attendee = null;
+    private FilterCriteria categories = null;
     
     public Period getPeriod() {
         return period;
@@ -185,6 +189,58 @@ public class EventStampFilter extends StampFilter {
         this.isRecurring = isRecurring;
     }
 
+    public FilterCriteria getStatus() {
+        return status;
+    }
+
+    /**
+     * Match events by STATUS. Like the other property criteria, this
+     * also matches events whose properties were not indexed, so the
+     * results may need to be evaluated further.
+     * @param status status criteria
+     */
+    public void setStatus(FilterCriteria status) {
+        this.status = status;
+    }
+
+    public FilterCriteria getOrganizer() {
+        return organizer;
+    }
+
+    /**
+     * Match events by ORGANIZER.
+     * @param organizer organizer criteria
+     */
+    public void setOrganizer(FilterCriteria organizer) {
+        this.organizer = organizer;
+    }
+
+    public FilterCriteria getAttendee() {
+        return attendee;
+    }
+
+    /**
+     * Match events by ATTENDEE. The criteria is applied to all
+     * attendees at once, one attendee per line.
+     * @param attendee attendee criteria
+     */
+    public void setAttendee(FilterCriteria attendee) {
+        this.attendee = attendee;
+    }
+
+    public FilterCriteria getCategories() {
+        return categories;
+    }
+
+    /**
+     * Match events by CATEGORIES. The criteria is applied to all
+     * CATEGORIES properties at once, one property per line.
+     * @param categories categories criteria
+     */
+    public void setCategories(FilterCriteria categories) {
+        this.categories = categories;
+    }
+
     private void updateFloatingTimes() {
         if(dstart!=null) {
             Value v = Value.DATE_TIME;
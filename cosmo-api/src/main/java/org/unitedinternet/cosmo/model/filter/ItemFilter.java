@@ -17,7 +17,9 @@ package org.unitedinternet.cosmo.model.filter;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.unitedinternet.cosmo.model.CollectionItem;
 import org.unitedinternet.cosmo.model.QName;
@@ -36,6 +38,7 @@ public class ItemFilter {
    
     FilterCriteria displayName = null;
     CollectionItem parent = null;
+    Set<CollectionItem> parents = new HashSet<CollectionItem>();
     FilterCriteria uid = null;
     Integer maxResults = null;
     
@@ -118,6 +121,15 @@ public class ItemFilter {
         this.parent = parent;
     }
 
+    /**
+     * Match items that belong to any of the collections in this set. An
+     * empty set does not restrict the parent.
+     * @return set of parents to match
+     */
+    public Set<CollectionItem> getParents() {
+        return parents;
+    }
+
     public FilterCriteria getUid() {
         return uid;
     }
@@ -15,6 +15,7 @@
  */
 package org.unitedinternet.cosmo.service;
 
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 
@@ -22,6 +23,7 @@ import org.unitedinternet.cosmo.model.CollectionItem;
 import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.HomeCollectionItem;
 import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.ItemTombstone;
 import org.unitedinternet.cosmo.model.NoteItem;
 import org.unitedinternet.cosmo.model.Stamp;
 import org.unitedinternet.cosmo.model.Ticket;
@@ -88,6 +90,25 @@ public interface ContentService {
      */
     public Item findItemByPath(String path,
                                String parentUid);
+
+    /**
+     * Find the entity tag of the content item at the given path without
+     * loading the item. Meant for answering conditional requests cheaply.
+     * @param path The given path.
+     * @return The entity tag, or <code>null</code> if it cannot be looked up
+     * this way, in which case the item has to be loaded.
+     */
+    public String findEntityTagByPath(String path);
+
+    /**
+     * Find the children of a collection that have one of the given names.
+     * Names without a matching child are ignored.
+     * @param parent The parent collection.
+     * @param names The names of the children to find.
+     * @return The children found.
+     */
+    public Set<Item> findItemsByParentAndNames(CollectionItem parent,
+                                               Set<String> names);
     
     /**
      * Find content item's parent by path. Path is of the format:
@@ -160,6 +181,41 @@ public interface ContentService {
      */
     public Set<ContentItem> loadChildren(CollectionItem collection, Long timestamp);
 
+    /**
+     * Load the children of a collection that have been added or updated
+     * after a given sync sequence of the collection. If no sync sequence
+     * is specified, then return all children.
+     * @param collection collection
+     * @param syncSequence sync sequence
+     * @return children of collection changed after syncSequence, or all
+     *         children if syncSequence is null
+     */
+    public Set<ContentItem> loadChangedChildren(CollectionItem collection, Long syncSequence);
+
+    /**
+     * Load a page of the master notes of a collection, ordered by uid, with
+     * their modifications. The notes are detached from the persistence
+     * context, so that large collections can be read page by page.
+     * @param collection collection
+     * @param afterUid uid of the last note of the previous page, or null
+     *        for the first page
+     * @param maxResults maximum number of notes to return
+     * @return master notes following afterUid, at most maxResults
+     */
+    public List<NoteItem> loadMasterNotes(CollectionItem collection, String afterUid, int maxResults);
+
+    /**
+     * Load the item tombstones of a collection, i.e. the children that
+     * have been removed from it, created after a given sync sequence of
+     * the collection. If no sync sequence is specified, then return all
+     * item tombstones.
+     * @param collection collection
+     * @param syncSequence sync sequence
+     * @return item tombstones of collection created after syncSequence,
+     *         or all item tombstones if syncSequence is null
+     */
+    public Set<ItemTombstone> loadTombstones(CollectionItem collection, Long syncSequence);
+
     /**
      * Create a new collection.
      * 
@@ -273,6 +329,21 @@ public interface ContentService {
     public void createBatchContentItems(CollectionItem parent,
                                      Set<ContentItem> contentItems);
 
+    /**
+     * Imports a whole calendar worth of new content items into a parent
+     * collection using set-based uid checks and chunked flushes instead of
+     * creating the items one by one.
+     *
+     * @param parent
+     *            parent collection of content items.
+     * @param contentItems
+     *            content items to import
+     * @throws org.osaf.cosmo.model.CollectionLockedException
+     *         if parent CollectionItem is locked
+     */
+    public void importContentItems(CollectionItem parent,
+                                   Set<ContentItem> contentItems);
+
     /**
      * updates existing content items in a parent collection.
      * 
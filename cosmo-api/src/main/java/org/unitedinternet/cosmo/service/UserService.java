@@ -15,6 +15,7 @@
  */
 package org.unitedinternet.cosmo.service;
 
+import java.util.List;
 import java.util.Set;
 
 import org.unitedinternet.cosmo.model.User;
@@ -46,6 +47,19 @@ public interface UserService extends Service {
      */
     public User getUserByEmail(String email);
 
+    /**
+     * Returns a page of the user accounts whose username, email address, first name or last name contains the given
+     * text, ignoring case, ordered by username.
+     *
+     * @param text
+     *            the text to search for, all accounts if empty
+     * @param afterUsername
+     *            the username of the last account of the previous page, <code>null</code> for the first page
+     * @param max
+     *            the maximum number of accounts to return
+     */
+    public List<User> findUsersContaining(String text, String afterUsername, int max);
+
     /**
      * Creates a user account in the repository. Digests the raw password and uses the result to replace the raw
      * password. Returns a new instance of <code>User</code> after saving the original one.
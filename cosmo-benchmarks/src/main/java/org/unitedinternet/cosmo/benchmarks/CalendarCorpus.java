@@ -0,0 +1,172 @@
+package org.unitedinternet.cosmo.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.unitedinternet.cosmo.CosmoIOException;
+import org.unitedinternet.cosmo.CosmoParseException;
+
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.data.ParserException;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.TimeZone;
+import net.fortuna.ical4j.model.TimeZoneRegistry;
+import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+
+/**
+ * Generates the icalendar data the benchmarks run on. The data is
+ * deterministic, so that results of different runs can be compared.
+ */
+public final class CalendarCorpus {
+
+    /**
+     * First occurrence of every generated series.
+     */
+    public static final LocalDate SERIES_START = LocalDate.of(2020, 1, 6);
+
+    private static final String SERIES_TZID = "America/New_York";
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final TimeZoneRegistry REGISTRY = TimeZoneRegistryFactory.getInstance().createRegistry();
+
+    private CalendarCorpus() {
+    }
+
+    /**
+     * A daily series running for three years, with <code>overrides</code>
+     * modified occurrences spread evenly over the series.
+     *
+     * @param overrides
+     *            number of modified occurrences
+     * @return icalendar data of the series and its timezone
+     */
+    public static String recurringSeries(int overrides) {
+        StringBuilder ics = new StringBuilder();
+        begin(ics);
+        ics.append(REGISTRY.getTimeZone(SERIES_TZID).getVTimeZone());
+        appendEvent(ics, "series", SERIES_TZID, SERIES_START, null, "090000", "RRULE:FREQ=DAILY;UNTIL=20221231T235959Z");
+        int days = 3 * 365;
+        for (int i = 0; i < overrides; i++) {
+            LocalDate date = SERIES_START.plusDays((long) i * days / overrides);
+            appendEvent(ics, "series", SERIES_TZID, date, date, "093000", "SEQUENCE:1");
+        }
+        end(ics);
+        return ics.toString();
+    }
+
+    /**
+     * Weekly series in <code>count</code> different timezones, each with its
+     * own <code>VTIMEZONE</code>, as seen in shared team calendars.
+     *
+     * @param count
+     *            number of events and timezones
+     * @return icalendar data of one calendar holding all events
+     */
+    public static String manyTimezones(int count) {
+        List<String> tzids = timezoneIds(count);
+        StringBuilder ics = new StringBuilder();
+        begin(ics);
+        for (String tzid : tzids) {
+            ics.append(REGISTRY.getTimeZone(tzid).getVTimeZone());
+        }
+        for (int i = 0; i < tzids.size(); i++) {
+            appendEvent(ics, "tz-" + i, tzids.get(i), SERIES_START.plusDays(i % 7), null, "130000",
+                    "RRULE:FREQ=WEEKLY;COUNT=104");
+        }
+        end(ics);
+        return ics.toString();
+    }
+
+    /**
+     * @param count
+     *            number of events
+     * @return single events of one week in their own calendars, as stored
+     *         in a calendar collection
+     */
+    public static List<String> singleEvents(int count) {
+        List<String> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder ics = new StringBuilder();
+            begin(ics);
+            ics.append(REGISTRY.getTimeZone(SERIES_TZID).getVTimeZone());
+            appendEvent(ics, "single-" + i, SERIES_TZID, SERIES_START.plusDays(i % 7), null,
+                    String.format("%02d0000", 8 + i % 10), "LOCATION:Room " + i);
+            end(ics);
+            events.add(ics.toString());
+        }
+        return events;
+    }
+
+    /**
+     * @param icaldata
+     *            icalendar data
+     * @return parsed calendar
+     */
+    public static Calendar parse(String icaldata) {
+        try {
+            return new CalendarBuilder().build(new StringReader(icaldata));
+        } catch (IOException e) {
+            throw new CosmoIOException(e);
+        } catch (ParserException e) {
+            throw new CosmoParseException(e);
+        }
+    }
+
+    /**
+     * @return the timezone of the generated series
+     */
+    public static TimeZone seriesTimeZone() {
+        return REGISTRY.getTimeZone(SERIES_TZID);
+    }
+
+    private static List<String> timezoneIds(int count) {
+        List<String> tzids = new ArrayList<>(count);
+        for (String id : new TreeSet<>(ZoneId.getAvailableZoneIds())) {
+            if (tzids.size() == count) {
+                break;
+            }
+            if (id.indexOf('/') > 0 && !id.startsWith("Etc/") && !id.startsWith("SystemV/")
+                    && REGISTRY.getTimeZone(id) != null) {
+                tzids.add(id);
+            }
+        }
+        return tzids;
+    }
+
+    private static void begin(StringBuilder ics) {
+        ics.append("BEGIN:VCALENDAR\r\n")
+           .append("VERSION:2.0\r\n")
+           .append("PRODID:-//Cosmo//Benchmarks//EN\r\n");
+    }
+
+    private static void end(StringBuilder ics) {
+        ics.append("END:VCALENDAR\r\n");
+    }
+
+    private static void appendEvent(StringBuilder ics, String uid, String tzid, LocalDate date,
+            LocalDate recurrenceId, String time, String extra) {
+        String day = DATE.format(date);
+        ics.append("BEGIN:VEVENT\r\n")
+           .append("UID:").append(uid).append("\r\n")
+           .append("DTSTAMP:20200101T000000Z\r\n");
+        if (recurrenceId != null) {
+            ics.append("RECURRENCE-ID;TZID=").append(tzid).append(':')
+               .append(DATE.format(recurrenceId)).append("T090000\r\n");
+        }
+        ics.append("DTSTART;TZID=").append(tzid).append(':').append(day).append('T').append(time).append("\r\n")
+           .append("DURATION:PT1H\r\n")
+           .append("SUMMARY:").append(recurrenceId != null ? "Moved meeting" : "Meeting").append("\r\n")
+           .append("ORGANIZER:mailto:alice@example.com\r\n")
+           .append("ATTENDEE;PARTSTAT=ACCEPTED:mailto:bob@example.com\r\n")
+           .append("ATTENDEE;PARTSTAT=NEEDS-ACTION:mailto:carol@example.com\r\n")
+           .append(extra).append("\r\n")
+           .append("END:VEVENT\r\n");
+    }
+}
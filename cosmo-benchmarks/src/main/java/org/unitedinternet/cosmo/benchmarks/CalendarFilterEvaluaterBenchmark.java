@@ -0,0 +1,90 @@
+package org.unitedinternet.cosmo.benchmarks;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
+import org.unitedinternet.cosmo.calendar.query.CalendarFilterEvaluater;
+import org.unitedinternet.cosmo.calendar.query.ComponentFilter;
+import org.unitedinternet.cosmo.calendar.query.PropertyFilter;
+import org.unitedinternet.cosmo.calendar.query.TextMatchFilter;
+import org.unitedinternet.cosmo.calendar.query.TimeRangeFilter;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Period;
+
+/**
+ * Evaluation of calendar-query filters against recurring series, the work
+ * done for every candidate of a <code>calendar-query</code> report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CalendarFilterEvaluaterBenchmark {
+
+    @Param({ "0", "50", "500" })
+    private int overrides;
+
+    private final CalendarFilterEvaluater evaluater = new CalendarFilterEvaluater();
+
+    private Calendar series;
+    private Calendar timezones;
+    private CalendarFilter timeRangeFilter;
+    private CalendarFilter attendeeFilter;
+
+    @Setup
+    public void setUp() throws ParseException {
+        series = CalendarCorpus.parse(CalendarCorpus.recurringSeries(overrides));
+        timezones = CalendarCorpus.parse(CalendarCorpus.manyTimezones(100));
+
+        // a week far into the series, so that the expansion is not cut short
+        Period week = new Period(new DateTime("20220606T000000Z"), new DateTime("20220613T000000Z"));
+        ComponentFilter event = new ComponentFilter("VEVENT");
+        event.setTimeRangeFilter(new TimeRangeFilter(week));
+        timeRangeFilter = calendarFilter(event);
+
+        ComponentFilter attendee = new ComponentFilter("VEVENT");
+        PropertyFilter property = new PropertyFilter("ATTENDEE");
+        property.setTextMatchFilter(new TextMatchFilter("carol@example.com"));
+        attendee.getPropFilters().add(property);
+        attendeeFilter = calendarFilter(attendee);
+    }
+
+    private static CalendarFilter calendarFilter(ComponentFilter eventFilter) {
+        CalendarFilter filter = new CalendarFilter();
+        ComponentFilter calendarFilter = new ComponentFilter("VCALENDAR");
+        calendarFilter.getComponentFilters().add(eventFilter);
+        filter.setFilter(calendarFilter);
+        return filter;
+    }
+
+    @Benchmark
+    public boolean timeRangeSeries() {
+        return evaluater.evaluate(series, timeRangeFilter);
+    }
+
+    @Benchmark
+    public boolean timeRangeManyTimezones() {
+        return evaluater.evaluate(timezones, timeRangeFilter);
+    }
+
+    @Benchmark
+    public boolean attendeeSeries() {
+        return evaluater.evaluate(series, attendeeFilter);
+    }
+}
@@ -0,0 +1,74 @@
+package org.unitedinternet.cosmo.benchmarks;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitedinternet.cosmo.model.NoteItem;
+import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
+import org.unitedinternet.cosmo.model.hibernate.HibEntityFactory;
+
+import net.fortuna.ical4j.model.Calendar;
+
+/**
+ * Conversion between icalendar data and items, done for every
+ * <code>PUT</code> and for every calendar that is served.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EntityConverterBenchmark {
+
+    @Param({ "0", "50", "500" })
+    private int overrides;
+
+    private final EntityConverter converter = new EntityConverter(new HibEntityFactory());
+
+    private Calendar series;
+    private NoteItem master;
+
+    /**
+     * Converting an event calendar modifies it, so every invocation gets its
+     * own copy.
+     */
+    private Calendar copy;
+
+    @Setup
+    public void setUp() {
+        series = CalendarCorpus.parse(CalendarCorpus.recurringSeries(overrides));
+        master = converter.convertEventCalendar(CalendarCorpus.parse(CalendarCorpus.recurringSeries(overrides)))
+                .iterator().next();
+    }
+
+    @Setup(Level.Invocation)
+    public void copyCalendar() throws ParseException, IOException, URISyntaxException {
+        copy = new Calendar(series);
+    }
+
+    @Benchmark
+    public Set<NoteItem> convertEventCalendar() {
+        return converter.convertEventCalendar(copy);
+    }
+
+    @Benchmark
+    public Calendar convertNote() {
+        return converter.convertNote(master);
+    }
+}
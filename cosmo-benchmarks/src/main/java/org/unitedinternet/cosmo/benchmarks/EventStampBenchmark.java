@@ -0,0 +1,88 @@
+package org.unitedinternet.cosmo.benchmarks;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitedinternet.cosmo.calendar.util.ParsedCalendarCache;
+import org.unitedinternet.cosmo.model.hibernate.HibEventStamp;
+import org.unitedinternet.cosmo.model.hibernate.HibNoteItem;
+
+import net.fortuna.ical4j.model.Calendar;
+
+/**
+ * Parsing and serializing the icalendar data stored with an event stamp.
+ * Parsing is measured with and without the {@link ParsedCalendarCache}, a
+ * cache hit includes the copy handed to the caller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EventStampBenchmark {
+
+    @Param({ "0", "50", "500" })
+    private int overrides;
+
+    private Calendar series;
+    private HibEventStamp stamp;
+    private ParsedCalendarCache cache;
+
+    /**
+     * Setting the calendar of a stamp keeps it for indexing, so every
+     * invocation gets its own copy.
+     */
+    private Calendar copy;
+
+    @Setup
+    public void setUp() {
+        series = CalendarCorpus.parse(CalendarCorpus.recurringSeries(overrides));
+        stamp = new HibEventStamp(new HibNoteItem());
+        stamp.setIcaldata(CalendarCorpus.recurringSeries(overrides));
+        cache = new ParsedCalendarCache(ParsedCalendarCache.DEFAULT_MAX_ENTRIES,
+                ParsedCalendarCache.DEFAULT_MAX_BYTES);
+    }
+
+    @Setup(Level.Invocation)
+    public void copyCalendar() throws ParseException, IOException, URISyntaxException {
+        copy = new Calendar(series);
+    }
+
+    /**
+     * The icalendar data was set on the stamp rather than loaded, so it is
+     * parsed on every call.
+     */
+    @Benchmark
+    public Calendar parse() {
+        return stamp.getEventCalendar();
+    }
+
+    /**
+     * The lookup of a loaded stamp, only the first call parses.
+     */
+    @Benchmark
+    public Calendar parseCached() {
+        return cache.getCalendar(1L, 1L, stamp.getIcaldata());
+    }
+
+    @Benchmark
+    public String serialize() {
+        stamp.setEventCalendar(copy);
+        return stamp.getIcaldata();
+    }
+}
@@ -0,0 +1,61 @@
+package org.unitedinternet.cosmo.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jackrabbit.webdav.MultiStatus;
+import org.apache.jackrabbit.webdav.MultiStatusResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.unitedinternet.cosmo.dav.caldav.property.CalendarData;
+import org.unitedinternet.cosmo.dav.impl.StandardDavResponse;
+import org.unitedinternet.cosmo.dav.property.Etag;
+
+/**
+ * Generation of the <code>multistatus</code> body of a
+ * <code>calendar-query</code> or <code>calendar-multiget</code> report that
+ * returns the entity tag and the calendar data of every event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MultiStatusBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int events;
+
+    private List<String> calendars;
+
+    @Setup
+    public void setUp() {
+        calendars = CalendarCorpus.singleEvents(events);
+    }
+
+    @Benchmark
+    public int sendMultiStatus() throws IOException {
+        MultiStatus multistatus = new MultiStatus();
+        for (int i = 0; i < calendars.size(); i++) {
+            MultiStatusResponse response = new MultiStatusResponse("/cosmo/dav/alice/calendar/" + i + ".ics", null);
+            response.add(new Etag("\"" + i + "\""));
+            response.add(new CalendarData(calendars.get(i)));
+            multistatus.addResponse(response);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new StandardDavResponse(response).sendXmlResponse(multistatus, 207);
+        return response.getContentAsByteArray().length;
+    }
+}
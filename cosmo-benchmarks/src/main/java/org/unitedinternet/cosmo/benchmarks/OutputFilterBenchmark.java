@@ -0,0 +1,90 @@
+package org.unitedinternet.cosmo.benchmarks;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitedinternet.cosmo.calendar.data.OutputFilter;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Period;
+
+/**
+ * Rendering of <code>calendar-data</code> with the filters clients send:
+ * everything, a subset of event properties, and a recurring series expanded
+ * over a month.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OutputFilterBenchmark {
+
+    @Param({ "0", "50", "500" })
+    private int overrides;
+
+    private Calendar series;
+    private OutputFilter all;
+    private OutputFilter properties;
+    private OutputFilter expand;
+
+    @Setup
+    public void setUp() throws ParseException {
+        series = CalendarCorpus.parse(CalendarCorpus.recurringSeries(overrides));
+
+        all = new OutputFilter("VCALENDAR");
+        all.setAllSubComponents();
+        all.setAllProperties();
+
+        properties = new OutputFilter("VCALENDAR");
+        properties.setAllProperties();
+        OutputFilter event = new OutputFilter("VEVENT");
+        for (String name : new String[] { "UID", "DTSTART", "DURATION", "SUMMARY", "RRULE", "RECURRENCE-ID" }) {
+            event.addProperty(name, false);
+        }
+        properties.addSubComponent(event);
+        OutputFilter timezone = new OutputFilter("VTIMEZONE");
+        timezone.setAllSubComponents();
+        timezone.setAllProperties();
+        properties.addSubComponent(timezone);
+
+        expand = new OutputFilter("VCALENDAR");
+        expand.setAllSubComponents();
+        expand.setAllProperties();
+        expand.setExpand(new Period(new DateTime("20220601T000000Z"), new DateTime("20220701T000000Z")));
+    }
+
+    @Benchmark
+    public int filterAll() {
+        return filter(all);
+    }
+
+    @Benchmark
+    public int filterProperties() {
+        return filter(properties);
+    }
+
+    @Benchmark
+    public int filterExpand() {
+        return filter(expand);
+    }
+
+    private int filter(OutputFilter filter) {
+        StringBuilder builder = new StringBuilder();
+        filter.filter(series, builder);
+        return builder.length();
+    }
+}
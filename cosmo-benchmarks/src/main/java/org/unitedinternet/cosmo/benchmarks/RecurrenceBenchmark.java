@@ -0,0 +1,78 @@
+package org.unitedinternet.cosmo.benchmarks;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.unitedinternet.cosmo.calendar.InstanceList;
+import org.unitedinternet.cosmo.calendar.RecurrenceExpander;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.component.VEvent;
+
+/**
+ * Expansion of a daily series with modified occurrences, over one year.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RecurrenceBenchmark {
+
+    @Param({ "0", "50", "500" })
+    private int overrides;
+
+    private final RecurrenceExpander expander = new RecurrenceExpander();
+
+    private Calendar calendar;
+    private VEvent master;
+    private List<VEvent> exceptions;
+    private Date rangeStart;
+    private Date rangeEnd;
+
+    @Setup
+    public void setUp() throws ParseException {
+        calendar = CalendarCorpus.parse(CalendarCorpus.recurringSeries(overrides));
+        List<VEvent> events = calendar.getComponents(Component.VEVENT);
+        master = events.get(0);
+        exceptions = events.subList(1, events.size());
+        rangeStart = new DateTime("20210101T000000Z");
+        rangeEnd = new DateTime("20220101T000000Z");
+    }
+
+    @Benchmark
+    public InstanceList getOccurrences() {
+        return expander.getOcurrences(calendar, rangeStart, rangeEnd, null);
+    }
+
+    @Benchmark
+    public Date[] calculateRecurrenceRange() {
+        return expander.calculateRecurrenceRange(calendar);
+    }
+
+    @Benchmark
+    public InstanceList addMasterAndOverrides() {
+        InstanceList instances = new InstanceList();
+        instances.addMaster(master, rangeStart, rangeEnd);
+        for (VEvent exception : exceptions) {
+            instances.addOverride(exception, rangeStart, rangeEnd);
+        }
+        return instances;
+    }
+}
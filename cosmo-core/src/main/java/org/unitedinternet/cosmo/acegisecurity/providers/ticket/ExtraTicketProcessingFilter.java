@@ -18,6 +18,7 @@ package org.unitedinternet.cosmo.acegisecurity.providers.ticket;
 import java.io.IOException;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import jakarta.servlet.Filter;
@@ -30,6 +31,7 @@ import jakarta.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.unitedinternet.cosmo.dao.ContentDao;
 import org.unitedinternet.cosmo.model.Ticket;
@@ -48,6 +50,7 @@ public class ExtraTicketProcessingFilter implements Filter {
 
     private ContentDao contentDao = null;
     private CosmoSecurityManager securityManager = null;
+    private TicketCache ticketCache = null;
 
     /**
      * 
@@ -97,7 +100,8 @@ public class ExtraTicketProcessingFilter implements Filter {
             LOG.debug("looking for tickets in request headers");
         }
 
-        Set<Ticket> tickets = new HashSet<Ticket>();
+        // each key is looked up once, even if it is given more than once
+        Set<String> keys = new LinkedHashSet<String>();
 
         // Look for tickets in header in the format:
         // X-Cosmo-Ticket: slkdfjsdf, slkdjfsdf, sdlfkjsfsdf
@@ -105,10 +109,7 @@ public class ExtraTicketProcessingFilter implements Filter {
         while (ticketKeys.hasMoreElements()) {
             String ticketKeyValue = ticketKeys.nextElement();
             for (String ticketKey : ticketKeyValue.split(",")) {
-                Ticket ticket = contentDao.findTicket(ticketKey.trim());
-                if (ticket != null) {
-                    tickets.add(ticket);
-                }
+                keys.add(ticketKey.trim());
             }
         }
 
@@ -118,10 +119,7 @@ public class ExtraTicketProcessingFilter implements Filter {
         while (ticketKeys.hasMoreElements()) {
             String ticketKeyValue = ticketKeys.nextElement();
             for (String ticketKey : ticketKeyValue.split(",")) {
-                Ticket ticket = contentDao.findTicket(ticketKey.trim());
-                if (ticket != null) {
-                    tickets.add(ticket);
-                }
+                keys.add(ticketKey.trim());
             }
         }
 
@@ -129,10 +127,15 @@ public class ExtraTicketProcessingFilter implements Filter {
         String[] paramTicketKeys = httpRequest.getParameterValues(PARAM_TICKET);
         if (paramTicketKeys != null) {
             for (String ticketKey : paramTicketKeys) {
-                Ticket ticket = contentDao.findTicket(ticketKey);
-                if (ticket != null) {
-                    tickets.add(ticket);
-                }
+                keys.add(ticketKey);
+            }
+        }
+
+        Set<Ticket> tickets = new HashSet<Ticket>();
+        for (String key : keys) {
+            Ticket ticket = findTicket(key);
+            if (ticket != null) {
+                tickets.add(ticket);
             }
         }
 
@@ -146,6 +149,26 @@ public class ExtraTicketProcessingFilter implements Filter {
         }
     }
 
+    /**
+     * Finds the ticket with the given key, unless it has timed out.
+     */
+    private Ticket findTicket(String key) {
+        TicketCache.CachedTicket cached = ticketCache != null ? ticketCache.get(key) : null;
+        if (cached != null && cached.hasTimedOut()) {
+            return null;
+        }
+        Ticket ticket = contentDao.findTicket(key);
+        if (ticket == null || ticket.hasTimedOut()) {
+            return null;
+        }
+        return ticket;
+    }
+
+    @Autowired(required = false)
+    public void setTicketCache(TicketCache ticketCache) {
+        this.ticketCache = ticketCache;
+    }
+
     @Override
     public void destroy() {
         // Nothing to do
@@ -42,6 +42,9 @@ public class TicketAuthenticationProvider implements AuthenticationProvider {
     @Autowired
     private ContentDao contentDao;
 
+    @Autowired(required = false)
+    private TicketCache ticketCache;
+
     // AuthenticationProvider methods
 
     /**
@@ -99,6 +102,14 @@ public class TicketAuthenticationProvider implements AuthenticationProvider {
         this.contentDao = contentDao;
     }
 
+    public TicketCache getTicketCache() {
+        return ticketCache;
+    }
+
+    public void setTicketCache(TicketCache ticketCache) {
+        this.ticketCache = ticketCache;
+    }
+
     /**
      * Find tickets.
      * @param path The path.
@@ -112,6 +123,11 @@ public class TicketAuthenticationProvider implements AuthenticationProvider {
             }
 
             Item item = findItem(path);
+            TicketCache.CachedTicket cached = ticketCache != null ? ticketCache.get(key) : null;
+            if (cached != null && !cached.hasTimedOut()) {
+                return findCachedTicket(item, cached);
+            }
+
             Ticket ticket = contentDao.getTicket(item, key);
             if (ticket == null) {
                 return null;
@@ -122,15 +138,46 @@ public class TicketAuthenticationProvider implements AuthenticationProvider {
                     LOG.debug("removing timed out ticket " + ticket.getKey());
                 }
                 contentDao.removeTicket(item, ticket);
+                if (ticketCache != null) {
+                    ticketCache.invalidate(key);
+                }
                 return null;
             }
 
+            if (ticketCache != null && ticket.getItem() != null) {
+                ticketCache.put(ticket, ticket.getItem().getUid());
+            }
             return ticket;
         } catch (DataAccessException e) {
             throw new AuthenticationServiceException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Finds a cached ticket among the tickets of the given item and its
+     * ancestors, without looking it up.
+     * @param item The item.
+     * @param cached The cached ticket.
+     * @return The ticket, or <code>null</code> if it is not granted on the item.
+     */
+    private Ticket findCachedTicket(Item item, TicketCache.CachedTicket cached) {
+        if (cached.getItemUid().equals(item.getUid())) {
+            for (Ticket ticket : item.getTickets()) {
+                if (ticket.getKey().equals(cached.getKey())) {
+                    return ticket;
+                }
+            }
+            return null;
+        }
+        for (Item parent : item.getParents()) {
+            Ticket ticket = findCachedTicket(parent, cached);
+            if (ticket != null) {
+                return ticket;
+            }
+        }
+        return null;
+    }
+
     /**
      * Finds item.
      * @param path The path.
@@ -0,0 +1,145 @@
+package org.unitedinternet.cosmo.acegisecurity.providers.ticket;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.unitedinternet.cosmo.model.Ticket;
+import org.unitedinternet.cosmo.util.BoundedCache;
+
+/**
+ * <p>
+ * Bounded cache of the tickets that authenticated requests, keyed by ticket
+ * key. Shared calendar links are requested over and over with the same
+ * ticket, this cache lets {@link TicketAuthenticationProvider} find the
+ * ticket among the tickets of the requested item and its ancestors, which
+ * are loaded with the items, instead of looking it up again.
+ * </p>
+ * <p>
+ * Tickets don't change once created, so an entry only becomes wrong when its
+ * ticket is removed. {@link org.unitedinternet.cosmo.service.ContentService}
+ * invalidates the entries of the tickets it removes, tickets removed
+ * together with their item are no longer found among the tickets of the
+ * requested item.
+ * </p>
+ */
+@Component
+public class TicketCache {
+
+    /**
+     * Default number of seconds an entry is used.
+     */
+    public static final int DEFAULT_TTL = 300;
+
+    /**
+     * Default maximum number of cached tickets.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private final BoundedCache<String, CachedTicket> entries;
+
+    public TicketCache(@Value("${cosmo.tickets.cache.ttl:" + DEFAULT_TTL + "}") int ttl,
+            @Value("${cosmo.tickets.cache.size:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        this.entries = new BoundedCache<String, CachedTicket>(maxEntries, ttl * 1000L);
+    }
+
+    /**
+     * @param key
+     *            the ticket key
+     * @return the cached ticket, or <code>null</code> if the ticket is not
+     *         cached or the entry expired
+     */
+    public CachedTicket get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Caches the given ticket, replacing any cached one with the same key.
+     *
+     * @param ticket
+     *            the ticket
+     * @param itemUid
+     *            uid of the item the ticket was created on
+     * @return the cached ticket
+     */
+    public CachedTicket put(Ticket ticket, String itemUid) {
+        CachedTicket cached = new CachedTicket(ticket, itemUid);
+        entries.put(cached.getKey(), cached);
+        return cached;
+    }
+
+    /**
+     * Removes the ticket with the given key.
+     *
+     * @param key
+     *            the ticket key
+     */
+    public void invalidate(String key) {
+        entries.invalidate(key);
+    }
+
+    /**
+     * Removes all cached tickets.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return entries.getHitCount();
+    }
+
+    public long getMissCount() {
+        return entries.getMissCount();
+    }
+
+    /**
+     * The key, item and privileges of a ticket and the time it times out.
+     */
+    public static final class CachedTicket {
+
+        private final String key;
+        private final String itemUid;
+        private final Set<String> privileges;
+        private final Long expires;
+
+        CachedTicket(Ticket ticket, String itemUid) {
+            this.key = ticket.getKey();
+            this.itemUid = itemUid;
+            this.privileges = Collections.unmodifiableSet(new HashSet<String>(ticket.getPrivileges()));
+            Date expiry = ticket.getExpires();
+            this.expires = expiry != null ? expiry.getTime() : null;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getItemUid() {
+            return itemUid;
+        }
+
+        public Set<String> getPrivileges() {
+            return privileges;
+        }
+
+        /**
+         * @return the time the ticket times out in millis, or
+         *         <code>null</code> if it never does
+         */
+        public Long getExpires() {
+            return expires;
+        }
+
+        public boolean hasTimedOut() {
+            return expires != null && System.currentTimeMillis() > expires;
+        }
+    }
+}
@@ -17,6 +17,7 @@ package org.unitedinternet.cosmo.acegisecurity.userdetails;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -41,24 +42,55 @@ public class CosmoUserDetails implements UserDetails {
    private static final long serialVersionUID = 3034617040424768102L;
 
     private User user;
+    private transient Supplier<User> userLoader;
     private List<GrantedAuthority> authorities;
 
+    private String username;
+    private String password;
+    private boolean locked;
+    private boolean activated;
+    private boolean overlord;
+
     /**
      * @param user the wrapped <code>User</code>
      * @see User
      */
     public CosmoUserDetails(User user) {
         this.user = user;
+        this.username = user.getUsername();
+        this.password = user.getPassword();
+        this.locked = user.isLocked().booleanValue();
+        this.activated = user.isActivated();
+        this.overlord = user.isOverlord();
+        this.authorities = createAuthorities(user.getAdmin().booleanValue(), overlord);
+    }
+
+    /**
+     * Creates the details of a cached principal. The <code>User</code> is
+     * only loaded when it is asked for.
+     *
+     * @param principal the cached account data
+     * @param userLoader loads the <code>User</code> of the principal
+     */
+    public CosmoUserDetails(PrincipalCache.CachedPrincipal principal, Supplier<User> userLoader) {
+        this.userLoader = userLoader;
+        this.username = principal.getUsername();
+        this.password = principal.getPassword();
+        this.locked = principal.isLocked();
+        this.activated = principal.isActivated();
+        this.overlord = principal.isOverlord();
+        this.authorities = createAuthorities(principal.isAdmin(), overlord);
+    }
 
+    private static List<GrantedAuthority> createAuthorities(boolean admin, boolean overlord) {
         ArrayList<GrantedAuthority> authorities = new ArrayList<GrantedAuthority>();
-        if (user.getAdmin().booleanValue()) {
+        if (admin) {
             authorities.add(new SimpleGrantedAuthority("ROLE_ROOT"));
         }
-        if (! user.isOverlord()) {
+        if (! overlord) {
             authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
         }
-
-        this.authorities = authorities;
+        return authorities;
     }
 
     // UserDetails methods
@@ -86,10 +118,10 @@ public class CosmoUserDetails implements UserDetails {
      * <code>false</code> otherwise
      */
     public boolean isAccountNonLocked() {
-        if (user.isOverlord()) {
+        if (overlord) {
             return true;
         }
-        return ! user.isLocked().booleanValue();
+        return ! locked;
     }
 
     /**
@@ -125,7 +157,7 @@ public class CosmoUserDetails implements UserDetails {
      * <code>false</code> otherwise
      */
     public boolean isEnabled() {
-        return user.isActivated();
+        return activated;
     }
 
     /**
@@ -135,7 +167,7 @@ public class CosmoUserDetails implements UserDetails {
      * @return the password (never <code>null</code>)
      */
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     /**
@@ -145,17 +177,21 @@ public class CosmoUserDetails implements UserDetails {
      * @return the username (never <code>null</code>)
      */
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     // oru methods
 
     /**
-     * Returns the underlying <code>User</code>.
+     * Returns the underlying <code>User</code>, loading it first if
+     * these details were created from a cached principal.
      *
      * @return the user
      */
     public User getUser() {
+        if (user == null && userLoader != null) {
+            user = userLoader.get();
+        }
         return user;
     }
 }
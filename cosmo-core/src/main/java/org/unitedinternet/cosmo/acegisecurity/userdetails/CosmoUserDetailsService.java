@@ -37,9 +37,13 @@ public class CosmoUserDetailsService implements UserDetailsService {
 	@Autowired
     private UserDao userDao;
 
+    @Autowired(required = false)
+    private PrincipalCache principalCache;
+
     /**
      * Locates the user with the given username by retrieving it
-     * with this service's <code>UserDao</code> and returns a
+     * with this service's <code>UserDao</code>, unless it is found in
+     * the <code>PrincipalCache</code>, and returns a
      * <code>UserDetails</code> representing the user.
      *
      * @param username the username to look up
@@ -52,11 +56,18 @@ public class CosmoUserDetailsService implements UserDetailsService {
      */
     public UserDetails loadUserByUsername(String username)
         throws UsernameNotFoundException, DataAccessException {
+        PrincipalCache.CachedPrincipal principal = principalCache != null ? principalCache.get(username) : null;
+        if (principal != null) {
+            return new CosmoUserDetails(principal, () -> userDao.getUser(username));
+        }
         User user = userDao.getUser(username);
         if (user == null) {
             throw new UsernameNotFoundException("user " + username + " not found");
         }
-        return new CosmoUserDetails(userDao.getUser(username));
+        if (principalCache != null) {
+            principalCache.put(user);
+        }
+        return new CosmoUserDetails(user);
     }
 
     /**
@@ -74,4 +85,12 @@ public class CosmoUserDetailsService implements UserDetailsService {
     public void setUserDao(UserDao userDao) {
         this.userDao = userDao;
     }
+
+    public PrincipalCache getPrincipalCache() {
+        return principalCache;
+    }
+
+    public void setPrincipalCache(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
 }
@@ -0,0 +1,148 @@
+package org.unitedinternet.cosmo.acegisecurity.userdetails;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.unitedinternet.cosmo.model.User;
+import org.unitedinternet.cosmo.util.BoundedCache;
+
+/**
+ * <p>
+ * Bounded, short lived cache of the account data needed to authenticate a
+ * user, keyed by username. Clients authenticate every request, so without it
+ * each request looks the user up before any DAV work starts.
+ * </p>
+ * <p>
+ * Entries are snapshots of the account and not the <code>User</code> entity,
+ * which belongs to the persistence context of the request that loaded it.
+ * {@link org.unitedinternet.cosmo.service.UserService} invalidates the entry
+ * of a user it updates or removes, changes made by other means are seen once
+ * the entry expired.
+ * </p>
+ */
+@Component
+public class PrincipalCache {
+
+    /**
+     * Default number of seconds an entry is used.
+     */
+    public static final int DEFAULT_TTL = 30;
+
+    /**
+     * Default maximum number of cached principals.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private final BoundedCache<String, CachedPrincipal> entries;
+
+    public PrincipalCache(@Value("${cosmo.security.principal.cache.ttl:" + DEFAULT_TTL + "}") int ttl,
+            @Value("${cosmo.security.principal.cache.size:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        this.entries = new BoundedCache<String, CachedPrincipal>(maxEntries, ttl * 1000L);
+    }
+
+    /**
+     * @param username
+     *            the username
+     * @return the cached principal, or <code>null</code> if the user is not
+     *         cached or the entry expired
+     */
+    public CachedPrincipal get(String username) {
+        return entries.get(username);
+    }
+
+    /**
+     * Caches a snapshot of the given user, replacing any cached one.
+     *
+     * @param user
+     *            the user
+     * @return the cached principal
+     */
+    public CachedPrincipal put(User user) {
+        CachedPrincipal principal = new CachedPrincipal(user);
+        entries.put(principal.getUsername(), principal);
+        return principal;
+    }
+
+    /**
+     * Removes the principal with the given username.
+     *
+     * @param username
+     *            the username
+     */
+    public void invalidate(String username) {
+        entries.invalidate(username);
+    }
+
+    /**
+     * Removes all cached principals.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return entries.getHitCount();
+    }
+
+    public long getMissCount() {
+        return entries.getMissCount();
+    }
+
+    /**
+     * The account data of a user as it was when the user was cached.
+     */
+    public static final class CachedPrincipal {
+
+        private final String uid;
+        private final String username;
+        private final String password;
+        private final boolean admin;
+        private final boolean overlord;
+        private final boolean locked;
+        private final boolean activated;
+
+        CachedPrincipal(User user) {
+            this.uid = user.getUid();
+            this.username = user.getUsername();
+            this.password = user.getPassword();
+            this.admin = Boolean.TRUE.equals(user.getAdmin());
+            this.overlord = user.isOverlord();
+            this.locked = Boolean.TRUE.equals(user.isLocked());
+            this.activated = user.isActivated();
+        }
+
+        public String getUid() {
+            return uid;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        /**
+         * @return the password digest
+         */
+        public String getPassword() {
+            return password;
+        }
+
+        public boolean isAdmin() {
+            return admin;
+        }
+
+        public boolean isOverlord() {
+            return overlord;
+        }
+
+        public boolean isLocked() {
+            return locked;
+        }
+
+        public boolean isActivated() {
+            return activated;
+        }
+    }
+}
@@ -28,6 +28,8 @@ import org.unitedinternet.cosmo.acegisecurity.ui.CosmoAuthenticationEntryPoint;
 import org.unitedinternet.cosmo.dav.acegisecurity.DavAccessDecisionManager;
 import org.unitedinternet.cosmo.dav.servlet.StandardRequestHandler;
 import org.unitedinternet.cosmo.filters.CosmoExceptionLoggerFilter;
+import org.unitedinternet.cosmo.filters.StatementCountLoggerFilter;
+import org.unitedinternet.cosmo.hibernate.StatementCountingInspector;
 
 /**
  * Configuration class that defines the DAV servlet as well as the list of filters.
@@ -68,6 +70,9 @@ public class SecurityFilterConfig {
     @Autowired
     private HttpFirewall httpFirewall;
 
+    @Autowired
+    private StatementCountingInspector statementCounter;
+
     @Bean
     public ServletRegistrationBean<?> davServlet() {
         HttpRequestHandlerServlet handler = new HttpRequestHandlerServlet() {
@@ -89,6 +94,14 @@ public class SecurityFilterConfig {
         return filterBean;
     }
 
+    @Bean
+    public FilterRegistrationBean<?> statementCountLoggerFilter() {
+        FilterRegistrationBean<?> filterBean = new FilterRegistrationBean<>(
+                new StatementCountLoggerFilter(this.statementCounter));
+        filterBean.addUrlPatterns(PATH_DAV);
+        return filterBean;
+    }
+
     // Security filter chain
 
     @Bean
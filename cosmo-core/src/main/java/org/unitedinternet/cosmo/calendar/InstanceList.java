@@ -25,6 +25,7 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.unitedinternet.cosmo.CosmoParseException;
+import org.unitedinternet.cosmo.calendar.util.TimeZoneService;
 
 import net.fortuna.ical4j.model.Component;
 import net.fortuna.ical4j.model.Date;
@@ -36,7 +37,6 @@ import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.PropertyList;
 import net.fortuna.ical4j.model.TemporalAmountAdapter;
 import net.fortuna.ical4j.model.TimeZone;
-import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
 import net.fortuna.ical4j.model.parameter.Range;
 import net.fortuna.ical4j.model.parameter.Value;
 import net.fortuna.ical4j.model.property.DtEnd;
@@ -126,7 +126,7 @@ public class InstanceList extends TreeMap<String, Instance> {
      */
     public void setTimezone(TimeZone timezone) {
         if(timezone != null ){
-            this.timezone = TimeZoneRegistryFactory.getInstance().createRegistry().getTimeZone(timezone.getID());
+            this.timezone = TimeZoneService.getInstance().getTimeZone(timezone.getID());
         }
     }
 
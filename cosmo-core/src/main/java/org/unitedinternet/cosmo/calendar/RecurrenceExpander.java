@@ -19,6 +19,7 @@ import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,11 +52,27 @@ import net.fortuna.ical4j.util.Dates;
 public class RecurrenceExpander {
     private static final Logger LOG = LoggerFactory.getLogger(RecurrenceExpander.class);
     private static Date maxExpandDate = null;
+    
+    /**
+     * Marks a last occurence that is too far away to be represented.
+     */
+    private static final Date INFINITE = new Date(Long.MAX_VALUE);
+    
+    /**
+     * Nominal length of a step of the fixed step frequencies, by
+     * <code>java.util.Calendar</code> field.
+     */
+    private static final Map<Integer, Long> STEP_MILLIS = Map.of(
+            java.util.Calendar.SECOND, 1000L,
+            java.util.Calendar.MINUTE, 60 * 1000L,
+            java.util.Calendar.HOUR_OF_DAY, 60 * 60 * 1000L,
+            java.util.Calendar.DAY_OF_YEAR, 24 * 60 * 60 * 1000L,
+            java.util.Calendar.WEEK_OF_YEAR, 7 * 24 * 60 * 60 * 1000L);
    
     static {
         // Expand out to 2030 for those recurrence rules
-        // that have an end.  Recurring events with no end
-        // will be indexed as infinite.
+        // that have an end and cannot be computed directly.
+        // Recurring events with no end will be indexed as infinite.
         java.util.Calendar c = java.util.Calendar.getInstance();
         
         c.set(java.util.Calendar.YEAR, 2030);
@@ -221,17 +238,15 @@ public class RecurrenceExpander {
                 break;
             }
             
-            // DateList startDates = rrule.getRecur().getDates(start.getDate(),
-            // adjustedRangeStart, rangeEnd, (Value)
-            // start.getParameters().getParameter(Parameter.VALUE));
-            DateList startDates = rrule.getRecur().getDates(start, start,
-                    maxExpandDate,
-                    start instanceof DateTime ? Value.DATE_TIME : Value.DATE);
+            Date lastStart = getLastStart(recur, start);
+            if (lastStart == INFINITE) {
+                dateRange[1] = null;
+                break;
+            }
             
-            // Dates are sorted, so get the last occurence, and calculate the end
-            // date and update dateRange if necessary
-            if(startDates.size()>0) {
-                Date lastStart = (Date) startDates.get(startDates.size()-1);
+            // calculate the end date of the last occurence and update
+            // dateRange if necessary
+            if (lastStart != null) {
                 Date endDate = org.unitedinternet.cosmo.calendar.util.Dates.getInstance(new TemporalAmountAdapter(duration).getTime(lastStart), start);
                 
                 if (endDate.after(dateRange[1])) {
@@ -261,6 +276,8 @@ public class RecurrenceExpander {
             TimeZone tz = ((DateTime) start).getTimeZone();
             
             if((dateRange[0] instanceof DateTime)){
+                // copy first as the date may belong to the component
+                dateRange[0] = new DateTime(dateRange[0]);
                 if(tz != null ){
                     ((DateTime) dateRange[0]).setTimeZone(tz);
                 }else{
@@ -269,6 +286,7 @@ public class RecurrenceExpander {
             }
             if((dateRange[1] instanceof DateTime) &&
                 dateRange[1]!=null && (dateRange[1] instanceof DateTime)) {
+                    dateRange[1] = new DateTime(dateRange[1]);
                     if(tz != null){
                         ((DateTime) dateRange[1]).setTimeZone(tz);
                     }else{
@@ -280,6 +298,90 @@ public class RecurrenceExpander {
         return dateRange;
     }
     
+    /**
+     * Returns the start of the last occurence of a bounded recurrence rule,
+     * <code>null</code> if the rule yields no occurence or {@link #INFINITE}
+     * if the last occurence is too far away to be represented. Rules that
+     * simply repeat the start in fixed steps are computed from their COUNT or
+     * UNTIL, other rules are expanded.
+     */
+    private Date getLastStart(Recur recur, Date start) {
+        Integer field = getFixedStepField(recur);
+        if (field == null) {
+            DateList startDates = recur.getDates(start, start, maxExpandDate,
+                    start instanceof DateTime ? Value.DATE_TIME : Value.DATE);
+            // Dates are sorted, so get the last occurence
+            return startDates.isEmpty() ? null : (Date) startDates.get(startDates.size() - 1);
+        }
+        
+        long interval = Math.max(recur.getInterval(), 1);
+        long steps;
+        if (recur.getCount() > 0) {
+            steps = recur.getCount() - 1;
+        } else {
+            Date until = recur.getUntil();
+            if (until.before(start)) {
+                return null;
+            }
+            // estimate the number of steps, then correct for daylight saving
+            // time shifts
+            steps = (until.getTime() - start.getTime()) / (STEP_MILLIS.get(field) * interval);
+            if ((steps + 1) * interval >= Integer.MAX_VALUE) {
+                return INFINITE;
+            }
+            while (steps > 0 && addSteps(start, field, steps * interval).after(until)) {
+                steps--;
+            }
+            while ((steps + 2) * interval < Integer.MAX_VALUE
+                    && !addSteps(start, field, (steps + 1) * interval).after(until)) {
+                steps++;
+            }
+        }
+        
+        if (steps * interval >= Integer.MAX_VALUE) {
+            return INFINITE;
+        }
+        return org.unitedinternet.cosmo.calendar.util.Dates.getInstance(
+                addSteps(start, field, steps * interval), start);
+    }
+    
+    private java.util.Date addSteps(Date start, int field, long amount) {
+        java.util.Calendar cal = Dates.getCalendarInstance(start);
+        cal.setTime(start);
+        cal.add(field, (int) amount);
+        return cal.getTime();
+    }
+    
+    /**
+     * Returns the <code>java.util.Calendar</code> field by which a rule
+     * advances, if every occurence of the rule lies a fixed number of those
+     * fields after the previous one, otherwise <code>null</code>.
+     */
+    private Integer getFixedStepField(Recur recur) {
+        if (!recur.getSecondList().isEmpty() || !recur.getMinuteList().isEmpty()
+                || !recur.getHourList().isEmpty() || !recur.getDayList().isEmpty()
+                || !recur.getMonthDayList().isEmpty() || !recur.getYearDayList().isEmpty()
+                || !recur.getWeekNoList().isEmpty() || !recur.getMonthList().isEmpty()
+                || !recur.getSetPosList().isEmpty()) {
+            return null;
+        }
+        switch (recur.getFrequency()) {
+            case SECONDLY:
+                return java.util.Calendar.SECOND;
+            case MINUTELY:
+                return java.util.Calendar.MINUTE;
+            case HOURLY:
+                return java.util.Calendar.HOUR_OF_DAY;
+            case DAILY:
+                return java.util.Calendar.DAY_OF_YEAR;
+            case WEEKLY:
+                return java.util.Calendar.WEEK_OF_YEAR;
+            default:
+                // months and years are skipped when the start day does not exist
+                return null;
+        }
+    }
+    
     /**
      * Expand recurring event for given time-range.
      * @param calendar calendar containing recurring event and modifications
@@ -23,6 +23,7 @@ import java.util.Stack;
 import org.unitedinternet.cosmo.CosmoConstants;
 import org.unitedinternet.cosmo.calendar.ICalendarUtils;
 import org.unitedinternet.cosmo.calendar.InstanceList;
+import org.unitedinternet.cosmo.calendar.util.TimeZoneService;
 
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Component;
@@ -34,7 +35,6 @@ import net.fortuna.ical4j.model.Period;
 import net.fortuna.ical4j.model.PeriodList;
 import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.PropertyList;
-import net.fortuna.ical4j.model.TimeZone;
 import net.fortuna.ical4j.model.component.VAlarm;
 import net.fortuna.ical4j.model.component.VEvent;
 import net.fortuna.ical4j.model.component.VFreeBusy;
@@ -518,7 +518,7 @@ public class CalendarFilterEvaluater {
         
         InstanceList instances = new InstanceList();
         if(filter.getTimezone()!=null) {
-            instances.setTimezone(new TimeZone(filter.getTimezone()));
+            instances.setTimezone(TimeZoneService.getInstance().getTimeZone(filter.getTimezone()));
         }
         ArrayList<Component> mods = new ArrayList<Component>();
         
@@ -584,7 +584,7 @@ public class CalendarFilterEvaluater {
         if (start != null && end != null) {
             InstanceList instances = new InstanceList();
             if (filter.getTimezone() != null) {
-                instances.setTimezone(new TimeZone(filter.getTimezone()));
+                instances.setTimezone(TimeZoneService.getInstance().getTimeZone(filter.getTimezone()));
             }
             instances.addComponent(freeBusy, filter.getPeriod().getStart(),
                     filter.getPeriod().getEnd());
@@ -648,7 +648,7 @@ public class CalendarFilterEvaluater {
         
         InstanceList instances = new InstanceList();
         if (filter.getTimezone() != null) {
-            instances.setTimezone(new TimeZone(filter.getTimezone()));
+            instances.setTimezone(TimeZoneService.getInstance().getTimeZone(filter.getTimezone()));
         }
         instances.addComponent(journal, filter.getPeriod().getStart(),
                 filter.getPeriod().getEnd());
@@ -730,7 +730,7 @@ public class CalendarFilterEvaluater {
         // DUE is kind of like DTEND
         InstanceList instances = new InstanceList();
         if(filter.getTimezone()!=null) {
-            instances.setTimezone(new TimeZone(filter.getTimezone()));
+            instances.setTimezone(TimeZoneService.getInstance().getTimeZone(filter.getTimezone()));
         }
         
         instances.addComponent(master, filter.getPeriod().getStart(), filter
@@ -0,0 +1,90 @@
+package org.unitedinternet.cosmo.calendar.query.impl;
+
+import java.util.Arrays;
+
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Period;
+import net.fortuna.ical4j.model.PeriodList;
+
+/**
+ * Busy intervals of one free-busy type, kept as epoch millis in primitive
+ * arrays. Intervals are collected unordered from any number of calendars and
+ * merged once, when converted to a <code>PeriodList</code>.
+ */
+class BusyIntervals {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Adds an interval, empty intervals are ignored.
+     *
+     * @param start
+     *            start in epoch millis
+     * @param end
+     *            end in epoch millis
+     */
+    void add(long start, long end) {
+        if (end <= start) {
+            return;
+        }
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    void add(Period period) {
+        add(period.getStart().getTime(), period.getEnd().getTime());
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Merges the overlapping and adjacent intervals.
+     *
+     * @return the merged intervals as UTC periods, in ascending order
+     */
+    PeriodList toPeriodList() {
+        PeriodList periods = new PeriodList();
+        if (size == 0) {
+            return periods;
+        }
+        // the union of intervals does not depend on which start belongs to which end,
+        // so starts and ends can be sorted independently
+        long[] sortedStarts = Arrays.copyOf(starts, size);
+        long[] sortedEnds = Arrays.copyOf(ends, size);
+        Arrays.sort(sortedStarts);
+        Arrays.sort(sortedEnds);
+
+        long start = sortedStarts[0];
+        long end = sortedEnds[0];
+        for (int i = 1; i < size; i++) {
+            if (sortedStarts[i] > end) {
+                periods.add(toPeriod(start, end));
+                start = sortedStarts[i];
+            }
+            end = sortedEnds[i];
+        }
+        periods.add(toPeriod(start, end));
+        return periods;
+    }
+
+    private static Period toPeriod(long start, long end) {
+        return new Period(utc(start), utc(end));
+    }
+
+    private static DateTime utc(long time) {
+        DateTime dateTime = new DateTime(time);
+        dateTime.setUtc(true);
+        return dateTime;
+    }
+}
@@ -15,8 +15,12 @@
  */
 package org.unitedinternet.cosmo.calendar.query.impl;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -30,13 +34,9 @@ import org.unitedinternet.cosmo.calendar.InstanceList;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilterEvaluater;
 import org.unitedinternet.cosmo.calendar.query.CalendarQueryProcessor;
-import org.unitedinternet.cosmo.calendar.query.ComponentFilter;
-import org.unitedinternet.cosmo.calendar.query.TimeRangeFilter;
 import org.unitedinternet.cosmo.dao.CalendarDao;
 import org.unitedinternet.cosmo.dao.ContentDao;
-import org.unitedinternet.cosmo.model.CalendarCollectionStamp;
 import org.unitedinternet.cosmo.model.CollectionItem;
-import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.HomeCollectionItem;
 import org.unitedinternet.cosmo.model.ICalendarItem;
 import org.unitedinternet.cosmo.model.Item;
@@ -48,8 +48,6 @@ import org.unitedinternet.cosmo.util.VersionFourGenerator;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Component;
 import net.fortuna.ical4j.model.ComponentList;
-import net.fortuna.ical4j.model.Date;
-import net.fortuna.ical4j.model.DateTime;
 import net.fortuna.ical4j.model.Parameter;
 import net.fortuna.ical4j.model.Period;
 import net.fortuna.ical4j.model.PeriodList;
@@ -135,16 +133,15 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
      * (org.unitedinternet.cosmo.model.User, net.fortuna.ical4j.model.Period)
      */
     /**
-     * VFreeBusy query.
+     * VFreeBusy query. The candidate items of all calendars of the user that
+     * are included in the free-busy rollup are found with one query per
+     * calendar timezone, rather than one query per calendar.
      * @param user The user.
      * @param period The period.
      * @return VFreeBusy. 
      */
     public VFreeBusy freeBusyQuery(User user, Period period) {
-        PeriodList busyPeriods = new PeriodList();
-        PeriodList busyTentativePeriods = new PeriodList();
-        PeriodList busyUnavailablePeriods = new PeriodList();
-        
+        List<CollectionItem> calendars = new ArrayList<CollectionItem>();
         HomeCollectionItem home = contentDao.getRootItem(user);
         for(Item item: home.getChildren()) {
             if(! (item instanceof CollectionItem)) {
@@ -156,13 +153,15 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
                     collection.isExcludeFreeBusyRollup()) {
                 continue;
             }
-            
-            doFreeBusyQuery(busyPeriods, busyTentativePeriods, busyUnavailablePeriods,
-                    collection, period);  
+            calendars.add(collection);
         }
 
-        return createVFreeBusy(busyPeriods, busyTentativePeriods,
-                busyUnavailablePeriods, period);
+        BusyIntervals busy = new BusyIntervals();
+        BusyIntervals busyTentative = new BusyIntervals();
+        BusyIntervals busyUnavailable = new BusyIntervals();
+        doFreeBusyQuery(busy, busyTentative, busyUnavailable, calendars, period);
+
+        return createVFreeBusy(busy, busyTentative, busyUnavailable, period);
     }
     
     /* (non-Javadoc)
@@ -176,15 +175,15 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
      * @return Created VFreeBusy.
      */
     public VFreeBusy freeBusyQuery(CollectionItem collection, Period period) {
-        PeriodList busyPeriods = new PeriodList();
-        PeriodList busyTentativePeriods = new PeriodList();
-        PeriodList busyUnavailablePeriods = new PeriodList();
-        
-        doFreeBusyQuery(busyPeriods, busyTentativePeriods, busyUnavailablePeriods,
-                collection, period);
+        BusyIntervals busy = new BusyIntervals();
+        BusyIntervals busyTentative = new BusyIntervals();
+        BusyIntervals busyUnavailable = new BusyIntervals();
+
+        if (StampUtils.getCalendarCollectionStamp(collection) != null) {
+            doFreeBusyQuery(busy, busyTentative, busyUnavailable, Collections.singletonList(collection), period);
+        }
 
-        return createVFreeBusy(busyPeriods, busyTentativePeriods,
-                busyUnavailablePeriods, period);
+        return createVFreeBusy(busy, busyTentative, busyUnavailable, period);
     }
 
     /* (non-Javadoc)
@@ -198,55 +197,50 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
      * @return The created VFreeBusy query.
      */
     public VFreeBusy freeBusyQuery(ICalendarItem item, Period period) {
-        PeriodList busyPeriods = new PeriodList();
-        PeriodList busyTentativePeriods = new PeriodList();
-        PeriodList busyUnavailablePeriods = new PeriodList();
+        BusyIntervals busy = new BusyIntervals();
+        BusyIntervals busyTentative = new BusyIntervals();
+        BusyIntervals busyUnavailable = new BusyIntervals();
         
         Calendar calendar = entityConverter.convertContent(item);
         
         // Add busy details from the calendar data
-        addBusyPeriods(calendar, null, period, busyPeriods,
-                busyTentativePeriods, busyUnavailablePeriods);
+        addBusyPeriods(calendar, null, period, busy, busyTentative, busyUnavailable);
         
-        return createVFreeBusy(busyPeriods, busyTentativePeriods,
-                busyUnavailablePeriods, period);
+        return createVFreeBusy(busy, busyTentative, busyUnavailable, period);
     }
     
     /**
-     * Adds The FreeBusy query.
-     * @param busyPeriods The period list.
-     * @param busyTentativePeriods The period list.
-     * @param busyUnavailablePeriods The busy unavailable periods periods.
-     * @param collection The collecton item.
+     * Adds the busy periods of the given calendar collections. The candidate
+     * items are found with one query for all calendars that share a timezone,
+     * as floating times are matched in the timezone of their calendar.
+     * @param busy The busy intervals.
+     * @param busyTentative The busy tentative intervals.
+     * @param busyUnavailable The busy unavailable intervals.
+     * @param calendars The calendar collections.
      * @param period The period.
      */
-    protected void doFreeBusyQuery(PeriodList busyPeriods,
-            PeriodList busyTentativePeriods, PeriodList busyUnavailablePeriods,
-            CollectionItem collection, Period period) {
-
-        CalendarCollectionStamp ccs = StampUtils.getCalendarCollectionStamp(collection);
-        if(ccs==null) {
-            return;
-        }
-        
-        HashSet<ContentItem> results = new HashSet<ContentItem>();
-        TimeZone tz = ccs.getTimezone();
-        
-        // For the time being, use CalendarFilters to get relevant
-        // items.
-        CalendarFilter[] filters = createQueryFilters(collection, period);
-        for(CalendarFilter filter: filters) {
-            results.addAll(calendarDao.findCalendarItems(collection, filter));
+    protected void doFreeBusyQuery(BusyIntervals busy, BusyIntervals busyTentative,
+            BusyIntervals busyUnavailable, List<CollectionItem> calendars, Period period) {
+
+        Map<String, List<CollectionItem>> calendarsByTimezone = new LinkedHashMap<String, List<CollectionItem>>();
+        Map<String, TimeZone> timezones = new HashMap<String, TimeZone>();
+        for (CollectionItem calendar : calendars) {
+            TimeZone tz = StampUtils.getCalendarCollectionStamp(calendar).getTimezone();
+            String tzId = tz != null ? tz.getID() : null;
+            timezones.put(tzId, tz);
+            calendarsByTimezone.computeIfAbsent(tzId, key -> new ArrayList<CollectionItem>()).add(calendar);
         }
-        
-        for(ContentItem content: results) {
-            Calendar calendar = entityConverter.convertContent(content);
-            if(calendar==null) {
-                continue;
+
+        for (Entry<String, List<CollectionItem>> entry : calendarsByTimezone.entrySet()) {
+            TimeZone tz = timezones.get(entry.getKey());
+            for (ICalendarItem content : calendarDao.findFreeBusyItems(entry.getValue(), period, tz)) {
+                Calendar calendar = entityConverter.convertContent(content);
+                if (calendar == null) {
+                    continue;
+                }
+                // Add busy details from the calendar data
+                addBusyPeriods(calendar, tz, period, busy, busyTentative, busyUnavailable);
             }
-            // Add busy details from the calendar data
-            addBusyPeriods(calendar, tz, period, busyPeriods,
-                    busyTentativePeriods, busyUnavailablePeriods);
         }
     }
     
@@ -255,13 +249,13 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
      * @param calendar The calendar.
      * @param timezone The timezone.
      * @param freeBusyRange 
-     * @param busyPeriods
-     * @param busyTentativePeriods
-     * @param busyUnavailablePeriods
+     * @param busy
+     * @param busyTentative
+     * @param busyUnavailable
      */
     protected void addBusyPeriods(Calendar calendar, TimeZone timezone,
-            Period freeBusyRange, PeriodList busyPeriods,
-            PeriodList busyTentativePeriods, PeriodList busyUnavailablePeriods) {
+            Period freeBusyRange, BusyIntervals busy,
+            BusyIntervals busyTentative, BusyIntervals busyUnavailable) {
         
         // Create list of instances within the specified time-range
         InstanceList instances = new InstanceList();
@@ -287,14 +281,11 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
                     FbType fbt = (FbType) fb.getParameters().getParameter(
                             Parameter.FBTYPE);
                     if (fbt == null || FbType.BUSY.equals(fbt)) {
-                        addRelevantPeriods(busyPeriods, fb.getPeriods(),
-                                freeBusyRange);
+                        addRelevantPeriods(busy, fb.getPeriods(), freeBusyRange);
                     } else if (FbType.BUSY_TENTATIVE.equals(fbt)) {
-                        addRelevantPeriods(busyTentativePeriods, fb
-                                .getPeriods(), freeBusyRange);
+                        addRelevantPeriods(busyTentative, fb.getPeriods(), freeBusyRange);
                     } else if (FbType.BUSY_UNAVAILABLE.equals(fbt)) {
-                        addRelevantPeriods(busyUnavailablePeriods, fb
-                                .getPeriods(), freeBusyRange);
+                        addRelevantPeriods(busyUnavailable, fb.getPeriods(), freeBusyRange);
                     }
                 }
             }
@@ -311,17 +302,11 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
             return;
         }
 
-        // Add start/end period for each instance
-        for (Iterator<Entry<String, Instance>> i = instances.entrySet().iterator(); i.hasNext();) {
-            Map.Entry<?, ?> entry = i.next();
-            
-            Object instanceObj = entry.getValue();
-            
-            if(!(instanceObj instanceof Instance)){
-                continue;
-            }
-            Instance instance = (Instance) instanceObj;
-            
+        long rangeStart = freeBusyRange.getStart().getTime();
+        long rangeEnd = freeBusyRange.getEnd().getTime();
+
+        // Add start/end interval for each instance
+        for (Instance instance : instances.values()) {
             // Check that the VEVENT has the proper busy status
             if (Transp.TRANSPARENT.equals(instance.getComp().getProperties()
                     .getProperty(Property.TRANSP))) {
@@ -332,37 +317,21 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
                 continue;
             }
 
-            // Can only have DATE-TIME values in PERIODs
-            Date start = null;
-            Date end = null;
-            
-            start =  instance.getStart();
-            end =  instance.getEnd();
-           
-            if (start.compareTo(freeBusyRange.getStart()) < 0) {
-                start = (DateTime) org.unitedinternet.cosmo.calendar.util.Dates.getInstance(freeBusyRange
-                        .getStart(), start);
-            }
-            if (end.compareTo(freeBusyRange.getEnd()) > 0) {
-                end = (DateTime) org.unitedinternet.cosmo.calendar.util.Dates.getInstance(freeBusyRange.getEnd(),
-                        end);
-            }
-            DateTime dtStart = new DateTime(start);
-            DateTime dtEnd = new DateTime(end);
+            long start = Math.max(instance.getStart().getTime(), rangeStart);
+            long end = Math.min(instance.getEnd().getTime(), rangeEnd);
             if (Status.VEVENT_TENTATIVE.equals(instance.getComp()
                     .getProperties().getProperty(Property.STATUS))) {
-                busyTentativePeriods.add(new Period(dtStart, dtEnd));
+                busyTentative.add(start, end);
             } else {
-                busyPeriods.add(new Period(dtStart, dtEnd));
+                busy.add(start, end);
             }
-            
         }
     }
     
     /**
-     * Add all periods that intersect a given period to the result PeriodList.
+     * Add all periods that intersect a given period to the result intervals.
      */
-    private void addRelevantPeriods(PeriodList results, PeriodList periods,
+    private void addRelevantPeriods(BusyIntervals results, PeriodList periods,
             Period range) {
 
         for (Iterator<Period> it = periods.iterator(); it.hasNext();) {
@@ -372,82 +341,20 @@ public class StandardCalendarQueryProcessor implements CalendarQueryProcessor {
         }
     }
     
-    private CalendarFilter[] createQueryFilters(CollectionItem collection, Period period) {
-        DateTime start = period.getStart();
-        DateTime end = period.getEnd();
-        CalendarFilter[] filters = new CalendarFilter[2];
-        TimeZone tz = null;
-
-        // Create calendar-filter elements designed to match
-        // VEVENTs/VFREEBUSYs within the specified time range.
-        //
-        // <C:filter>
-        // <C:comp-filter name="VCALENDAR">
-        // <C:comp-filter name="VEVENT">
-        // <C:time-range start="20051124T000000Z"
-        // end="20051125T000000Z"/>
-        // </C:comp-filter>
-        // <C:comp-filter name="VFREEBUSY">
-        // <C:time-range start="20051124T000000Z"
-        // end="20051125T000000Z"/>
-        // </C:comp-filter>
-        // </C:comp-filter>
-        // </C:filter>
-
-        // If the calendar collection has a timezone attribute,
-        // then use that to convert floating date/times to UTC
-        CalendarCollectionStamp ccs = StampUtils.getCalendarCollectionStamp(collection);
-        if (ccs!=null) {
-            tz = ccs.getTimezone();
-        }
-
-        ComponentFilter eventFilter = new ComponentFilter(Component.VEVENT);
-        eventFilter.setTimeRangeFilter(new TimeRangeFilter(start, end));
-        if(tz!=null) {
-            eventFilter.getTimeRangeFilter().setTimezone(tz.getVTimeZone());
-        }
-
-        ComponentFilter calFilter = new ComponentFilter(Calendar.VCALENDAR);
-        calFilter.getComponentFilters().add(eventFilter);
-
-        CalendarFilter filter = new CalendarFilter();
-        filter.setFilter(calFilter);
-
-        filters[0] = filter;
-
-        ComponentFilter freebusyFilter = new ComponentFilter(
-                Component.VFREEBUSY);
-        freebusyFilter.setTimeRangeFilter(new TimeRangeFilter(start, end));
-        if(tz!=null) {
-            freebusyFilter.getTimeRangeFilter().setTimezone(tz.getVTimeZone());
-        }
-
-        calFilter = new ComponentFilter(Calendar.VCALENDAR);
-        calFilter.getComponentFilters().add(freebusyFilter);
-
-        filter = new CalendarFilter();
-        filter.setFilter(calFilter);
-
-        filters[1] = filter;
-
-        return filters;
-    }
-    
     /**
      * Creates VFreeBusy.
-     * @param busyPeriods
-     * @param busyTentativePeriods
-     * @param busyUnavailablePeriods
+     * @param busy
+     * @param busyTentative
+     * @param busyUnavailable
      * @param period
      * @return
      */
-    protected VFreeBusy createVFreeBusy(PeriodList busyPeriods,
-            PeriodList busyTentativePeriods, PeriodList busyUnavailablePeriods,
-            Period period) {
+    protected VFreeBusy createVFreeBusy(BusyIntervals busy, BusyIntervals busyTentative,
+            BusyIntervals busyUnavailable, Period period) {
         // Merge periods
-        busyPeriods = busyPeriods.normalise();
-        busyTentativePeriods = busyTentativePeriods.normalise();
-        busyUnavailablePeriods = busyUnavailablePeriods.normalise();
+        PeriodList busyPeriods = busy.toPeriodList();
+        PeriodList busyTentativePeriods = busyTentative.toPeriodList();
+        PeriodList busyUnavailablePeriods = busyUnavailable.toPeriodList();
 
         // Now create a VFREEBUSY
         VFreeBusy vfb = new VFreeBusy(period.getStart(), period.getEnd());
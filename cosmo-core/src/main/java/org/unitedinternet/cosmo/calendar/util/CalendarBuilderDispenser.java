@@ -30,7 +30,7 @@ public class CalendarBuilderDispenser {
     
     private static class ThreadLocalCalendarBuilder extends ThreadLocal {
         public Object initialValue() {
-            return new CalendarBuilder();
+            return new CalendarBuilder(TimeZoneService.getInstance().createRegistry());
         }
         
         public CalendarBuilder getBuilder() {
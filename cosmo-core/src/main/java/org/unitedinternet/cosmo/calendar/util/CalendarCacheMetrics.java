@@ -0,0 +1,55 @@
+package org.unitedinternet.cosmo.calendar.util;
+
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the statistics of {@link ParsedCalendarCache} and
+ * {@link RenderedCalendarCache} as <code>cosmo.cache.*</code> meters, tagged
+ * with the name of the cache.
+ */
+@Component
+public class CalendarCacheMetrics implements MeterBinder {
+
+    private final ParsedCalendarCache parsed;
+
+    private final RenderedCalendarCache rendered;
+
+    public CalendarCacheMetrics(ParsedCalendarCache parsed, RenderedCalendarCache rendered) {
+        this.parsed = parsed;
+        this.rendered = rendered;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCounters(registry, "parsed", parsed, ParsedCalendarCache::getHitCount,
+                ParsedCalendarCache::getMissCount, ParsedCalendarCache::getEvictionCount);
+        Gauge.builder("cosmo.cache.size", parsed, ParsedCalendarCache::size).tag("cache", "parsed")
+                .register(registry);
+        Gauge.builder("cosmo.cache.bytes", parsed, ParsedCalendarCache::getByteCount).tag("cache", "parsed")
+                .baseUnit("bytes").register(registry);
+
+        bindCounters(registry, "rendered", rendered, RenderedCalendarCache::getHitCount,
+                RenderedCalendarCache::getMissCount, RenderedCalendarCache::getEvictionCount);
+        Gauge.builder("cosmo.cache.size", rendered, RenderedCalendarCache::size).tag("cache", "rendered")
+                .register(registry);
+        Gauge.builder("cosmo.cache.bytes", rendered, RenderedCalendarCache::getByteCount).tag("cache", "rendered")
+                .baseUnit("bytes").register(registry);
+    }
+
+    private static <T> void bindCounters(MeterRegistry registry, String name, T cache,
+            ToDoubleFunction<T> hits, ToDoubleFunction<T> misses,
+            ToDoubleFunction<T> evictions) {
+        FunctionCounter.builder("cosmo.cache.gets", cache, hits).tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cosmo.cache.gets", cache, misses).tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cosmo.cache.evictions", cache, evictions).tag("cache", name).register(registry);
+    }
+}
@@ -0,0 +1,146 @@
+package org.unitedinternet.cosmo.calendar.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.fortuna.ical4j.model.TimeZone;
+import net.fortuna.ical4j.model.component.VTimeZone;
+
+/**
+ * <code>TimeZone</code> that answers UTC offsets from a table of offset
+ * transitions instead of evaluating the observances of its
+ * <code>VTIMEZONE</code> each time. The table covers {@link #TABLE_START} to
+ * {@link #TABLE_END} and is calculated in windows of {@link #WINDOW} days,
+ * each when the first offset within it is requested. Offsets outside of that
+ * range are calculated as before.
+ */
+class OffsetTableTimeZone extends TimeZone {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 1970-01-01T00:00:00Z
+     */
+    static final long TABLE_START = 0L;
+
+    /**
+     * 2038-01-01T00:00:00Z
+     */
+    static final long TABLE_END = 2145916800000L;
+
+    /**
+     * Number of days covered by one table window.
+     */
+    static final int WINDOW = 366;
+
+    private static final long STEP = 24L * 60 * 60 * 1000;
+
+    private static final long WINDOW_LENGTH = WINDOW * STEP;
+
+    private transient AtomicReferenceArray<OffsetTable> tables;
+
+    OffsetTableTimeZone(VTimeZone vTimeZone) {
+        super(vTimeZone);
+        this.tables = new AtomicReferenceArray<>((int) ((TABLE_END - TABLE_START + WINDOW_LENGTH - 1) / WINDOW_LENGTH));
+    }
+
+    @Override
+    public int getOffset(long date) {
+        if (date < TABLE_START || date >= TABLE_END || tables == null) {
+            return super.getOffset(date);
+        }
+        int index = (int) ((date - TABLE_START) / WINDOW_LENGTH);
+        OffsetTable offsets = tables.get(index);
+        if (offsets == null) {
+            long start = TABLE_START + index * WINDOW_LENGTH;
+            offsets = calculateTable(start, Math.min(start + WINDOW_LENGTH, TABLE_END));
+            tables.set(index, offsets);
+        }
+        return offsets.getOffset(date);
+    }
+
+    /**
+     * Equal to any timezone with the same definition, whether it uses an
+     * offset table or not.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TimeZone)) {
+            return false;
+        }
+        TimeZone other = (TimeZone) o;
+        return getRawOffset() == other.getRawOffset() && getVTimeZone().equals(other.getVTimeZone());
+    }
+
+    /**
+     * Consistent with {@link #equals(Object)} and with the hash code of other
+     * timezones of the same definition.
+     */
+    @Override
+    public int hashCode() {
+        VTimeZone vTimeZone = getVTimeZone();
+        return 31 * (vTimeZone != null ? vTimeZone.hashCode() : 0) + getRawOffset();
+    }
+
+    /**
+     * Samples the offset once a day and locates each change to the
+     * millisecond. Offsets are not expected to change more than once a day.
+     */
+    private OffsetTable calculateTable(long start, long end) {
+        long[] transitions = new long[4];
+        int[] offsets = new int[4];
+        int size = 0;
+
+        int offset = super.getOffset(start);
+        transitions[size] = start;
+        offsets[size++] = offset;
+        for (long previous = start, time; previous < end - 1; previous = time) {
+            time = Math.min(previous + STEP, end - 1);
+            int next = super.getOffset(time);
+            if (next == offset) {
+                continue;
+            }
+            // the first millisecond with the new offset is in (previous, time]
+            long low = previous;
+            long high = time;
+            while (high - low > 1) {
+                long middle = (low + high) >>> 1;
+                if (super.getOffset(middle) == offset) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
+            }
+            if (size == transitions.length) {
+                transitions = Arrays.copyOf(transitions, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            transitions[size] = high;
+            offsets[size++] = next;
+            offset = next;
+        }
+        return new OffsetTable(Arrays.copyOf(transitions, size), Arrays.copyOf(offsets, size));
+    }
+
+    private static final class OffsetTable {
+
+        private final long[] transitions;
+        private final int[] offsets;
+
+        OffsetTable(long[] transitions, int[] offsets) {
+            this.transitions = transitions;
+            this.offsets = offsets;
+        }
+
+        int getOffset(long date) {
+            int index = Arrays.binarySearch(transitions, date);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            return offsets[index];
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.unitedinternet.cosmo.calendar.util;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.text.ParseException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.unitedinternet.cosmo.CosmoIOException;
+import org.unitedinternet.cosmo.CosmoParseException;
+
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.data.ParserException;
+import net.fortuna.ical4j.model.Calendar;
+
+/**
+ * <p>
+ * Bounded, least recently used cache of parsed icalendar data. Parsing stored
+ * calendar data with <code>CalendarBuilder</code> is by far the most expensive
+ * step when serving reads, and the same event is typically parsed several times
+ * while handling a single request.
+ * </p>
+ * <p>
+ * Entries are keyed by the id of the event stamp and the time it was last
+ * modified, together with the length of its icalendar data as a guard against
+ * two changes within the same millisecond. A changed stamp results in a
+ * different key and stale entries simply age out. Callers must only use the
+ * cache for data as it was loaded from the database, not for data changed
+ * since. Since callers are free to modify the calendar they get back, every
+ * read returns a deep copy of the cached instance.
+ * </p>
+ * <p>
+ * The cache is bounded by the number of entries and by their estimated size,
+ * a parsed calendar takes about {@link #ESTIMATED_BYTES_PER_CHAR} bytes per
+ * character of text. Event stamps are not managed by Spring, they use the
+ * cache configured in the application context through {@link #getInstance()}.
+ * </p>
+ */
+@Component
+public class ParsedCalendarCache {
+
+    /**
+     * Default maximum number of parsed calendars kept in memory.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * Default maximum estimated number of bytes kept in memory.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Calendar data larger than this is parsed on every read rather than cached.
+     */
+    public static final int MAX_CACHEABLE_LENGTH = 256 * 1024;
+
+    /**
+     * Estimated memory used by a parsed calendar per character of its text.
+     */
+    public static final int ESTIMATED_BYTES_PER_CHAR = 10;
+
+    private static volatile ParsedCalendarCache instance =
+            new ParsedCalendarCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private final int maxEntries;
+    private final long maxBytes;
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ParsedCalendarCache(
+            @Value("${cosmo.cache.parsed-calendars.max-entries:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries,
+            @Value("${cosmo.cache.parsed-calendars.max-bytes:" + DEFAULT_MAX_BYTES + "}") long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Makes this the cache used by all event stamps.
+     */
+    @PostConstruct
+    public void register() {
+        instance = this;
+    }
+
+    /**
+     * @return the cache shared by all event stamps, a cache with the default
+     *         bounds when there is no application context
+     */
+    public static ParsedCalendarCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns a private copy of the calendar stored with an event stamp,
+     * parsing the icalendar text only if it is not already cached.
+     *
+     * @param stampId
+     *            id of the event stamp, <code>null</code> if not persisted
+     * @param modifiedDate
+     *            time the stamp was last modified, <code>null</code> if unknown
+     * @param icaldata
+     *            icalendar text of the stamp as loaded from the database
+     * @return parsed calendar that the caller may modify
+     */
+    public Calendar getCalendar(Long stampId, Long modifiedDate, String icaldata) {
+        long weight = (long) icaldata.length() * ESTIMATED_BYTES_PER_CHAR;
+        if (stampId == null || modifiedDate == null || icaldata.length() > MAX_CACHEABLE_LENGTH
+                || weight > maxBytes) {
+            return parse(icaldata);
+        }
+
+        String key = stampId + ":" + modifiedDate + ":" + icaldata.length();
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            cached = new Entry(parse(icaldata), weight);
+            put(key, cached);
+        }
+
+        Calendar copy = copyOf(cached.calendar);
+        return copy != null ? copy : parse(icaldata);
+    }
+
+    private void put(String key, Entry entry) {
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            bytes += entry.weight - (previous != null ? previous.weight : 0);
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                bytes -= eldest.next().weight;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes all cached calendars.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the estimated number of bytes used by the cached calendars
+     */
+    public long getByteCount() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Parses icalendar text without caching the result.
+     *
+     * @param icaldata
+     *            icalendar text
+     * @return parsed calendar
+     */
+    public static Calendar parse(String icaldata) {
+        CalendarBuilder builder = new CalendarBuilder();
+        try {
+            return builder.build(new StringReader(icaldata));
+        } catch (IOException e) {
+            throw new CosmoIOException("can not happen with StringReader", e);
+        } catch (ParserException e) {
+            throw new CosmoParseException(e);
+        }
+    }
+
+    private static Calendar copyOf(Calendar calendar) {
+        try {
+            return new Calendar(calendar);
+        } catch (ParseException | IOException | URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Calendar calendar;
+        private final long weight;
+
+        Entry(Calendar calendar, long weight) {
+            this.calendar = calendar;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.unitedinternet.cosmo.calendar.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import net.fortuna.ical4j.model.Calendar;
+
+/**
+ * <p>
+ * Bounded, least recently used cache of serialized icalendar bodies as they
+ * are served to clients. Rendering a resource means converting the stored
+ * item back into a <code>Calendar</code> and serializing it, which is
+ * repeated for every GET and calendar-multiget of the same, unchanged item.
+ * </p>
+ * <p>
+ * Entries are keyed by the entity tag calculated from the current state of
+ * the item, optionally followed by the identifier of the client filter that
+ * was applied, so a changed item simply results in a different key. The cached
+ * arrays are shared and must not be modified by callers.
+ * </p>
+ * <p>
+ * Dav resources are not managed by Spring, they use the cache configured in the
+ * application context through {@link #getInstance()}.
+ * </p>
+ */
+@Component
+public class RenderedCalendarCache {
+
+    /**
+     * Default maximum number of rendered calendars kept in memory.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 5000;
+
+    /**
+     * Default maximum number of bytes kept in memory.
+     */
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    /**
+     * Rendered calendars larger than this are never cached.
+     */
+    public static final int MAX_CACHEABLE_LENGTH = 256 * 1024;
+
+    private static volatile RenderedCalendarCache instance =
+            new RenderedCalendarCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+
+    private final Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+    private final int maxEntries;
+    private final long maxBytes;
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RenderedCalendarCache(
+            @Value("${cosmo.cache.rendered-calendars.max-entries:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries,
+            @Value("${cosmo.cache.rendered-calendars.max-bytes:" + DEFAULT_MAX_BYTES + "}") long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Makes this the cache used by all dav resources.
+     */
+    @PostConstruct
+    public void register() {
+        instance = this;
+    }
+
+    /**
+     * @return the cache shared by all dav resources, a cache with the default
+     *         bounds when there is no application context
+     */
+    public static RenderedCalendarCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param calendar
+     *            calendar of an item
+     * @return the calendar serialized as it is served to clients
+     */
+    public static byte[] render(Calendar calendar) {
+        return calendar.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param key
+     *            entity tag of the item, optionally with a client filter
+     * @return the rendered calendar or <code>null</code> if not cached
+     */
+    public byte[] get(String key) {
+        byte[] rendered;
+        synchronized (entries) {
+            rendered = entries.get(key);
+        }
+        if (rendered != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return rendered;
+    }
+
+    /**
+     * Stores a rendered calendar, evicting the least recently used entries
+     * when the cache grows beyond its bounds.
+     *
+     * @param key
+     *            entity tag of the item, optionally with a client filter
+     * @param rendered
+     *            UTF-8 serialized calendar, not modified afterwards
+     */
+    public void put(String key, byte[] rendered) {
+        if (rendered.length > MAX_CACHEABLE_LENGTH) {
+            return;
+        }
+        synchronized (entries) {
+            byte[] previous = entries.put(key, rendered);
+            bytes += rendered.length - (previous != null ? previous.length : 0);
+
+            Iterator<byte[]> eldest = entries.values().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                bytes -= eldest.next().length;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes all cached calendars.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getByteCount() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+}
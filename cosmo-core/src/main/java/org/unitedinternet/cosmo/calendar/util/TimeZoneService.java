@@ -0,0 +1,153 @@
+package org.unitedinternet.cosmo.calendar.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.unitedinternet.cosmo.util.BoundedCache;
+
+import net.fortuna.ical4j.model.TimeZone;
+import net.fortuna.ical4j.model.TimeZoneRegistry;
+import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+import net.fortuna.ical4j.model.component.VTimeZone;
+
+/**
+ * <p>
+ * Process wide source of timezones. Timezones are resolved from a single
+ * registry, and timezone definitions that come with calendar data are interned
+ * by TZID and content, so that the same <code>VTIMEZONE</code> of many stored
+ * events results in one shared <code>TimeZone</code>.
+ * </p>
+ * <p>
+ * The returned timezones answer UTC offsets from tables of offset transitions
+ * that are calculated on demand. They are shared and must not be modified.
+ * Both caches hold the most recently used {@link #MAX_ENTRIES} entries.
+ * </p>
+ */
+public class TimeZoneService {
+
+    /**
+     * Maximum number of interned timezone definitions and cached lookups.
+     */
+    public static final int MAX_ENTRIES = 2000;
+
+    private static final TimeZoneService INSTANCE = new TimeZoneService(MAX_ENTRIES);
+
+    private final TimeZoneRegistry registry = TimeZoneRegistryFactory.getInstance().createRegistry();
+
+    private final BoundedCache<String, TimeZone> timezonesById;
+    private final BoundedCache<String, TimeZone> timezonesByDefinition;
+
+    TimeZoneService(int maxEntries) {
+        this.timezonesById = new BoundedCache<String, TimeZone>(maxEntries);
+        this.timezonesByDefinition = new BoundedCache<String, TimeZone>(maxEntries);
+    }
+
+    /**
+     * @return the timezone service shared by the whole process
+     */
+    public static TimeZoneService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param tzid
+     *            timezone identifier, or one of its aliases
+     * @return the registered timezone or <code>null</code> if unknown
+     */
+    public TimeZone getTimeZone(String tzid) {
+        if (tzid == null) {
+            return null;
+        }
+        TimeZone timezone = timezonesById.get(tzid);
+        if (timezone == null) {
+            // unknown ids are not cached, they come from client data
+            TimeZone registered = registry.getTimeZone(tzid);
+            if (registered == null) {
+                return null;
+            }
+            timezone = internDefinition(registered.getVTimeZone());
+            timezonesById.put(tzid, timezone);
+        }
+        return timezone;
+    }
+
+    /**
+     * Returns the shared timezone for the given definition. Definitions that
+     * equal the registered timezone of their TZID resolve to that timezone.
+     *
+     * @param vtz
+     *            timezone definition
+     * @return the timezone defined by <code>vtz</code>
+     */
+    public TimeZone getTimeZone(VTimeZone vtz) {
+        if (vtz == null) {
+            return null;
+        }
+        if (vtz.getTimeZoneId() != null) {
+            TimeZone registered = getTimeZone(vtz.getTimeZoneId().getValue());
+            if (registered != null && registered.getVTimeZone().equals(vtz)) {
+                return registered;
+            }
+        }
+        return internDefinition(vtz);
+    }
+
+    /**
+     * @param vtz
+     *            timezone definition
+     * @return the shared definition equal to <code>vtz</code>
+     */
+    public VTimeZone intern(VTimeZone vtz) {
+        return getTimeZone(vtz).getVTimeZone();
+    }
+
+    private TimeZone internDefinition(VTimeZone vtz) {
+        String tzid = vtz.getTimeZoneId() != null ? vtz.getTimeZoneId().getValue() : "";
+        String key = tzid + '#' + vtz.toString().hashCode();
+        TimeZone timezone = timezonesByDefinition.get(key);
+        if (timezone != null && timezone.getVTimeZone().equals(vtz)) {
+            return timezone;
+        }
+        timezone = new OffsetTableTimeZone(vtz);
+        timezonesByDefinition.put(key, timezone);
+        return timezone;
+    }
+
+    /**
+     * Creates a registry for a <code>CalendarBuilder</code>. Timezones
+     * registered while parsing are interned, all others are resolved by this
+     * service.
+     *
+     * @return new registry
+     */
+    public TimeZoneRegistry createRegistry() {
+        return new InterningTimeZoneRegistry();
+    }
+
+    private class InterningTimeZoneRegistry implements TimeZoneRegistry {
+
+        private final Map<String, TimeZone> timezones = new HashMap<>();
+
+        @Override
+        public void register(TimeZone timezone) {
+            register(timezone, false);
+        }
+
+        @Override
+        public void register(TimeZone timezone, boolean update) {
+            TimeZone interned = TimeZoneService.this.getTimeZone(timezone.getVTimeZone());
+            timezones.put(timezone.getID(), interned);
+        }
+
+        @Override
+        public void clear() {
+            timezones.clear();
+        }
+
+        @Override
+        public TimeZone getTimeZone(String id) {
+            TimeZone timezone = timezones.get(id);
+            return timezone != null ? timezone : TimeZoneService.this.getTimeZone(id);
+        }
+    }
+}
@@ -15,10 +15,13 @@
  */
 package org.unitedinternet.cosmo.dao;
 
+import java.util.Collection;
 import java.util.Set;
 
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.Period;
+import net.fortuna.ical4j.model.TimeZone;
 
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
 import org.unitedinternet.cosmo.model.CollectionItem;
@@ -80,6 +83,24 @@ public interface CalendarDao {
                                              boolean expandRecurringEvents);
     
     
+    /**
+     * Find the items of several calendars that may contribute busy time to a
+     * period, using one query for all calendars: events that occur in the
+     * period and free-busy items that overlap it. The members of calendars
+     * that cannot be queried, like external and subscribed ones, are
+     * evaluated in memory.
+     *
+     * @param calendars
+     *            calendar collections to search
+     * @param period
+     *            free-busy period
+     * @param timezone
+     *            timezone used to match floating times; null if not used
+     * @return set of events and free-busy items of the calendars
+     */
+    public Set<ICalendarItem> findFreeBusyItems(Collection<CollectionItem> calendars, Period period,
+                                             TimeZone timezone);
+
     /**
      * 
      * @param calendar Calendar
@@ -15,10 +15,13 @@
  */
 package org.unitedinternet.cosmo.dao;
 
+import java.util.List;
 import java.util.Set;
 
 import org.unitedinternet.cosmo.model.CollectionItem;
 import org.unitedinternet.cosmo.model.ContentItem;
+import org.unitedinternet.cosmo.model.ItemTombstone;
+import org.unitedinternet.cosmo.model.NoteItem;
 import org.unitedinternet.cosmo.model.User;
 
 /**
@@ -91,6 +94,20 @@ public interface ContentDao extends ItemDao {
     @ExternalizableContent
     public void createBatchContent(CollectionItem parent, Set<ContentItem> contents);
     
+    /**
+     * Imports a large set of new content items into a collection, flushing
+     * them to the database in chunks. Modifications may be imported together
+     * with their master items. The collection timestamp is not updated, callers
+     * update it once the import is done.
+     * 
+     * @param parent
+     *            collection to import the content into
+     * @param contents
+     *            the set of contents to create
+     */
+    @ExternalizableContent
+    public void importContent(CollectionItem parent, Set<ContentItem> contents);
+    
     /**
      * 
      * @param contents Set<ContentItem>
@@ -166,6 +183,44 @@ public interface ContentDao extends ItemDao {
      *         timestamp, or all children if timestamp is null
      */
     public Set<ContentItem> loadChildren(CollectionItem collection, Long timestamp);
+
+    /**
+     * Load the children of a collection that have been added or updated
+     * after a given sync sequence of the collection, see
+     * {@link CollectionItem#getSyncSequence()}. If no sync sequence is
+     * specified, then return all children.
+     * @param collection collection
+     * @param syncSequence sync sequence
+     * @return children of collection changed after syncSequence, or all
+     *         children if syncSequence is null
+     */
+    public Set<ContentItem> loadChangedChildren(CollectionItem collection, Long syncSequence);
+
+    /**
+     * Load a page of the master notes of a collection, ordered by uid. The
+     * notes are returned with their stamps, attributes and modifications
+     * loaded and are no longer attached to the persistence context, so that
+     * a whole collection can be processed page by page in constant memory.
+     * @param collection collection
+     * @param afterUid uid of the last note of the previous page, or null
+     *        for the first page
+     * @param maxResults maximum number of notes to return
+     * @return master notes following afterUid, at most maxResults
+     */
+    public List<NoteItem> loadMasterNotes(CollectionItem collection, String afterUid, int maxResults);
+
+    /**
+     * Load the item tombstones of a collection that have been created
+     * after a given sync sequence of the collection, i.e. the children
+     * that were removed from the collection since then. If no sync
+     * sequence is specified, then return all item tombstones of the
+     * collection.
+     * @param collection collection
+     * @param syncSequence sync sequence
+     * @return item tombstones of collection created after syncSequence,
+     *         or all item tombstones if syncSequence is null
+     */
+    public Set<ItemTombstone> loadTombstones(CollectionItem collection, Long syncSequence);
     
     /**
      * Removes all items from a given collection.
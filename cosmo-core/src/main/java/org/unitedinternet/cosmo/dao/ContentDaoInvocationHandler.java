@@ -3,6 +3,9 @@ package org.unitedinternet.cosmo.dao;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
@@ -21,6 +24,8 @@ import org.unitedinternet.cosmo.model.hibernate.HibCollectionSubscriptionItem;
 
 /**
  * <code>InvocationHandler</code> that delegates the method calls to appropriate DAO implementation.
+ * Each call is timed as <code>cosmo.dao.calls</code>, tagged with the method, the implementation it was routed to
+ * (<code>internal</code>, <code>external</code> or <code>subscription</code>) and whether it threw an exception.
  * 
  * @author daniel grigore
  *
@@ -32,6 +37,8 @@ public class ContentDaoInvocationHandler implements InvocationHandler, Applicati
 
     private static final int WRAPPED_COUNT = 100;
 
+    private static final String METRIC_NAME = "cosmo.dao.calls";
+
     private ApplicationContext applicationContext;
 
     public ContentDaoInvocationHandler() {
@@ -41,14 +48,22 @@ public class ContentDaoInvocationHandler implements InvocationHandler, Applicati
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         String path = getPath(args);
-        ContentDao dao = this.getContentDao(method, args);
+        Class<? extends ContentDao> daoType = getContentDaoType(method, args);
+        ContentDao dao = this.applicationContext.getBean(daoType);
+        String exception = "none";
+        Timer.Sample sample = Timer.start();
         try {
             return method.invoke(dao, args);
         } catch (Exception e) {
             Throwable unwrapped = unwrap(e);
+            exception = unwrapped.getClass().getSimpleName();
             LOG.error("Exc {} with msg '{}' caught when calling method {} with args length {} at path: {}",
                     unwrapped.getClass().getSimpleName(), unwrapped.getMessage(), method.getName(), args.length, path);
             throw unwrapped;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME).tag("method", method.getName())
+                    .tag("dao", getImplementationName(daoType)).tag("exception", exception)
+                    .register(Metrics.globalRegistry));
         }
     }
 
@@ -93,18 +108,27 @@ public class ContentDaoInvocationHandler implements InvocationHandler, Applicati
         return unwrapped;
     }
 
-    private ContentDao getContentDao(Method method, Object[] args) {
+    private static Class<? extends ContentDao> getContentDaoType(Method method, Object[] args) {
         if (method.isAnnotationPresent(ExternalizableContent.class)) {
             String path = getPath(args);
             if (path != null) {
                 if (UuidExternalGenerator.get().containsUuid(path)) {
-                    return this.applicationContext.getBean(ContentDaoExternal.class);
+                    return ContentDaoExternal.class;
                 } else if (UuidSubscriptionGenerator.get().containsUuid(path)) {
-                    return this.applicationContext.getBean(ContentDaoSubscriptionImpl.class);
+                    return ContentDaoSubscriptionImpl.class;
                 }
             }
         }
-        return applicationContext.getBean(ContentDaoImpl.class);
+        return ContentDaoImpl.class;
+    }
+
+    private static String getImplementationName(Class<? extends ContentDao> daoType) {
+        if (daoType == ContentDaoExternal.class) {
+            return "external";
+        } else if (daoType == ContentDaoSubscriptionImpl.class) {
+            return "subscription";
+        }
+        return "internal";
     }
 
     @Override
@@ -75,6 +75,30 @@ public interface ItemDao extends Dao {
     @ExternalizableContent
     public Item findItemByPath(String path, String parentUid);
 
+    /**
+     * Find the entity tag of the content item with the specified path without loading the item itself.
+     *
+     * @param path
+     *            path of item
+     * @return entity tag of the content item represented by path, or <code>null</code> if there is no such content
+     *         item or its entity tag cannot be looked up this way
+     */
+    @ExternalizableContent
+    public String findEntityTagByPath(String path);
+
+    /**
+     * Find the direct children of a collection that have one of the specified names. The children are loaded
+     * together with their stamps and parents using a few set based queries, regardless of how many names are
+     * given, their attributes are loaded in batches on first access. Names that do not match a child are ignored.
+     *
+     * @param parent
+     *            collection whose children are looked up
+     * @param names
+     *            names of the children to find
+     * @return children of the collection matching the given names
+     */
+    public Set<Item> findItemsByParentAndNames(CollectionItem parent, Set<String> names);
+
     /**
      * Find the parent item of the item with the specified path. The return type will be of type CollectionItem.
      *
@@ -15,6 +15,8 @@
  */
 package org.unitedinternet.cosmo.dao;
 
+import java.util.List;
+
 import org.unitedinternet.cosmo.model.User;
 
 /**
@@ -89,5 +91,18 @@ public interface UserDao extends Dao {
      * @param user the user to remove
      */
     public void removeUser(User user);
+
+    /**
+     * Returns a page of the user accounts whose username, email address,
+     * first name or last name contains the given text, ignoring case,
+     * ordered by username.
+     *
+     * @param text the text to search for, all accounts if empty
+     * @param afterUsername the username of the last account of the previous
+     *            page, <code>null</code> for the first page
+     * @param max the maximum number of accounts to return
+     * @return the matching accounts
+     */
+    public List<User> findUsersContaining(String text, String afterUsername, int max);
         
 }
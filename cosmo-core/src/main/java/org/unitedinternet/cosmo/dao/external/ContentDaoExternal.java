@@ -27,6 +27,7 @@ import org.unitedinternet.cosmo.model.EventExceptionStamp;
 import org.unitedinternet.cosmo.model.EventStamp;
 import org.unitedinternet.cosmo.model.HomeCollectionItem;
 import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.ItemTombstone;
 import org.unitedinternet.cosmo.model.NoteItem;
 import org.unitedinternet.cosmo.model.Stamp;
 import org.unitedinternet.cosmo.model.Ticket;
@@ -128,6 +129,17 @@ public class ContentDaoExternal implements ContentDao {
         return this.contentDaoInternal.findItemByPath(path, parentUid);
     }
 
+    @Override
+    public String findEntityTagByPath(String path) {
+        // external content has no stored entity tag
+        return null;
+    }
+
+    @Override
+    public Set<Item> findItemsByParentAndNames(CollectionItem parent, Set<String> names) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public Set<Item> findItems(ItemFilter filter) {
         Set<Item> items = new HashSet<>();
@@ -404,6 +416,11 @@ public class ContentDaoExternal implements ContentDao {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void importContent(CollectionItem parent, Set<ContentItem> contents) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void updateBatchContent(Set<ContentItem> contents) {
         throw new UnsupportedOperationException();
@@ -449,6 +466,21 @@ public class ContentDaoExternal implements ContentDao {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Set<ContentItem> loadChangedChildren(CollectionItem collection, Long syncSequence) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<NoteItem> loadMasterNotes(CollectionItem collection, String afterUid, int maxResults) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<ItemTombstone> loadTombstones(CollectionItem collection, Long syncSequence) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void removeItemsFromCollection(CollectionItem collection) {
         throw new UnsupportedOperationException();
@@ -104,6 +104,10 @@ public class ExternalCollectionItem implements CollectionItem {
         delegate.setHue(value);
     }
 
+    public Long getSyncSequence() {
+        return delegate.getSyncSequence();
+    }
+
     public int generateHash() {
         return delegate.generateHash();
     }
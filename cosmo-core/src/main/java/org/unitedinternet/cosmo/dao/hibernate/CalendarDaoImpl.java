@@ -15,6 +15,8 @@
  */
 package org.unitedinternet.cosmo.dao.hibernate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -23,6 +25,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 
+import org.hibernate.Hibernate;
 import org.hibernate.HibernateException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +34,9 @@ import org.springframework.orm.hibernate5.SessionFactoryUtils;
 import org.springframework.stereotype.Repository;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilterEvaluater;
+import org.unitedinternet.cosmo.calendar.query.ComponentFilter;
+import org.unitedinternet.cosmo.calendar.query.TimeRangeFilter;
+import org.unitedinternet.cosmo.calendar.util.TimeZoneService;
 import org.unitedinternet.cosmo.dao.CalendarDao;
 import org.unitedinternet.cosmo.dao.query.ItemFilterProcessor;
 import org.unitedinternet.cosmo.dao.query.hibernate.CalendarFilterConverter;
@@ -39,19 +45,21 @@ import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.EntityFactory;
 import org.unitedinternet.cosmo.model.ICalendarItem;
 import org.unitedinternet.cosmo.model.Item;
-import org.unitedinternet.cosmo.model.NoteItem;
 import org.unitedinternet.cosmo.model.User;
 import org.unitedinternet.cosmo.model.filter.EventStampFilter;
 import org.unitedinternet.cosmo.model.filter.ItemFilter;
 import org.unitedinternet.cosmo.model.filter.NoteItemFilter;
 import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
 import org.unitedinternet.cosmo.model.hibernate.HibCollectionItem;
+import org.unitedinternet.cosmo.model.hibernate.HibFreeBusyItem;
+import org.unitedinternet.cosmo.model.hibernate.HibItem;
 import org.unitedinternet.cosmo.model.hibernate.HibNoteItem;
 
 import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
 import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.Period;
 import net.fortuna.ical4j.model.TimeZone;
-import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
 
 /**
  *
@@ -61,6 +69,11 @@ public class CalendarDaoImpl implements CalendarDao {
 
     private static final Logger LOG = LoggerFactory.getLogger(CalendarDaoImpl.class);
 
+    /**
+     * Maximum number of ids in the IN list of a fetch query.
+     */
+    private static final int FETCH_CHUNK_SIZE = 500;
+
     @Autowired
     private EntityFactory entityFactory;
 
@@ -91,31 +104,38 @@ public class CalendarDaoImpl implements CalendarDao {
                      * Translate CalendarFilter to ItemFilter and execute filter. This does not make sense for external
                      * collections which are
                      */
-                    ItemFilter itemFilter = filterConverter.translateToItemFilter(collection, filter);
-                    Set results = itemFilterProcessor.processFilter(itemFilter);
-                    Set<ICalendarItem> toReturn = (Set<ICalendarItem>) results;
-
-                    /*
-                     * Trigger the loading of lazy members and then clear the session so that Hibernate objects become
-                     * GC eligible.
-                     */
-                    collection.getChildren();
-                    for (ICalendarItem item : toReturn) {
-                        item.getParents();
-                        item.getOwner().toString();
-                        item.getParent().getOwner().toString();
-                        item.getStamps().size();
-                        if (item instanceof HibNoteItem) {
-                            HibNoteItem note = (HibNoteItem) item;
-                            if (note.getModifications().size() > 0) {
-                                for (NoteItem modif : note.getModifications()) {
-                                    modif.getStamps().size();
-                                }
-                            }
+                    ItemFilter itemFilter = null;
+                    boolean firstPass = false;
+                    try {
+                        itemFilter = filterConverter.translateToItemFilter(collection, filter);
+                    } catch (IllegalArgumentException e) {
+                        /*
+                         * Only a part of the filter can be translated, the rest is evaluated against the items that
+                         * match that part.
+                         */
+                        LOG.debug("Filter can only be used as first pass: {}", e.getMessage());
+                        itemFilter = filterConverter.getFirstPassFilter(collection, filter);
+                        firstPass = true;
+                    }
+                    if (itemFilter != null) {
+                        Set results = itemFilterProcessor.processFilter(itemFilter);
+                        Set<ICalendarItem> toReturn = (Set<ICalendarItem>) results;
+
+                        /*
+                         * Load the lazy members used by the callers with a fixed number of queries and then clear the
+                         * session so that Hibernate objects become GC eligible.
+                         */
+                        collection.getChildren();
+                        fetchCalendarItems(toReturn);
+                        if (firstPass) {
+                            toReturn = evaluate(toReturn, filter);
                         }
+                        for (ICalendarItem item : toReturn) {
+                            Hibernate.initialize(item.getParent().getOwner());
+                        }
+                        this.em.clear();
+                        return toReturn;
                     }
-                    this.em.clear();
-                    return toReturn;
                 }
             } catch (Exception e) {
                 /* Set this log message to debug because all iPad requests trigger it and log files get polluted. */
@@ -125,29 +145,56 @@ public class CalendarDaoImpl implements CalendarDao {
              * Use brute-force method if CalendarFilter can't be translated to an ItemFilter (slower but at least gets
              * the job done). // TODO Check to see if this branch is really used in CalDAV clients.
              */
-            Set<ICalendarItem> results = new HashSet<ICalendarItem>();
-            Set<Item> itemsToProcess = collection.getChildren();
-            CalendarFilterEvaluater evaluater = new CalendarFilterEvaluater();
+            return evaluate(collection.getChildren(), filter);
+        } catch (HibernateException e) {
+            this.em.clear();
+            throw SessionFactoryUtils.convertHibernateAccessException(e);
+        }
+    }
+
+    /**
+     * Evaluates the filter against the calendar items among the given items.
+     */
+    private Set<ICalendarItem> evaluate(Collection<? extends Item> items, CalendarFilter filter) {
+        Set<ICalendarItem> results = new HashSet<ICalendarItem>();
+        CalendarFilterEvaluater evaluater = new CalendarFilterEvaluater();
 
-            // Evaluate filter against all calendar items
-            for (Item child : itemsToProcess) {
+        // Evaluate filter against all calendar items
+        for (Item child : items) {
 
-                // only care about calendar items
-                if (child instanceof ICalendarItem) {
+            // only care about calendar items
+            if (child instanceof ICalendarItem) {
 
-                    ICalendarItem content = (ICalendarItem) child;
-                    Calendar calendar = entityConverter.convertContent(content);
+                ICalendarItem content = (ICalendarItem) child;
+                Calendar calendar = entityConverter.convertContent(content);
 
-                    if (calendar != null && evaluater.evaluate(calendar, filter)) {
-                        results.add(content);
-                    }
+                if (calendar != null && evaluater.evaluate(calendar, filter)) {
+                    results.add(content);
                 }
             }
+        }
 
-            return results;
-        } catch (HibernateException e) {
-            this.em.clear();
-            throw SessionFactoryUtils.convertHibernateAccessException(e);
+        return results;
+    }
+
+    /**
+     * Loads the owner, stamps and parents of the given items together with the
+     * modifications of the notes and their stamps, using two queries for each
+     * chunk of items instead of a few queries per item.
+     */
+    private void fetchCalendarItems(Set<ICalendarItem> items) {
+        List<Long> ids = new ArrayList<Long>(items.size());
+        for (ICalendarItem item : items) {
+            if (item instanceof HibItem) {
+                ids.add(((HibItem) item).getId());
+            }
+        }
+        for (int start = 0; start < ids.size(); start += FETCH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + FETCH_CHUNK_SIZE, ids.size()));
+            this.em.createNamedQuery("item.graph.by.ids", HibItem.class).setParameter("ids", chunk)
+                    .getResultList();
+            this.em.createNamedQuery("noteItem.modifications.graph.by.ids", HibNoteItem.class)
+                    .setParameter("ids", chunk).getResultList();
         }
     }
 
@@ -163,7 +210,7 @@ public class CalendarDaoImpl implements CalendarDao {
         EventStampFilter eventFilter = new EventStampFilter();
 
         if (timezoneId != null) {
-            TimeZone timeZone = TimeZoneRegistryFactory.getInstance().createRegistry().getTimeZone(timezoneId);
+            TimeZone timeZone = TimeZoneService.getInstance().getTimeZone(timezoneId);
             eventFilter.setTimezone(timeZone);
         }
 
@@ -179,6 +226,69 @@ public class CalendarDaoImpl implements CalendarDao {
         }
     }
 
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    public Set<ICalendarItem> findFreeBusyItems(Collection<CollectionItem> calendars, Period period,
+            TimeZone timezone) {
+        Set<ICalendarItem> results = new HashSet<ICalendarItem>();
+        Set<CollectionItem> hibCalendars = new HashSet<CollectionItem>();
+        for (CollectionItem calendar : calendars) {
+            if (calendar instanceof HibCollectionItem) {
+                hibCalendars.add(calendar);
+            } else {
+                // External and subscribed collections cannot be queried, their members are evaluated instead.
+                for (CalendarFilter filter : createFreeBusyFilters(period, timezone)) {
+                    results.addAll(evaluate(calendar.getChildren(), filter));
+                }
+            }
+        }
+        if (hibCalendars.isEmpty()) {
+            return results;
+        }
+
+        NoteItemFilter itemFilter = new NoteItemFilter();
+        itemFilter.getParents().addAll(hibCalendars);
+        EventStampFilter eventFilter = new EventStampFilter();
+        eventFilter.setPeriod(period);
+        eventFilter.setTimezone(timezone);
+        itemFilter.getStampFilters().add(eventFilter);
+
+        try {
+            results.addAll((Set) itemFilterProcessor.processFilter(itemFilter));
+            results.addAll(this.em.createNamedQuery("freeBusyItem.by.calendars.period", HibFreeBusyItem.class)
+                    .setParameter("calendars", hibCalendars)
+                    .setParameter("start", period.getStart().getTime())
+                    .setParameter("end", period.getEnd().getTime()).getResultList());
+            return results;
+        } catch (HibernateException e) {
+            this.em.clear();
+            throw SessionFactoryUtils.convertHibernateAccessException(e);
+        }
+    }
+
+    /**
+     * Creates the filters matching the VEVENTs and the VFREEBUSYs within the
+     * given period.
+     */
+    private static CalendarFilter[] createFreeBusyFilters(Period period, TimeZone timezone) {
+        String[] componentNames = new String[] { Component.VEVENT, Component.VFREEBUSY };
+        CalendarFilter[] filters = new CalendarFilter[componentNames.length];
+        for (int i = 0; i < componentNames.length; i++) {
+            ComponentFilter componentFilter = new ComponentFilter(componentNames[i]);
+            componentFilter.setTimeRangeFilter(new TimeRangeFilter(period.getStart(), period.getEnd()));
+            if (timezone != null) {
+                componentFilter.getTimeRangeFilter().setTimezone(timezone.getVTimeZone());
+            }
+
+            ComponentFilter calFilter = new ComponentFilter(Calendar.VCALENDAR);
+            calFilter.getComponentFilters().add(componentFilter);
+
+            filters[i] = new CalendarFilter();
+            filters[i].setFilter(calFilter);
+        }
+        return filters;
+    }
+
     @Override
     public ContentItem findEventByIcalUid(String uid, CollectionItem calendar) {
         if (!(calendar instanceof HibCollectionItem)) {
@@ -15,6 +15,8 @@
  */
 package org.unitedinternet.cosmo.dao.hibernate;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -24,6 +26,7 @@ import java.util.Set;
 import jakarta.persistence.FlushModeType;
 import jakarta.persistence.TypedQuery;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.unitedinternet.cosmo.dao.ContentDao;
 import org.unitedinternet.cosmo.dao.ModelValidationException;
@@ -32,8 +35,13 @@ import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.ICalendarItem;
 import org.unitedinternet.cosmo.model.IcalUidInUseException;
 import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.ItemTombstone;
 import org.unitedinternet.cosmo.model.NoteItem;
+import org.unitedinternet.cosmo.model.Stamp;
+import org.unitedinternet.cosmo.model.UidInUseException;
 import org.unitedinternet.cosmo.model.User;
+import org.unitedinternet.cosmo.model.hibernate.EventStampInterceptor;
+import org.unitedinternet.cosmo.model.hibernate.HibBaseEventStamp;
 import org.unitedinternet.cosmo.model.hibernate.HibCollectionItem;
 import org.unitedinternet.cosmo.model.hibernate.HibItem;
 import org.unitedinternet.cosmo.model.hibernate.HibItemTombstone;
@@ -44,6 +52,14 @@ import org.unitedinternet.cosmo.model.hibernate.HibItemTombstone;
 @Repository
 public class ContentDaoImpl extends ItemDaoImpl implements ContentDao {
 
+    /**
+     * Number of items written to the database at once while importing.
+     */
+    private static final int IMPORT_CHUNK_SIZE = 500;
+
+    @Autowired
+    private EventStampInterceptor eventStampInterceptor;
+
     public ContentDaoImpl() {
         super();
     }
@@ -164,6 +180,53 @@ public class ContentDaoImpl extends ItemDaoImpl implements ContentDao {
 
     }
 
+    @Override
+    public void importContent(CollectionItem parent, Set<ContentItem> contents) {
+        if (parent == null) {
+            throw new IllegalArgumentException("parent cannot be null");
+        }
+        if (!this.em.contains(parent)) {
+            parent = this.em.merge(parent);
+        }
+
+        // masters first, so that their modifications can be attached to them
+        List<ContentItem> ordered = new ArrayList<ContentItem>(contents.size());
+        Set<NoteItem> masters = new HashSet<NoteItem>();
+        for (ContentItem content : contents) {
+            if (!isNoteModification(content)) {
+                ordered.add(content);
+            }
+        }
+        for (ContentItem content : contents) {
+            if (isNoteModification(content)) {
+                ordered.add(content);
+                masters.add(((NoteItem) content).getModifies());
+            }
+        }
+
+        checkForDuplicateUids(ordered);
+        checkForDuplicateICalUids(ordered, parent);
+
+        List<ContentItem> chunk = new ArrayList<ContentItem>(IMPORT_CHUNK_SIZE);
+        for (ContentItem content : ordered) {
+            importContentInternal(parent, content);
+            chunk.add(content);
+            // write the chunk and drop it from the session to keep the flush cheap
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                this.em.flush();
+                for (ContentItem flushed : chunk) {
+                    // masters are still updated when their modifications are attached
+                    if (!masters.contains(flushed)) {
+                        this.em.detach(flushed);
+                    }
+                }
+                chunk.clear();
+            }
+        }
+
+        this.em.flush();
+    }
+
     @Override
     public void updateBatchContent(Set<ContentItem> contents) {
 
@@ -188,6 +251,12 @@ public class ContentDaoImpl extends ItemDaoImpl implements ContentDao {
         return content;
     }
 
+    /**
+     * Also assigns the next sync sequence of the collection to the members and
+     * tombstones changed in this transaction. Incrementing the sequence locks the
+     * collection row until commit, so the sequences are assigned in commit order
+     * and a sync token never skips a change committed later with a lower value.
+     */
     @Override
     public CollectionItem updateCollectionTimestamp(CollectionItem collection) {
         if (!this.em.contains(collection)) {
@@ -195,11 +264,24 @@ public class ContentDaoImpl extends ItemDaoImpl implements ContentDao {
         }
         collection.updateTimestamp();
         this.em.flush();
+
+        HibCollectionItem hibCollection = (HibCollectionItem) collection;
+        Long id = hibCollection.getId();
+        this.em.createNamedQuery("collection.syncseq.increment").setParameter("id", id).executeUpdate();
+        Long syncSequence = this.em.createNamedQuery("collection.syncseq.by.id", Long.class)
+                .setParameter("id", id).setFlushMode(FlushModeType.COMMIT).getSingleResult();
+        this.em.createNamedQuery("collectionItemDetails.syncseq.assign").setParameter("syncseq", syncSequence)
+                .setParameter("id", id).executeUpdate();
+        this.em.createNamedQuery("itemTombstone.syncseq.assign").setParameter("syncseq", syncSequence)
+                .setParameter("id", id).executeUpdate();
+        hibCollection.setSyncSequence(syncSequence);
         return collection;
     }
 
     @Override
     public CollectionItem updateCollection(CollectionItem collection) {
+        // the collection may have been renamed
+        getItemPathTranslator().evictCollectionPaths();
         updateCollectionInternal(collection);
         this.em.flush();
         return collection;
@@ -218,6 +300,7 @@ public class ContentDaoImpl extends ItemDaoImpl implements ContentDao {
             throw new IllegalArgumentException("collection cannot be null");
         }
         this.em.refresh(collection);
+        getItemPathTranslator().evictCollectionPaths();
         removeCollectionRecursive(collection);
         this.em.flush();
     }
@@ -267,6 +350,62 @@ public class ContentDaoImpl extends ItemDaoImpl implements ContentDao {
         return children;
     }
 
+    @Override
+    public Set<ContentItem> loadChangedChildren(CollectionItem collection, Long syncSequence) {
+        if (syncSequence == null) {
+            return loadChildren(collection, null);
+        }
+
+        Set<ContentItem> children = new HashSet<ContentItem>();
+        TypedQuery<ContentItem> query = this.em.createNamedQuery("contentItem.by.parent.syncseq", ContentItem.class)
+                .setParameter("parent", collection).setParameter("syncseq", syncSequence);
+        query.setFlushMode(FlushModeType.COMMIT);
+        for (ContentItem content : query.getResultList()) {
+            initializeItem(content);
+            children.add(content);
+        }
+        return children;
+    }
+
+    @Override
+    public List<NoteItem> loadMasterNotes(CollectionItem collection, String afterUid, int maxResults) {
+        List<Long> ids = this.em.createNamedQuery("noteItemId.masters.by.parent", Long.class)
+                .setParameter("parent", collection).setParameter("uid", afterUid != null ? afterUid : "")
+                .setMaxResults(maxResults).setFlushMode(FlushModeType.COMMIT).getResultList();
+        if (ids.isEmpty()) {
+            return new ArrayList<NoteItem>(0);
+        }
+
+        // fetch masters and modifications separately, collection fetches can not be paged
+        List<NoteItem> masters = this.em.createNamedQuery("noteItem.masters.by.ids", NoteItem.class)
+                .setParameter("ids", ids).setFlushMode(FlushModeType.COMMIT).getResultList();
+        List<NoteItem> modifications = this.em
+                .createNamedQuery("noteItem.modifications.by.masterids", NoteItem.class).setParameter("ids", ids)
+                .setFlushMode(FlushModeType.COMMIT).getResultList();
+
+        for (NoteItem modification : modifications) {
+            this.em.detach(modification);
+        }
+        for (NoteItem master : masters) {
+            this.em.detach(master);
+        }
+        return masters;
+    }
+
+    @Override
+    public Set<ItemTombstone> loadTombstones(CollectionItem collection, Long syncSequence) {
+        TypedQuery<ItemTombstone> query = null;
+        if (syncSequence == null) {
+            query = this.em.createNamedQuery("itemTombstone.by.parent", ItemTombstone.class).setParameter("parent",
+                    collection);
+        } else {
+            query = this.em.createNamedQuery("itemTombstone.by.parent.syncseq", ItemTombstone.class)
+                    .setParameter("parent", collection).setParameter("syncseq", syncSequence);
+        }
+        query.setFlushMode(FlushModeType.COMMIT);
+        return new HashSet<ItemTombstone>(query.getResultList());
+    }
+
     @Override
     public void initializeItem(Item item) {
         super.initializeItem(item);
@@ -459,6 +598,117 @@ public class ContentDaoImpl extends ItemDaoImpl implements ContentDao {
         this.em.persist(content);
     }
 
+    /**
+     * Persists a new item during an import, once its uid and icalUid have been checked. The time range index is
+     * calculated here so that it does not need to be calculated during the flush.
+     */
+    private void importContentInternal(CollectionItem parent, ContentItem content) {
+        if (getBaseModelObject(content).getId() != null) {
+            throw new IllegalArgumentException("invalid content id (expected null)");
+        }
+
+        if (content.getOwner() == null) {
+            throw new IllegalArgumentException("content must have owner");
+        }
+
+        setBaseItemProps(content);
+
+        Set<CollectionItem> parents = Collections.singleton(parent);
+        if (isNoteModification(content)) {
+            NoteItem note = (NoteItem) content;
+            note.getModifies().addModification(note);
+            parents = note.getModifies().getParents();
+            if (!parents.contains(parent)) {
+                throw new ModelValidationException(note, "cannot create modification " + note.getUid()
+                        + " in collection " + parent.getUid() + ", master must be created or added first");
+            }
+        }
+        for (CollectionItem col : parents) {
+            if (((HibCollectionItem) col).removeTombstone(content) == true && !this.em.contains(col)) {
+                this.em.merge(col);
+            }
+            ((HibItem) content).addParent(col);
+        }
+
+        for (Stamp stamp : content.getStamps()) {
+            if (stamp instanceof HibBaseEventStamp) {
+                HibBaseEventStamp eventStamp = (HibBaseEventStamp) stamp;
+                eventStamp.setTimeRangeIndex(eventStampInterceptor.calculateEventStampIndexes(eventStamp));
+            }
+        }
+        this.em.persist(content);
+    }
+
+    /**
+     * Checks with one query per chunk that none of the uids is in use, neither in the database nor twice in the given
+     * items.
+     */
+    private void checkForDuplicateUids(List<ContentItem> contents) {
+        Set<String> uids = new HashSet<String>();
+        for (ContentItem content : contents) {
+            if (content.getUid() != null && !uids.add(content.getUid())) {
+                throw new UidInUseException(content.getUid(), "uid " + content.getUid() + " already in use");
+            }
+        }
+
+        List<String> remaining = new ArrayList<String>(uids);
+        for (int from = 0; from < remaining.size(); from += IMPORT_CHUNK_SIZE) {
+            List<String> batch = remaining.subList(from, Math.min(from + IMPORT_CHUNK_SIZE, remaining.size()));
+            TypedQuery<String> query = this.em.createNamedQuery("item.uids.by.uids", String.class)
+                    .setParameter("uids", batch);
+            query.setFlushMode(FlushModeType.COMMIT);
+            List<String> inUse = query.getResultList();
+            if (!inUse.isEmpty()) {
+                throw new UidInUseException(inUse.get(0), "uid " + inUse.get(0) + " already in use");
+            }
+        }
+    }
+
+    /**
+     * Checks with one query per chunk that none of the icalUids of the given master items is in use in the
+     * collection, neither in the database nor twice in the given items.
+     */
+    private void checkForDuplicateICalUids(List<ContentItem> contents, CollectionItem parent) {
+        Map<String, ICalendarItem> notes = new HashMap<String, ICalendarItem>();
+        Map<String, ICalendarItem> others = new HashMap<String, ICalendarItem>();
+        for (ContentItem content : contents) {
+            if (!(content instanceof ICalendarItem) || isNoteModification(content)) {
+                continue;
+            }
+            ICalendarItem item = (ICalendarItem) content;
+            if (item.getIcalUid() == null) {
+                continue;
+            }
+            ICalendarItem dup = notes.containsKey(item.getIcalUid()) ? notes.get(item.getIcalUid())
+                    : others.get(item.getIcalUid());
+            if (dup != null) {
+                throw new IcalUidInUseException("iCal uid" + item.getIcalUid() + " already in use for collection "
+                        + parent.getUid(), item.getUid(), dup.getUid());
+            }
+            (item instanceof NoteItem ? notes : others).put(item.getIcalUid(), item);
+        }
+
+        checkForDuplicateICalUids("noteItem.uids.by.parent.icaluids", notes, parent);
+        checkForDuplicateICalUids("icalendarItem.uids.by.parent.icaluids", others, parent);
+    }
+
+    private void checkForDuplicateICalUids(String queryName, Map<String, ICalendarItem> items,
+            CollectionItem parent) {
+        List<String> remaining = new ArrayList<String>(items.keySet());
+        for (int from = 0; from < remaining.size(); from += IMPORT_CHUNK_SIZE) {
+            List<String> batch = remaining.subList(from, Math.min(from + IMPORT_CHUNK_SIZE, remaining.size()));
+            TypedQuery<Object[]> query = this.em.createNamedQuery(queryName, Object[].class)
+                    .setParameter("parentid", getBaseModelObject(parent).getId()).setParameter("icaluids", batch);
+            query.setFlushMode(FlushModeType.COMMIT);
+            List<Object[]> inUse = query.getResultList();
+            if (!inUse.isEmpty()) {
+                ICalendarItem item = items.get((String) inUse.get(0)[0]);
+                throw new IcalUidInUseException("iCal uid" + item.getIcalUid() + " already in use for collection "
+                        + parent.getUid(), item.getUid(), (String) inUse.get(0)[1]);
+            }
+        }
+    }
+
     protected void createContentInternal(Set<CollectionItem> parents, ContentItem content) {
 
         if (parents == null) {
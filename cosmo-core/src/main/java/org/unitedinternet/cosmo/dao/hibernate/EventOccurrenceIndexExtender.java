@@ -0,0 +1,95 @@
+package org.unitedinternet.cosmo.dao.hibernate;
+
+import java.util.List;
+
+import org.hibernate.LockMode;
+import org.hibernate.jpa.AvailableHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.unitedinternet.cosmo.model.hibernate.EventStampInterceptor;
+import org.unitedinternet.cosmo.model.hibernate.HibEventStamp;
+import org.unitedinternet.cosmo.model.hibernate.HibEventTimeRangeIndex;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import net.fortuna.ical4j.model.DateTime;
+
+/**
+ * Background job that keeps the occurrence index of recurring events ahead
+ * of time. Occurrences are indexed for a rolling horizon when an event is
+ * saved, this job extends the index of the events whose horizon comes closer
+ * than half of that. The interval is set with
+ * <code>cosmo.event.occurrences.extend-interval</code> (in millis).
+ *
+ * The job runs on every node. Each run locks the events it extends and skips
+ * the ones locked by other nodes, so nodes never extend the same event at the
+ * same time. Databases that can't skip locked rows make the nodes wait for
+ * each other instead.
+ */
+@Component
+@EnableScheduling
+public class EventOccurrenceIndexExtender {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventOccurrenceIndexExtender.class);
+
+    /**
+     * Maximum number of events extended per run.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final EventStampInterceptor eventStampInterceptor;
+
+    public EventOccurrenceIndexExtender(EventStampInterceptor eventStampInterceptor) {
+        this.eventStampInterceptor = eventStampInterceptor;
+    }
+
+    @Scheduled(initialDelayString = "${cosmo.event.occurrences.extend-interval:600000}",
+            fixedDelayString = "${cosmo.event.occurrences.extend-interval:600000}")
+    @Transactional
+    public void extendOccurrenceIndexes() {
+        DateTime threshold = new DateTime(System.currentTimeMillis()
+                + EventStampInterceptor.OCCURRENCE_HORIZON_MILLIS / 2);
+        threshold.setUtc(true);
+        int extended = extendOccurrenceIndexes(threshold.toString());
+        if (extended > 0) {
+            LOG.info("Extended the occurrence index of {} recurring events", extended);
+        }
+    }
+
+    /**
+     * Indexes the occurrences of the recurring events whose occurrence horizon
+     * is before the given date up to the current horizon.
+     *
+     * @param threshold
+     *            date in UTC, formatted like the time range index
+     * @return number of extended events
+     */
+    @Transactional
+    public int extendOccurrenceIndexes(String threshold) {
+        List<HibEventStamp> stamps = em.createNamedQuery("eventStamp.by.occurrenceHorizon", HibEventStamp.class)
+                .setParameter("horizon", threshold).setMaxResults(BATCH_SIZE)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(AvailableHints.HINT_NATIVE_LOCK_MODE, LockMode.UPGRADE_SKIPLOCKED).getResultList();
+        for (HibEventStamp stamp : stamps) {
+            HibEventTimeRangeIndex index = eventStampInterceptor.calculateEventStampIndexes(stamp);
+            if (index != null) {
+                stamp.setTimeRangeIndex(index);
+            } else {
+                // not an event anymore, don't select it again
+                stamp.getTimeRangeIndex().setOccurrenceHorizon(null);
+            }
+        }
+        em.flush();
+        em.clear();
+        return stamps.size();
+    }
+}
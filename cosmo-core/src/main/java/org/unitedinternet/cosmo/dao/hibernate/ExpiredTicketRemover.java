@@ -0,0 +1,70 @@
+package org.unitedinternet.cosmo.dao.hibernate;
+
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.LockMode;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.hibernate.HibTicket;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Deletes timed out tickets one batch per transaction for the
+ * {@link TicketExpirySweeper}. Each batch locks its tickets and skips the ones
+ * locked by other nodes, so nodes sweeping at the same time don't delete the
+ * same tickets. Databases that can't skip locked rows make the nodes wait for
+ * each other instead.
+ */
+@Component
+public class ExpiredTicketRemover {
+
+    /**
+     * Number of tickets deleted per batch.
+     */
+    public static final int BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Deletes a batch of the tickets that timed out before the given date.
+     * Tickets stored without expiration date get theirs first.
+     *
+     * @param now
+     *            the date
+     * @return number of deleted tickets
+     */
+    @Transactional
+    public int removeExpiredTickets(Date now) {
+        List<HibTicket> unknown = em.createNamedQuery("ticket.expires.unknown", HibTicket.class)
+                .setMaxResults(BATCH_SIZE).setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(AvailableHints.HINT_NATIVE_LOCK_MODE, LockMode.UPGRADE_SKIPLOCKED).getResultList();
+        for (HibTicket ticket : unknown) {
+            // calculates and keeps the expiration date
+            ticket.getExpires();
+        }
+        em.flush();
+
+        List<HibTicket> tickets = em.createNamedQuery("ticket.expired", HibTicket.class)
+                .setParameter("now", now).setMaxResults(BATCH_SIZE).setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(AvailableHints.HINT_NATIVE_LOCK_MODE, LockMode.UPGRADE_SKIPLOCKED).getResultList();
+        for (HibTicket ticket : tickets) {
+            Item item = ticket.getItem();
+            if (item != null) {
+                // tickets are orphans once removed from their item
+                item.removeTicket(ticket);
+            } else {
+                em.remove(ticket);
+            }
+        }
+        em.flush();
+        em.clear();
+        return tickets.size();
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.unitedinternet.cosmo.dao.hibernate;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -61,6 +62,11 @@ import org.unitedinternet.cosmo.util.VersionFourGenerator;
 @Repository
 public abstract class ItemDaoImpl implements ItemDao {
 
+    /**
+     * Maximum number of names bound to a single <code>in</code> clause when looking up children by name.
+     */
+    private static final int NAMES_BATCH_SIZE = 500;
+
     @Autowired
     private VersionFourGenerator idGenerator = null;
 
@@ -99,6 +105,28 @@ public abstract class ItemDaoImpl implements ItemDao {
 
     }
 
+    @Override
+    public Set<Item> findItemsByParentAndNames(CollectionItem parent, Set<String> names) {
+        Set<Item> items = new HashSet<Item>();
+        if (names == null || names.isEmpty()) {
+            return items;
+        }
+        List<String> remaining = new ArrayList<String>(names);
+        for (int from = 0; from < remaining.size(); from += NAMES_BATCH_SIZE) {
+            List<String> batch = remaining.subList(from, Math.min(from + NAMES_BATCH_SIZE, remaining.size()));
+            TypedQuery<Item> query = this.em.createNamedQuery("item.by.parent.names", Item.class)
+                    .setParameter("parent", parent).setParameter("names", batch);
+            query.setFlushMode(FlushModeType.COMMIT);
+            items.addAll(query.getResultList());
+        }
+        return items;
+    }
+
+    @Override
+    public String findEntityTagByPath(String path) {
+        return itemPathTranslator.findEntityTagByPath(path);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -349,6 +377,9 @@ public abstract class ItemDaoImpl implements ItemDao {
 
         verifyNotInLoop(item, parent);
 
+        if (item instanceof CollectionItem) {
+            itemPathTranslator.evictCollectionPaths();
+        }
         item.setName(moveName);
         if (!parent.getUid().equals(oldParent.getUid())) {
             ((HibCollectionItem) parent).removeTombstone(item);
@@ -647,6 +678,9 @@ public abstract class ItemDaoImpl implements ItemDao {
         if (!item.getParents().contains(collection)) {
             return;
         }
+        if (item instanceof CollectionItem) {
+            itemPathTranslator.evictCollectionPaths();
+        }
         getHibItem(collection).addTombstone(new HibItemTombstone(collection, item));
         ((HibItem) item).removeParent(collection);
         // If the item belongs to no collection, then it should be purged.
@@ -665,9 +699,16 @@ public abstract class ItemDaoImpl implements ItemDao {
     }
 
     protected void removeItemInternal(Item item) {
+        if (item instanceof CollectionItem) {
+            itemPathTranslator.evictCollectionPaths();
+        }
         this.em.remove(item);
     }
 
+    protected ItemPathTranslator getItemPathTranslator() {
+        return itemPathTranslator;
+    }
+
     protected BaseModelObject getBaseModelObject(Object obj) {
         return (BaseModelObject) obj;
     }
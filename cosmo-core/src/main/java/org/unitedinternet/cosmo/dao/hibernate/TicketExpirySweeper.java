@@ -0,0 +1,53 @@
+package org.unitedinternet.cosmo.dao.hibernate;
+
+import java.util.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that deletes timed out tickets, which are otherwise only
+ * removed when they are used again. Tickets used by a collection
+ * subscription are left to the subscription. The interval is set with
+ * <code>cosmo.tickets.sweep-interval</code> (in millis).
+ *
+ * The job runs on every node. Tickets are deleted in batches, each in its own
+ * transaction, by the {@link ExpiredTicketRemover}.
+ */
+@Component
+@EnableScheduling
+public class TicketExpirySweeper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TicketExpirySweeper.class);
+
+    /**
+     * Maximum number of batches per run, the rest is deleted by the next runs.
+     */
+    private static final int MAX_BATCHES = 20;
+
+    private final ExpiredTicketRemover expiredTicketRemover;
+
+    public TicketExpirySweeper(ExpiredTicketRemover expiredTicketRemover) {
+        this.expiredTicketRemover = expiredTicketRemover;
+    }
+
+    @Scheduled(initialDelayString = "${cosmo.tickets.sweep-interval:3600000}",
+            fixedDelayString = "${cosmo.tickets.sweep-interval:3600000}")
+    public void sweepExpiredTickets() {
+        Date now = new Date();
+        int removed = 0;
+        for (int i = 0; i < MAX_BATCHES; i++) {
+            int batch = expiredTicketRemover.removeExpiredTickets(now);
+            removed += batch;
+            if (batch < ExpiredTicketRemover.BATCH_SIZE) {
+                break;
+            }
+        }
+        if (removed > 0) {
+            LOG.info("Removed {} timed out tickets", removed);
+        }
+    }
+}
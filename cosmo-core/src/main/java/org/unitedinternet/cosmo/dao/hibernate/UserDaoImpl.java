@@ -139,6 +139,22 @@ public class UserDaoImpl implements UserDao {
         return user;
     }
 
+    /**
+     * Case is ignored by the collation of the columns. Pages start after the
+     * given username rather than at an offset, so that later pages don't scan
+     * the users of the earlier ones again.
+     */
+    @Override
+    public List<User> findUsersContaining(String text, String afterUsername, int max) {
+        if (text == null) {
+            throw new IllegalArgumentException("text required");
+        }
+        String pattern = "%" + text.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        return this.em.createNamedQuery("user.containing", User.class).setParameter("text", pattern)
+                .setParameter("after", afterUsername != null ? afterUsername : "").setMaxResults(max)
+                .getResultList();
+    }
+
     @PostConstruct
     public void init() {
         if (idGenerator == null) {
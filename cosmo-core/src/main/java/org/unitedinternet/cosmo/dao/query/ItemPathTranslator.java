@@ -29,4 +29,19 @@ public interface ItemPathTranslator {
     String getItemName(String path);
 
     Item findItemParent(String path);
+
+    /**
+     * Finds the entity tag of the content item at the given path with a projection query.
+     * 
+     * @param path
+     *            path of the content item
+     * @return the entity tag of the content item, or <code>null</code> if there is none at the given path
+     */
+    String findEntityTagByPath(String path);
+
+    /**
+     * Forgets the cached paths of collections, now and once more when the current transaction commits. Must be called
+     * whenever a collection is moved, renamed or removed.
+     */
+    void evictCollectionPaths();
 }
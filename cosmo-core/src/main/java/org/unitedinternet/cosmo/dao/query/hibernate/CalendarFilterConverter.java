@@ -21,15 +21,16 @@ import org.unitedinternet.cosmo.calendar.query.ParamFilter;
 import org.unitedinternet.cosmo.calendar.query.PropertyFilter;
 import org.unitedinternet.cosmo.calendar.query.TextMatchFilter;
 import org.unitedinternet.cosmo.calendar.query.TimeRangeFilter;
+import org.unitedinternet.cosmo.calendar.util.TimeZoneService;
 import org.unitedinternet.cosmo.model.CollectionItem;
 import org.unitedinternet.cosmo.model.EventStamp;
 import org.unitedinternet.cosmo.model.filter.EventStampFilter;
+import org.unitedinternet.cosmo.model.filter.FilterCriteria;
 import org.unitedinternet.cosmo.model.filter.ItemFilter;
 import org.unitedinternet.cosmo.model.filter.NoteItemFilter;
 import org.unitedinternet.cosmo.model.filter.Restrictions;
 import org.unitedinternet.cosmo.model.filter.StampFilter;
 
-import net.fortuna.ical4j.model.TimeZone;
 
 /**
  * Translates <code>CalendarFilter</code> into <code>ItemFilter</code>
@@ -39,9 +40,14 @@ public class CalendarFilterConverter {
     private static final String COMP_VCALENDAR = "VCALENDAR";
     private static final String COMP_VEVENT = "VEVENT";
     private static final String COMP_VTODO = "VTODO";
+    private static final String COMP_VJOURNAL = "VJOURNAL";
     private static final String PROP_UID = "UID";
     private static final String PROP_DESCRIPTION = "DESCRIPTION";
     private static final String PROP_SUMMARY = "SUMMARY";
+    private static final String PROP_STATUS = "STATUS";
+    private static final String PROP_ORGANIZER = "ORGANIZER";
+    private static final String PROP_ATTENDEE = "ATTENDEE";
+    private static final String PROP_CATEGORIES = "CATEGORIES";
 
     /**
      * Constructor.
@@ -51,34 +57,26 @@ public class CalendarFilterConverter {
 
     /**
      * Tranlsate CalendarFilter to an equivalent ItemFilter.
-     * For now, only the basic CalendarFilter is supported, which is
-     * essentially a timerange filter.  The majority of CalendarFilters
-     * will fall into this case.  More cases will be supported as they
-     * are implemented.
+     * Supported are a single VEVENT component filter with a time-range
+     * and text matches on UID, SUMMARY and DESCRIPTION.
+     * Other filters can be translated into a first pass filter.
      *
      * @param calendar       parent calendar
      * @param calendarFilter filter to translate
      * @return equivalent ItemFilter
+     * @throws IllegalArgumentException if the filter has no equivalent ItemFilter
+     * @see #getFirstPassFilter(CollectionItem, CalendarFilter)
      */
     public ItemFilter translateToItemFilter(CollectionItem calendar, CalendarFilter calendarFilter) {
-        NoteItemFilter itemFilter = new NoteItemFilter();
-        itemFilter.setParent(calendar);
-        ComponentFilter rootFilter = calendarFilter.getFilter();
-        if (!COMP_VCALENDAR.equalsIgnoreCase(rootFilter.getName())) {
-            throw new IllegalArgumentException("Unsupported component filter: " + rootFilter.getName());
-        }
-
-        for (ComponentFilter compFilter : rootFilter.getComponentFilters()) {
-            handleCompFilter(compFilter, itemFilter);
-        }
-
-        return itemFilter;
+        return translate(calendar, calendarFilter, false);
     }
 
     /**
      * Translate CalendarFilter into an ItemFilter that can be used
      * as a first pass.  All items returned may or may not match the
-     * specified CalendarFilter.
+     * specified CalendarFilter.  The parts of the filter that can't be
+     * translated are left out, so that the first pass returns all items
+     * that match.
      *
      * @param calendar       calendar
      * @param calendarFilter filter to translate
@@ -87,45 +85,50 @@ public class CalendarFilterConverter {
      *         Further processing is required.
      */
     public ItemFilter getFirstPassFilter(CollectionItem calendar, CalendarFilter calendarFilter) {
+        return translate(calendar, calendarFilter, true);
+    }
+
+    private NoteItemFilter translate(CollectionItem calendar, CalendarFilter calendarFilter, boolean firstPass) {
         ComponentFilter rootFilter = calendarFilter.getFilter();
         if (!COMP_VCALENDAR.equalsIgnoreCase(rootFilter.getName())) {
-            return null;
-        }
-
-        // only support single comp-filer
-        if (rootFilter.getComponentFilters().size() != 1) {
-            return null;
+            if (firstPass) {
+                return null;
+            }
+            throw new IllegalArgumentException("Unsupported component filter: " + rootFilter.getName());
         }
 
-        ComponentFilter compFilter = (ComponentFilter) rootFilter.getComponentFilters().get(0);
-
-        // handle finding VTODO for now
-        if (COMP_VTODO.equalsIgnoreCase(compFilter.getName())) {
-            return createFirstPassTaskFilter(calendar);
+        NoteItemFilter itemFilter = new NoteItemFilter();
+        itemFilter.setParent(calendar);
+        for (ComponentFilter compFilter : rootFilter.getComponentFilters()) {
+            handleCompFilter(compFilter, itemFilter, firstPass);
+            if (firstPass) {
+                // narrowing down by one component filter is enough for a first pass
+                break;
+            }
         }
 
-        return null;
-    }
-
-    private ItemFilter createFirstPassTaskFilter(CollectionItem collection) {
-        NoteItemFilter filter = new NoteItemFilter();
-        filter.setParent(collection);
-        filter.setIsModification(false);
-        filter.getStampFilters().add(new StampFilter(EventStamp.class, true));
-        return filter;
+        return itemFilter;
     }
 
-    private void handleCompFilter(ComponentFilter compFilter, NoteItemFilter itemFilter) {
+    private void handleCompFilter(ComponentFilter compFilter, NoteItemFilter itemFilter, boolean firstPass) {
 
-        if (COMP_VEVENT.equalsIgnoreCase(compFilter.getName())) {
-            handleEventCompFilter(compFilter, itemFilter);
+        if (compFilter.getIsNotDefinedFilter() != null) {
+            unsupported("unsupported component filter: is-not-defined", firstPass);
+        } else if (COMP_VEVENT.equalsIgnoreCase(compFilter.getName())) {
+            handleEventCompFilter(compFilter, itemFilter, firstPass);
+        } else if (firstPass && (COMP_VTODO.equalsIgnoreCase(compFilter.getName())
+                || COMP_VJOURNAL.equalsIgnoreCase(compFilter.getName()))) {
+            handleFirstPassTaskCompFilter(compFilter, itemFilter);
         } else {
-            throw new IllegalArgumentException("unsupported component filter: " + compFilter.getName());
+            unsupported("unsupported component filter: " + compFilter.getName(), firstPass);
         }
     }
 
-    private void handleEventCompFilter(ComponentFilter compFilter, NoteItemFilter itemFilter) {
-        // TODO: handle case of multiple VEVENT filters
+    private void handleEventCompFilter(ComponentFilter compFilter, NoteItemFilter itemFilter, boolean firstPass) {
+        if (itemFilter.getStampFilter(EventStampFilter.class) != null) {
+            unsupported("unsupported filter: multiple VEVENT component filters", firstPass);
+            return;
+        }
         EventStampFilter eventFilter = new EventStampFilter();
         itemFilter.getStampFilters().add(eventFilter);
 
@@ -135,107 +138,146 @@ public class CalendarFilterConverter {
         if (trf != null) {
             eventFilter.setPeriod(trf.getPeriod());
             if (trf.getTimezone() != null) {
-                eventFilter.setTimezone(new TimeZone(trf.getTimezone()));
+                eventFilter.setTimezone(TimeZoneService.getInstance().getTimeZone(trf.getTimezone()));
             }
         }
 
         for (ComponentFilter subComp : compFilter.getComponentFilters()) {
-            throw new IllegalArgumentException("unsupported sub component filter: " + subComp.getName());
+            unsupported("unsupported sub component filter: " + subComp.getName(), firstPass);
         }
 
         for (PropertyFilter propFilter : compFilter.getPropFilters()) {
-            handleEventPropFilter(propFilter, itemFilter);
+            handleEventPropFilter(propFilter, itemFilter, eventFilter, firstPass);
         }
     }
 
-    private void handleEventPropFilter(PropertyFilter propFilter, NoteItemFilter itemFilter) {
+    /**
+     * VTODO and VJOURNAL components are stored as notes without event stamp.
+     */
+    private void handleFirstPassTaskCompFilter(ComponentFilter compFilter, NoteItemFilter itemFilter) {
+        itemFilter.setIsModification(false);
+        itemFilter.getStampFilters().add(new StampFilter(EventStamp.class, true));
 
-        if (PROP_UID.equalsIgnoreCase(propFilter.getName())) {
-            handleUidPropFilter(propFilter, itemFilter);
-        } else if (PROP_SUMMARY.equalsIgnoreCase(propFilter.getName())) {
-            handleSummaryPropFilter(propFilter, itemFilter);
-        } else if (PROP_DESCRIPTION.equalsIgnoreCase(propFilter.getName())) {
-            handleDescriptionPropFilter(propFilter, itemFilter);
-        } else {
-            throw new IllegalArgumentException("unsupported prop filter: " + propFilter.getName());
+        for (PropertyFilter propFilter : compFilter.getPropFilters()) {
+            handleNotePropFilter(propFilter, itemFilter, true);
         }
     }
 
-    private void handleUidPropFilter(PropertyFilter propFilter, NoteItemFilter itemFilter) {
+    private void handleEventPropFilter(PropertyFilter propFilter, NoteItemFilter itemFilter,
+            EventStampFilter eventFilter, boolean firstPass) {
 
-        for (ParamFilter paramFilter : propFilter.getParamFilters()) {
-            throw new IllegalArgumentException("unsupported param filter: " + paramFilter.getName());
+        if (handleNotePropFilter(propFilter, itemFilter, firstPass)) {
+            return;
+        }
+        if (!firstPass) {
+            throw new IllegalArgumentException("unsupported prop filter: " + propFilter.getName());
         }
 
-        TextMatchFilter textMatch = propFilter.getTextMatchFilter();
-        if (textMatch == null) {
-            throw new IllegalArgumentException("unsupported filter: must contain text match filter");
+        // indexed event properties only narrow down a first pass
+        if (PROP_STATUS.equalsIgnoreCase(propFilter.getName())) {
+            eventFilter.setStatus(getIndexCriteria(propFilter));
+        } else if (PROP_ORGANIZER.equalsIgnoreCase(propFilter.getName())) {
+            eventFilter.setOrganizer(getIndexCriteria(propFilter));
+        } else if (PROP_ATTENDEE.equalsIgnoreCase(propFilter.getName())) {
+            eventFilter.setAttendee(getIndexCriteria(propFilter));
+        } else if (PROP_CATEGORIES.equalsIgnoreCase(propFilter.getName())) {
+            eventFilter.setCategories(getIndexCriteria(propFilter));
         }
+    }
 
-        if (textMatch.isCaseless()) {
-            if (textMatch.isNegateCondition()) {
-                itemFilter.setIcalUid(Restrictions.nilike(textMatch.getValue()));
+    /**
+     * Handles the properties that are stored with every note.
+     *
+     * @return <code>true</code> if the property is stored with the note
+     */
+    private boolean handleNotePropFilter(PropertyFilter propFilter, NoteItemFilter itemFilter, boolean firstPass) {
+
+        if (PROP_UID.equalsIgnoreCase(propFilter.getName())) {
+            // every component has a UID, but only master notes store it
+            if (propFilter.getIsNotDefinedFilter() != null) {
+                unsupported("unsupported filter: UID is-not-defined", firstPass);
+            } else if (isDefinedFilter(propFilter)) {
+                itemFilter.setIcalUid(Restrictions.isNotNull());
             } else {
-                itemFilter.setIcalUid(Restrictions.ilike(textMatch.getValue()));
+                itemFilter.setIcalUid(getTextMatchCriteria(propFilter, firstPass));
             }
+        } else if (PROP_SUMMARY.equalsIgnoreCase(propFilter.getName())) {
+            itemFilter.setDisplayName(getTextMatchCriteria(propFilter, firstPass));
+        } else if (PROP_DESCRIPTION.equalsIgnoreCase(propFilter.getName())) {
+            itemFilter.setBody(getTextMatchCriteria(propFilter, firstPass));
         } else {
-            if (textMatch.isNegateCondition()) {
-                itemFilter.setIcalUid(Restrictions.nlike(textMatch.getValue()));
-            } else {
-                itemFilter.setIcalUid(Restrictions.like(textMatch.getValue()));
-            }
+            return false;
         }
+        return true;
     }
 
-    private void handleDescriptionPropFilter(PropertyFilter propFilter, NoteItemFilter itemFilter) {
+    /**
+     * @return criteria equivalent to the text match of the property filter, or
+     *         <code>null</code> in a first pass if there is none
+     */
+    private FilterCriteria getTextMatchCriteria(PropertyFilter propFilter, boolean firstPass) {
 
-        for (ParamFilter paramFilter : propFilter.getParamFilters()) {            
-            throw new IllegalArgumentException("unsupported param filter: " + paramFilter.getName());
+        for (ParamFilter paramFilter : propFilter.getParamFilters()) {
+            unsupported("unsupported param filter: " + paramFilter.getName(), firstPass);
+        }
+        if (propFilter.getTimeRangeFilter() != null) {
+            unsupported("unsupported filter: property time-range", firstPass);
         }
 
         TextMatchFilter textMatch = propFilter.getTextMatchFilter();
-        if (textMatch == null) {
-            throw new IllegalArgumentException("unsupported filter: must contain text match filter");
+        if (textMatch == null || propFilter.getIsNotDefinedFilter() != null) {
+            unsupported("unsupported filter: must contain text match filter", firstPass);
+            return null;
         }
 
         if (textMatch.isCaseless()) {
             if (textMatch.isNegateCondition()) {
-                itemFilter.setBody(Restrictions.nilike(textMatch.getValue()));
+                return Restrictions.nilike(textMatch.getValue());
             } else {
-                itemFilter.setBody(Restrictions.ilike(textMatch.getValue()));
+                return Restrictions.ilike(textMatch.getValue());
             }
         } else {
             if (textMatch.isNegateCondition()) {
-                itemFilter.setBody(Restrictions.nlike(textMatch.getValue()));
+                return Restrictions.nlike(textMatch.getValue());
             } else {
-                itemFilter.setBody(Restrictions.like(textMatch.getValue()));
+                return Restrictions.like(textMatch.getValue());
             }
         }
     }
 
-    private void handleSummaryPropFilter(PropertyFilter propFilter, NoteItemFilter itemFilter) {
-
-        for ( ParamFilter paramFilter : propFilter.getParamFilters()) {
-            throw new IllegalArgumentException("unsupported param filter: " + paramFilter.getName());
+    /**
+     * Criteria on an indexed event property that all matching events fulfill.
+     * Negated text matches are left to the second pass, they may match another
+     * value of the same property.
+     *
+     * @return criteria or <code>null</code> if the property filter can't narrow down the first pass
+     */
+    private FilterCriteria getIndexCriteria(PropertyFilter propFilter) {
+        if (propFilter.getIsNotDefinedFilter() != null) {
+            return Restrictions.eq("");
         }
-
         TextMatchFilter textMatch = propFilter.getTextMatchFilter();
-        if (textMatch == null) {
-            throw new IllegalArgumentException("unsupported filter: must contain text match filter");
+        if (textMatch == null || textMatch.isNegateCondition() || textMatch.getValue().indexOf('\\') >= 0) {
+            return null;
         }
-
         if (textMatch.isCaseless()) {
-            if (textMatch.isNegateCondition()) {
-                itemFilter.setDisplayName(Restrictions.nilike(textMatch.getValue()));
-            } else {
-                itemFilter.setDisplayName(Restrictions.ilike(textMatch.getValue()));
-            }
-        } else {
-            if (textMatch.isNegateCondition()) {
-                itemFilter.setDisplayName(Restrictions.nlike(textMatch.getValue()));
-            } else {
-                itemFilter.setDisplayName(Restrictions.like(textMatch.getValue()));
-            }
+            return Restrictions.ilike(textMatch.getValue());
+        }
+        return Restrictions.like(textMatch.getValue());
+    }
+
+    private static boolean isDefinedFilter(PropertyFilter propFilter) {
+        return propFilter.getParamFilters().isEmpty() && propFilter.getTimeRangeFilter() == null
+                && propFilter.getIsNotDefinedFilter() == null && propFilter.getTextMatchFilter() == null;
+    }
+
+    /**
+     * Parts of a filter that can't be translated are left out of a first
+     * pass filter.
+     */
+    private static void unsupported(String message, boolean firstPass) {
+        if (!firstPass) {
+            throw new IllegalArgumentException(message);
         }
     }
 
@@ -23,23 +23,52 @@ import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 
 import org.apache.abdera.i18n.text.UrlEncoding;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.unitedinternet.cosmo.dao.query.ItemPathTranslator;
 import org.unitedinternet.cosmo.model.CollectionItem;
 import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.hibernate.BaseModelObject;
+import org.unitedinternet.cosmo.model.hibernate.HibItem;
+import org.unitedinternet.cosmo.util.BoundedCache;
 
 /**
  * Default implementation for ItempPathTranslator. This implementation expects paths to be of the format:
  * /username/parent1/parent2/itemname
+ * 
+ * Paths are resolved with a single query joining one item per path segment. The ids of resolved collections are
+ * kept in a bounded cache keyed by path, so that an item in a known collection is resolved with a query for its name
+ * only. Cached collections are checked to still exist under the same name on every hit. The cache is cleared whenever
+ * a collection is moved, renamed or removed, and once more after the transaction commits. Changes made on other nodes
+ * are seen once the entries expired.
  */
 @Repository
 public class DefaultItemPathTranslator implements ItemPathTranslator {
 
+    /**
+     * Default number of seconds a resolved collection path is used.
+     */
+    public static final int DEFAULT_TTL = 60;
+
+    /**
+     * Default maximum number of resolved collection paths kept in memory.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
     @PersistenceContext
     private EntityManager em;
 
-    public DefaultItemPathTranslator() {
+    private final BoundedCache<String, Long> collectionPaths;
+
+    // incremented whenever the cache is cleared, to not cache a path resolved before
+    private long generation;
 
+    public DefaultItemPathTranslator(@Value("${cosmo.cache.collection-paths.ttl:" + DEFAULT_TTL + "}") int ttl,
+            @Value("${cosmo.cache.collection-paths.max-entries:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries) {
+        this.collectionPaths = new BoundedCache<String, Long>(maxEntries, ttl * 1000L);
     }
 
     /**
@@ -77,6 +106,24 @@ public class DefaultItemPathTranslator implements ItemPathTranslator {
         return findItemByPath(parentPath);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public String findEntityTagByPath(String path) {
+        String[] names = toNames(path);
+        if (names == null || names.length < 2) {
+            return null;
+        }
+        String key = String.join("/", names);
+        CollectionItem parent = findCachedCollection(key.substring(0, key.lastIndexOf('/')),
+                names[names.length - 2]);
+        if (parent != null) {
+            return findByNames(parent, new String[] { names[names.length - 1] }, ".etag", "HibContentItem",
+                    String.class);
+        }
+        return findByNames(null, names, ".etag", "HibContentItem", String.class);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -98,51 +145,85 @@ public class DefaultItemPathTranslator implements ItemPathTranslator {
     }
 
     /**
-     * Finds item by the given path.
+     * Finds item by the given path. The path of a cached collection is resolved without a query for its ancestors.
      *
-     * @param session
-     *            The current session.
      * @param path
      *            The given path.
      * @return The expected item.
      */
     @Override
     public Item findItemByPath(String path) {
-
-        if (path == null || "".equals(path)) {
+        String[] names = toNames(path);
+        if (names == null) {
             return null;
         }
-
-        if (path.charAt(0) == '/') {
-            path = path.substring(1, path.length());
+        String key = String.join("/", names);
+        Item item = findCachedCollection(key, names[names.length - 1]);
+        if (item != null) {
+            return item;
         }
 
-        String[] segments = path.split("/");
-
-        if (segments.length == 0) {
-            return null;
+        long generation = getGeneration();
+        CollectionItem parent = null;
+        if (names.length > 1) {
+            parent = findCachedCollection(key.substring(0, key.lastIndexOf('/')), names[names.length - 2]);
+        }
+        if (parent != null) {
+            item = findItemByNames(parent, new String[] { names[names.length - 1] });
+        } else {
+            item = findItemByNames(null, names);
+        }
+        if (item instanceof CollectionItem) {
+            cacheCollection(key, item, generation);
         }
-        String username = decode(segments[0]);
+        return item;
+    }
 
-        String rootName = username;
-        Item rootItem = findRootItemByOwnerAndName(username, rootName);
+    /**
+     * {@inheritDoc}
+     */
+    public void evictCollectionPaths() {
+        clearCollectionPaths();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearCollectionPaths();
+                }
+            });
+        }
+    }
 
-        // If parent item doesn't exist don't go any further
-        if (rootItem == null) {
+    /**
+     * Looks up a cached collection, checking that it still exists under the expected name.
+     */
+    private CollectionItem findCachedCollection(String key, String name) {
+        Long id = this.collectionPaths.get(key);
+        if (id == null) {
             return null;
         }
+        Item item = (Item) Hibernate.unproxy(this.em.find(HibItem.class, id));
+        if (item instanceof CollectionItem && name.equals(item.getName())) {
+            return (CollectionItem) item;
+        }
+        // removed or renamed since it was cached
+        this.collectionPaths.invalidate(key);
+        return null;
+    }
+
+    private synchronized long getGeneration() {
+        return this.generation;
+    }
 
-        Item parentItem = rootItem;
-        for (int i = 1; i < segments.length; i++) {
-            Item nextItem = findItemByParentAndName(parentItem, decode(segments[i]));
-            parentItem = nextItem;
-            // if any parent item doesn't exist then bail now
-            if (parentItem == null) {
-                return null;
-            }
+    private synchronized void cacheCollection(String key, Item collection, long generation) {
+        if (generation == this.generation) {
+            this.collectionPaths.put(key, ((BaseModelObject) collection).getId());
         }
+    }
 
-        return parentItem;
+    private synchronized void clearCollectionPaths() {
+        this.generation++;
+        this.collectionPaths.clear();
     }
 
     /**
@@ -155,7 +236,59 @@ public class DefaultItemPathTranslator implements ItemPathTranslator {
      * @return The expected item.
      */
     private Item findItemByPathInternal(String path, CollectionItem root) {
+        String[] names = toNames(path);
+        if (names == null) {
+            return null;
+        }
+        return findItemByNames(root, names);
+    }
+
+    /**
+     * Resolves the given names, starting either below the given root collection or, if there is none, at the home
+     * collection named by the first name, with a single query joining one item per name.
+     */
+    private Item findItemByNames(CollectionItem root, String[] names) {
+        return findByNames(root, names, "", "HibItem", Item.class);
+    }
 
+    /**
+     * Resolves the given names like {@link #findItemByNames(CollectionItem, String[])}, requiring the last item to be
+     * of the given entity and selecting the given projection of it, for example <code>.etag</code>.
+     */
+    private <T> T findByNames(CollectionItem root, String[] names, String projection, String lastEntity,
+            Class<T> type) {
+        int last = names.length - 1;
+        StringBuilder select = new StringBuilder("select i").append(last).append(projection);
+        StringBuilder where = new StringBuilder();
+        if (root == null) {
+            select.append(" from HibCollectionItem i0");
+            where.append(" where i0.owner.username=:name0 and i0.name=:name0");
+        } else {
+            select.append(" from ").append(last == 0 ? lastEntity : "HibItem").append(" i0 join i0.parentDetails pd0");
+            where.append(" where pd0.primaryKey.collection=:root and i0.name=:name0");
+        }
+        for (int i = 1; i < names.length; i++) {
+            select.append(", ").append(i == last ? lastEntity : "HibItem").append(" i").append(i).append(" join i")
+                    .append(i).append(".parentDetails pd").append(i);
+            where.append(" and pd").append(i).append(".primaryKey.collection=i").append(i - 1).append(" and i")
+                    .append(i).append(".name=:name").append(i);
+        }
+
+        TypedQuery<T> query = this.em.createQuery(select.append(where).toString(), type);
+        if (root != null) {
+            query.setParameter("root", root);
+        }
+        for (int i = 0; i < names.length; i++) {
+            query.setParameter("name" + i, names[i]);
+        }
+        List<T> results = query.setMaxResults(1).getResultList();
+        return results.size() > 0 ? results.get(0) : null;
+    }
+
+    /**
+     * Splits the given path into its decoded segments.
+     */
+    private static String[] toNames(String path) {
         if (path == null || "".equals(path)) {
             return null;
         }
@@ -170,31 +303,11 @@ public class DefaultItemPathTranslator implements ItemPathTranslator {
             return null;
         }
 
-        Item parentItem = root;
+        String[] names = new String[segments.length];
         for (int i = 0; i < segments.length; i++) {
-            Item nextItem = findItemByParentAndName(parentItem, decode(segments[i]));
-            parentItem = nextItem;
-            // if any parent item doesn't exist then bail now
-            if (parentItem == null) {
-                return null;
-            }
+            names[i] = decode(segments[i]);
         }
-
-        return parentItem;
-    }
-
-    protected Item findRootItemByOwnerAndName(String username, String name) {
-        TypedQuery<Item> query = this.em.createNamedQuery("item.by.ownerName.name.nullParent", Item.class)
-                .setParameter("username", username).setParameter("name", name);
-        List<Item> items = query.getResultList();
-        return items.size() > 0 ? items.get(0) : null;
-    }
-
-    protected Item findItemByParentAndName(Item parent, String name) {
-        TypedQuery<Item> query = this.em.createNamedQuery("item.by.parent.name", Item.class)
-                .setParameter("parent", parent).setParameter("name", name);
-        List<Item> items = query.getResultList();
-        return items.size() > 0 ? items.get(0) : null;
+        return names;
     }
 
     private static String decode(String urlPath) {
@@ -54,6 +54,8 @@ import org.unitedinternet.cosmo.model.filter.NullExpression;
 import org.unitedinternet.cosmo.model.filter.StampFilter;
 import org.unitedinternet.cosmo.model.filter.StringAttributeFilter;
 import org.unitedinternet.cosmo.model.filter.TextAttributeFilter;
+import org.unitedinternet.cosmo.model.hibernate.HibBaseEventStamp;
+import org.unitedinternet.cosmo.model.hibernate.HibEventTimeRangeIndex;
 import org.unitedinternet.cosmo.model.hibernate.HibNoteItem;
 import org.unitedinternet.cosmo.util.NoteOccurrenceUtil;
 
@@ -171,12 +173,19 @@ public class StandardItemFilterProcessor  implements ItemFilterProcessor {
             params.put("parent", filter.getParent());
         }
 
+        // filter on any of several parents
+        if (!filter.getParents().isEmpty()) {
+            selectBuf.append(" join i.parentDetails pds");
+            appendWhere(whereBuf, "pds.primaryKey.collection in (:parents)");
+            params.put("parents", filter.getParents());
+        }
+
         if (filter.getDisplayName() != null) {
             formatExpression(whereBuf, params, "i.displayName", filter.getDisplayName());
         }
 
         handleAttributeFilters(selectBuf, whereBuf, params, filter);
-        handleStampFilters(selectBuf, whereBuf, filter);
+        handleStampFilters(selectBuf, whereBuf, params, filter);
 
     }
 
@@ -213,10 +222,11 @@ public class StandardItemFilterProcessor  implements ItemFilterProcessor {
         formatExpression(whereBuf, params, alias + ".value", filter.getValue());
     }
 
-    private void handleStampFilters(StringBuilder selectBuf, StringBuilder whereBuf, ItemFilter filter) {
+    private void handleStampFilters(StringBuilder selectBuf, StringBuilder whereBuf, HashMap<String, Object> params,
+            ItemFilter filter) {
         for (StampFilter stampFilter : filter.getStampFilters()) {
             if (stampFilter instanceof EventStampFilter) {
-                handleEventStampFilter(selectBuf, whereBuf, (EventStampFilter) stampFilter);
+                handleEventStampFilter(selectBuf, whereBuf, params, (EventStampFilter) stampFilter);
             } else {
                 handleStampFilter(whereBuf, stampFilter);
             }
@@ -247,11 +257,18 @@ public class StandardItemFilterProcessor  implements ItemFilterProcessor {
         params.put(param, filter.getQname());
     }
 
-    private void handleEventStampFilter(StringBuilder selectBuf, StringBuilder whereBuf, EventStampFilter filter) {
+    private void handleEventStampFilter(StringBuilder selectBuf, StringBuilder whereBuf,
+            HashMap<String, Object> params, EventStampFilter filter) {
 
         selectBuf.append(", HibBaseEventStamp es");
         appendWhere(whereBuf, "es.item=i");
 
+        // handle indexed properties, events that were not indexed yet match as well
+        formatIndexExpression(whereBuf, params, "es.propertyIndex.status", filter.getStatus());
+        formatIndexExpression(whereBuf, params, "es.propertyIndex.organizer", filter.getOrganizer());
+        formatIndexExpression(whereBuf, params, "es.propertyIndex.attendees", filter.getAttendee());
+        formatIndexExpression(whereBuf, params, "es.propertyIndex.categories", filter.getCategories());
+
         // handle recurring event filter
         if (filter.getIsRecurring() != null) {
             if (filter.getIsRecurring().booleanValue() == true) {
@@ -278,6 +295,25 @@ public class StandardItemFilterProcessor  implements ItemFilterProcessor {
                     + filter.getUTCStart() + "'))");
 
             whereBuf.append(")");
+
+            // recurring events with indexed occurrences must have one in the range, unless the
+            // range starts before the indexed occurrences or ends after the occurrence horizon
+            whereBuf.append(" and (es.timeRangeIndex.occurrenceHorizon is null");
+            whereBuf.append(" or (es.timeRangeIndex.isFloating=true and es.timeRangeIndex.occurrenceHorizon < '"
+                    + filter.getFloatEnd() + "')");
+            whereBuf.append(" or (es.timeRangeIndex.isFloating=false and es.timeRangeIndex.occurrenceHorizon < '"
+                    + filter.getUTCEnd() + "')");
+            whereBuf.append(" or (es.timeRangeIndex.isFloating=true and es.timeRangeIndex.occurrenceStart > '"
+                    + filter.getFloatStart() + "')");
+            whereBuf.append(" or (es.timeRangeIndex.isFloating=false and es.timeRangeIndex.occurrenceStart > '"
+                    + filter.getUTCStart() + "')");
+            whereBuf.append(" or exists (select o.startDate from HibBaseEventStamp os join os.occurrences o"
+                    + " where os=es and ((o.isFloating=true and o.startDate < '" + filter.getFloatEnd() + "'");
+            whereBuf.append(" and o.endDate > '" + filter.getFloatStart() + "')");
+            whereBuf.append(" or (o.isFloating=false and o.startDate < '" + filter.getUTCEnd() + "'");
+            whereBuf.append(" and o.endDate > '" + filter.getUTCStart() + "')");
+            whereBuf.append(" or (o.startDate=o.endDate and (o.startDate='" + filter.getFloatStart()
+                    + "' or o.startDate='" + filter.getUTCStart() + "')))))");
         }
     }
 
@@ -441,6 +477,16 @@ public class StandardItemFilterProcessor  implements ItemFilterProcessor {
             return results;
         }
 
+        // The query already checked the indexed occurrences. Modifications may
+        // move occurrences though, which only the expansion takes into account.
+        if (!filter.isExpandRecurringEvents() && isIndexedFor(eventStamp, filter)
+                && note.getModifications().isEmpty()) {
+            if (includeMasterInResults) {
+                results.add(note);
+            }
+            return results;
+        }
+
         // Otherwise, expand the recurring item to determine if it actually
         // occurs in the time range specified
         RecurrenceExpander expander = new RecurrenceExpander();
@@ -472,8 +518,40 @@ public class StandardItemFilterProcessor  implements ItemFilterProcessor {
         return results;
     }
 
+    /**
+     * Determines if all occurrences of the event in the filter range are
+     * stored in the occurrence index.
+     */
+    private static boolean isIndexedFor(EventStamp eventStamp, EventStampFilter filter) {
+        if (!(eventStamp instanceof HibBaseEventStamp)) {
+            return false;
+        }
+        HibEventTimeRangeIndex index = ((HibBaseEventStamp) eventStamp).getTimeRangeIndex();
+        if (index == null || index.getOccurrenceHorizon() == null) {
+            return false;
+        }
+        boolean floating = Boolean.TRUE.equals(index.getIsFloating());
+        String start = floating ? filter.getFloatStart() : filter.getUTCStart();
+        if (index.getOccurrenceStart() != null && start.compareTo(index.getOccurrenceStart()) < 0) {
+            return false;
+        }
+        String end = floating ? filter.getFloatEnd() : filter.getUTCEnd();
+        return end.compareTo(index.getOccurrenceHorizon()) <= 0;
+    }
+
     private void formatExpression(StringBuilder whereBuf, HashMap<String, Object> params, String propName,
             FilterCriteria fc) {
+        appendWhere(whereBuf, buildExpression(params, propName, fc));
+    }
+
+    private void formatIndexExpression(StringBuilder whereBuf, HashMap<String, Object> params, String propName,
+            FilterCriteria fc) {
+        if (fc != null) {
+            appendWhere(whereBuf, "(" + propName + " is null or " + buildExpression(params, propName, fc) + ")");
+        }
+    }
+
+    private String buildExpression(HashMap<String, Object> params, String propName, FilterCriteria fc) {
 
         StringBuilder expBuf = new StringBuilder();
 
@@ -534,7 +612,7 @@ public class StandardItemFilterProcessor  implements ItemFilterProcessor {
             expBuf.append(":" + param);
         }
 
-        appendWhere(whereBuf, expBuf.toString());
+        return expBuf.toString();
     }
 
 }
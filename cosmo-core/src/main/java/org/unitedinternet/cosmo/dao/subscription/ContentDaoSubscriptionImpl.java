@@ -1,6 +1,7 @@
 package org.unitedinternet.cosmo.dao.subscription;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import jakarta.persistence.EntityManager;
@@ -17,6 +18,8 @@ import org.unitedinternet.cosmo.model.CollectionSubscription;
 import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.HomeCollectionItem;
 import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.ItemTombstone;
+import org.unitedinternet.cosmo.model.NoteItem;
 import org.unitedinternet.cosmo.model.Stamp;
 import org.unitedinternet.cosmo.model.Ticket;
 import org.unitedinternet.cosmo.model.TicketType;
@@ -83,6 +86,17 @@ public class ContentDaoSubscriptionImpl implements ContentDao {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public String findEntityTagByPath(String path) {
+        // subscribed content is resolved through the subscription's target collection
+        return null;
+    }
+
+    @Override
+    public Set<Item> findItemsByParentAndNames(CollectionItem parent, Set<String> names) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public Item findItemParentByPath(String path) {
         throw new UnsupportedOperationException();
@@ -256,6 +270,20 @@ public class ContentDaoSubscriptionImpl implements ContentDao {
         this.contentDaoInternal.createBatchContent(parentCollection, contents);
     }
 
+    @Override
+    public void importContent(CollectionItem parent, Set<ContentItem> contents) {
+        HibCollectionSubscriptionItem subscriptionItem = this.checkAndGetSubscriptionItem(parent);
+        // Import contents in sharer's calendar.
+        CollectionItem parentCollection = subscriptionItem.getTargetCollection();
+        if (parentCollection == null) {
+            throw new CaldavExceptionForbidden("invalid subscription");
+        }
+        for (ContentItem content : contents) {
+            content.setOwner(parentCollection.getOwner());
+        }
+        this.contentDaoInternal.importContent(parentCollection, contents);
+    }
+
     @Override
     public void updateBatchContent(Set<ContentItem> contents) {
         throw new UnsupportedOperationException();
@@ -307,6 +335,21 @@ public class ContentDaoSubscriptionImpl implements ContentDao {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Set<ContentItem> loadChangedChildren(CollectionItem collection, Long syncSequence) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<NoteItem> loadMasterNotes(CollectionItem collection, String afterUid, int maxResults) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<ItemTombstone> loadTombstones(CollectionItem collection, Long syncSequence) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void removeItemsFromCollection(CollectionItem collection) {
         throw new UnsupportedOperationException();
@@ -18,6 +18,7 @@ package org.unitedinternet.cosmo.dav;
 import org.unitedinternet.cosmo.calendar.query.CalendarQueryProcessor;
 import org.unitedinternet.cosmo.icalendar.ICalendarClientFilterManager;
 import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.UserIdentitySupplier;
 import org.unitedinternet.cosmo.security.CosmoSecurityManager;
 import org.unitedinternet.cosmo.service.ContentService;
 import org.unitedinternet.cosmo.service.UserService;
@@ -68,6 +69,16 @@ public interface DavResourceFactory {
                                       Item item)
         throws CosmoDavException;
 
+    /**
+     * <p>
+     * Returns the entity tag of the content item located by the given
+     * <code>DavResourceLocator</code> without instantiating a resource for
+     * it. Returns <code>null</code> if the locator does not identify a stored
+     * content item or its entity tag cannot be looked up this way.
+     * </p>
+     */
+    String findEntityTag(DavResourceLocator locator);
+
     ContentService getContentService();
     
     ICalendarClientFilterManager getClientFilterManager();
@@ -76,5 +87,7 @@ public interface DavResourceFactory {
     
     UserService getUserService();
 
+    UserIdentitySupplier getUserIdentitySupplier();
+
     CosmoSecurityManager getSecurityManager();
 }
@@ -62,6 +62,21 @@ public interface ExtendedDavConstants extends DavConstants {
     DavPropertyName CURRENTUSERPRINCIPAL =
             DavPropertyName.create("current-user-principal", NAMESPACE);
 
+    /** The WebDAV report name <code>sync-collection</code> (RFC 6578) */
+    String XML_SYNC_COLLECTION = "sync-collection";
+    /** The WebDAV element name <code>sync-token</code> (RFC 6578) */
+    String XML_SYNC_TOKEN = "sync-token";
+    /** The WebDAV element name <code>sync-level</code> (RFC 6578) */
+    String XML_SYNC_LEVEL = "sync-level";
+    /** The WebDAV element name <code>limit</code> (RFC 5323) */
+    String XML_LIMIT = "limit";
+    /** The WebDAV element name <code>nresults</code> (RFC 5323) */
+    String XML_NRESULTS = "nresults";
+
+    /** The WebDAV property <code>DAV:sync-token</code> */
+    DavPropertyName SYNCTOKEN =
+        DavPropertyName.create(XML_SYNC_TOKEN, NAMESPACE);
+
 
     String QN_PROPFIND =
         DomUtil.getExpandedName(XML_PROPFIND, NAMESPACE);
@@ -79,6 +94,8 @@ public interface ExtendedDavConstants extends DavConstants {
         DomUtil.getExpandedName(XML_HREF, NAMESPACE);
     String QN_OWNER =
         DomUtil.getExpandedName(XML_OWNER, NAMESPACE);
+    String QN_SYNC_TOKEN =
+        DomUtil.getExpandedName(XML_SYNC_TOKEN, NAMESPACE);
 
     CosmoQName RESOURCE_TYPE_COLLECTION =
         new CosmoQName(NAMESPACE.getURI(), XML_COLLECTION, NAMESPACE.getPrefix());
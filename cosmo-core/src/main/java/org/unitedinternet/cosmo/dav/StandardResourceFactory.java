@@ -212,6 +212,26 @@ public class StandardResourceFactory implements DavResourceFactory {
         return createUnknownResource(locator, uri);
     }
 
+    /**
+     * <p>
+     * Returns the entity tag of the content item located by the given <code>DavResourceLocator</code> without
+     * instantiating a resource for it.
+     * </p>
+     * <p>
+     * Only plain item paths are looked up; uid based, principal and scheduling URIs return <code>null</code>.
+     * </p>
+     */
+    public String findEntityTag(DavResourceLocator locator) {
+        String uri = locator.getPath();
+        if (TEMPLATE_COLLECTION.match(uri) != null || TEMPLATE_ITEM.match(uri) != null
+                || TEMPLATE_USERS.match(uri) != null || TEMPLATE_USER.match(uri) != null
+                || TEMPLATE_USER_INBOX.match(uri) != null || TEMPLATE_USER_OUTBOX.match(uri) != null) {
+            return null;
+        }
+        String etag = contentService.findEntityTagByPath(uri);
+        return etag != null && !etag.isEmpty() ? etag : null;
+    }
+
     /**
      * <p>
      * Instantiates a <code>WebDavResource</code> representing the <code>Item</code> located by the given
@@ -298,6 +318,10 @@ public class StandardResourceFactory implements DavResourceFactory {
         return userService;
     }
 
+    public UserIdentitySupplier getUserIdentitySupplier() {
+        return userIdentitySupplier;
+    }
+
     public CosmoSecurityManager getSecurityManager() {
         return securityManager;
     }
@@ -31,6 +31,7 @@ import org.unitedinternet.cosmo.dav.UnprocessableEntityException;
 import org.unitedinternet.cosmo.dav.WebDavResource;
 import org.unitedinternet.cosmo.dav.acl.AclConstants;
 import org.unitedinternet.cosmo.dav.acl.resource.DavUserPrincipal;
+import org.unitedinternet.cosmo.dav.acl.resource.DavUserPrincipalCollection;
 import org.unitedinternet.cosmo.dav.property.WebDavProperty;
 import org.unitedinternet.cosmo.dav.report.MultiStatusReport;
 import org.unitedinternet.cosmo.model.User;
@@ -184,6 +185,12 @@ public class PrincipalMatchReport extends MultiStatusReport
 
     protected void doQueryChildren(DavCollection collection)
         throws CosmoDavException {
+        if (collection instanceof DavUserPrincipalCollection) {
+            // of all user principals only the one of the current user can
+            // match, so don't look at the others
+            doQuerySelf(((DavUserPrincipalCollection) collection).findMember(currentUser));
+            return;
+        }
         for (DavResourceIterator i = collection.getMembers(); i.hasNext();) {
             WebDavResource member = (WebDavResource) i.nextResource();
             if (member.isCollection()) {
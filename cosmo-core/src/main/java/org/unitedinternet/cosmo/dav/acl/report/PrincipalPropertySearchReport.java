@@ -16,6 +16,7 @@
 package org.unitedinternet.cosmo.dav.acl.report;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -36,6 +37,7 @@ import org.unitedinternet.cosmo.dav.acl.AclConstants;
 import org.unitedinternet.cosmo.dav.acl.property.PrincipalCollectionSet;
 import org.unitedinternet.cosmo.dav.acl.resource.DavUserPrincipal;
 import org.unitedinternet.cosmo.dav.acl.resource.DavUserPrincipalCollection;
+import org.unitedinternet.cosmo.dav.caldav.CaldavConstants;
 import org.unitedinternet.cosmo.dav.property.WebDavProperty;
 import org.unitedinternet.cosmo.dav.report.MultiStatusReport;
 import org.w3c.dom.CharacterData;
@@ -66,6 +68,16 @@ import org.w3c.dom.NodeList;
  * As per RFC 3744, the report must be specified with depth 0. The report
  * must be targeted at a collection.
  * </p>
+ * <p>
+ * Principal collections are searched page by page, ordered by username. At
+ * least one search spec must only test properties that are made of the
+ * username, email address, first or last name, so that only the users where
+ * one of those contains a word of its match string are looked up. Searches
+ * over other properties alone are rejected rather than testing every user.
+ * At most {@link #MAX_CANDIDATES} users are tested. The number of results is
+ * limited to {@link #MAX_RESULTS}, or to the number given by a
+ * <code>DAV:limit</code> element if it is lower.
+ * </p>
  */
 public class PrincipalPropertySearchReport extends MultiStatusReport
     implements AclConstants {
@@ -76,8 +88,31 @@ public class PrincipalPropertySearchReport extends MultiStatusReport
         ReportType.register(ELEMENT_ACL_PRINCIPAL_PROPERTY_SEARCH, NAMESPACE,
                             PrincipalPropertySearchReport.class);
 
+    /**
+     * Maximum number of principals returned.
+     */
+    public static final int MAX_RESULTS = 100;
+
+    /**
+     * Maximum number of users tested against the search specs.
+     */
+    public static final int MAX_CANDIDATES = 1000;
+
+    /**
+     * Number of users tested at once.
+     */
+    private static final int PAGE_SIZE = 100;
+
+    /**
+     * Properties whose values contain the match string only if the username,
+     * email address, first or last name does.
+     */
+    private static final Set<DavPropertyName> USER_PROPERTIES = Set.of(DavPropertyName.DISPLAYNAME,
+            CaldavConstants.CALENDARUSERADDRESSSET);
+
     private Set<SearchSpec> searchSpecs;
     private boolean searchPrincipalCollections;
+    private int limit;
 
     // Report methods
 
@@ -109,6 +144,7 @@ public class PrincipalPropertySearchReport extends MultiStatusReport
 
         searchSpecs = findSearchSpecs(info);
         searchPrincipalCollections = findSearchPrincipalCollections(info);
+        limit = findLimit(info);
     }
 
     /**
@@ -161,6 +197,10 @@ public class PrincipalPropertySearchReport extends MultiStatusReport
      */
     protected void doQueryChildren(DavCollection collection)
         throws CosmoDavException {
+        if (collection instanceof DavUserPrincipalCollection) {
+            doQueryPrincipals((DavUserPrincipalCollection) collection);
+            return;
+        }
         for (DavResourceIterator i = collection.getMembers(); i.hasNext();) {
             WebDavResource member = (WebDavResource) i.nextResource();
             if (member instanceof DavUserPrincipal) {
@@ -177,6 +217,38 @@ public class PrincipalPropertySearchReport extends MultiStatusReport
         }
     }
 
+    /**
+     * Tests the principals of the users that may match, one page at a time,
+     * until the limit is reached.
+     */
+    protected void doQueryPrincipals(DavUserPrincipalCollection collection)
+        throws CosmoDavException {
+        String text = findUserText();
+        if (text.isEmpty()) {
+            throw new BadRequestException("Expected a DAV:property-search of only DAV:displayname or "
+                    + "CALDAV:calendar-user-address-set in DAV:principal-property-search");
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Searching principals containing '{}'", text);
+        }
+        String after = null;
+        for (int tested = 0; tested < MAX_CANDIDATES && getResults().size() < limit; tested += PAGE_SIZE) {
+            List<DavUserPrincipal> members = collection.findMembers(text, after, PAGE_SIZE);
+            for (DavUserPrincipal member : members) {
+                after = member.getUser().getUsername();
+                if (getResults().size() < limit && matchPrincipal(member)) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Matched {}", member.getResourcePath());
+                    }
+                    getResults().add(member);
+                }
+            }
+            if (members.size() < PAGE_SIZE) {
+                return;
+            }
+        }
+    }
+
     // our methods
 
     public Set<SearchSpec> getSearchSpecs() {
@@ -187,6 +259,34 @@ public class PrincipalPropertySearchReport extends MultiStatusReport
         return searchPrincipalCollections;
     }
 
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the text that the username, email address, first or last name
+     * of every matching user contains, empty if there is none. A match string
+     * with whitespace may span the first and last name of the display name,
+     * but each of its words lies within one of them. Every search spec has to
+     * match, so the longest word of the specs that only test such properties
+     * selects the fewest users. Calendar user addresses may be given as URIs.
+     */
+    private String findUserText() {
+        String text = "";
+        for (SearchSpec spec : searchSpecs) {
+            if (!USER_PROPERTIES.containsAll(spec.getProperties())) {
+                continue;
+            }
+            for (String word : StringUtils.split(spec.getMatch())) {
+                word = StringUtils.removeStartIgnoreCase(word, "mailto:");
+                if (word.length() > text.length()) {
+                    text = word;
+                }
+            }
+        }
+        return text;
+    }
+
     private static Set<SearchSpec> findSearchSpecs(ReportInfo info)
         throws CosmoDavException {
         HashSet<SearchSpec> specs = new HashSet<SearchSpec>();
@@ -211,6 +311,25 @@ public class PrincipalPropertySearchReport extends MultiStatusReport
                                        NAMESPACE);
     }
 
+    private static int findLimit(ReportInfo info)
+        throws CosmoDavException {
+        Element l = DomUtil.getChildElement(getReportElementFrom(info),
+                                            "limit", NAMESPACE);
+        if (l == null) {
+            return MAX_RESULTS;
+        }
+        int nresults;
+        try {
+            nresults = Integer.parseInt(DomUtil.getChildTextTrim(l, "nresults", NAMESPACE));
+        } catch (NumberFormatException e) {
+            nresults = 0;
+        }
+        if (nresults < 1) {
+            throw new BadRequestException("Expected a positive number in DAV:nresults child of DAV:limit");
+        }
+        return Math.min(nresults, MAX_RESULTS);
+    }
+
     private boolean matchPrincipal(DavUserPrincipal principal)
         throws CosmoDavException {
         for (SearchSpec spec : searchSpecs) {
@@ -323,7 +442,10 @@ public class PrincipalPropertySearchReport extends MultiStatusReport
                 throw new BadRequestException("Expected DAV:match child of DAV:property-search");
             }
             String match = DomUtil.getText(m);
-            
+            if (StringUtils.isBlank(match)) {
+                throw new BadRequestException("Expected non-empty DAV:match child of DAV:property-search");
+            }
+
             return new SearchSpec(properties, match);
         }
     }
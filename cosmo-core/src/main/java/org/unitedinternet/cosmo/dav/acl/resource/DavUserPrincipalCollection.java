@@ -16,8 +16,10 @@
 package org.unitedinternet.cosmo.dav.acl.resource;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import javax.xml.namespace.QName;
@@ -121,7 +123,8 @@ public class DavUserPrincipalCollection extends DavResourceBase implements DavCo
     }
 
     public DavResourceIterator getMembers() {        
-        // Return an empty list to also support PROPFIND with depth 1 and depth infinity.
+        // Return an empty list to also support PROPFIND with depth 1 and depth infinity. Members are searched with
+        // findMembers(String, String, int) rather than listing every user.
         return new DavResourceIteratorImpl(Collections.emptyList());
     }
     
@@ -177,6 +180,42 @@ public class DavUserPrincipalCollection extends DavResourceBase implements DavCo
         return (DavUserPrincipal) getResourceFactory().resolve(locator);
     }
 
+    /**
+     * Returns a page of the principal resources of the users whose username, email address, first name or last name
+     * contains the given text, ignoring case, ordered by username.
+     * 
+     * @param text
+     *            the text to search for, all users if empty
+     * @param afterUsername
+     *            the username of the last principal of the previous page, <code>null</code> for the first page
+     * @param max
+     *            the maximum number of principals to return
+     * @return the matching principals
+     * @throws CosmoDavException
+     *             if a principal could not be created
+     */
+    public List<DavUserPrincipal> findMembers(String text, String afterUsername, int max) throws CosmoDavException {
+        List<DavUserPrincipal> members = new ArrayList<DavUserPrincipal>();
+        for (User user : getResourceFactory().getUserService().findUsersContaining(text, afterUsername, max)) {
+            members.add(findMember(user));
+        }
+        return members;
+    }
+
+    /**
+     * @param user
+     *            the user
+     * @return the principal resource of the given user
+     * @throws CosmoDavException
+     *             if the principal could not be created
+     */
+    public DavUserPrincipal findMember(User user) throws CosmoDavException {
+        DavResourceLocator locator = getResourceLocator().getFactory()
+                .createPrincipalLocator(getResourceLocator().getContext(), user);
+        return new DavUserPrincipal(user, locator, getResourceFactory(),
+                getResourceFactory().getUserIdentitySupplier());
+    }
+
     // our methods
 
     protected Set<QName> getResourceTypes() {
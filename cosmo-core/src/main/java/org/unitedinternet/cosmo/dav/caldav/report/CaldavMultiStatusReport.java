@@ -15,6 +15,8 @@
  */
 package org.unitedinternet.cosmo.dav.caldav.report;
 
+import java.nio.charset.StandardCharsets;
+
 import org.apache.jackrabbit.webdav.MultiStatusResponse;
 import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
 import org.apache.jackrabbit.webdav.version.report.ReportInfo;
@@ -124,7 +126,7 @@ public abstract class CaldavMultiStatusReport extends MultiStatusReport
             outputFilter.filter(resource.getCalendar(), builder);
         }
         else {
-            builder.append(resource.getCalendar().toString());
+            builder.append(new String(resource.getCalendarBytes(), StandardCharsets.UTF_8));
         }
         return builder.toString();
     }
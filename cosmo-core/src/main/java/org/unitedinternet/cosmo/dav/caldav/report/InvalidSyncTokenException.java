@@ -0,0 +1,30 @@
+package org.unitedinternet.cosmo.dav.caldav.report;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.unitedinternet.cosmo.dav.ForbiddenException;
+
+/**
+ * An exception indicating that the <code>DAV:sync-token</code> submitted
+ * with a <code>DAV:sync-collection</code> report was not issued by the
+ * server or is no longer valid.
+ */
+@SuppressWarnings("serial")
+public class InvalidSyncTokenException extends ForbiddenException {
+
+    /**
+     * Constructor.
+     * @param message The exception message.
+     */
+    public InvalidSyncTokenException(String message) {
+        super(message);
+    }
+
+    protected void writeContent(XMLStreamWriter writer)
+        throws XMLStreamException {
+        writer.writeStartElement("DAV:", "valid-sync-token");
+        writer.writeCharacters(getMessage());
+        writer.writeEndElement();
+    }
+}
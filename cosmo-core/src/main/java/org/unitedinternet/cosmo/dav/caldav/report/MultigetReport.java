@@ -21,6 +21,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -39,6 +40,7 @@ import org.unitedinternet.cosmo.dav.DavContent;
 import org.unitedinternet.cosmo.dav.UnprocessableEntityException;
 import org.unitedinternet.cosmo.dav.WebDavResource;
 import org.unitedinternet.cosmo.dav.impl.DavCalendarResource;
+import org.unitedinternet.cosmo.dav.impl.DavCollectionBase;
 import org.w3c.dom.Element;
 
 /**
@@ -157,28 +159,45 @@ public class MultigetReport extends CaldavMultiStatusReport {
         throws CosmoDavException {}
 
     /**
-     * Resolves the hrefs provided in the report info to resources.
+     * Resolves the hrefs provided in the report info to resources. Members
+     * of a stored collection are resolved in one batch rather than one
+     * lookup per href.
      */
     protected void runQuery()
         throws CosmoDavException {
         DavPropertyNameSet propspec = createResultPropSpec();
 
+        if (getResource() instanceof DavCollectionBase) {
+            DavCollectionBase collection = (DavCollectionBase) getResource();
+            Map<String, WebDavResource> members = collection.findMembers(hrefs);
+            for (String href : hrefs) {
+                WebDavResource target = members.get(href);
+                if (target != null) {
+                    addResponse(buildMultiStatusResponse(target, propspec));
+                }
+                else {
+                    addResponse(new MultiStatusResponse(href,404));
+                }
+            }
+            return;
+        }
+
         if (getResource() instanceof DavCollection) {
             DavCollection collection = (DavCollection) getResource();
             for (String href : hrefs) {
                 WebDavResource target = collection.findMember(href);
                 if (target != null) {
-                    getMultiStatus().addResponse(buildMultiStatusResponse(target, propspec));
+                    addResponse(buildMultiStatusResponse(target, propspec));
                 }
                 else {
-                    getMultiStatus().addResponse(new MultiStatusResponse(href,404));
+                    addResponse(new MultiStatusResponse(href,404));
                 }
             }
             return;
         }
 
         if (getResource() instanceof DavCalendarResource) {
-            getMultiStatus().addResponse(buildMultiStatusResponse(getResource(), propspec));
+            addResponse(buildMultiStatusResponse(getResource(), propspec));
             return;
         }
 
@@ -0,0 +1,30 @@
+package org.unitedinternet.cosmo.dav.caldav.report;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.unitedinternet.cosmo.dav.CosmoDavException;
+
+/**
+ * An exception indicating that a <code>DAV:sync-collection</code> report
+ * would return more results than the <code>DAV:limit</code> of the request
+ * allows (RFC 6578, section 3.6).
+ */
+@SuppressWarnings("serial")
+public class NumberOfMatchesExceededException extends CosmoDavException {
+
+    /**
+     * Constructor.
+     * @param message The exception message.
+     */
+    public NumberOfMatchesExceededException(String message) {
+        super(507, message);
+    }
+
+    protected void writeContent(XMLStreamWriter writer)
+        throws XMLStreamException {
+        writer.writeStartElement("DAV:", "number-of-matches-within-limits");
+        writer.writeCharacters(getMessage());
+        writer.writeEndElement();
+    }
+}
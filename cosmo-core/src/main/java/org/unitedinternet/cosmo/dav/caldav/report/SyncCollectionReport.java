@@ -0,0 +1,192 @@
+package org.unitedinternet.cosmo.dav.caldav.report;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.jackrabbit.webdav.MultiStatusResponse;
+import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
+import org.apache.jackrabbit.webdav.version.report.ReportInfo;
+import org.apache.jackrabbit.webdav.version.report.ReportType;
+import org.apache.jackrabbit.webdav.xml.DomUtil;
+import org.apache.jackrabbit.webdav.xml.XmlSerializable;
+import org.unitedinternet.cosmo.dav.BadRequestException;
+import org.unitedinternet.cosmo.dav.CosmoDavException;
+import org.unitedinternet.cosmo.dav.DavCollection;
+import org.unitedinternet.cosmo.dav.UnprocessableEntityException;
+import org.unitedinternet.cosmo.dav.WebDavResource;
+import org.unitedinternet.cosmo.dav.impl.DavCalendarCollection;
+import org.unitedinternet.cosmo.dav.impl.DavCalendarResource;
+import org.unitedinternet.cosmo.dav.property.SyncToken;
+import org.w3c.dom.Element;
+
+/**
+ * <p>
+ * Represents the <code>DAV:sync-collection</code> report defined by RFC 6578
+ * that allows a client to retrieve the members of a calendar collection that
+ * changed since a previous synchronization, along with the hrefs of the members
+ * that were removed in the meantime.
+ * </p>
+ * <p>
+ * An empty <code>DAV:sync-token</code> requests an initial synchronization in
+ * which every member of the collection is returned. Only
+ * <code>DAV:sync-level</code> 1 is supported, as calendar collections cannot
+ * contain other collections.
+ * </p>
+ * <p>
+ * If the request carries a <code>DAV:limit</code> and more members changed
+ * than it allows, the report fails with <code>507</code> and the
+ * <code>DAV:number-of-matches-within-limits</code> precondition, as the
+ * changes are not split across several responses.
+ * </p>
+ */
+public class SyncCollectionReport extends CaldavMultiStatusReport {
+
+    public static final ReportType REPORT_TYPE_SYNC_COLLECTION =
+        ReportType.register(XML_SYNC_COLLECTION, NAMESPACE,
+                            SyncCollectionReport.class);
+
+    private Long since;
+    private Integer limit;
+    private long newSyncSequence;
+
+    // Report methods
+
+    public ReportType getType() {
+        return REPORT_TYPE_SYNC_COLLECTION;
+    }
+
+    // ReportBase methods
+
+    /**
+     * <p>
+     * Parses the report info, extracting the sync token, the sync level,
+     * the properties and the output filter.
+     * </p>
+     * <pre>
+     * <!ELEMENT sync-collection (sync-token, sync-level, limit?, prop)>
+     * </pre>
+     *
+     * @throws CosmoDavException if the report info is not of the correct type
+     */
+    protected void parseReport(ReportInfo info) throws CosmoDavException {
+        if (! getType().isRequestedReportType(info)) {
+            throw new CosmoDavException("Report not of type " + getType().getReportName());
+        }
+
+        if (! (getResource() instanceof DavCalendarCollection)) {
+            throw new UnprocessableEntityException(getType() + " report not supported for non-calendar collections");
+        }
+
+        setPropFindProps(info.getPropertyNameSet());
+        if (info.containsContentElement(XML_ALLPROP, NAMESPACE)) {
+            setPropFindType(PROPFIND_ALL_PROP);
+        } else if (info.containsContentElement(XML_PROPNAME, NAMESPACE)) {
+            setPropFindType(PROPFIND_PROPERTY_NAMES);
+        } else {
+            setPropFindType(PROPFIND_BY_PROPERTY);
+            setOutputFilter(findOutputFilter(info));
+        }
+
+        Element reportElement = getReportElementFrom(info);
+        Element tokenElement = DomUtil.getChildElement(reportElement, XML_SYNC_TOKEN, NAMESPACE);
+        if (tokenElement == null) {
+            throw new BadRequestException("Expected " + QN_SYNC_TOKEN);
+        }
+        String token = DomUtil.getTextTrim(tokenElement);
+        if (token == null || token.isEmpty()) {
+            since = null;
+        } else {
+            since = SyncToken.toSyncSequence(token);
+            if (since == null) {
+                throw new InvalidSyncTokenException("Sync token " + token + " was not issued by this server");
+            }
+        }
+
+        Element levelElement = DomUtil.getChildElement(reportElement, XML_SYNC_LEVEL, NAMESPACE);
+        if (levelElement != null && ! "1".equals(DomUtil.getTextTrim(levelElement))) {
+            throw new BadRequestException("Only " + XML_SYNC_LEVEL + " 1 is supported");
+        }
+
+        limit = findLimit(reportElement);
+    }
+
+    private static Integer findLimit(Element reportElement) throws CosmoDavException {
+        Element limitElement = DomUtil.getChildElement(reportElement, XML_LIMIT, NAMESPACE);
+        if (limitElement == null) {
+            return null;
+        }
+        int nresults;
+        try {
+            nresults = Integer.parseInt(DomUtil.getChildTextTrim(limitElement, XML_NRESULTS, NAMESPACE));
+        } catch (NumberFormatException e) {
+            nresults = 0;
+        }
+        if (nresults < 1) {
+            throw new BadRequestException("Expected a positive number in DAV:nresults child of DAV:limit");
+        }
+        return nresults;
+    }
+
+    protected void doQuerySelf(WebDavResource resource)
+        throws CosmoDavException {}
+
+    protected void doQueryChildren(DavCollection collection)
+        throws CosmoDavException {}
+
+    /**
+     * Adds a response for each member changed since the submitted sync token
+     * and a <code>404</code> response for each member removed since then.
+     * Nothing is added if there are more of them than the limit allows.
+     */
+    protected void runQuery()
+        throws CosmoDavException {
+        DavCalendarCollection collection = (DavCalendarCollection) getResource();
+        // read the token before the members so that a concurrent change is
+        // reported again on the next sync rather than missed
+        newSyncSequence = collection.getSyncSequence();
+        if (since != null && since > newSyncSequence) {
+            throw new InvalidSyncTokenException("Sync token is newer than the collection");
+        }
+
+        Set<DavCalendarResource> members = collection.findMembersChangedSince(since);
+        Set<String> changed = new HashSet<String>();
+        for (DavCalendarResource member : members) {
+            changed.add(member.getResourceLocator().getHref(false));
+        }
+        Set<String> removed = new HashSet<String>();
+        if (since != null) {
+            for (String href : collection.findRemovedMemberHrefs(since)) {
+                if (! changed.contains(href)) {
+                    removed.add(href);
+                }
+            }
+        }
+        if (limit != null && members.size() + removed.size() > limit) {
+            throw new NumberOfMatchesExceededException(
+                    (members.size() + removed.size()) + " changes exceed the limit of " + limit);
+        }
+
+        DavPropertyNameSet propspec = createResultPropSpec();
+        for (DavCalendarResource member : members) {
+            addResponse(buildMultiStatusResponse(member, propspec));
+        }
+        for (String href : removed) {
+            addResponse(new MultiStatusResponse(href, 404));
+        }
+    }
+
+    /**
+     * Returns the new <code>DAV:sync-token</code>, written after the
+     * responses.
+     */
+    @Override
+    protected XmlSerializable[] getTrailingElements() {
+        XmlSerializable token = document -> DomUtil.createElement(document, XML_SYNC_TOKEN, NAMESPACE,
+                SyncToken.toToken(newSyncSequence));
+        return new XmlSerializable[] { token };
+    }
+
+    public long getNewSyncSequence() {
+        return newSyncSequence;
+    }
+}
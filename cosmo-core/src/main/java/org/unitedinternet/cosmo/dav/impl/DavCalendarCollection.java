@@ -15,21 +15,28 @@
  */
 package org.unitedinternet.cosmo.dav.impl;
 
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import javax.xml.namespace.QName;
 
 import org.apache.jackrabbit.webdav.io.InputContext;
 import org.apache.jackrabbit.webdav.property.DavPropertyName;
 import org.apache.jackrabbit.webdav.property.DavPropertySet;
+import org.apache.jackrabbit.webdav.version.report.ReportType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
 import org.unitedinternet.cosmo.dao.ModelValidationException;
-import org.unitedinternet.cosmo.dao.external.UuidExternalGenerator;
-import org.unitedinternet.cosmo.dao.subscription.UuidSubscriptionGenerator;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.DavCollection;
 import org.unitedinternet.cosmo.dav.DavResourceFactory;
@@ -57,7 +64,9 @@ import org.unitedinternet.cosmo.dav.caldav.property.MaxResourceSize;
 import org.unitedinternet.cosmo.dav.caldav.property.SupportedCalendarComponentSet;
 import org.unitedinternet.cosmo.dav.caldav.property.SupportedCalendarData;
 import org.unitedinternet.cosmo.dav.caldav.property.SupportedCollationSet;
+import org.unitedinternet.cosmo.dav.caldav.report.SyncCollectionReport;
 import org.unitedinternet.cosmo.dav.property.DisplayName;
+import org.unitedinternet.cosmo.dav.property.SyncToken;
 import org.unitedinternet.cosmo.dav.property.WebDavProperty;
 import org.unitedinternet.cosmo.icalendar.ICalendarConstants;
 import org.unitedinternet.cosmo.model.CalendarCollectionStamp;
@@ -68,8 +77,11 @@ import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.DataSizeException;
 import org.unitedinternet.cosmo.model.EntityFactory;
 import org.unitedinternet.cosmo.model.EventStamp;
+import org.unitedinternet.cosmo.model.ICalendarItem;
 import org.unitedinternet.cosmo.model.IcalUidInUseException;
 import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.ItemTombstone;
+import org.unitedinternet.cosmo.model.ModificationUid;
 import org.unitedinternet.cosmo.model.NoteItem;
 import org.unitedinternet.cosmo.model.StampUtils;
 import org.unitedinternet.cosmo.model.Ticket;
@@ -81,6 +93,10 @@ import net.fortuna.ical4j.model.Component;
 import net.fortuna.ical4j.model.Period;
 import net.fortuna.ical4j.model.component.VFreeBusy;
 import net.fortuna.ical4j.model.component.VTimeZone;
+import net.fortuna.ical4j.model.property.CalScale;
+import net.fortuna.ical4j.model.property.ProdId;
+import net.fortuna.ical4j.model.property.Version;
+import net.fortuna.ical4j.util.Strings;
 
 /**
  * Extends <code>DavCollection</code> to adapt the Cosmo <code>CalendarCollectionItem</code> to the DAV resource model.
@@ -94,6 +110,7 @@ import net.fortuna.ical4j.model.component.VTimeZone;
  * <li><code>CALDAV:supported-calendar-data</code> (protected)</li>
  * <li><code>CALDAV:max-resource-size</code> (protected)</li>
  * <li><code>CS:getctag</code> (protected)</li>
+ * <li><code>DAV:sync-token</code> (protected)</li>
  * <li><code>XC:calendar-color</code></li>
  * <li><code>XC:calendar-visible</code></li>
  * </ul>
@@ -104,8 +121,14 @@ import net.fortuna.ical4j.model.component.VTimeZone;
 public class DavCalendarCollection extends DavCollectionBase implements CaldavConstants, ICalendarConstants {
     
     private static final Logger LOG = LoggerFactory.getLogger(DavCalendarCollection.class);
+
+    private static final int EXPORT_PAGE_SIZE = 200;
+
+    /** UIDs that can be used as member names of imported items as they are. */
+    private static final Pattern SAFE_UID = Pattern.compile("[A-Za-z0-9][A-Za-z0-9@._-]{0,250}");
     
     private static final Set<String> DEAD_PROPERTY_FILTER = new HashSet<String>();
+    private static final Set<ReportType> REPORT_TYPES = new HashSet<ReportType>();
 
     static {
         registerLiveProperty(CALENDARDESCRIPTION);
@@ -114,9 +137,12 @@ public class DavCalendarCollection extends DavCollectionBase implements CaldavCo
         registerLiveProperty(SUPPORTEDCALENDARDATA);
         registerLiveProperty(MAXRESOURCESIZE);
         registerLiveProperty(GET_CTAG);
+        registerLiveProperty(SYNCTOKEN);
         registerLiveProperty(XCaldavConstants.CALENDAR_COLOR);
         registerLiveProperty(XCaldavConstants.CALENDAR_VISIBLE);
 
+        REPORT_TYPES.add(SyncCollectionReport.REPORT_TYPE_SYNC_COLLECTION);
+
         DEAD_PROPERTY_FILTER.add(CalendarCollectionStamp.class.getName());
     }
 
@@ -161,6 +187,15 @@ public class DavCalendarCollection extends DavCollectionBase implements CaldavCo
         return true;
     }
 
+    // WebDavResource
+
+    public Set<ReportType> getReportTypes() {
+        Set<ReportType> types = new HashSet<ReportType>();
+        types.addAll(super.getReportTypes());
+        types.addAll(REPORT_TYPES);
+        return types;
+    }
+
     // our methods
 
     /**
@@ -180,6 +215,66 @@ public class DavCalendarCollection extends DavCollectionBase implements CaldavCo
         return members;
     }
 
+    /**
+     * Returns the current sync sequence of this calendar collection. The
+     * sequence is incremented by every transaction that creates, updates or
+     * removes members of the collection, so it serves as the sync token basis.
+     */
+    public long getSyncSequence() {
+        Long syncSequence = ((CollectionItem) getItem()).getSyncSequence();
+        return syncSequence != null ? syncSequence : 0;
+    }
+
+    /**
+     * Returns the member resources in this calendar collection that were created
+     * or updated after the given sync sequence, or all members if the sequence is
+     * <code>null</code>. Changes to recurrence modifications are reported on
+     * their master resource.
+     */
+    public Set<DavCalendarResource> findMembersChangedSince(Long syncSequence) throws CosmoDavException {
+        Set<DavCalendarResource> members = new HashSet<DavCalendarResource>();
+
+        CollectionItem collection = (CollectionItem) getItem();
+        Set<String> seen = new HashSet<String>();
+        for (ContentItem memberItem : getContentService().loadChangedChildren(collection, syncSequence)) {
+            Item target = memberItem;
+            if (memberItem instanceof NoteItem && ((NoteItem) memberItem).getModifies() != null) {
+                target = ((NoteItem) memberItem).getModifies();
+            }
+            if (!seen.add(target.getUid())) {
+                continue;
+            }
+            WebDavResource resource = memberToResource(target);
+            if (resource instanceof DavCalendarResource) {
+                members.add((DavCalendarResource) resource);
+            }
+        }
+
+        return members;
+    }
+
+    /**
+     * Returns the hrefs of the member resources that were removed from this
+     * calendar collection after the given sync sequence, or of all removed members
+     * if the sequence is <code>null</code>. Tombstones of recurrence modifications
+     * are skipped since those never had a resource of their own.
+     */
+    public Set<String> findRemovedMemberHrefs(Long syncSequence) throws CosmoDavException {
+        Set<String> hrefs = new HashSet<String>();
+
+        CollectionItem collection = (CollectionItem) getItem();
+        for (ItemTombstone tombstone : getContentService().loadTombstones(collection, syncSequence)) {
+            String name = tombstone.getItemName();
+            if (name == null || (name.equals(tombstone.getItemUid())
+                    && name.contains(ModificationUid.RECURRENCEID_DELIMITER))) {
+                continue;
+            }
+            hrefs.add(memberHref(name));
+        }
+
+        return hrefs;
+    }
+
     /**
      * Returns the member collection resources in this calendar collection.
      * 
@@ -261,6 +356,9 @@ public class DavCalendarCollection extends DavCollectionBase implements CaldavCo
         if (item != null && item.getEntityTag() != null) {
             properties.add(new GetCTag(item.getEntityTag()));
         }
+        if (item != null && item.getModifiedDate() != null) {
+            properties.add(new SyncToken(getSyncSequence()));
+        }
 
         properties.add(new SupportedCalendarComponentSet());
         properties.add(new SupportedCollationSet());
@@ -301,7 +399,8 @@ public class DavCalendarCollection extends DavCollectionBase implements CaldavCo
         }
 
         if (!(create && name.equals(SUPPORTEDCALENDARCOMPONENTSET)) && (name.equals(SUPPORTEDCALENDARCOMPONENTSET)
-                || name.equals(SUPPORTEDCALENDARDATA) || name.equals(MAXRESOURCESIZE) || name.equals(GET_CTAG))) {
+                || name.equals(SUPPORTEDCALENDARDATA) || name.equals(MAXRESOURCESIZE) || name.equals(GET_CTAG)
+                || name.equals(SYNCTOKEN))) {
             throw new ProtectedPropertyModificationException(name);
         }
 
@@ -332,7 +431,7 @@ public class DavCalendarCollection extends DavCollectionBase implements CaldavCo
         }
 
         if (name.equals(SUPPORTEDCALENDARCOMPONENTSET) || name.equals(SUPPORTEDCALENDARDATA)
-                || name.equals(MAXRESOURCESIZE) || name.equals(GET_CTAG)) {
+                || name.equals(MAXRESOURCESIZE) || name.equals(GET_CTAG) || name.equals(SYNCTOKEN)) {
             throw new ProtectedPropertyModificationException(name);
         }
 
@@ -422,6 +521,135 @@ public class DavCalendarCollection extends DavCollectionBase implements CaldavCo
         member.setItem(content);
     }
 
+    /**
+     * Imports every component of the given calendar as a new member of this
+     * collection in a single batch, rather than as one PUT per resource.
+     * Members are named after the icalendar uid of their master component.
+     *
+     * @param calendar calendar holding the components to import
+     * @throws CosmoDavException if the calendar is invalid or a uid is already in use
+     */
+    public void importCalendar(Calendar calendar) throws CosmoDavException {
+        CollectionItem collection = (CollectionItem) getItem();
+        EntityConverter converter = new EntityConverter(getEntityFactory());
+        Set<ContentItem> toImport = new LinkedHashSet<ContentItem>();
+
+        try {
+            for (ICalendarItem item : converter.convertCalendar(calendar)) {
+                item.setOwner(collection.getOwner());
+                if (!(item instanceof NoteItem) || ((NoteItem) item).getModifies() == null) {
+                    item.setName(memberName(item));
+                }
+                toImport.add(item);
+            }
+        } catch (ModelValidationException e) {
+            throw new InvalidCalendarResourceException(e.getMessage());
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("importing {} items into {}", toImport.size(), getResourcePath());
+        }
+
+        try {
+            getContentService().importContentItems(collection, toImport);
+        } catch (IcalUidInUseException e) {
+            throw new UidConflictException(e);
+        } catch (CollectionLockedException e) {
+            throw new LockedException();
+        }
+    }
+
+    /**
+     * Returns the member name of an imported item, derived from its UID if
+     * the UID is safe to use in a path and generated otherwise.
+     */
+    private String memberName(ICalendarItem item) {
+        String uid = item.getIcalUid();
+        if (uid == null || !SAFE_UID.matcher(uid).matches()) {
+            uid = getEntityFactory().generateUid();
+        }
+        return uid + ".ics";
+    }
+
+    /**
+     * Writes the whole collection as a single icalendar stream. The members
+     * are read page by page in a single pass, so memory use does not depend
+     * on the size of the collection. Each distinct timezone is written once,
+     * before the components of the first member that defines it.
+     *
+     * @param writer writer the calendar is written to
+     * @param productId product identifier of the written calendar
+     * @throws IOException if writing fails
+     */
+    public void writeCalendar(Writer writer, String productId) throws IOException {
+        writer.write(Calendar.BEGIN + ':' + Calendar.VCALENDAR + Strings.LINE_SEPARATOR);
+        writer.write(new ProdId(productId).toString());
+        writer.write(Version.VERSION_2_0.toString());
+        writer.write(CalScale.GREGORIAN.toString());
+
+        Map<String, String> timezones = new HashMap<String, String>();
+        forEachMemberCalendar(calendar -> {
+            for (Object component : calendar.getComponents(Component.VTIMEZONE)) {
+                VTimeZone timezone = (VTimeZone) component;
+                String tzid = timezone.getTimeZoneId().getValue();
+                String definition = timezone.toString();
+                String written = timezones.putIfAbsent(tzid, definition);
+                if (written == null) {
+                    writer.write(definition);
+                } else if (!written.equals(definition)) {
+                    // the definition already written is kept, it can't be taken back
+                    LOG.warn("Timezone {} is defined differently by members of {}, keeping the first definition",
+                            tzid, getResourcePath());
+                }
+            }
+            for (Object component : calendar.getComponents()) {
+                if (!(component instanceof VTimeZone)) {
+                    writer.write(component.toString());
+                }
+            }
+        });
+        writer.write(Calendar.END + ':' + Calendar.VCALENDAR + Strings.LINE_SEPARATOR);
+        writer.flush();
+    }
+
+    private void forEachMemberCalendar(MemberCalendarHandler handler) throws IOException {
+        CollectionItem collection = (CollectionItem) getItem();
+        EntityConverter converter = new EntityConverter(getEntityFactory());
+
+        if (isGeneratedUid(collection)) {
+            // external and subscribed collections are not paged, their members are already loaded
+            for (Item member : collection.getChildren()) {
+                if (member instanceof NoteItem && ((NoteItem) member).getModifies() == null) {
+                    handleMemberCalendar(converter.convertContent((NoteItem) member), handler);
+                }
+            }
+            return;
+        }
+
+        String afterUid = null;
+        List<NoteItem> page;
+        do {
+            page = getContentService().loadMasterNotes(collection, afterUid, EXPORT_PAGE_SIZE);
+            for (NoteItem note : page) {
+                handleMemberCalendar(converter.convertContent(note), handler);
+                afterUid = note.getUid();
+            }
+        } while (page.size() == EXPORT_PAGE_SIZE);
+    }
+
+    private static void handleMemberCalendar(Calendar calendar, MemberCalendarHandler handler)
+            throws IOException {
+        // ignore members that can't be converted
+        if (calendar != null) {
+            handler.handle(calendar);
+        }
+    }
+
+    @FunctionalInterface
+    private interface MemberCalendarHandler {
+        void handle(Calendar calendar) throws IOException;
+    }
+
     /** */
     protected void removeContent(DavItemContent member) throws CosmoDavException {
         if (!(member instanceof DavCalendarResource)) {
@@ -491,11 +719,14 @@ public class DavCalendarCollection extends DavCollectionBase implements CaldavCo
         return result;
     }
 
-    private static boolean isGeneratedUid(Item item) {
-        if (!(item instanceof CollectionItem)) {
-            return false;
+    private String memberHref(String name) throws CosmoDavException {
+        String path;
+        try {
+            path = getResourcePath() + "/" + URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new CosmoDavException(e);
         }
-        String uid = item.getUid();
-        return UuidExternalGenerator.get().containsUuid(uid) || UuidSubscriptionGenerator.get().containsUuid(uid);
+        return getResourceLocator().getFactory()
+                .createResourceLocatorByPath(getResourceLocator().getContext(), path).getHref(false);
     }
 }
@@ -15,7 +15,6 @@
  */
 package org.unitedinternet.cosmo.dav.impl;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
@@ -27,9 +26,9 @@ import org.apache.jackrabbit.webdav.property.DavPropertySet;
 import org.apache.jackrabbit.webdav.version.report.ReportType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.FileCopyUtils;
 import org.unitedinternet.cosmo.CosmoException;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
+import org.unitedinternet.cosmo.calendar.util.RenderedCalendarCache;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.DavResourceFactory;
 import org.unitedinternet.cosmo.dav.DavResourceLocator;
@@ -49,6 +48,8 @@ import org.unitedinternet.cosmo.model.EntityFactory;
 import org.unitedinternet.cosmo.model.ICalendarItem;
 import org.unitedinternet.cosmo.model.IcalUidInUseException;
 import org.unitedinternet.cosmo.model.NoteItem;
+import org.unitedinternet.cosmo.model.hibernate.HibAuditableObject;
+import org.unitedinternet.cosmo.model.hibernate.HibNoteItem;
 import org.unitedinternet.cosmo.util.ContentTypeUtil;
 
 import net.fortuna.ical4j.model.Calendar;
@@ -190,11 +191,7 @@ public abstract class DavCalendarResource extends DavContentBase implements ICal
             ContentTypeUtil.buildContentType(ICALENDAR_MEDIA_TYPE, "UTF-8");
         outputContext.setContentType(contentType);
   
-        // Get calendar
-        Calendar calendar = getCalendar();
-        
-        // convert Calendar object to String, then to bytes (UTF-8)    
-        byte[] calendarBytes = calendar.toString().getBytes("UTF-8");
+        byte[] calendarBytes = getCalendarBytes();
         outputContext.setContentLength(calendarBytes.length);
         outputContext.setModificationTime(getModificationTime());
         outputContext.setETag(getETag());
@@ -203,9 +200,38 @@ public abstract class DavCalendarResource extends DavContentBase implements ICal
             return;
         }
 
-        // spool calendar bytes
-        ByteArrayInputStream bois = new ByteArrayInputStream(calendarBytes);
-        FileCopyUtils.copy(bois, outputContext.getOutputStream());
+        outputContext.getOutputStream().write(calendarBytes);
+    }
+
+    /**
+     * Returns the UTF-8 serialized calendar of this resource. The rendered
+     * calendar is taken from the {@link RenderedCalendarCache} when the item
+     * did not change since it was last rendered, and put there otherwise.
+     *
+     * @return serialized calendar, which must not be modified
+     */
+    public byte[] getCalendarBytes() {
+        String key = getRenderedCalendarKey();
+        byte[] calendarBytes = key != null ? RenderedCalendarCache.getInstance().get(key) : null;
+        if (calendarBytes == null) {
+            calendarBytes = RenderedCalendarCache.render(getCalendar());
+            if (key != null) {
+                RenderedCalendarCache.getInstance().put(key, calendarBytes);
+            }
+        }
+        return calendarBytes;
+    }
+
+    /**
+     * @return the key under which the rendered calendar of this resource is
+     *         cached, or <code>null</code> if it is not cached
+     */
+    protected String getRenderedCalendarKey() {
+        if (getItem() instanceof HibAuditableObject) {
+            // calculated rather than stored, as a changed modification does not always update the stored tag
+            return ((HibAuditableObject) getItem()).calculateEntityTag();
+        }
+        return null;
     }
 
     public Set<ReportType> getReportTypes() {
@@ -216,14 +242,36 @@ public abstract class DavCalendarResource extends DavContentBase implements ICal
     protected void loadLiveProperties(DavPropertySet properties) {
         super.loadLiveProperties(properties);
 
+        properties.add(new ContentLength(this::getContentLength));
+
+        properties.add(new ContentType(ICALENDAR_MEDIA_TYPE, "UTF-8"));
+    }
+
+    /**
+     * Returns the length of the serialized calendar, using the length stored
+     * with the item when it is still valid.
+     */
+    protected Long getContentLength() {
+        Long length = getStoredContentLength();
+        if (length != null) {
+            return length;
+        }
         try {
-            byte[] calendarBytes = getCalendar().toString().getBytes("UTF-8");
-            properties.add(new ContentLength(Long.valueOf(calendarBytes.length)));
+            return Long.valueOf(getCalendarBytes().length);
         } catch (Exception e) {
             throw new CosmoException("Can't convert calendar", e);
         }
+    }
 
-        properties.add(new ContentType(ICALENDAR_MEDIA_TYPE, "UTF-8"));
+    /**
+     * @return the length stored with the item or <code>null</code> if the
+     *         calendar has to be serialized to know its length
+     */
+    protected Long getStoredContentLength() {
+        if (getItem() instanceof HibNoteItem) {
+            return ((HibNoteItem) getItem()).getCalendarLength();
+        }
+        return null;
     }
 
     /** */
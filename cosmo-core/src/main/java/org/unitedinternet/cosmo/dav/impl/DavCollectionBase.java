@@ -21,8 +21,13 @@ import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import javax.xml.namespace.QName;
@@ -40,7 +45,10 @@ import org.apache.jackrabbit.webdav.property.DavPropertySet;
 import org.apache.jackrabbit.webdav.version.report.ReportType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.web.util.UriUtils;
 import org.unitedinternet.cosmo.CosmoException;
+import org.unitedinternet.cosmo.dao.external.UuidExternalGenerator;
+import org.unitedinternet.cosmo.dao.subscription.UuidSubscriptionGenerator;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.DavCollection;
 import org.unitedinternet.cosmo.dav.DavContent;
@@ -64,6 +72,7 @@ import org.unitedinternet.cosmo.model.Item;
 import org.unitedinternet.cosmo.model.User;
 import org.unitedinternet.cosmo.util.ContentTypeUtil;
 import org.unitedinternet.cosmo.util.DomWriter;
+import org.unitedinternet.cosmo.util.PathUtil;
 import org.w3c.dom.Element;
 
 /**
@@ -87,8 +96,6 @@ public class DavCollectionBase extends DavItemResourceBase implements DavItemCol
     private static final Set<String> DEAD_PROPERTY_FILTER = new HashSet<String>();
     private static final Set<ReportType> REPORT_TYPES = new HashSet<ReportType>();
 
-    private List<org.apache.jackrabbit.webdav.DavResource> members;
-
     static {
         registerLiveProperty(EXCLUDEFREEBUSYROLLUP);
 
@@ -106,7 +113,6 @@ public class DavCollectionBase extends DavItemResourceBase implements DavItemCol
             DavResourceLocator locator, DavResourceFactory factory,
             EntityFactory entityFactory) throws CosmoDavException {
         super(collection, locator, factory, entityFactory);
-        members = new ArrayList<org.apache.jackrabbit.webdav.DavResource>();
     }
 
     public DavCollectionBase(DavResourceLocator locator,
@@ -140,23 +146,18 @@ public class DavCollectionBase extends DavItemResourceBase implements DavItemCol
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns the members of this collection. Each member resource is created
+     * only when the iterator reaches it, so that callers writing one member at
+     * a time don't hold the resources of all members.
+     */
     public DavResourceIterator getMembers() {
-        try {
-            for (Item memberItem : ((CollectionItem) getItem()).getChildren()) {
-                WebDavResource resource = memberToResource(memberItem);
-                if (resource != null) {
-                    members.add(resource);
-                }
-            }
-
-            return new DavResourceIteratorImpl(members);
-        } catch (CosmoDavException e) {
-            throw new CosmoException(e);
-        }
+        return new MemberIterator(((CollectionItem) getItem()).getChildren());
     }
 
     public DavResourceIterator getCollectionMembers() {
         try {
+            List<org.apache.jackrabbit.webdav.DavResource> members = new ArrayList<org.apache.jackrabbit.webdav.DavResource>();
             Set<CollectionItem> collectionItems = getContentService().findCollectionItems((CollectionItem) getItem());
             for (Item memberItem : collectionItems) {
                 WebDavResource resource = memberToResource(memberItem);
@@ -190,8 +191,6 @@ public class DavCollectionBase extends DavItemResourceBase implements DavItemCol
         } catch (CollectionLockedException e) {
             throw new LockedException();
         }
-
-        members.remove(member);
     }
 
     // WebDavResource
@@ -211,7 +210,6 @@ public class DavCollectionBase extends DavItemResourceBase implements DavItemCol
         DavContentBase base = (DavContentBase) content;
         base.populateItem(context);
         saveContent(base);
-        members.add(base);
     }
 
     public MultiStatusResponse addCollection(DavCollection collection, DavPropertySet properties) throws CosmoDavException {
@@ -224,7 +222,6 @@ public class DavCollectionBase extends DavItemResourceBase implements DavItemCol
         MultiStatusResponse msr = base.populateAttributes(properties);
         if (!hasNonOK(msr)) {
             saveSubcollection(base);
-            members.add(base);
         }
         return msr;
     }
@@ -233,6 +230,44 @@ public class DavCollectionBase extends DavItemResourceBase implements DavItemCol
         return memberToResource(href);
     }
 
+    /**
+     * Returns the member resources at the given absolute hrefs, keyed by href. Hrefs identifying direct members of
+     * this collection are resolved together with a single batched lookup, any other href is resolved on its own.
+     * Hrefs that do not identify an existing resource are mapped to <code>null</code>.
+     */
+    public Map<String, WebDavResource> findMembers(Set<String> hrefs) throws CosmoDavException {
+        Map<String, WebDavResource> resources = new HashMap<String, WebDavResource>();
+        Map<String, DavResourceLocator> childLocators = new HashMap<String, DavResourceLocator>();
+        Map<String, String> childHrefs = new HashMap<String, String>();
+
+        boolean batch = exists() && !isGeneratedUid(getItem());
+        for (String href : hrefs) {
+            DavResourceLocator locator = getResourceLocator().getFactory()
+                    .createResourceLocatorByUri(getResourceLocator().getContext(), href);
+            String path = locator.getPath();
+            if (batch && getResourcePath().equals(PathUtil.getParentPath(path))) {
+                String name = UriUtils.decode(PathUtil.getBasename(path), "UTF-8");
+                childLocators.put(name, locator);
+                childHrefs.put(name, href);
+                resources.put(href, null);
+            } else {
+                resources.put(href, getResourceFactory().resolve(locator));
+            }
+        }
+
+        if (!childLocators.isEmpty()) {
+            CollectionItem collection = (CollectionItem) getItem();
+            for (Item memberItem : getContentService().findItemsByParentAndNames(collection,
+                    childLocators.keySet())) {
+                String name = memberItem.getName();
+                resources.put(childHrefs.get(name),
+                        getResourceFactory().createResource(childLocators.get(name), memberItem));
+            }
+        }
+
+        return resources;
+    }
+
     // DavItemCollection
 
     public boolean isCalendarCollection() {
@@ -376,6 +411,18 @@ public class DavCollectionBase extends DavItemResourceBase implements DavItemCol
         return getResourceFactory().createResource(locator, item);
     }
 
+    /**
+     * Tells whether the given item is an external or subscribed collection whose members do not live in this
+     * server's storage.
+     */
+    protected static boolean isGeneratedUid(Item item) {
+        if (!(item instanceof CollectionItem)) {
+            return false;
+        }
+        String uid = item.getUid();
+        return UuidExternalGenerator.get().containsUuid(uid) || UuidSubscriptionGenerator.get().containsUuid(uid);
+    }
+
     protected WebDavResource memberToResource(String uri) throws CosmoDavException {
         DavResourceLocator locator = getResourceLocator().getFactory()
                 .createResourceLocatorByUri(getResourceLocator().getContext(),
@@ -514,4 +561,55 @@ public class DavCollectionBase extends DavItemResourceBase implements DavItemCol
         }
     }
 
+    /**
+     * Iterates the member items of a collection, converting each item to a
+     * resource when it is reached. Items that can't be converted are skipped.
+     */
+    private class MemberIterator implements DavResourceIterator {
+
+        private final Collection<Item> items;
+        private final Iterator<Item> itemIterator;
+        private org.apache.jackrabbit.webdav.DavResource next;
+
+        MemberIterator(Collection<Item> items) {
+            this.items = items;
+            this.itemIterator = items.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null && itemIterator.hasNext()) {
+                    next = memberToResource(itemIterator.next());
+                }
+            } catch (CosmoDavException e) {
+                throw new CosmoException(e);
+            }
+            return next != null;
+        }
+
+        @Override
+        public org.apache.jackrabbit.webdav.DavResource next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            org.apache.jackrabbit.webdav.DavResource resource = next;
+            next = null;
+            return resource;
+        }
+
+        @Override
+        public org.apache.jackrabbit.webdav.DavResource nextResource() {
+            return next();
+        }
+
+        /**
+         * @return the number of member items, including those that can't be
+         *         converted to resources
+         */
+        @Override
+        public int size() {
+            return items.size();
+        }
+    }
 }
\ No newline at end of file
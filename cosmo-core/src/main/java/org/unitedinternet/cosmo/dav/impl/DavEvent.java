@@ -72,6 +72,25 @@ public class DavEvent extends DavCalendarResource {
         return calendar;
     }
 
+    @Override
+    protected String getRenderedCalendarKey() {
+        String key = super.getRenderedCalendarKey();
+        String clientFilterId = getClientFilterManager().getClientFilterId();
+        if (key == null || clientFilterId == null) {
+            return key;
+        }
+        return key + ";" + clientFilterId;
+    }
+
+    @Override
+    protected Long getStoredContentLength() {
+        // the stored length is the one of the unfiltered calendar
+        if (getClientFilterManager().hasClientFilter()) {
+            return null;
+        }
+        return super.getStoredContentLength();
+    }
+
     public EventStamp getEventStamp() {
         return StampUtils.getEventStamp(getItem());
     }
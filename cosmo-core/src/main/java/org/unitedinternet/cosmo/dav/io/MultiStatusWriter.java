@@ -0,0 +1,216 @@
+package org.unitedinternet.cosmo.dav.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.jackrabbit.webdav.DavConstants;
+import org.apache.jackrabbit.webdav.DavResource;
+import org.apache.jackrabbit.webdav.DavResourceIterator;
+import org.apache.jackrabbit.webdav.DavServletResponse;
+import org.apache.jackrabbit.webdav.MultiStatusResponse;
+import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
+import org.apache.jackrabbit.webdav.xml.DomUtil;
+import org.apache.jackrabbit.webdav.xml.Namespace;
+import org.apache.jackrabbit.webdav.xml.XmlSerializable;
+import org.unitedinternet.cosmo.dav.ExtendedDavConstants;
+import org.unitedinternet.cosmo.dav.caldav.CaldavConstants;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * <p>
+ * Writes a <code>DAV:multistatus</code> response body one
+ * <code>DAV:response</code> at a time, instead of building the document of
+ * all responses first. Only the response being written is held as DOM, so
+ * memory use does not grow with the number of responses and the client
+ * receives the first responses while the following are still produced.
+ * </p>
+ * <p>
+ * The status and the content type are set, and the document is started,
+ * when the first element is written, so that errors raised before that can
+ * still be answered with an error status. Errors raised later can only
+ * abort the response.
+ * </p>
+ */
+public class MultiStatusWriter implements DavConstants {
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    static {
+        XML_OUTPUT_FACTORY.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, Boolean.TRUE);
+    }
+
+    /**
+     * Namespaces declared on the <code>DAV:multistatus</code> element rather
+     * than on every response that uses them.
+     */
+    private static final Namespace[] NAMESPACES = { NAMESPACE, CaldavConstants.NAMESPACE_CALDAV,
+            CaldavConstants.NAMESPACE_CS, ExtendedDavConstants.NAMESPACE_COSMO };
+
+    private static final String XMLNS = "http://www.w3.org/2000/xmlns/";
+
+    private final HttpServletResponse response;
+
+    private OutputStream out;
+    private XMLStreamWriter writer;
+    private Document document;
+
+    public MultiStatusWriter(HttpServletResponse response) {
+        this.response = response;
+    }
+
+    /**
+     * Writes a response for the given resource and, depending on
+     * <code>depth</code>, for its members. Members are resolved and written
+     * one at a time. Equivalent to
+     * {@link org.apache.jackrabbit.webdav.MultiStatus#addResourceProperties(DavResource, DavPropertyNameSet, int, int)}.
+     *
+     * @param resource
+     *            the resource
+     * @param props
+     *            the requested properties
+     * @param propFindType
+     *            the type of the <code>PROPFIND</code> request
+     * @param depth
+     *            <code>0</code> for the resource only, <code>1</code> to
+     *            include its members, <code>DEPTH_INFINITY</code> for all
+     *            descendants
+     * @throws IOException
+     *             if the response could not be written
+     */
+    public void writeResourceProperties(DavResource resource, DavPropertyNameSet props, int propFindType, int depth)
+            throws IOException {
+        write(new MultiStatusResponse(resource, props, propFindType));
+        if (depth > 0 && resource.isCollection()) {
+            for (DavResourceIterator i = resource.getMembers(); i.hasNext();) {
+                writeResourceProperties(i.nextResource(), props, propFindType, depth - 1);
+            }
+        }
+    }
+
+    /**
+     * Writes the given response or other child element of the
+     * <code>DAV:multistatus</code> element.
+     *
+     * @param serializable
+     *            the response
+     * @throws IOException
+     *             if the response could not be written
+     */
+    public void write(XmlSerializable serializable) throws IOException {
+        try {
+            start();
+            writeElement(serializable.toXml(document));
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Ends the <code>DAV:multistatus</code> element, starting it first if
+     * nothing was written, and flushes the response.
+     *
+     * @throws IOException
+     *             if the response could not be written
+     */
+    public void close() throws IOException {
+        try {
+            start();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+            out.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void start() throws IOException, XMLStreamException {
+        if (writer != null) {
+            return;
+        }
+        try {
+            document = DomUtil.createDocument();
+        } catch (ParserConfigurationException e) {
+            throw new IOException(e);
+        }
+        response.setStatus(DavServletResponse.SC_MULTI_STATUS);
+        response.setContentType("text/xml; charset=UTF-8");
+        out = response.getOutputStream();
+        writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeStartElement(NAMESPACE.getPrefix(), XML_MULTISTATUS, NAMESPACE.getURI());
+        for (Namespace namespace : NAMESPACES) {
+            writer.writeNamespace(namespace.getPrefix(), namespace.getURI());
+        }
+    }
+
+    private void writeElement(Element element) throws XMLStreamException {
+        String localName = element.getLocalName() != null ? element.getLocalName() : element.getNodeName();
+        if (element.getNamespaceURI() != null) {
+            String prefix = element.getPrefix() != null ? element.getPrefix() : "";
+            writer.writeStartElement(prefix, localName, element.getNamespaceURI());
+        } else {
+            writer.writeStartElement(localName);
+        }
+
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            if (XMLNS.equals(attribute.getNamespaceURI()) || attribute.getName().startsWith("xmlns")) {
+                // declared by the writer as needed
+                continue;
+            }
+            if (attribute.getNamespaceURI() != null) {
+                String prefix = attribute.getPrefix() != null ? attribute.getPrefix() : "";
+                writer.writeAttribute(prefix, attribute.getNamespaceURI(), attribute.getLocalName(),
+                        attribute.getValue());
+            } else {
+                writer.writeAttribute(attribute.getName(), attribute.getValue());
+            }
+        }
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                writeElement((Element) child);
+                break;
+            case Node.TEXT_NODE:
+                writeText(child.getNodeValue());
+                break;
+            case Node.CDATA_SECTION_NODE:
+                writer.writeCData(child.getNodeValue());
+                break;
+            default:
+                break;
+            }
+        }
+        writer.writeEndElement();
+    }
+
+    /**
+     * Writes carriage returns as character references, so that they survive
+     * the line end normalization of the client's parser. Calendar data
+     * requires CRLF line endings.
+     */
+    private void writeText(String text) throws XMLStreamException {
+        int start = 0;
+        for (int end = text.indexOf('\r'); end >= 0; end = text.indexOf('\r', start)) {
+            writer.writeCharacters(text.substring(start, end));
+            writer.writeEntityRef("#13");
+            start = end + 1;
+        }
+        writer.writeCharacters(text.substring(start));
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.unitedinternet.cosmo.dav.property;
 
+import java.util.function.Supplier;
+
 import org.apache.jackrabbit.webdav.property.DavPropertyName;
 
 /**
@@ -22,10 +24,40 @@ import org.apache.jackrabbit.webdav.property.DavPropertyName;
  */
 public class ContentLength extends StandardDavProperty {
 
+    private Supplier<Long> length;
+    private String value;
+
     public ContentLength(Long length) {
         super(DavPropertyName.GETCONTENTLENGTH, len(length), false);
     }
 
+    /**
+     * Creates a property whose length is only calculated when its value is
+     * first read, i.e. when a client actually requested it.
+     *
+     * @param length supplies the length
+     */
+    public ContentLength(Supplier<Long> length) {
+        super(DavPropertyName.GETCONTENTLENGTH, null, false);
+        this.length = length;
+    }
+
+    @Override
+    public synchronized Object getValue() {
+        if (length == null) {
+            return super.getValue();
+        }
+        if (value == null) {
+            value = len(length.get());
+        }
+        return value;
+    }
+
+    @Override
+    public String getValueText() {
+        return (String) getValue();
+    }
+
     public static String len(Long length) {
         return length != null ? length.toString() : null;
     }
@@ -190,7 +190,7 @@ public class StandardDavProperty implements WebDavProperty, XmlSerializable {
             return false;
         }
         return getValue() == null ? prop.getValue() == null :
-            value.equals(prop.getValue());
+            getValue().equals(prop.getValue());
     }
 
     /**
@@ -0,0 +1,42 @@
+package org.unitedinternet.cosmo.dav.property;
+
+/**
+ * <p>
+ * Represents the <code>DAV:sync-token</code> property defined by RFC 6578.
+ * </p>
+ * <p>
+ * A sync token is an opaque URI to clients. Cosmo encodes the collection's
+ * sync sequence in it, which is incremented by every transaction that adds,
+ * changes or removes members of the collection.
+ * </p>
+ */
+public class SyncToken extends StandardDavProperty {
+
+    private static final String TOKEN_PREFIX = NS_COSMO + "/sync/seq/";
+
+    public SyncToken(long syncSequence) {
+        super(SYNCTOKEN, toToken(syncSequence), true);
+    }
+
+    /**
+     * Returns the sync token URI for the given sync sequence.
+     */
+    public static String toToken(long syncSequence) {
+        return TOKEN_PREFIX + syncSequence;
+    }
+
+    /**
+     * Returns the sync sequence encoded in the given sync token, or
+     * <code>null</code> if the token was not issued by this server.
+     */
+    public static Long toSyncSequence(String token) {
+        if (token == null || !token.startsWith(TOKEN_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(token.substring(TOKEN_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
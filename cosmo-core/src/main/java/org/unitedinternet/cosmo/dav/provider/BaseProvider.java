@@ -34,6 +34,7 @@ import org.slf4j.LoggerFactory;
 import org.unitedinternet.cosmo.dav.BadRequestException;
 import org.unitedinternet.cosmo.dav.ConflictException;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
+import org.unitedinternet.cosmo.dav.DavCollection;
 import org.unitedinternet.cosmo.dav.DavRequest;
 import org.unitedinternet.cosmo.dav.DavResourceFactory;
 import org.unitedinternet.cosmo.dav.DavResourceLocator;
@@ -59,6 +60,7 @@ import org.unitedinternet.cosmo.dav.impl.DavInboxCollection;
 import org.unitedinternet.cosmo.dav.impl.DavItemResource;
 import org.unitedinternet.cosmo.dav.impl.DavOutboxCollection;
 import org.unitedinternet.cosmo.dav.io.DavInputContext;
+import org.unitedinternet.cosmo.dav.io.MultiStatusWriter;
 import org.unitedinternet.cosmo.dav.report.ReportBase;
 import org.unitedinternet.cosmo.dav.ticket.TicketConstants;
 import org.unitedinternet.cosmo.model.EntityFactory;
@@ -110,6 +112,15 @@ public abstract class BaseProvider implements DavProvider, DavConstants, AclCons
         spool(request, response, resource, false);
     }
 
+    /**
+     * 
+     * {@inheritDoc}
+     */
+    public void putCollection(DavRequest request, DavResponse response, DavCollection collection)
+            throws CosmoDavException, IOException {
+        throw new MethodNotAllowedException("PUT not allowed for a collection");
+    }
+
     /**
      * 
      * {@inheritDoc}
@@ -151,10 +162,10 @@ public abstract class BaseProvider implements DavProvider, DavConstants, AclCons
         // check must be done manually here.
         checkPropFindAccess(resource, props, type);
 
-        MultiStatus ms = new MultiStatus();
-        ms.addResourceProperties(resource, props, type, depth);
-
-        response.sendMultiStatus(ms);
+        // members are written as they are resolved instead of being collected first
+        MultiStatusWriter writer = new MultiStatusWriter(response);
+        writer.writeResourceProperties(resource, props, type, depth);
+        writer.close();
     }
 
     /**
@@ -28,17 +28,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.unitedinternet.cosmo.dav.BadRequestException;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.DavCollection;
 import org.unitedinternet.cosmo.dav.DavRequest;
 import org.unitedinternet.cosmo.dav.DavResourceFactory;
 import org.unitedinternet.cosmo.dav.DavResponse;
 import org.unitedinternet.cosmo.dav.ExistsException;
+import org.unitedinternet.cosmo.dav.NotFoundException;
 import org.unitedinternet.cosmo.dav.WebDavResource;
 import org.unitedinternet.cosmo.dav.caldav.InvalidCalendarLocationException;
 import org.unitedinternet.cosmo.dav.caldav.MissingParentException;
 import org.unitedinternet.cosmo.dav.impl.DavCalendarCollection;
 import org.unitedinternet.cosmo.dav.impl.DavItemCollection;
+import org.unitedinternet.cosmo.dav.io.DavInputContext;
 import org.unitedinternet.cosmo.model.BaseEventStamp;
 import org.unitedinternet.cosmo.model.CollectionItem;
 import org.unitedinternet.cosmo.model.EntityFactory;
@@ -112,6 +115,29 @@ public class CalendarCollectionProvider extends CollectionProvider {
 
     }
 
+    /**
+     * Imports all components of a whole calendar sent to an existing calendar
+     * collection in one batch.
+     */
+    @Override
+    public void putCollection(DavRequest request, DavResponse response, DavCollection collection)
+            throws CosmoDavException, IOException {
+        if (!collection.exists()) {
+            throw new NotFoundException();
+        }
+
+        DavInputContext ctx = (DavInputContext) createInputContext(request);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("PUT of whole calendar to {}", collection.getResourcePath());
+        }
+        Calendar calendar = ctx.getCalendar();
+        if (calendar == null) {
+            throw new BadRequestException("No calendar to import");
+        }
+        ((DavCalendarCollection) collection).importCalendar(calendar);
+        response.setStatus(204);
+    }
+
     @Override
     protected void spool(DavRequest request, DavResponse response, WebDavResource resource, boolean withEntity)
             throws CosmoDavException, IOException {
@@ -138,31 +164,28 @@ public class CalendarCollectionProvider extends CollectionProvider {
         DavCalendarCollection davCollection = DavCalendarCollection.class.cast(resource);
         CollectionItem collectionItem = (CollectionItem) davCollection.getItem();
 
-        Calendar result = getCalendarFromCollection(request, collectionItem);
+        response.setHeader("ETag", "\""+ resource.getETag() +"\"");
+        response.setContentType(ICALENDAR_MEDIA_TYPE);
+        response.setCharacterEncoding(CHARSET_UTF8);
 
         Ticket contextTicket = getSecurityContext().getTicket();
         Set<Ticket> collectionTickets = collectionItem.getTickets();
         if (contextTicket != null && collectionTickets != null) {
             if (collectionTickets.contains(contextTicket) && contextTicket.isFreeBusy()) {
+                Calendar result = getCalendarFromCollection(request, collectionItem);
                 result = FreeBusyUtil.getFreeBusyCalendar(result, this.productId);
+                response.getWriter().write(result.toString());
+                response.flushBuffer();
+                return;
             }
         }
-        response.setHeader("ETag", "\""+ resource.getETag() +"\"");
-        response.setContentType(ICALENDAR_MEDIA_TYPE);
-        response.setCharacterEncoding(CHARSET_UTF8);
-        response.getWriter().write(result.toString());
+
+        // stream the members instead of building one calendar of the whole collection
+        davCollection.writeCalendar(response.getWriter(), getProductId(request));
         response.flushBuffer();
     }
 
-    
-
-    /**
-     * @param collectionItem
-     * @return
-     */
-    private Calendar getCalendarFromCollection(DavRequest req, CollectionItem collectionItem) {
-        Calendar result = new Calendar();
-
+    private String getProductId(DavRequest req) {
         if (productId == null) {
             synchronized (this) {
                 if (productId == null) {
@@ -172,8 +195,17 @@ public class CalendarCollectionProvider extends CollectionProvider {
                 }
             }
         }
+        return productId;
+    }
+
+    /**
+     * @param collectionItem
+     * @return
+     */
+    private Calendar getCalendarFromCollection(DavRequest req, CollectionItem collectionItem) {
+        Calendar result = new Calendar();
 
-        result.getProperties().add(new ProdId(productId));
+        result.getProperties().add(new ProdId(getProductId(req)));
         result.getProperties().add(Version.VERSION_2_0);
         result.getProperties().add(CalScale.GREGORIAN);
 
@@ -56,6 +56,11 @@ public interface DavProvider {
                     DavContent content)
         throws CosmoDavException, IOException;
 
+    void putCollection(DavRequest request,
+                              DavResponse response,
+                              DavCollection collection)
+        throws CosmoDavException, IOException;
+
     void post(DavRequest request,
             DavResponse response,
             WebDavResource resource)
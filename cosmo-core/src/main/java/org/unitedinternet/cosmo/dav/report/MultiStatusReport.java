@@ -15,21 +15,30 @@
  */
 package org.unitedinternet.cosmo.dav.report;
 
+import java.io.IOException;
+
 import org.apache.jackrabbit.webdav.DavServletResponse;
 import org.apache.jackrabbit.webdav.MultiStatus;
 import org.apache.jackrabbit.webdav.MultiStatusResponse;
 import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
+import org.apache.jackrabbit.webdav.xml.XmlSerializable;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.WebDavResource;
+import org.unitedinternet.cosmo.dav.io.MultiStatusWriter;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 /**
- * Base class for WebDAV reports that return multistatus responses.
+ * Base class for WebDAV reports that return multistatus responses. When the
+ * report is run, responses are written to the client as they are added
+ * rather than collected first.
+ *
+ * @see MultiStatusWriter
  */
 public abstract class MultiStatusReport extends ReportBase {
 
     private MultiStatus multistatus = new MultiStatus();
+    private MultiStatusWriter writer;
     private int propfindType = PROPFIND_ALL_PROP;
     private DavPropertyNameSet propfindProps;
 
@@ -39,20 +48,65 @@ public abstract class MultiStatusReport extends ReportBase {
         return true;
     }
 
+    /**
+     * Runs the report, writing the responses added by
+     * {@link #runQuery()} and those of the query results to the given
+     * response as they are produced.
+     */
+    @Override
+    public void run(DavServletResponse response) throws CosmoDavException {
+        writer = new MultiStatusWriter(response);
+        try {
+            super.run(response);
+        } finally {
+            writer = null;
+        }
+    }
+
     // our methods
 
     /**
-     * Generates and writes the multistatus response.
+     * Writes a response for each query result and completes the
+     * multistatus response.
      */
     protected void output(DavServletResponse response) throws CosmoDavException {
+        DavPropertyNameSet resultProps = this.createResultPropSpec();
+        for (WebDavResource resource : this.getResults()) {
+            addResponse(this.buildMultiStatusResponse(resource, resultProps));
+        }
+        try {
+            for (XmlSerializable element : getTrailingElements()) {
+                writer.write(element);
+            }
+            writer.close();
+        } catch (IOException e) {
+            throw new CosmoDavException(e);
+        }
+    }
+
+    /**
+     * Adds the given response to the multistatus. While the report is run,
+     * the response is written right away.
+     */
+    protected void addResponse(MultiStatusResponse response) throws CosmoDavException {
+        if (writer == null) {
+            multistatus.addResponse(response);
+            return;
+        }
         try {
-            buildMultistatus();
-            response.sendXmlResponse(multistatus, 207);
-        } catch (Exception e) {
+            writer.write(response);
+        } catch (IOException e) {
             throw new CosmoDavException(e);
         }
     }
 
+    /**
+     * Returns elements to write after all responses, none by default.
+     */
+    protected XmlSerializable[] getTrailingElements() {
+        return new XmlSerializable[0];
+    }
+
     public final void buildMultistatus() throws CosmoDavException {
 
         DavPropertyNameSet resultProps = this.createResultPropSpec();
@@ -89,7 +143,11 @@ public abstract class MultiStatusReport extends ReportBase {
             throw new RuntimeException(e);
         }
 
-        return multistatus.toXml(document);
+        Element element = multistatus.toXml(document);
+        for (XmlSerializable trailing : getTrailingElements()) {
+            element.appendChild(trailing.toXml(document));
+        }
+        return element;
     }
 
     public int getPropFindType() {
@@ -17,13 +17,19 @@ package org.unitedinternet.cosmo.dav.servlet;
 
 import java.io.IOException;
 import java.util.Enumeration;
+import java.util.Set;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ValidationException;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
 import org.apache.abdera.util.EntityTag;
+import org.apache.jackrabbit.webdav.version.report.ReportInfo;
+import org.apache.jackrabbit.webdav.version.report.ReportType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.OptimisticLockingFailureException;
@@ -83,6 +89,11 @@ public class StandardRequestHandler implements HttpRequestHandler, ServerConstan
     
     private static final Logger LOG = LoggerFactory.getLogger(StandardRequestHandler.class);
 
+    private static final String METRIC_NAME = "cosmo.dav.requests";
+
+    private static final Set<String> METHODS = Set.of("OPTIONS", "GET", "HEAD", "POST", "PROPFIND", "PROPPATCH",
+            "DELETE", "COPY", "MOVE", "REPORT", "MKCALENDAR", "MKCOL", "MKTICKET", "DELTICKET", "PUT", "ACL");
+
     private DavResourceLocatorFactory locatorFactory;
     
     private DavResourceFactory resourceFactory;
@@ -99,6 +110,8 @@ public class StandardRequestHandler implements HttpRequestHandler, ServerConstan
     /**
      * <p>
      * Processes the request and returns a response. Calls
+     * {@link #entityTagPreconditions(DavRequest, DavResponse)} to answer
+     * revalidation requests for unchanged content. Calls
      * {@link DavResourceFactory.createResource(DavResourceLocator, DavRequest, DavResponse)}
      * to find the targeted resource. Calls {@link #preconditions(DavRequest, DavResponse, WebDavResource)}
      * to verify preconditions. Calls {@link #process(DavRequest, DavResponse, WebDavResource)}
@@ -109,6 +122,10 @@ public class StandardRequestHandler implements HttpRequestHandler, ServerConstan
      * sending a response with the appropriate error status and message and
      * an entity describing the error.
      * </p>
+     * <p>
+     * Every request is timed as <code>cosmo.dav.requests</code>, tagged with
+     * its method, report type and response status.
+     * </p>
      */
     public void handleRequest(HttpServletRequest request,
                               HttpServletResponse response)
@@ -116,11 +133,13 @@ public class StandardRequestHandler implements HttpRequestHandler, ServerConstan
         dumpRequest(request);
         DavRequest wreq = null;
         DavResponse wres = null;
+        Timer.Sample sample = Timer.start();
         
         try {
             wreq = createDavRequest(request);
             wres = createDavResponse(response);
 
+            entityTagPreconditions(wreq, wres);
             WebDavResource resource = resolveTarget(wreq);
             preconditions(wreq, wres, resource);
             process(wreq, wres, resource);
@@ -143,6 +162,32 @@ public class StandardRequestHandler implements HttpRequestHandler, ServerConstan
             if (wres != null) {
                 wres.sendDavError(de);
             }
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME).tag("method", getMethodName(request))
+                    .tag("report", getReportName(wreq)).tag("status", String.valueOf(response.getStatus()))
+                    .register(Metrics.globalRegistry));
+        }
+    }
+
+    private static String getMethodName(HttpServletRequest request) {
+        String method = request.getMethod();
+        return METHODS.contains(method) ? method : "other";
+    }
+
+    /**
+     * @return the local name of the requested report, <code>none</code> if
+     *         this is not a report request and <code>other</code> if the
+     *         report is unknown or could not be read
+     */
+    private static String getReportName(DavRequest request) {
+        if (request == null || !"REPORT".equals(request.getMethod())) {
+            return "none";
+        }
+        try {
+            ReportInfo info = request.getReportInfo();
+            return info != null ? ReportType.getType(info).getLocalName() : "none";
+        } catch (Exception e) {
+            return "other";
         }
     }
 
@@ -174,6 +219,39 @@ public class StandardRequestHandler implements HttpRequestHandler, ServerConstan
         ifUnmodifiedSince(request, resource);
     }
 
+    /**
+     * <p>
+     * Answers the <code>If-None-Match</code> request header of
+     * <code>GET</code>, <code>HEAD</code> and <code>PROPFIND</code> requests
+     * from the stored entity tag of the targeted content item, before the
+     * resource is resolved. Most requests of that kind come from clients
+     * revalidating resources that have not changed, so this saves loading
+     * the item with all of its stamps and attributes.
+     * </p>
+     * <p>
+     * Requests carrying other preconditions, and requests whose target's
+     * entity tag cannot be looked up that way, are left to
+     * {@link #preconditions(DavRequest, DavResponse, WebDavResource)}.
+     * </p>
+     */
+    protected void entityTagPreconditions(DavRequest request,
+                                          DavResponse response)
+        throws CosmoDavException, IOException {
+        if (! deservesNotModified(request) && ! "PROPFIND".equals(request.getMethod())) {
+            return;
+        }
+        EntityTag[] requestEtags = request.getIfNoneMatch();
+        if (requestEtags.length == 0 || request.getIfMatch().length > 0 ||
+            request.getHeader("If-Unmodified-Since") != null) {
+            return;
+        }
+
+        String etag = resourceFactory.findEntityTag(request.getResourceLocator());
+        if (etag == null) {
+            return;
+        }
+        noneMatch(request, response, new EntityTag(etag), requestEtags);
+    }
 
     private void dumpRequest(HttpServletRequest req) {
         if (!LOG.isTraceEnabled()) {
@@ -290,6 +368,10 @@ public class StandardRequestHandler implements HttpRequestHandler, ServerConstan
                     provider.mkcalendar(request, response,
                                         (DavCollection)resource);
                 }
+                else if (request.getMethod().equals("PUT")) {
+                    provider.putCollection(request, response,
+                                           (DavCollection)resource);
+                }
                 else {
                     throw new MethodNotAllowedException(request.getMethod() + " not allowed for a collection");
                 }
@@ -452,6 +534,14 @@ public class StandardRequestHandler implements HttpRequestHandler, ServerConstan
             return;
         }
 
+        noneMatch(request, response, resourceEtag, requestEtags);
+    }
+
+    private void noneMatch(DavRequest request,
+                           DavResponse response,
+                           EntityTag resourceEtag,
+                           EntityTag[] requestEtags)
+        throws CosmoDavException {
         if (! EntityTag.matchesAny(resourceEtag, requestEtags)) {
             return;
         }
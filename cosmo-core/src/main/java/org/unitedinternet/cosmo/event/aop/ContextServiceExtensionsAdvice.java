@@ -96,6 +96,21 @@ public class ContextServiceExtensionsAdvice {
         return handleCreateContentsItemsInternal(pjp, parent, contentItems);
     }
 
+    /**
+     * Method called when a whole calendar is imported.
+     */
+    @Around("execution(* org.unitedinternet.cosmo.service.ContentService.importContentItems(..)) &&"
+            + "args(parent, contentItems)")
+    public Object importContentItems(ProceedingJoinPoint pjp, CollectionItem parent, Set<ContentItem> contentItems)
+            throws Throwable {
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("in importContentItems(parent, contentItems)");
+        }
+
+        return handleCreateContentsItemsInternal(pjp, parent, contentItems);
+    }
+
     /**
      * Method called when an event is added.
      */
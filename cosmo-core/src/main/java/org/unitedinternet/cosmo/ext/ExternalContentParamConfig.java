@@ -12,6 +12,11 @@ public class ExternalContentParamConfig {
     private int maxRedirects;
     private int maxHeaderCount;
     private int maxLineLength;
+    private int maxConnections = 100;
+    private int maxConnectionsPerRoute = 20;
+    private long cacheTtl = 5 * 60 * 1000L;
+    private long cacheStaleTtl = 60 * 60 * 1000L;
+    private int cacheMaxEntries = 200;
 
     public int getMaxSize() {
         return maxSize;
@@ -52,4 +57,51 @@ public class ExternalContentParamConfig {
     public void setMaxLineLength(int maxLineLength) {
         this.maxLineLength = maxLineLength;
     }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    /**
+     * @return how long, in milliseconds, fetched content is served without asking the remote server again
+     */
+    public long getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(long cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * @return how long, in milliseconds, content older than the cache TTL is still served while it is being
+     *         refreshed in the background
+     */
+    public long getCacheStaleTtl() {
+        return cacheStaleTtl;
+    }
+
+    public void setCacheStaleTtl(long cacheStaleTtl) {
+        this.cacheStaleTtl = cacheStaleTtl;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
 }
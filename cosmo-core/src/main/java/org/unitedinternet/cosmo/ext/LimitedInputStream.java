@@ -0,0 +1,86 @@
+package org.unitedinternet.cosmo.ext;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * <code>InputStream</code> that stops reading external content once more than a maximum number of bytes were read or
+ * reading took longer than allowed, so that content can be parsed straight from the connection.
+ * 
+ * @author daniel grigore
+ *
+ */
+class LimitedInputStream extends FilterInputStream {
+
+    private final long maxSize;
+    private final long deadline;
+
+    private long count;
+    private boolean sizeExceeded;
+
+    LimitedInputStream(InputStream in, long maxSize, long timeoutInMillis) {
+        super(in);
+        this.maxSize = maxSize;
+        this.deadline = System.currentTimeMillis() + timeoutInMillis;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return number of bytes read so far
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * @return <code>true</code> if reading was stopped because the content is larger than allowed
+     */
+    boolean isSizeExceeded() {
+        return sizeExceeded;
+    }
+
+    private void count(long read) throws IOException {
+        this.count += read;
+        if (this.count > this.maxSize) {
+            this.sizeExceeded = true;
+            throw new IOException("Content is larger than " + this.maxSize);
+        }
+        if (System.currentTimeMillis() > this.deadline) {
+            throw new IOException("Too much time spent reading content");
+        }
+    }
+}
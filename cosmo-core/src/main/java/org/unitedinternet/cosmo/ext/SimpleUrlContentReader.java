@@ -1,16 +1,28 @@
 package org.unitedinternet.cosmo.ext;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.text.ParseException;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -18,13 +30,17 @@ import org.apache.http.config.ConnectionConfig;
 import org.apache.http.config.MessageConstraints;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.protocol.RequestUserAgent;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Component;
 import org.unitedinternet.cosmo.model.Item;
 import org.unitedinternet.cosmo.model.NoteItem;
 import org.unitedinternet.cosmo.model.Stamp;
+import org.unitedinternet.cosmo.util.BoundedCache;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
@@ -34,25 +50,39 @@ import net.fortuna.ical4j.model.Calendar;
 
 /**
  * Default implementation of {@link UrlContentReader} that reads and validates content.
- * 
+ * <p>
+ * All requests share one pooled HTTP client. Parsed content is cached per URL and request headers for
+ * {@link ExternalContentParamConfig#getCacheTtl()} milliseconds and revalidated with a conditional request once it
+ * expires. Expired content is still served for another {@link ExternalContentParamConfig#getCacheStaleTtl()}
+ * milliseconds while it is refreshed in the background. Concurrent requests for the same content share a single
+ * fetch.
+ * </p>
+ *
  * @author daniel grigore
  *
  */
 @Component
-public class SimpleUrlContentReader implements UrlContentReader {
+public class SimpleUrlContentReader implements UrlContentReader, DisposableBean {
 
     private static final Logger LOG = LoggerFactory.getLogger(SimpleUrlContentReader.class);
-    
+
     private static final String Q_MARK = "?";
     private static final String AND = "&";
 
+    private static final int REFRESH_THREADS = 2;
+
     private final ContentConverter converter;
     private final Validator validator;
 
-    private final ContentSourceProcessor processor;    
+    private final ContentSourceProcessor processor;
     private final ProxyFactory proxyFactory;
     private final ExternalContentParamConfig config;
-    
+
+    private final CloseableHttpClient client;
+    private final BoundedCache<String, Feed> feeds;
+    private final ConcurrentMap<String, CompletableFuture<Feed>> fetches = new ConcurrentHashMap<>();
+    private final ExecutorService refresher;
+
     public SimpleUrlContentReader(ContentConverter converter, Validator validator, ContentSourceProcessor processor,
             ProxyFactory proxyFactory, ExternalContentParamConfig config) {
         this.converter = converter;
@@ -60,6 +90,14 @@ public class SimpleUrlContentReader implements UrlContentReader {
         this.processor = processor;
         this.proxyFactory = proxyFactory;
         this.config = config;
+        this.client = buildClient();
+        this.feeds = new BoundedCache<String, Feed>(config.getCacheMaxEntries());
+        AtomicInteger threads = new AtomicInteger();
+        this.refresher = Executors.newFixedThreadPool(REFRESH_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "external-content-refresh-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
@@ -69,7 +107,7 @@ public class SimpleUrlContentReader implements UrlContentReader {
 
     /**
      * Gets and validates the content from the specified <code>url</code>.
-     * 
+     *
      * @param url
      *            <code>URL</code> where to get the content from.
      * @param timeout
@@ -79,76 +117,175 @@ public class SimpleUrlContentReader implements UrlContentReader {
      * @return content read from the specified <code>url</code>
      */
     public Set<NoteItem> getContent(String url, int timeoutInMillis, RequestOptions options) {
-        CloseableHttpClient client = null;
-        CloseableHttpResponse response = null;
         try {
             URL source = build(url, options);
+            String key = source.toString() + options.headers();
+
+            Feed feed = this.feeds.get(key);
+            long age = feed != null ? System.currentTimeMillis() - feed.fetchedAt : Long.MAX_VALUE;
+            if (age >= this.config.getCacheTtl() + this.config.getCacheStaleTtl()) {
+                feed = fetch(key, source, timeoutInMillis, options, feed);
+            } else if (age >= this.config.getCacheTtl()) {
+                refresh(key, source, timeoutInMillis, options, feed);
+            }
+            return this.converter.asItems(feed.copyOfCalendar());
+        } catch (IOException | URISyntaxException | ParseException e) {
+            throw new ExternalContentInvalidException(e);
+        }
+    }
+
+    /**
+     * Removes all cached content.
+     */
+    public void clear() {
+        this.feeds.clear();
+    }
+
+    @Override
+    public void destroy() {
+        this.refresher.shutdownNow();
+        close(this.client);
+    }
+
+    /**
+     * Fetches the content unless another thread is already fetching it, in which case that fetch is waited for.
+     */
+    private Feed fetch(String key, URL source, int timeoutInMillis, RequestOptions options, Feed previous) {
+        CompletableFuture<Feed> created = new CompletableFuture<>();
+        CompletableFuture<Feed> running = this.fetches.putIfAbsent(key, created);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            Feed feed = download(source, timeoutInMillis, options, previous);
+            this.feeds.put(key, feed);
+            created.complete(feed);
+            return feed;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.fetches.remove(key, created);
+        }
+    }
+
+    private void refresh(String key, URL source, int timeoutInMillis, RequestOptions options, Feed previous) {
+        if (this.fetches.containsKey(key)) {
+            return;
+        }
+        try {
+            this.refresher.execute(() -> {
+                try {
+                    fetch(key, source, timeoutInMillis, options, previous);
+                } catch (RuntimeException e) {
+                    LOG.warn("Serving stale content, refreshing {} failed: {}", source, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Could not schedule refresh of {}", source);
+        }
+    }
+
+    /**
+     * Downloads and validates the content. Each download is timed as <code>cosmo.external.fetch</code>, tagged with
+     * its result, and the size of downloaded content is recorded as <code>cosmo.external.fetch.bytes</code>.
+     */
+    private Feed download(URL source, int timeoutInMillis, RequestOptions options, Feed previous) {
+        Timer.Sample sample = Timer.start();
+        String result = "error";
+        CloseableHttpResponse response = null;
+        try {
             HttpGet request = new HttpGet(source.toURI());
+            request.setConfig(buildRequestConfig(timeoutInMillis, source));
             for (Entry<String, String> entry : options.headers().entrySet()) {
                 request.addHeader(entry.getKey(), entry.getValue());
             }
+            if (previous != null && previous.etag != null) {
+                request.addHeader(HttpHeaders.IF_NONE_MATCH, previous.etag);
+            }
+            if (previous != null && previous.lastModified != null) {
+                request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified);
+            }
 
-            client = buildClient(timeoutInMillis, source);
-            response = client.execute(request);
+            response = this.client.execute(request);
+            if (previous != null && response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                result = "not-modified";
+                return new Feed(previous.calendar, previous.etag, previous.lastModified);
+            }
 
-            InputStream contentStream = null;
-            ByteArrayOutputStream baos = null;
+            // parse straight from the connection instead of buffering the whole content first
+            LimitedInputStream contentStream = null;
             try {
-                contentStream = response.getEntity().getContent();
-                baos = new ByteArrayOutputStream();
-                AtomicInteger counter = new AtomicInteger();
-                byte[] buffer = new byte[1024];
-                int offset = 0;
-                long startTime = System.currentTimeMillis();
-                while ((offset = contentStream.read(buffer)) != -1) {
-                    counter.addAndGet(offset);
-                    if (counter.get() > this.config.getMaxSize()) {
-                        throw new ExternalContentTooLargeException(
-                                "Content from url " + url + " is larger then " + this.config.getMaxSize());
-                    }
-                    long now = System.currentTimeMillis();
-                    if (startTime + timeoutInMillis < now) {
-                        throw new IOException("Too much time spent reading url: " + url);
-                    }
-                    baos.write(buffer, 0, offset);
-                }
-                Calendar calendar = new CalendarBuilder().build(new ByteArrayInputStream(baos.toByteArray()));
+                contentStream = new LimitedInputStream(response.getEntity().getContent(), this.config.getMaxSize(),
+                        timeoutInMillis);
+                Calendar calendar = build(contentStream, source);
                 this.postProcess(calendar);
 
-                Set<NoteItem> externalItems = converter.asItems(calendar);
+                Feed feed = new Feed(calendar, headerValue(response, HttpHeaders.ETAG),
+                        headerValue(response, HttpHeaders.LAST_MODIFIED));
+                validate(this.converter.asItems(feed.copyOfCalendar()));
 
-                validate(externalItems);
-
-                return externalItems;
+                result = "success";
+                return feed;
             } finally {
+                if (contentStream != null) {
+                    DistributionSummary.builder("cosmo.external.fetch.bytes").baseUnit("bytes")
+                            .register(Metrics.globalRegistry).record(contentStream.getCount());
+                }
                 close(contentStream);
-                close(baos);
             }
-        } catch (IOException | URISyntaxException | ParserException e) {
+        } catch (IOException | URISyntaxException | ParserException | ParseException e) {
             throw new ExternalContentInvalidException(e);
         } finally {
             close(response);
-            close(client);
+            sample.stop(Timer.builder("cosmo.external.fetch").tag("result", result).register(Metrics.globalRegistry));
+        }
+    }
+
+    private static Calendar build(LimitedInputStream contentStream, URL source) throws IOException, ParserException {
+        try {
+            return new CalendarBuilder().build(contentStream);
+        } catch (IOException | ParserException e) {
+            if (contentStream.isSizeExceeded()) {
+                throw new ExternalContentTooLargeException(
+                        "Content from url " + source + " is larger then " + contentStream.getMaxSize());
+            }
+            throw e;
         }
     }
 
-    private CloseableHttpClient buildClient(int timeoutInMillis, URL url) {
-        RequestConfig config = RequestConfig.custom().setConnectionRequestTimeout(timeoutInMillis)
-                .setConnectTimeout(timeoutInMillis).setRedirectsEnabled(true).setMaxRedirects(this.config.getMaxRedirects())
-                .setProxy(this.proxyFactory.getProxy(url)).build();
-        return HttpClientBuilder.create().setDefaultRequestConfig(config)
-                .setDefaultConnectionConfig(
-                        ConnectionConfig
-                                .custom().setMessageConstraints(MessageConstraints.custom()
-                                        .setMaxHeaderCount(this.config.getMaxHeaderCount()).setMaxLineLength(this.config.getMaxLineLength()).build())
-                                .build()).addInterceptorLast(new RequestUserAgent(this.config.getUserAgent()))
-                .build();
+    private CloseableHttpClient buildClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(this.config.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(this.config.getMaxConnectionsPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setMessageConstraints(MessageConstraints.custom().setMaxHeaderCount(this.config.getMaxHeaderCount())
+                        .setMaxLineLength(this.config.getMaxLineLength()).build())
+                .build());
+        return HttpClientBuilder.create().setConnectionManager(connectionManager)
+                .addInterceptorLast(new RequestUserAgent(this.config.getUserAgent())).build();
+    }
+
+    private RequestConfig buildRequestConfig(int timeoutInMillis, URL url) {
+        return RequestConfig.custom().setConnectionRequestTimeout(timeoutInMillis).setConnectTimeout(timeoutInMillis)
+                .setSocketTimeout(timeoutInMillis).setRedirectsEnabled(true)
+                .setMaxRedirects(this.config.getMaxRedirects()).setProxy(this.proxyFactory.getProxy(url)).build();
     }
 
     private void postProcess(Calendar calendar) {
        this.processor.postProcess(calendar);
     }
 
+    private static String headerValue(CloseableHttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
     private static URL build(String url, RequestOptions options) throws IOException {
         StringBuilder builder = new StringBuilder(url);
         if (!url.contains(Q_MARK)) {
@@ -183,4 +320,26 @@ public class SimpleUrlContentReader implements UrlContentReader {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Parsed and validated content along with the validators needed to revalidate it. The calendar is never handed
+     * out since converting it to items is not side effect free, callers get a copy instead.
+     */
+    private static class Feed {
+
+        private final Calendar calendar;
+        private final String etag;
+        private final String lastModified;
+        private final long fetchedAt = System.currentTimeMillis();
+
+        Feed(Calendar calendar, String etag, String lastModified) {
+            this.calendar = calendar;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        Calendar copyOfCalendar() throws ParseException, IOException, URISyntaxException {
+            return new Calendar(this.calendar);
+        }
+    }
+}
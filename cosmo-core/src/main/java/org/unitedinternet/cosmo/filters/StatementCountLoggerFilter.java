@@ -0,0 +1,45 @@
+package org.unitedinternet.cosmo.filters;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.unitedinternet.cosmo.hibernate.StatementCountingInspector;
+
+/**
+ * Logs the number of SQL statements executed to serve each request when debug
+ * logging is enabled for this class, so that regressions in the number of
+ * queries per request become visible.
+ */
+public class StatementCountLoggerFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatementCountLoggerFilter.class);
+
+    private final StatementCountingInspector statementCounter;
+
+    public StatementCountLoggerFilter(StatementCountingInspector statementCounter) {
+        this.statementCounter = statementCounter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!LOG.isDebugEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        statementCounter.reset();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            LOG.debug("{} {} executed {} SQL statements", request.getMethod(), request.getRequestURI(),
+                    statementCounter.getCount());
+        }
+    }
+}
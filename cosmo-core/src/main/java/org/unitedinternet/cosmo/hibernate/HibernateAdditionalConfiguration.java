@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Configuration;
 import org.unitedinternet.cosmo.model.hibernate.AuditableObjectInterceptor;
+import org.unitedinternet.cosmo.model.hibernate.CalendarLengthInterceptor;
 import org.unitedinternet.cosmo.model.hibernate.EventStampInterceptor;
 
 /**
@@ -26,13 +27,21 @@ public class HibernateAdditionalConfiguration implements HibernatePropertiesCust
     @Autowired
     private EventStampInterceptor eventStampInterceptor;
 
+    @Autowired
+    private CalendarLengthInterceptor calendarLengthInterceptor;
+
+    @Autowired
+    private StatementCountingInspector statementCountingInspector;
+
     @Override
     public void customize(Map<String, Object> hibernateProperties) {
         CompoundInterceptor compoundInterceptor = new CompoundInterceptor();
         List<Interceptor> interceptors = new ArrayList<>();
         interceptors.add(auditableObjectInterceptor);
         interceptors.add(eventStampInterceptor);
+        interceptors.add(calendarLengthInterceptor);
         compoundInterceptor.setInterceptors(interceptors);
         hibernateProperties.put("hibernate.session_factory.interceptor", compoundInterceptor);
+        hibernateProperties.put("hibernate.session_factory.statement_inspector", statementCountingInspector);
     }
 }
@@ -0,0 +1,37 @@
+package org.unitedinternet.cosmo.hibernate;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements prepared by Hibernate on the current thread, so
+ * that the number of queries needed to serve a request can be reported. The
+ * statements themselves are not changed.
+ */
+@Component
+public class StatementCountingInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Starts counting again for the current thread.
+     */
+    public void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * @return number of statements prepared on the current thread since the last reset
+     */
+    public int getCount() {
+        return COUNT.get()[0];
+    }
+}
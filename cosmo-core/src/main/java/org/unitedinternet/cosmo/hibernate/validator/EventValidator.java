@@ -21,6 +21,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.unitedinternet.cosmo.calendar.util.CalendarUtils;
+import org.unitedinternet.cosmo.calendar.util.TimeZoneService;
 import org.unitedinternet.cosmo.util.ValidationUtils;
 
 import jakarta.validation.ConstraintValidator;
@@ -30,8 +31,6 @@ import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Component;
 import net.fortuna.ical4j.model.Parameter;
 import net.fortuna.ical4j.model.Property;
-import net.fortuna.ical4j.model.TimeZoneRegistry;
-import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
 import net.fortuna.ical4j.model.component.CalendarComponent;
 import net.fortuna.ical4j.model.component.VEvent;
 import net.fortuna.ical4j.model.property.DtEnd;
@@ -198,7 +197,6 @@ public class EventValidator implements ConstraintValidator<Event, Calendar> {
 
         private static final String[] PROPERTIES_WITH_TIMEZONES = { Property.DTSTART, Property.DTEND, Property.EXDATE,
                 Property.RDATE, Property.RECURRENCE_ID };
-        private static TimeZoneRegistry timeZoneRegistry = TimeZoneRegistryFactory.getInstance().createRegistry();
 
         String prop;
 
@@ -252,7 +250,7 @@ public class EventValidator implements ConstraintValidator<Event, Calendar> {
                 for (Property p : props) {
                     if (p != null && p.getParameter(Parameter.TZID) != null) {
                         String tzId = p.getParameter(Parameter.TZID).getValue();
-                        if (tzId != null && timeZoneRegistry.getTimeZone(tzId) == null) {
+                        if (tzId != null && TimeZoneService.getInstance().getTimeZone(tzId) == null) {
                             LOG.warn("Unknown TZID [" + tzId + "] for event " + event);
                             return false;
 
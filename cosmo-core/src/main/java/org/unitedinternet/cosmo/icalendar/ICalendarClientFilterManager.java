@@ -70,6 +70,25 @@ public class ICalendarClientFilterManager {
 
     }
 
+    /**
+     * @return true if a filter applies to calendars served to the current client
+     */
+    public boolean hasClientFilter() {
+        return getClientFilterId() != null;
+    }
+
+    /**
+     * @return the identifier of the client whose filter applies to calendars
+     *         served to the current client, or <code>null</code> if none applies
+     */
+    public String getClientFilterId() {
+        String clientId = clientLocal.get();
+        if (clientId == null || clientFilters == null || !clientFilters.containsKey(clientId)) {
+            return null;
+        }
+        return clientId;
+    }
+
     public void setClientFilters(Map<String, ICalendarClientFilter> clientFilters) {
         this.clientFilters = clientFilters;
     }
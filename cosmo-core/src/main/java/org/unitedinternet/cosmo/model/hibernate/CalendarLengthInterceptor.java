@@ -0,0 +1,210 @@
+package org.unitedinternet.cosmo.model.hibernate;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.unitedinternet.cosmo.calendar.util.RenderedCalendarCache;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import net.fortuna.ical4j.model.Calendar;
+
+/**
+ * Hibernate Interceptor that keeps the length of the serialized calendar of
+ * a master note, so that <code>DAV:getcontentlength</code> can be answered
+ * without rendering the calendar.
+ *
+ * Saving a note whose calendar changed only clears the stored length, a
+ * missing length means it is unknown. Once the transaction committed, the
+ * calendar is rendered, kept in the {@link RenderedCalendarCache} under the
+ * entity tag of the note and its length is stored in a transaction of its
+ * own. This is only done when the stamps, attributes and modifications of
+ * the note are already loaded, otherwise the calendar is rendered when it is
+ * first requested. An update keeps the stored length when neither the note's
+ * own columns nor its stamps, attributes, modifications or event data
+ * changed.
+ */
+@Component
+public class CalendarLengthInterceptor extends EmptyInterceptor {
+
+    private static final long serialVersionUID = -4315089911364372461L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CalendarLengthInterceptor.class);
+
+    private static final String CALENDAR_LENGTH = "calendarLength";
+
+    /** Properties that change on every update without changing the calendar length. */
+    private static final Set<String> BOOKKEEPING_PROPERTIES = Set.of("modifiedDate", "etag", "version",
+            CALENDAR_LENGTH);
+
+    private final transient EntityConverter entityConverter;
+
+    private final transient RenderedCalendarCache renderedCalendarCache;
+
+    // looked up when used, the entity manager factory is configured with this interceptor
+    private final transient ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    private final transient ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    public CalendarLengthInterceptor(EntityConverter entityConverter, RenderedCalendarCache renderedCalendarCache,
+            ObjectProvider<EntityManagerFactory> entityManagerFactory,
+            ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.entityConverter = entityConverter;
+        this.renderedCalendarCache = renderedCalendarCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    public boolean onFlushDirty(Object object, Serializable id, Object[] currentState, Object[] previousState,
+            String[] propertyNames, Type[] types) {
+        if (object instanceof HibNoteItem && previousState != null
+                && !isCalendarChanged((HibNoteItem) object, currentState, previousState, propertyNames, types)) {
+            return false;
+        }
+        return clearCalendarLength(object, currentState, propertyNames);
+    }
+
+    @Override
+    public boolean onSave(Object object, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        return clearCalendarLength(object, state, propertyNames);
+    }
+
+    private boolean clearCalendarLength(Object object, Object[] state, String[] propertyNames) {
+        if (!(object instanceof HibNoteItem)) {
+            return false;
+        }
+        HibNoteItem note = (HibNoteItem) object;
+        if (note.getModifies() != null) {
+            return false;
+        }
+
+        if (note.isCalendarInitialized()) {
+            note.clearCalendarChanged();
+            storeCalendarLengthAfterCommit(note);
+        }
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (CALENDAR_LENGTH.equals(propertyNames[i])) {
+                state[i] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return false if a length is stored for the note and nothing it was
+     *         calculated from changed since
+     */
+    private static boolean isCalendarChanged(HibNoteItem note, Object[] currentState, Object[] previousState,
+            String[] propertyNames, Type[] types) {
+        if (note.getModifies() != null || !note.isCalendarInitialized()) {
+            return true;
+        }
+        for (int i = 0; i < propertyNames.length; i++) {
+            if ("modifiedDate".equals(propertyNames[i]) && note.isCalendarChanged((Long) previousState[i])) {
+                return true;
+            }
+            if (CALENDAR_LENGTH.equals(propertyNames[i]) && previousState[i] == null) {
+                return true;
+            }
+            if (BOOKKEEPING_PROPERTIES.contains(propertyNames[i])
+                    || (types != null && types[i].isCollectionType())) {
+                continue;
+            }
+            if (!Objects.equals(currentState[i], previousState[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores the calendar length of the note once the current transaction
+     * committed, at most once per transaction however often it is flushed.
+     * Without a transaction the length is calculated when it is requested.
+     */
+    private void storeCalendarLengthAfterCommit(HibNoteItem note) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<HibNoteItem> notes = (Set<HibNoteItem>) TransactionSynchronizationManager.getResource(this);
+        if (notes == null) {
+            Set<HibNoteItem> pending = Collections.newSetFromMap(new IdentityHashMap<HibNoteItem, Boolean>());
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    for (HibNoteItem pendingNote : pending) {
+                        storeCalendarLength(pendingNote);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CalendarLengthInterceptor.this);
+                }
+            });
+            notes = pending;
+        }
+        notes.add(note);
+    }
+
+    /**
+     * Renders the calendar of a committed master note, keeps it for the
+     * following reads and stores its length unless the note was changed
+     * again in the meantime.
+     */
+    void storeCalendarLength(HibNoteItem note) {
+        byte[] rendered = renderCalendar(note);
+        if (rendered == null) {
+            return;
+        }
+        renderedCalendarCache.put(note.calculateEntityTag(), rendered);
+        try {
+            TransactionTemplate template = new TransactionTemplate(transactionManager.getObject());
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            template.executeWithoutResult(status -> EntityManagerFactoryUtils
+                    .getTransactionalEntityManager(entityManagerFactory.getObject())
+                    .createNamedQuery("noteItem.calendarLength.assign")
+                    .setParameter("length", Long.valueOf(rendered.length)).setParameter("id", note.getId())
+                    .setParameter("etag", note.getEntityTag()).executeUpdate());
+        } catch (RuntimeException e) {
+            // the length stays unknown and is calculated when requested
+            LOG.debug("Unable to store calendar length of item {}", note.getUid(), e);
+        }
+    }
+
+    /**
+     * Returns the calendar as served for the given master note, or
+     * <code>null</code> if the note has no calendar representation.
+     */
+    private byte[] renderCalendar(HibNoteItem note) {
+        try {
+            Calendar calendar = entityConverter.convertNote(note);
+            if (calendar == null) {
+                return null;
+            }
+            return RenderedCalendarCache.render(calendar);
+        } catch (RuntimeException e) {
+            LOG.debug("Unable to render calendar of item {}", note.getUid(), e);
+            return null;
+        }
+    }
+}
@@ -15,7 +15,6 @@
  */
 package org.unitedinternet.cosmo.model.hibernate;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -30,6 +29,7 @@ import java.util.Vector;
 import org.apache.commons.lang3.StringUtils;
 import org.unitedinternet.cosmo.calendar.ICalendarUtils;
 import org.unitedinternet.cosmo.calendar.util.CalendarUtils;
+import org.unitedinternet.cosmo.calendar.util.TimeZoneService;
 import org.unitedinternet.cosmo.dao.ModelValidationException;
 import org.unitedinternet.cosmo.model.AvailabilityItem;
 import org.unitedinternet.cosmo.model.CalendarCollectionStamp;
@@ -56,8 +56,6 @@ import net.fortuna.ical4j.model.DateTime;
 import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.PropertyList;
 import net.fortuna.ical4j.model.TimeZone;
-import net.fortuna.ical4j.model.TimeZoneRegistry;
-import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
 import net.fortuna.ical4j.model.component.CalendarComponent;
 import net.fortuna.ical4j.model.component.VAlarm;
 import net.fortuna.ical4j.model.component.VEvent;
@@ -88,9 +86,6 @@ import net.fortuna.ical4j.model.property.Location;
  */
 @org.springframework.stereotype.Component
 public class EntityConverter { 
-    private static final TimeZoneRegistry TIMEZONE_REGISTRY =
-        TimeZoneRegistryFactory.getInstance().createRegistry();
-
     private EntityFactory entityFactory;
     
     public static final String X_OSAF_STARRED = "X-OSAF-STARRED";
@@ -470,7 +465,7 @@ public class EntityConverter {
         // check start/end date tz is included, and add if it isn't
         String tzid = getTzId(stamp.getStartDate());
         if(tzid!=null && !tzMap.containsKey(tzid)) {
-            TimeZone tz = TIMEZONE_REGISTRY.getTimeZone(tzid);
+            TimeZone tz = TimeZoneService.getInstance().getTimeZone(tzid);
             if(tz!=null) {
                 VTimeZone vtz = tz.getVTimeZone();
                 masterCal.getComponents().add(0, vtz);
@@ -480,7 +475,7 @@ public class EntityConverter {
         
         tzid = getTzId(stamp.getEndDate());
         if(tzid!=null && !tzMap.containsKey(tzid)) {
-            TimeZone tz = TIMEZONE_REGISTRY.getTimeZone(tzid);
+            TimeZone tz = TimeZoneService.getInstance().getTimeZone(tzid);
             if(tz!=null) {
                 VTimeZone vtz = tz.getVTimeZone();
                 masterCal.getComponents().add(0, vtz);
@@ -548,7 +543,7 @@ public class EntityConverter {
             // verify that timezones are present for exceptions, and add if not
             tzid = getTzId(exceptionStamp.getStartDate());
             if(tzid!=null && !tzMap.containsKey(tzid)) {
-                TimeZone tz = TIMEZONE_REGISTRY.getTimeZone(tzid);
+                TimeZone tz = TimeZoneService.getInstance().getTimeZone(tzid);
                 if(tz!=null) {
                     VTimeZone vtz = tz.getVTimeZone();
                     masterCal.getComponents().add(0, vtz);
@@ -558,7 +553,7 @@ public class EntityConverter {
             
             tzid = getTzId(exceptionStamp.getEndDate());
             if(tzid!=null && !tzMap.containsKey(tzid)) {
-                TimeZone tz = TIMEZONE_REGISTRY.getTimeZone(tzid);
+                TimeZone tz = TimeZoneService.getInstance().getTimeZone(tzid);
                 if(tz!=null) {
                     VTimeZone vtz = tz.getVTimeZone();
                     masterCal.getComponents().add(0, vtz);
@@ -773,7 +768,6 @@ public class EntityConverter {
         // Master calendar includes everything in the original calendar minus
         // any exception events (VEVENT with RECURRENCEID)
         eventStamp.setEventCalendar(masterCalendar);
-        compactTimezones(masterCalendar);
         
         VEvent event = eventStamp.getEvent();
         
@@ -788,35 +782,6 @@ public class EntityConverter {
         syncExceptions(exceptions, masterNote);
     }
 
-    /**
-     * Compact timezones.
-     * @param calendar The calendar.
-     */
-    private void compactTimezones(Calendar calendar) {
-        
-        if (calendar==null) {
-            return;
-        }
-
-        // Get list of timezones in master calendar and remove all timezone
-        // definitions that are in the registry.  The idea is to not store
-        // extra data.  Instead, the timezones will be added to the calendar
-        // by the getCalendar() api.
-        List<VTimeZone> timezones = calendar.getComponents(Component.VTIMEZONE);
-        List<VTimeZone> toRemove = new ArrayList<>();
-        for(VTimeZone vtz : timezones) {
-            String tzid = vtz.getTimeZoneId().getValue();
-            TimeZone tz = TIMEZONE_REGISTRY.getTimeZone(tzid);
-            //  Remove timezone iff it matches the one in the registry
-            if(tz!=null && vtz.equals(tz.getVTimeZone())) {
-                toRemove.add(vtz);
-            }
-        }
-
-        // remove known timezones from master calendar
-        calendar.getComponents().removeAll(toRemove);
-    }
-
     /**
      * Sync exceptions.
      * @param exceptions The exceptions.
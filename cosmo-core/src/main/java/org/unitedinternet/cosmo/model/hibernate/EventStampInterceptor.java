@@ -17,26 +17,61 @@ package org.unitedinternet.cosmo.model.hibernate;
 
 import java.io.Serializable;
 import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 import org.hibernate.EmptyInterceptor;
 import org.hibernate.type.Type;
 import org.springframework.stereotype.Component;
+import org.unitedinternet.cosmo.calendar.ICalendarUtils;
+import org.unitedinternet.cosmo.calendar.Instance;
+import org.unitedinternet.cosmo.calendar.InstanceList;
 import org.unitedinternet.cosmo.calendar.RecurrenceExpander;
 import org.unitedinternet.cosmo.calendar.util.Dates;
 import org.unitedinternet.cosmo.model.EventStamp;
 
+import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Date;
 import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Property;
+import net.fortuna.ical4j.model.Recur.Frequency;
 import net.fortuna.ical4j.model.TemporalAmountAdapter;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.property.RRule;
 
 /**
- * Hibernate Interceptor that updates BaseEventStamp timeRangeIndexes.
+ * Hibernate Interceptor that updates BaseEventStamp timeRangeIndexes and
+ * propertyIndexes and, for recurring master events, the index of their
+ * occurrences.
  */
 @Component
 public class EventStampInterceptor extends EmptyInterceptor {
 
     private static final long serialVersionUID = 5339230223113722458L;
 
+    /**
+     * How far into the future occurrences are indexed when an event is saved.
+     */
+    public static final long OCCURRENCE_HORIZON_MILLIS = 365L * 24 * 60 * 60 * 1000;
+
+    /**
+     * How far into the past occurrences are indexed when an event is saved,
+     * queries for earlier occurrences expand the recurrence.
+     */
+    public static final long OCCURRENCE_HISTORY_MILLIS = 90L * 24 * 60 * 60 * 1000;
+
+    /**
+     * Maximum number of occurrences indexed per event, the occurrences of
+     * events with more are indexed for a shorter window.
+     */
+    public static final int MAX_INDEXED_OCCURRENCES = 5000;
+
+    private static final long ONE_DAY_MILLIS = 24L * 60 * 60 * 1000;
+
     @Override
     public boolean onFlushDirty(Object object, Serializable id, Object[] currentState,
             Object[] previousState, String[] propertyNames, Type[] types) {
@@ -44,24 +79,46 @@ public class EventStampInterceptor extends EmptyInterceptor {
             return false;
         }
         
-        // calculate time-range-index
         HibBaseEventStamp es = (HibBaseEventStamp) object;
+        
+        // the index only depends on the icalendar data, except for exceptions
+        // that take their duration from the master event
+        if (!(es instanceof HibEventExceptionStamp) && previousState != null
+                && getState(currentState, propertyNames, "timeRangeIndex") != null
+                && Objects.equals(getState(currentState, propertyNames, "icaldata"),
+                        getState(previousState, propertyNames, "icaldata"))) {
+            return false;
+        }
+        
+        // calculate time-range-index
         HibEventTimeRangeIndex index = calculateEventStampIndexes(es);
         
         if(index==null) {
             return false;
         }
         
-        // update modifiedDate and entityTag
-        for ( int i=0; i < propertyNames.length; i++ ) {
-            if ( "timeRangeIndex".equals( propertyNames[i] ) ) {
-                currentState[i] = index;
+        setState(currentState, propertyNames, "propertyIndex", es.getPropertyIndex());
+        return setState(currentState, propertyNames, "timeRangeIndex", index);
+    }
+    
+    private static boolean setState(Object[] state, String[] propertyNames, String propertyName, Object value) {
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyName.equals(propertyNames[i])) {
+                state[i] = value;
                 return true;
             }
         }
-        
         return false;
     }
+    
+    private static Object getState(Object[] state, String[] propertyNames, String propertyName) {
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyName.equals(propertyNames[i])) {
+                return state[i];
+            }
+        }
+        return null;
+    }
 
     @Override
     public boolean onSave(Object object, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
@@ -70,6 +127,11 @@ public class EventStampInterceptor extends EmptyInterceptor {
             return false;
         }
         
+        // keep a time-range-index calculated before saving, as done by imports
+        if (getState(state, propertyNames, "timeRangeIndex") != null) {
+            return false;
+        }
+        
         // calculate time-range-index
         HibBaseEventStamp es = (HibBaseEventStamp) object;
         HibEventTimeRangeIndex index = calculateEventStampIndexes(es);
@@ -78,25 +140,28 @@ public class EventStampInterceptor extends EmptyInterceptor {
             return false;
         }
         
-        // update modifiedDate and entityTag
-        for ( int i=0; i < propertyNames.length; i++ ) {
-            if ( "timeRangeIndex".equals( propertyNames[i] ) ) {
-                state[i] = index;
-                return true;
-            }
-        }
-        
-        return false;
+        setState(state, propertyNames, "propertyIndex", es.getPropertyIndex());
+        return setState(state, propertyNames, "timeRangeIndex", index);
     }
     
     /**
      * Update the TimeRangeIndex property of the BaseEventStamp.
      * For recurring events, this means calculating the first start date
-     * and the last end date for all occurences.
+     * and the last end date for all occurences. The PropertyIndex is set
+     * on the stamp as well.
      */
-    protected HibEventTimeRangeIndex calculateEventStampIndexes(HibBaseEventStamp eventStamp) {
-        Date startDate = eventStamp.getStartDate();
-        Date endDate = eventStamp.getEndDate();
+    public HibEventTimeRangeIndex calculateEventStampIndexes(HibBaseEventStamp eventStamp) {
+        // parse the icalendar data at most once
+        Calendar calendar = eventStamp.takeIndexCalendar();
+        if (calendar == null) {
+            return null;
+        }
+        VEvent event = ICalendarUtils.getEventFrom(calendar);
+        if (event != null) {
+            eventStamp.setPropertyIndex(HibEventPropertyIndex.fromEvent(event));
+        }
+        Date startDate = HibBaseEventStamp.getStartDate(event);
+        Date endDate = HibBaseEventStamp.getEndDate(event);
         
         // Handle "missing" endDate
         if(endDate==null && eventStamp instanceof HibEventExceptionStamp ) {
@@ -118,11 +183,11 @@ public class EventStampInterceptor extends EmptyInterceptor {
         
         boolean isRecurring = false;
         
-        if (eventStamp.isRecurring()) {
+        if (HibBaseEventStamp.isRecurring(event)) {
             isRecurring = true;
             RecurrenceExpander expander = new RecurrenceExpander();
             Date[] range = expander
-                    .calculateRecurrenceRange(eventStamp.getEventCalendar());
+                    .calculateRecurrenceRange(calendar);
             startDate = range[0];
             endDate = range[1];
         } else {
@@ -169,9 +234,101 @@ public class EventStampInterceptor extends EmptyInterceptor {
         timeRangeIndex.setIsFloating(isFloating);
         timeRangeIndex.setIsRecurring(isRecurring);
         
+        if (eventStamp instanceof HibEventStamp) {
+            indexOccurrences(eventStamp, calendar, event, startDate, timeRangeIndex);
+        }
+        
         return timeRangeIndex;
     }
     
+    /**
+     * Stores the occurrences of a recurring event up to the occurrence horizon
+     * and clears the ones of an event that is not recurring anymore.
+     */
+    private void indexOccurrences(HibBaseEventStamp eventStamp, Calendar calendar, VEvent event,
+            Date seriesStart, HibEventTimeRangeIndex timeRangeIndex) {
+        Set<HibEventOccurrence> occurrences = new HashSet<HibEventOccurrence>();
+        if (timeRangeIndex.getIsRecurring() && isOccurrenceIndexable(event)) {
+            timeRangeIndex.setOccurrenceHorizon(
+                    calculateOccurrences(calendar, seriesStart, timeRangeIndex, occurrences));
+        }
+        
+        // avoid loading the occurrences of events that never had any
+        HibEventTimeRangeIndex previous = eventStamp.getTimeRangeIndex();
+        if (!occurrences.isEmpty() || (previous != null && previous.getOccurrenceHorizon() != null)) {
+            eventStamp.updateOccurrences(occurrences);
+        }
+    }
+    
+    /**
+     * Events recurring more often than daily are not indexed, they would
+     * produce too many occurrences.
+     */
+    private static boolean isOccurrenceIndexable(VEvent event) {
+        for (Object property : event.getProperties(Property.RRULE)) {
+            Frequency frequency = ((RRule) property).getRecur().getFrequency();
+            if (Frequency.SECONDLY.equals(frequency) || Frequency.MINUTELY.equals(frequency)
+                    || Frequency.HOURLY.equals(frequency)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Expands the recurrence from the start of the occurrence window, the
+     * series start or {@link #OCCURRENCE_HISTORY_MILLIS} ago, whichever is
+     * later, up to the occurrence horizon. A series with more occurrences than
+     * are indexed keeps the ones from now on and its window ends before the
+     * first occurrence that is left out. Occurrences outside of the window
+     * are found by expanding the recurrence at query time.
+     * @return the new occurrence horizon
+     */
+    private String calculateOccurrences(Calendar calendar, Date seriesStart, HibEventTimeRangeIndex timeRangeIndex,
+            Set<HibEventOccurrence> occurrences) {
+        long now = System.currentTimeMillis();
+        long windowStart = Math.max(seriesStart.getTime(), now - OCCURRENCE_HISTORY_MILLIS);
+        DateTime rangeStart = new DateTime(windowStart - ONE_DAY_MILLIS);
+        rangeStart.setUtc(true);
+        DateTime rangeEnd = new DateTime(now + OCCURRENCE_HORIZON_MILLIS);
+        rangeEnd.setUtc(true);
+        InstanceList instances = new RecurrenceExpander().getOcurrences(calendar, rangeStart, rangeEnd, null);
+        
+        List<Instance> sorted = new ArrayList<Instance>(instances.values());
+        sorted.sort(Comparator.comparingLong((Instance instance) -> instance.getStart().getTime()));
+        int first = 0;
+        // drop past occurrences first, they are queried less often than the upcoming ones
+        while (sorted.size() - first > MAX_INDEXED_OCCURRENCES && sorted.get(first).getEnd().getTime() <= now) {
+            first++;
+        }
+        int last = Math.min(sorted.size(), first + MAX_INDEXED_OCCURRENCES);
+        for (Instance instance : sorted.subList(first, last)) {
+            occurrences.add(new HibEventOccurrence(fromDateToStringNoTimezone(instance.getStart()),
+                    fromDateToStringNoTimezone(instance.getEnd()), timeRangeIndex.getIsFloating()));
+        }
+        
+        // leave a day for floating events, that are not converted to UTC
+        if (first > 0) {
+            timeRangeIndex.setOccurrenceStart(toUtcString(now + ONE_DAY_MILLIS));
+        } else if (windowStart > seriesStart.getTime()) {
+            timeRangeIndex.setOccurrenceStart(toUtcString(windowStart));
+        }
+        if (last < sorted.size()) {
+            return toUtcString(sorted.get(last).getStart().getTime() - ONE_DAY_MILLIS);
+        }
+        String horizonDate = toUtcString(rangeEnd.getTime() - ONE_DAY_MILLIS);
+        if (timeRangeIndex.getEndDate().compareTo(horizonDate) < 0) {
+            return HibEventStamp.TIME_INFINITY;
+        }
+        return horizonDate;
+    }
+    
+    private static String toUtcString(long time) {
+        DateTime date = new DateTime(time);
+        date.setUtc(true);
+        return date.toString();
+    }
+    
     private String fromDateToStringNoTimezone(Date date) {
         if(date==null) {
             return null;
@@ -16,32 +16,36 @@
 package org.unitedinternet.cosmo.model.hibernate;
 
 import java.io.IOException;
-import java.io.StringReader;
 import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
 import jakarta.persistence.PrimaryKeyJoinColumn;
 import jakarta.persistence.SecondaryTable;
+import jakarta.persistence.Transient;
 
 import org.unitedinternet.cosmo.CosmoIOException;
-import org.unitedinternet.cosmo.CosmoParseException;
 import org.unitedinternet.cosmo.CosmoValidationException;
 import org.unitedinternet.cosmo.calendar.ICalendarUtils;
 import org.unitedinternet.cosmo.calendar.util.CalendarUtils;
+import org.unitedinternet.cosmo.calendar.util.ParsedCalendarCache;
 import org.unitedinternet.cosmo.icalendar.ICalendarConstants;
 import org.unitedinternet.cosmo.model.BaseEventStamp;
 import org.unitedinternet.cosmo.model.Item;
 import org.unitedinternet.cosmo.transform.TzHelper;
 import org.unitedinternet.cosmo.util.ValidationUtils;
 
-import net.fortuna.ical4j.data.CalendarBuilder;
-import net.fortuna.ical4j.data.ParserException;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.ComponentList;
 import net.fortuna.ical4j.model.Date;
@@ -52,8 +56,6 @@ import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.PropertyList;
 import net.fortuna.ical4j.model.Recur;
 import net.fortuna.ical4j.model.TemporalAmountAdapter;
-import net.fortuna.ical4j.model.TimeZoneRegistry;
-import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
 import net.fortuna.ical4j.model.component.VAlarm;
 import net.fortuna.ical4j.model.component.VEvent;
 import net.fortuna.ical4j.model.parameter.TzId;
@@ -81,14 +83,14 @@ import net.fortuna.ical4j.validate.ValidationException;
                 @Index(name = "idx_startdt",columnList = "startDate"),
                 @Index(name = "idx_enddt",columnList = "endDate"),
                 @Index(name = "idx_floating",columnList = "isFloating"),
-                @Index(name = "idx_recurring",columnList = "isrecurring")}
+                @Index(name = "idx_recurring",columnList = "isrecurring"),
+                @Index(name = "idx_occhorizon",columnList = "occurrencehorizon"),
+                @Index(name = "idx_status",columnList = "status")}
 )
 @DiscriminatorValue("baseevent")
 @SuppressWarnings("serial")
 public abstract class HibBaseEventStamp extends HibStamp implements ICalendarConstants, BaseEventStamp {
 
-    protected static final TimeZoneRegistry TIMEZONE_REGISTRY =
-        TimeZoneRegistryFactory.getInstance().createRegistry();
     
     public static final String TIME_INFINITY = "Z-TIME-INFINITY";
     
@@ -100,6 +102,35 @@ public abstract class HibBaseEventStamp extends HibStamp implements ICalendarCon
     @Embedded
     private HibEventTimeRangeIndex timeRangeIndex = null;
     
+    @Embedded
+    private HibEventPropertyIndex propertyIndex = null;
+    
+    @ElementCollection
+    @JoinTable(
+            name="event_occurrence",
+            joinColumns = @JoinColumn(name="stampid"),
+            indexes = {
+                    @Index(name = "idx_occ_startdt", columnList = "startdate"),
+                    @Index(name = "idx_occ_enddt", columnList = "enddate")}
+    )
+    private Set<HibEventOccurrence> occurrences = new HashSet<HibEventOccurrence>(0);
+    
+    /**
+     * Calendar last set on this stamp, kept until the time range index is
+     * calculated so that the icalendar data does not need to be parsed again.
+     * Callers of {@link #setEventCalendar(Calendar)} don't modify it
+     * afterwards, so it matches the icalendar data.
+     */
+    @Transient
+    private transient Calendar indexCalendar = null;
+
+    /**
+     * Whether the icalendar data was set since the stamp was loaded, in which
+     * case it is not the data the parsed calendar cache knows for this stamp.
+     */
+    @Transient
+    private transient boolean icaldataChanged = false;
+    
     public HibBaseEventStamp() {
         //Default constructor
     }
@@ -110,6 +141,9 @@ public abstract class HibBaseEventStamp extends HibStamp implements ICalendarCon
 
     public void setIcaldata(String icaldata) {
         this.icaldata = icaldata;
+        this.indexCalendar = null;
+        this.icaldataChanged = true;
+        markCalendarChanged();
     }
 
     public abstract VEvent getEvent();
@@ -119,28 +153,38 @@ public abstract class HibBaseEventStamp extends HibStamp implements ICalendarCon
         if (this.icaldata == null) {
             return null;
         }
-        return calendarFromString(this.icaldata);
+        if (this.icaldataChanged) {
+            return ParsedCalendarCache.parse(this.icaldata);
+        }
+        return ParsedCalendarCache.getInstance().getCalendar(getId(), getModifiedDate(), this.icaldata);
     }
     
     @Override
     public void setEventCalendar(Calendar calendar) {
         TzHelper.correctTzParameterFrom(calendar);
         this.icaldata = calendarToString(calendar);
+        this.indexCalendar = calendar;
+        this.icaldataChanged = true;
+        markCalendarChanged();
     }
-    
-    
-    private static Calendar calendarFromString(String icaldata) {
-        CalendarBuilder builder = new CalendarBuilder();
-        Calendar calendar = null;
-        try {
-            calendar = builder.build(new StringReader(icaldata));
-        } catch (IOException e) {
-            throw new CosmoIOException("can not happen with StringReader", e);
-        } catch (ParserException e) {
-            throw new CosmoParseException(e);
+
+    private void markCalendarChanged() {
+        if (getItem() instanceof HibNoteItem) {
+            ((HibNoteItem) getItem()).markCalendarChanged();
         }
-        return calendar;
     }
+    
+    /**
+     * Returns the event calendar for calculating the time range index, which
+     * must not modify it. The calendar last set on this stamp is handed out
+     * once, otherwise the icalendar data is parsed.
+     */
+    Calendar takeIndexCalendar() {
+        Calendar calendar = this.indexCalendar;
+        this.indexCalendar = null;
+        return calendar != null ? calendar : getEventCalendar();
+    }
+    
 
     private static String calendarToString(Calendar value) {
         String calendar = null;
@@ -163,6 +207,31 @@ public abstract class HibBaseEventStamp extends HibStamp implements ICalendarCon
         this.timeRangeIndex = timeRangeIndex;
     }
     
+    public HibEventPropertyIndex getPropertyIndex() {
+        return propertyIndex;
+    }
+
+    public void setPropertyIndex(HibEventPropertyIndex propertyIndex) {
+        this.propertyIndex = propertyIndex;
+    }
+    
+    /**
+     * @return the indexed occurrences of a recurring event, up to the
+     *         occurrence horizon of the time range index
+     */
+    public Set<HibEventOccurrence> getOccurrences() {
+        return Collections.unmodifiableSet(occurrences);
+    }
+    
+    /**
+     * Replaces the indexed occurrences, keeping the ones that did not change
+     * so that extending the index only adds rows.
+     */
+    void updateOccurrences(Set<HibEventOccurrence> newOccurrences) {
+        occurrences.retainAll(newOccurrences);
+        occurrences.addAll(newOccurrences);
+    }
+    
       
     /**
      * Return BaseEventStamp from Item
@@ -193,7 +262,10 @@ public abstract class HibBaseEventStamp extends HibStamp implements ICalendarCon
 
     @Override
     public Date getStartDate() {
-        VEvent event = getEvent();
+        return getStartDate(getEvent());
+    }
+
+    static Date getStartDate(VEvent event) {
         if (event == null) {
             return null;
         }
@@ -208,15 +280,18 @@ public abstract class HibBaseEventStamp extends HibStamp implements ICalendarCon
     
     @Override
     public Date getEndDate() {
-        VEvent event = getEvent();
+        return getEndDate(getEvent());
+    }
+
+    static Date getEndDate(VEvent event) {
         if (event == null) {
             return null;
         }
         DtEnd dtEnd = event.getEndDate(false);
         // if no DTEND, then calculate endDate from DURATION
         if (dtEnd == null) {
-            Date startDate = getStartDate();
-            TemporalAmount duration = getDuration();
+            Date startDate = getStartDate(event);
+            TemporalAmount duration = ICalendarUtils.getDuration(event);
 
             // if no DURATION, then there is no end time
             if (duration == null) {
@@ -392,10 +467,22 @@ public abstract class HibBaseEventStamp extends HibStamp implements ICalendarCon
 
     @Override
     public boolean isRecurring() {
-        if (getRecurrenceRules().size() > 0) {
+        return isRecurring(getEvent());
+    }
+
+    static boolean isRecurring(VEvent event) {
+        if (event == null) {
+            return false;
+        }
+        if (!event.getProperties().getProperties(Property.RRULE).isEmpty()) {
             return true;
         }
-        DateList rdates = getRecurrenceDates();
-        return rdates != null && rdates.size() > 0;
-    }  
+        PropertyList<RDate> rdates = event.getProperties().getProperties(Property.RDATE);
+        for (RDate rdate : rdates) {
+            if (rdate.getDates() != null && !rdate.getDates().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
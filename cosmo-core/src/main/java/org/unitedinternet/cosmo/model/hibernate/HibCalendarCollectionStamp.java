@@ -19,6 +19,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 
+import org.unitedinternet.cosmo.calendar.util.TimeZoneService;
 import org.unitedinternet.cosmo.hibernate.validator.Color;
 import org.unitedinternet.cosmo.hibernate.validator.DisplayName;
 import org.unitedinternet.cosmo.hibernate.validator.Timezone;
@@ -149,7 +150,7 @@ public class HibCalendarCollectionStamp extends HibStamp implements ICalendarCon
             return null;
         }
         VTimeZone vtz = (VTimeZone) timezone.getComponents().getComponent(Component.VTIMEZONE);
-        return new TimeZone(vtz);
+        return TimeZoneService.getInstance().getTimeZone(vtz);
     }
    
     /* (non-Javadoc)
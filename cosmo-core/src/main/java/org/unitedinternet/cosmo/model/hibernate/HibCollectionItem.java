@@ -21,6 +21,7 @@ import static org.unitedinternet.cosmo.model.hibernate.CollectionItemConstants.A
 import java.util.HashSet;
 import java.util.Set;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -50,6 +51,10 @@ public class HibCollectionItem extends HibItem implements CollectionItem {
     @Cascade( {CascadeType.DELETE }) 
     private Set<CollectionItemDetails> childDetails = new HashSet<CollectionItemDetails>(0);
 
+    // only written by the bulk increment in ContentDaoImpl.updateCollectionTimestamp()
+    @Column(name = "syncseq", insertable = false, updatable = false)
+    private Long syncSequence = null;
+
     private transient Set<Item> children = null;
 
     public HibCollectionItem() {
@@ -71,6 +76,17 @@ public class HibCollectionItem extends HibItem implements CollectionItem {
         return children;
     }
 
+    /* (non-Javadoc)
+     * @see org.unitedinternet.cosmo.model.CollectionItem#getSyncSequence()
+     */
+    public Long getSyncSequence() {
+        return syncSequence;
+    }
+
+    public void setSyncSequence(Long syncSequence) {
+        this.syncSequence = syncSequence;
+    }
+
     /* (non-Javadoc)
      * @see org.unitedinternet.cosmo.model.CollectionItem#getChildDetails(org.unitedinternet.cosmo.model.Item)
      */
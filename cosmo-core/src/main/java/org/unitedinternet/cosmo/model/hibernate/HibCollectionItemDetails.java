@@ -22,6 +22,7 @@ import jakarta.persistence.Embeddable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -36,10 +37,13 @@ import org.unitedinternet.cosmo.model.Item;
  * used to store extra attributes in the many-to-many
  * association of collection<-->item.  Extra information
  * that is stored include the date the item was added
- * to the collection.
+ * to the collection and the sync sequence of the collection
+ * at which the item last changed, null until the change
+ * is assigned one.
  */
 @Entity
-@Table(name="collection_item")
+@Table(name="collection_item",
+        indexes={@Index(name = "idx_collection_item_syncseq", columnList = "collectionid, syncseq")})
 public class HibCollectionItemDetails implements CollectionItemDetails {
 
     @Id
@@ -47,6 +51,9 @@ public class HibCollectionItemDetails implements CollectionItemDetails {
     
     @Column(name = "createdate", nullable=false)
     private Long creationDate = System.currentTimeMillis();
+
+    @Column(name = "syncseq")
+    private Long syncSequence = null;
  
     public HibCollectionItemDetails() {}
     
@@ -76,6 +83,14 @@ public class HibCollectionItemDetails implements CollectionItemDetails {
         return creationDate;
     }
 
+    public Long getSyncSequence() {
+        return syncSequence;
+    }
+
+    public void setSyncSequence(Long syncSequence) {
+        this.syncSequence = syncSequence;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if(obj==null) {
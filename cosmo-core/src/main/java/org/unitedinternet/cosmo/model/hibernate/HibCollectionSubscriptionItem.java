@@ -119,6 +119,12 @@ public class HibCollectionSubscriptionItem extends HibItem implements Collection
         HibIntegerAttribute.setValue(this, ATTR_HUE, value);
     }
 
+    @Override
+    public Long getSyncSequence() {
+        // the shared collection lives elsewhere, its changes are not sequenced here
+        return null;
+    }
+
     @Override
     public int generateHash() {
         return this.getVersion();
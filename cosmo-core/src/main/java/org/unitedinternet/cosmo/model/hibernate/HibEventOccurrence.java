@@ -0,0 +1,60 @@
+package org.unitedinternet.cosmo.model.hibernate;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Start and end of a single occurrence of a recurring event, stored so that
+ * time-range queries can be answered without expanding the recurrence. The
+ * dates use the same format as {@link HibEventTimeRangeIndex}.
+ */
+@Embeddable
+public class HibEventOccurrence {
+
+    @Column(name = "startdate", length = 16, nullable = false)
+    private String startDate;
+
+    @Column(name = "enddate", length = 16, nullable = false)
+    private String endDate;
+
+    @Column(name = "isfloating", columnDefinition = "tinyint(4)", nullable = false)
+    private boolean isFloating;
+
+    public HibEventOccurrence() {
+        // Default constructor
+    }
+
+    public HibEventOccurrence(String startDate, String endDate, boolean isFloating) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.isFloating = isFloating;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public boolean getIsFloating() {
+        return isFloating;
+    }
+
+    public int hashCode() {
+        return new HashCodeBuilder(17, 37).append(startDate).append(endDate).append(isFloating).toHashCode();
+    }
+
+    public boolean equals(Object o) {
+        if (!(o instanceof HibEventOccurrence)) {
+            return false;
+        }
+        HibEventOccurrence it = (HibEventOccurrence) o;
+        return new EqualsBuilder().append(startDate, it.startDate).append(endDate, it.endDate)
+                .append(isFloating, it.isFloating).isEquals();
+    }
+}
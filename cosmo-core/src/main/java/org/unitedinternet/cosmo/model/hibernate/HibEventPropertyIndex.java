@@ -0,0 +1,89 @@
+package org.unitedinternet.cosmo.model.hibernate;
+
+import java.util.List;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import net.fortuna.ical4j.model.Property;
+import net.fortuna.ical4j.model.component.VEvent;
+
+/**
+ * Values of event properties that calendar queries filter on, stored so that
+ * those filters can be evaluated by the database first. Properties that occur
+ * more than once are stored one value per line. A missing property is stored
+ * as an empty string, <code>null</code> means that the value was not indexed.
+ *
+ * @see org.unitedinternet.cosmo.model.filter.EventStampFilter
+ */
+@Embeddable
+public class HibEventPropertyIndex {
+
+    static final int MAX_STATUS_LENGTH = 255;
+    static final int MAX_ORGANIZER_LENGTH = 1024;
+
+    private static final String SEPARATOR = "\n";
+
+    @Column(table="event_stamp", name = "status", length=MAX_STATUS_LENGTH)
+    private String status = null;
+
+    @Column(table="event_stamp", name = "organizer", length=MAX_ORGANIZER_LENGTH)
+    private String organizer = null;
+
+    @Column(table="event_stamp", name = "attendees", length=102400000)
+    private String attendees = null;
+
+    @Column(table="event_stamp", name = "categories", length=102400000)
+    private String categories = null;
+
+    public HibEventPropertyIndex() {
+        // Default constructor
+    }
+
+    /**
+     * @param event
+     *            event to index
+     * @return the index of the given event
+     */
+    public static HibEventPropertyIndex fromEvent(VEvent event) {
+        HibEventPropertyIndex index = new HibEventPropertyIndex();
+        index.status = indexValue(event.getProperties(Property.STATUS), MAX_STATUS_LENGTH);
+        index.organizer = indexValue(event.getProperties(Property.ORGANIZER), MAX_ORGANIZER_LENGTH);
+        index.attendees = indexValue(event.getProperties(Property.ATTENDEE), Integer.MAX_VALUE);
+        index.categories = indexValue(event.getProperties(Property.CATEGORIES), Integer.MAX_VALUE);
+        return index;
+    }
+
+    /**
+     * Values that don't fit the column are not indexed, a truncated value
+     * would not match filters that the full value matches.
+     */
+    private static String indexValue(List<Property> properties, int maxLength) {
+        StringBuilder value = new StringBuilder();
+        for (Property property : properties) {
+            if (value.length() > 0) {
+                value.append(SEPARATOR);
+            }
+            if (property.getValue() != null) {
+                value.append(property.getValue());
+            }
+        }
+        return value.length() <= maxLength ? value.toString() : null;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getOrganizer() {
+        return organizer;
+    }
+
+    public String getAttendees() {
+        return attendees;
+    }
+
+    public String getCategories() {
+        return categories;
+    }
+}
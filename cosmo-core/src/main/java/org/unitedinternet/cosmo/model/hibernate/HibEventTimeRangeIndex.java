@@ -23,6 +23,12 @@ public class HibEventTimeRangeIndex {
     @Column(table="event_stamp", name = "isrecurring", columnDefinition = "tinyint(4)")
     private Boolean isRecurring = null;
     
+    @Column(table="event_stamp", name = "occurrencehorizon", length=16)
+    private String occurrenceHorizon = null;
+    
+    @Column(table="event_stamp", name = "occurrencestart", length=16)
+    private String occurrenceStart = null;
+    
     /**
      * The end date of the event.  If the event is recurring, the
      * value is the earliest start date for the recurring series.
@@ -103,4 +109,36 @@ public class HibEventTimeRangeIndex {
     public void setIsRecurring(Boolean isRecurring) {
         this.isRecurring = isRecurring;
     }
+
+    /**
+     * The date until which all occurrences of a recurring event are stored
+     * in the occurrence index, in the same format as the start date. The
+     * value represents infinity if the whole series is indexed, and is
+     * <code>null</code> if the occurrences are not indexed at all, in which
+     * case they have to be calculated by expanding the recurrence.
+     * @return occurrence horizon of the event
+     */
+    public String getOccurrenceHorizon() {
+        return occurrenceHorizon;
+    }
+
+    public void setOccurrenceHorizon(String occurrenceHorizon) {
+        this.occurrenceHorizon = occurrenceHorizon;
+    }
+
+    /**
+     * The date from which on all occurrences of a recurring event are stored
+     * in the occurrence index, in the same format as the start date. The
+     * value is <code>null</code> if the occurrences are indexed from the
+     * start of the series. Occurrences before have to be calculated by
+     * expanding the recurrence.
+     * @return start of the indexed occurrences of the event
+     */
+    public String getOccurrenceStart() {
+        return occurrenceStart;
+    }
+
+    public void setOccurrenceStart(String occurrenceStart) {
+        this.occurrenceStart = occurrenceStart;
+    }
 }
@@ -15,10 +15,14 @@
  */
 package org.unitedinternet.cosmo.model.hibernate;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 
 import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.Period;
+import net.fortuna.ical4j.model.Property;
 
 import org.unitedinternet.cosmo.hibernate.validator.FreeBusy;
 import org.unitedinternet.cosmo.model.FreeBusyItem;
@@ -33,6 +37,18 @@ public class HibFreeBusyItem extends HibICalendarItem implements FreeBusyItem {
 
     private static final long serialVersionUID = -8464653125685599042L;
 
+    /**
+     * Start of the earliest FREEBUSY period of the calendar in epoch millis.
+     */
+    @Column(name = "freebusystart")
+    private Long freeBusyStart;
+
+    /**
+     * End of the latest FREEBUSY period of the calendar in epoch millis.
+     */
+    @Column(name = "freebusyend")
+    private Long freeBusyEnd;
+
     public HibFreeBusyItem() {
     }
 
@@ -58,6 +74,38 @@ public class HibFreeBusyItem extends HibICalendarItem implements FreeBusyItem {
      */
     public void setFreeBusyCalendar(Calendar calendar) {
         setCalendar(calendar);
+        updateFreeBusyRange(calendar);
+    }
+
+    public Long getFreeBusyStart() {
+        return freeBusyStart;
+    }
+
+    public Long getFreeBusyEnd() {
+        return freeBusyEnd;
+    }
+
+    /**
+     * Stores the range covered by the FREEBUSY periods of the calendar, so
+     * that free-busy queries only load the items overlapping their period.
+     */
+    private void updateFreeBusyRange(Calendar calendar) {
+        Long start = null;
+        Long end = null;
+        if (calendar != null) {
+            for (Object component : calendar.getComponents(Component.VFREEBUSY)) {
+                for (Object property : ((Component) component).getProperties(Property.FREEBUSY)) {
+                    for (Period period : ((net.fortuna.ical4j.model.property.FreeBusy) property).getPeriods()) {
+                        long periodStart = period.getStart().getTime();
+                        long periodEnd = period.getEnd().getTime();
+                        start = start == null ? periodStart : Math.min(start, periodStart);
+                        end = end == null ? periodEnd : Math.max(end, periodEnd);
+                    }
+                }
+            }
+        }
+        this.freeBusyStart = start;
+        this.freeBusyEnd = end;
     }
     
 }
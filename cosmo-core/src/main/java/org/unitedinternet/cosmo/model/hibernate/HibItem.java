@@ -42,10 +42,12 @@ import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.collection.spi.PersistentCollection;
 import org.hibernate.validator.constraints.Length;
 import org.unitedinternet.cosmo.model.Attribute;
 import org.unitedinternet.cosmo.model.AttributeTombstone;
@@ -118,6 +120,7 @@ public abstract class HibItem extends HibAuditableObject implements Item {
 
     @OneToMany(targetEntity=HibTicket.class, mappedBy = "item", 
             fetch=FetchType.EAGER, cascade=CascadeType.ALL, orphanRemoval=true)
+    @BatchSize(size=50)
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Ticket> tickets = new HashSet<Ticket>(0);
 
@@ -225,6 +228,25 @@ public abstract class HibItem extends HibAuditableObject implements Item {
         return Collections.unmodifiableMap(attributes);
     }
 
+    /**
+     * @return true if the stamps and attributes of this item are loaded
+     */
+    boolean isInitialized() {
+        return Hibernate.isInitialized(stamps) && Hibernate.isInitialized(attributes);
+    }
+
+    /**
+     * @return true if stamps or attributes were added to or removed from
+     *         this item since it was loaded
+     */
+    boolean isStampsOrAttributesChanged() {
+        return isChanged(stamps) || isChanged(attributes);
+    }
+
+    static boolean isChanged(Object collection) {
+        return !(collection instanceof PersistentCollection) || ((PersistentCollection<?>) collection).isDirty();
+    }
+
     @Override
     public void addTicket(Ticket ticket) {
         ticket.setItem(this);
@@ -403,6 +425,18 @@ public abstract class HibItem extends HibAuditableObject implements Item {
         return version;
     }
 
+    /**
+     * Also marks the item as changed in each of its collections, so that the
+     * change is assigned the next sync sequence of the collection.
+     */
+    @Override
+    public void updateTimestamp() {
+        super.updateTimestamp();
+        for (CollectionItemDetails cid : parentDetails) {
+            ((HibCollectionItemDetails) cid).setSyncSequence(null);
+        }
+    }
+
     /**
      * @param parent collection to add item to
      */
@@ -38,6 +38,9 @@ public class HibItemTombstone extends HibTombstone implements ItemTombstone {
     
     @Column(name="itemname", length=255)
     private String itemName = null;
+
+    @Column(name="syncseq")
+    private Long syncSequence = null;
     
     /**
      * Constructor.
@@ -73,6 +76,14 @@ public class HibItemTombstone extends HibTombstone implements ItemTombstone {
         this.itemName = itemName;
     }
 
+    public Long getSyncSequence() {
+        return syncSequence;
+    }
+
+    public void setSyncSequence(Long syncSequence) {
+        this.syncSequence = syncSequence;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null || !(obj instanceof ItemTombstone)) {
@@ -28,7 +28,9 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Transient;
 
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Cascade;
@@ -70,6 +72,16 @@ public class HibNoteItem extends HibICalendarItem implements NoteItem {
     
     @Column(name= "hasmodifications", columnDefinition = "tinyint(4)")
     private boolean hasModifications = false;
+
+    @Column(name = "calendarlength")
+    private Long calendarLength;
+
+    /**
+     * Whether the body, reminder, task/journal calendar or event data changed
+     * since the calendar length was last stored.
+     */
+    @Transient
+    private transient boolean calendarChanged = false;
     
     /**
      * Constructor.
@@ -85,11 +97,13 @@ public class HibNoteItem extends HibICalendarItem implements NoteItem {
     public void setBody(String body) {
         // body stored as TextAttribute on Item
         HibTextAttribute.setValue(this, ATTR_NOTE_BODY, body);
+        calendarChanged = true;
     }
   
     public void setBody(Reader body) {
         // body stored as TextAttribute on Item
         HibTextAttribute.setValue(this, ATTR_NOTE_BODY, body);
+        calendarChanged = true;
     }
    
     public Long getReminderTime() {
@@ -99,6 +113,7 @@ public class HibNoteItem extends HibICalendarItem implements NoteItem {
     public void setReminderTime(Long reminderTime) {
         // reminderDate stored as TimestampAttribute on Item
         HibTimestampAttribute.setValue(this, ATTR_REMINDER_TIME, reminderTime);
+        calendarChanged = true;
     }
    
     @TaskJournal
@@ -109,6 +124,7 @@ public class HibNoteItem extends HibICalendarItem implements NoteItem {
     
     public void setTaskJournalCalendar(Calendar calendar) {
         setCalendar(calendar);
+        calendarChanged = true;
     }
    
     public Item copy() {
@@ -153,6 +169,85 @@ public class HibNoteItem extends HibICalendarItem implements NoteItem {
     public boolean hasModifications() {
         return hasModifications;
     }
+
+    /**
+     * Returns the length in bytes of the UTF-8 serialized calendar of this
+     * master note, as stored after the note was last committed.
+     * 
+     * @return stored length or <code>null</code> if the length is unknown or
+     *         the note or one of its modifications changed since
+     */
+    public Long getCalendarLength() {
+        // only valid as long as neither the note nor its modifications changed
+        if (calendarLength == null || !calculateEntityTag().equals(getEntityTag())) {
+            return null;
+        }
+        return calendarLength;
+    }
+
+    public void setCalendarLength(Long calendarLength) {
+        this.calendarLength = calendarLength;
+    }
+
+    void markCalendarChanged() {
+        this.calendarChanged = true;
+    }
+
+    /**
+     * @param since when the calendar length was stored
+     * @return true if the calendar data of this note or one of its loaded
+     *         modifications was changed since the calendar length was stored
+     */
+    boolean isCalendarChanged(Long since) {
+        if (calendarChanged || isStampsOrAttributesChanged()) {
+            return true;
+        }
+        if (!hasModifications) {
+            return false;
+        }
+        if (isChanged(modifications)) {
+            return true;
+        }
+        for (NoteItem mod : modifications) {
+            HibNoteItem note = (HibNoteItem) mod;
+            if (note.calendarChanged || note.isStampsOrAttributesChanged() || since == null
+                    || note.getModifiedDate() == null || note.getModifiedDate() >= since) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void clearCalendarChanged() {
+        this.calendarChanged = false;
+        if (hasModifications) {
+            for (NoteItem mod : modifications) {
+                ((HibNoteItem) mod).calendarChanged = false;
+            }
+        }
+    }
+
+    /**
+     * @return true if the calendar of this note can be rendered without
+     *         loading any of its stamps, attributes or modifications
+     */
+    boolean isCalendarInitialized() {
+        if (!isInitialized()) {
+            return false;
+        }
+        if (!hasModifications) {
+            return true;
+        }
+        if (!Hibernate.isInitialized(modifications)) {
+            return false;
+        }
+        for (NoteItem mod : modifications) {
+            if (!Hibernate.isInitialized(mod) || !((HibItem) mod).isInitialized()) {
+                return false;
+            }
+        }
+        return true;
+    }
     
     @Override
     public String calculateEntityTag() {
@@ -25,6 +25,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToOne;
@@ -44,7 +45,7 @@ import org.unitedinternet.cosmo.model.User;
  * Hibernate persistent Ticket.
  */
 @Entity
-@Table(name="tickets")
+@Table(name="tickets", indexes = { @Index(name = "idx_ticketexpires", columnList = "expirationdate") })
 public class HibTicket extends HibAuditableObject implements Comparable<Ticket>, Ticket {
 
     private static final long serialVersionUID = -3333589463226954251L;
@@ -68,6 +69,10 @@ public class HibTicket extends HibAuditableObject implements Comparable<Ticket>,
     
     @Column(name = "creationdate")
     private Date created;
+
+    // calculated from created and timeout, so that expired tickets can be queried
+    @Column(name = "expirationdate")
+    private Date expires;
     
     @ManyToOne(targetEntity=HibUser.class, fetch = FetchType.LAZY)
     @JoinColumn(name = "ownerid")
@@ -116,13 +121,14 @@ public class HibTicket extends HibAuditableObject implements Comparable<Ticket>,
      */
     public void setTimeout(String timeout) {
         this.timeout = timeout;
+        this.expires = calculateExpires();
     }
 
     /* (non-Javadoc)
      * @see org.unitedinternet.cosmo.model.Ticket#setTimeout(java.lang.Integer)
      */
     public void setTimeout(Integer timeout) {
-        this.timeout = "Second-" + timeout;
+        setTimeout("Second-" + timeout);
     }
 
     /* (non-Javadoc)
@@ -175,6 +181,7 @@ public class HibTicket extends HibAuditableObject implements Comparable<Ticket>,
      */
     public void setCreated(Date created) {
         this.created = created;
+        this.expires = calculateExpires();
     }
    
     /* (non-Javadoc)
@@ -195,8 +202,24 @@ public class HibTicket extends HibAuditableObject implements Comparable<Ticket>,
      * @see org.unitedinternet.cosmo.model.Ticket#hasTimedOut()
      */
     public boolean hasTimedOut() {
-        if (timeout == null || timeout.equals(TIMEOUT_INFINITE)) {
-            return false;
+        Date expiry = getExpires();
+        return expiry != null && System.currentTimeMillis() > expiry.getTime();
+    }
+
+    /* (non-Javadoc)
+     * @see org.unitedinternet.cosmo.model.Ticket#getExpires()
+     */
+    public Date getExpires() {
+        if (expires == null) {
+            // tickets stored before the expiration date was kept
+            expires = calculateExpires();
+        }
+        return expires;
+    }
+
+    private Date calculateExpires() {
+        if (timeout == null || timeout.equals(TIMEOUT_INFINITE) || created == null) {
+            return null;
         }
 
         int seconds = Integer.parseInt(timeout.substring(7));
@@ -204,8 +227,7 @@ public class HibTicket extends HibAuditableObject implements Comparable<Ticket>,
         Calendar expiry = Calendar.getInstance();
         expiry.setTime(created);
         expiry.add(Calendar.SECOND, seconds);
-
-        return Calendar.getInstance().after(expiry);
+        return expiry.getTime();
     }
 
     /* (non-Javadoc)
@@ -20,6 +20,7 @@ import jakarta.persistence.DiscriminatorColumn;
 import jakarta.persistence.DiscriminatorType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.JoinColumn;
@@ -36,7 +37,8 @@ import org.unitedinternet.cosmo.model.Tombstone;
  */
 @Entity
 @Inheritance(strategy=InheritanceType.SINGLE_TABLE)
-@Table(name="tombstones")
+@Table(name="tombstones",
+        indexes={@Index(name = "idx_tombstone_item_syncseq", columnList = "itemid, syncseq")})
 @DiscriminatorColumn(
         name="tombstonetype",
         discriminatorType=DiscriminatorType.STRING,
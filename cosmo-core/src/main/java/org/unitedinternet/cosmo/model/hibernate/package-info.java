@@ -38,10 +38,14 @@
         @NamedQuery(name = "item.by.uid", query = "from HibItem i where i.uid=:uid"),
         @NamedQuery(name = "item.stamps.by.uid", query = "select i.stamps from HibItem i where i.uid=:uid"),
         @NamedQuery(name = "itemid.by.uid", query = "select i.id from HibItem i where i.uid=:uid"),
+        @NamedQuery(name = "item.uids.by.uids", query = "select i.uid from HibItem i where i.uid in (:uids)"),
         @NamedQuery(name = "collectionItem.by.uid", query = "from HibCollectionItem i where i.uid=:uid"),
         @NamedQuery(name = "contentItem.by.uid", query = "from HibContentItem i where i.uid=:uid"),
         @NamedQuery(name = "item.by.parent.name", query = "select item from HibItem item join"
                 + " item.parentDetails pd where pd.primaryKey.collection=:parent and item.name=:name"),
+        @NamedQuery(name = "item.by.parent.names", query = "select distinct item from HibItem item left join"
+                + " fetch item.stamps left join fetch item.parentDetails join item.parentDetails pd where"
+                + " pd.primaryKey.collection=:parent and item.name in (:names)"),
         // FIXME stfl .and.nullparent is not the correct name anymore!
         // FIXME check on class == HibCollectionItem  or select from HibCollectionItem
         @NamedQuery(name = "item.by.ownerName.name.nullParent", query = "select i from "
@@ -50,6 +54,10 @@
                 + "item left join fetch item.stamps left join fetch item.attributes left join fetch"
                 + " item.tombstones join item.parentDetails pd where pd.primaryKey.collection=:parent and "
                 + "item.modifiedDate>:timestamp"),
+        @NamedQuery(name = "contentItem.by.parent.syncseq", query = "select item from HibContentItem "
+                + "item left join fetch item.stamps left join fetch item.attributes left join fetch"
+                + " item.tombstones join item.parentDetails pd where pd.primaryKey.collection=:parent and "
+                + "(pd.syncSequence>:syncseq or pd.syncSequence is null)"),
         @NamedQuery(name = "contentItem.by.parent", query = "select item from HibContentItem item left "
                 + "join fetch item.stamps left join fetch item.attributes left join fetch item.tombstones"
                 + " join item.parentDetails pd where pd.primaryKey.collection=:parent"),
@@ -59,10 +67,50 @@
         @NamedQuery(name = "icalendarItem.by.parent.icaluid", query = "select item.id from "
                 + "HibICalendarItem item join item.parentDetails pd where"
                 + " pd.primaryKey.collection.id=:parentid and item.icalUid=:icaluid"),
+        @NamedQuery(name = "noteItem.uids.by.parent.icaluids", query = "select item.icalUid, item.uid from "
+                + "HibNoteItem item join item.parentDetails pd where pd.primaryKey.collection.id=:parentid and "
+                + "item.icalUid in (:icaluids) and item.modifies is null"),
+        @NamedQuery(name = "icalendarItem.uids.by.parent.icaluids", query = "select item.icalUid, item.uid from "
+                + "HibICalendarItem item join item.parentDetails pd where"
+                + " pd.primaryKey.collection.id=:parentid and item.icalUid in (:icaluids)"),
+        @NamedQuery(name = "noteItemId.masters.by.parent", query = "select item.id from HibNoteItem item"
+                + " join item.parentDetails pd where pd.primaryKey.collection=:parent and item.modifies is null"
+                + " and item.uid>:uid order by item.uid"),
+        @NamedQuery(name = "noteItem.masters.by.ids", query = "select distinct item from HibNoteItem item left"
+                + " join fetch item.stamps left join fetch item.attributes left join fetch item.modifications"
+                + " where item.id in (:ids) order by item.uid"),
+        @NamedQuery(name = "noteItem.modifications.by.masterids", query = "select distinct item from HibNoteItem"
+                + " item left join fetch item.stamps left join fetch item.attributes where item.modifies.id in (:ids)"),
+        @NamedQuery(name = "eventStamp.by.occurrenceHorizon", query = "select es from HibEventStamp es where"
+                + " es.timeRangeIndex.occurrenceHorizon < :horizon order by es.id"),
         @NamedQuery(name = "contentItem.by.owner", query = "from HibContentItem i where i.owner=:owner"),
 
+    // Tombstone Queries
+        @NamedQuery(name = "itemTombstone.by.parent", query = "select ts from HibItemTombstone ts"
+                + " where ts.item=:parent"),
+        @NamedQuery(name = "itemTombstone.by.parent.syncseq", query = "select ts from HibItemTombstone ts"
+                + " where ts.item=:parent and (ts.syncSequence>:syncseq or ts.syncSequence is null)"),
+
+    // Sync Sequence Queries
+        @NamedQuery(name = "collection.syncseq.increment", query = "update HibCollectionItem c set"
+                + " c.syncSequence=coalesce(c.syncSequence, 0)+1 where c.id=:id"),
+        @NamedQuery(name = "collection.syncseq.by.id", query = "select c.syncSequence from HibCollectionItem c"
+                + " where c.id=:id"),
+        @NamedQuery(name = "collectionItemDetails.syncseq.assign", query = "update HibCollectionItemDetails pd"
+                + " set pd.syncSequence=:syncseq where pd.primaryKey.collection.id=:id and pd.syncSequence is null"),
+        @NamedQuery(name = "itemTombstone.syncseq.assign", query = "update HibItemTombstone ts"
+                + " set ts.syncSequence=:syncseq where ts.item.id=:id and ts.syncSequence is null"),
+
+    // Calendar Length Queries
+        @NamedQuery(name = "noteItem.calendarLength.assign", query = "update HibNoteItem n"
+                + " set n.calendarLength=:length where n.id=:id and n.etag=:etag"),
+
     // Ticket Queries
     @NamedQuery(name="ticket.by.key", query="from HibTicket t where t.key=:key"),
+    @NamedQuery(name = "ticket.expired", query = "select t from HibTicket t where t.expires<:now"
+            + " and not exists (select s from HibCollectionSubscription s where s.ticket=t)"),
+    @NamedQuery(name = "ticket.expires.unknown", query = "select t from HibTicket t where t.expires is null"
+            + " and t.timeout<>'Infinite' and t.created is not null"),
     
     
     // User Queries
@@ -72,6 +120,9 @@
                 + " id!=:userid and (username=:username or email=:email)"),
         @NamedQuery(name = "user.byUid", query = "from HibUser where uid=:uid"),        
         @NamedQuery(name = "user.all", query = "from HibUser"),
+        @NamedQuery(name = "user.containing", query = "from HibUser where (username like :text escape '!'"
+                + " or email like :text escape '!' or firstName like :text escape '!'"
+                + " or lastName like :text escape '!') and username > :after order by username"),
         @NamedQuery(name = "user.count", query = "select count(id) from HibUser"),
         @NamedQuery(name = "users.byPreference", query = "select u from HibUser u join u.preferences"
                 + " preference where preference.key=:key and preference.value=:value"),
@@ -88,6 +139,14 @@
         @NamedQuery(name = "event.by.calendar.icaluid", query = "select i from HibNoteItem i join "
                 + "i.parentDetails pd join i.stamps stamp where pd.primaryKey.collection=:calendar and "
                 + "stamp.class=HibEventStamp and i.icalUid=:uid"),
+        @NamedQuery(name = "item.graph.by.ids", query = "select distinct i from HibItem i join fetch i.owner"
+                + " left join fetch i.stamps left join fetch i.parentDetails where i.id in (:ids)"),
+        @NamedQuery(name = "noteItem.modifications.graph.by.ids", query = "select distinct n from HibNoteItem n"
+                + " left join fetch n.modifications m left join fetch m.stamps where n.id in (:ids)"),
+        @NamedQuery(name = "freeBusyItem.by.calendars.period", query = "select i from HibFreeBusyItem i join "
+                + "i.parentDetails pd where pd.primaryKey.collection in (:calendars)"
+                + " and (i.freeBusyStart is null or i.freeBusyStart < :end)"
+                + " and (i.freeBusyEnd is null or i.freeBusyEnd > :start)"),
     
 })
 package org.unitedinternet.cosmo.model.hibernate;
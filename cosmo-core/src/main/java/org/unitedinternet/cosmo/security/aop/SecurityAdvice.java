@@ -15,9 +15,11 @@
  */
 package org.unitedinternet.cosmo.security.aop;
 
+import java.io.UnsupportedEncodingException;
 import java.util.Date;
 import java.util.Set;
 
+import org.apache.abdera.i18n.text.UrlEncoding;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -117,6 +119,48 @@ public class SecurityAdvice extends OrderedAdvice {
         return item;
     }
 
+    @Around("execution(* org.unitedinternet.cosmo.service.ContentService.findEntityTagByPath(..)) &&" + "args(path)")
+    public Object checkFindEntityTagByPath(ProceedingJoinPoint pjp, String path) throws Throwable {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("in checkFindEntityTagByPath(path)");
+        }
+
+        // The item is not loaded, so only answer for paths within the home collection of the current user and
+        // leave everything else to the regular lookup.
+        User user = securityManager.getSecurityContext().getUser();
+        if (user == null || path == null) {
+            return null;
+        }
+        // compare the decoded home collection name, as the path is resolved with decoded names
+        String relative = path.startsWith("/") ? path.substring(1) : path;
+        int slash = relative.indexOf('/');
+        if (!user.getAdmin().booleanValue()
+                && (slash == -1 || !user.getUsername().equals(decode(relative.substring(0, slash))))) {
+            return null;
+        }
+
+        return pjp.proceed();
+    }
+
+    @Around("execution(* org.unitedinternet.cosmo.service.ContentService.findItemsByParentAndNames(..)) &&"
+            + "args(parent, names)")
+    public Object checkFindItemsByParentAndNames(ProceedingJoinPoint pjp, CollectionItem parent, Set<String> names)
+            throws Throwable {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("in checkFindItemsByParentAndNames(parent, names)");
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Item> items = (Set<Item>) pjp.proceed();
+        for (Item item : items) {
+            if (!securityHelper.hasReadAccess(securityManager.getSecurityContext(), item)) {
+                throwItemSecurityException(item, Permission.READ);
+            }
+        }
+
+        return items;
+    }
+
     @Around("execution(* org.unitedinternet.cosmo.service.ContentService.findItemParentByPath(..)) &&" + "args(path)")
     public Object checkFindItemParentByPath(ProceedingJoinPoint pjp, String path) throws Throwable {
         if (LOG.isDebugEnabled()) {
@@ -193,6 +237,51 @@ public class SecurityAdvice extends OrderedAdvice {
         return pjp.proceed();
     }
 
+    @Around("execution(* org.unitedinternet.cosmo.service.ContentService.loadChangedChildren(..)) &&"
+            + "args(collection, syncSequence)")
+    public Object checkLoadChangedChildren(ProceedingJoinPoint pjp, CollectionItem collection, Long syncSequence)
+            throws Throwable {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("in checkLoadChangedChildren(collection, syncSequence)");
+        }
+
+        if (!securityHelper.hasReadAccess(securityManager.getSecurityContext(), collection)) {
+            throwItemSecurityException(collection, Permission.READ);
+        }
+
+        return pjp.proceed();
+    }
+
+    @Around("execution(* org.unitedinternet.cosmo.service.ContentService.loadMasterNotes(..)) &&"
+            + "args(collection, afterUid, maxResults)")
+    public Object checkLoadMasterNotes(ProceedingJoinPoint pjp, CollectionItem collection, String afterUid,
+            int maxResults) throws Throwable {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("in checkLoadMasterNotes(collection, afterUid, maxResults)");
+        }
+
+        if (!securityHelper.hasReadAccess(securityManager.getSecurityContext(), collection)) {
+            throwItemSecurityException(collection, Permission.READ);
+        }
+
+        return pjp.proceed();
+    }
+
+    @Around("execution(* org.unitedinternet.cosmo.service.ContentService.loadTombstones(..)) &&"
+            + "args(collection, syncSequence)")
+    public Object checkLoadTombstones(ProceedingJoinPoint pjp, CollectionItem collection, Long syncSequence)
+            throws Throwable {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("in checkLoadTombstones(collection, syncSequence)");
+        }
+
+        if (!securityHelper.hasReadAccess(securityManager.getSecurityContext(), collection)) {
+            throwItemSecurityException(collection, Permission.READ);
+        }
+
+        return pjp.proceed();
+    }
+
     @Around("execution(* org.unitedinternet.cosmo.service.ContentService.createCollection(..)) &&"
             + "args(parent, collection)")
     public Object checkCreateCollection(ProceedingJoinPoint pjp, CollectionItem parent, CollectionItem collection)
@@ -293,6 +382,17 @@ public class SecurityAdvice extends OrderedAdvice {
         return pjp.proceed();
     }
     
+    @Around("execution(* org.unitedinternet.cosmo.service.ContentService.importContentItems(..)) &&"
+            + "args(parent, contentItems)")
+    public Object checkImportContentItems(ProceedingJoinPoint pjp, CollectionItem parent,
+            Set<ContentItem> contentItems) throws Throwable {        
+        if (!securityHelper.hasWriteAccess(securityManager.getSecurityContext(), parent)) {
+            throwItemSecurityException(parent, Permission.WRITE);
+        }
+        this.checkWriteAccessToTargetCollection(parent);        
+        return pjp.proceed();
+    }
+    
     @Around("execution(* org.unitedinternet.cosmo.service.ContentService.updateBatchContentItems(..)) &&"
             + "args(parent, contentItems)")
     public Object checkUpdateBatchContentItems(ProceedingJoinPoint pjp, CollectionItem parent,
@@ -564,4 +664,12 @@ public class SecurityAdvice extends OrderedAdvice {
     private void throwItemSecurityException(Item item, int permission) {
         throw new ItemSecurityException(item, "principal does not have access to item " + item.getUid(), permission);
     }
+
+    private static String decode(String segment) {
+        try {
+            return UrlEncoding.decode(segment, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -39,6 +39,7 @@ import org.unitedinternet.cosmo.security.CosmoSecurityException;
 import org.unitedinternet.cosmo.security.CosmoSecurityManager;
 import org.unitedinternet.cosmo.security.Permission;
 import org.unitedinternet.cosmo.security.PermissionDeniedException;
+import org.unitedinternet.cosmo.security.util.SecurityHelper;
 import org.unitedinternet.cosmo.service.UserService;
 
 /**
@@ -59,6 +60,9 @@ public class CosmoSecurityManagerImpl implements CosmoSecurityManager {
     // store additional tickets for authenticated principal
     private ThreadLocal<Set<Ticket>> tickets = new ThreadLocal<Set<Ticket>>();
 
+    // user of the pre-authenticated principal, looked up once per request
+    private ThreadLocal<PreAuthenticatedUser> preAuthenticatedUser = new ThreadLocal<PreAuthenticatedUser>();
+
     /* ----- CosmoSecurityManager methods ----- */
 
     /**
@@ -73,8 +77,7 @@ public class CosmoSecurityManagerImpl implements CosmoSecurityManager {
         }
 
         if (authen instanceof PreAuthenticatedAuthenticationToken) {
-            User user = userService.getUser((String) authen.getPrincipal());
-            return new CosmoSecurityContextImpl(authen, tickets.get(), user);
+            return new CosmoSecurityContextImpl(authen, tickets.get(), getPreAuthenticatedUser(authen));
         }
 
         return createSecurityContext(authen);
@@ -173,6 +176,20 @@ public class CosmoSecurityManagerImpl implements CosmoSecurityManager {
 
     /* ----- our methods ----- */
 
+    /**
+     * Returns the user of the given pre-authenticated principal. The user is
+     * looked up the first time the security context of a request is asked
+     * for, later calls with the same <code>Authentication</code> reuse it.
+     */
+    private User getPreAuthenticatedUser(Authentication authen) {
+        PreAuthenticatedUser current = preAuthenticatedUser.get();
+        if (current == null || current.authentication != authen) {
+            current = new PreAuthenticatedUser(authen, userService.getUser((String) authen.getPrincipal()));
+            preAuthenticatedUser.set(current);
+        }
+        return current.user;
+    }
+
     /**
      */
     protected CosmoSecurityContext createSecurityContext(Authentication authen) {
@@ -217,5 +234,18 @@ public class CosmoSecurityManagerImpl implements CosmoSecurityManager {
 
     public void unregisterTickets() {
         this.tickets.remove();
+        // called when the request ends
+        this.preAuthenticatedUser.remove();
+        SecurityHelper.clearAccessDecisions();
+    }
+
+    private static class PreAuthenticatedUser {
+        private final Authentication authentication;
+        private final User user;
+
+        PreAuthenticatedUser(Authentication authentication, User user) {
+            this.authentication = authentication;
+            this.user = user;
+        }
     }
 }
@@ -15,6 +15,10 @@
  */
 package org.unitedinternet.cosmo.security.util;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 import org.unitedinternet.cosmo.dao.ContentDao;
@@ -27,14 +31,22 @@ import org.unitedinternet.cosmo.model.User;
 import org.unitedinternet.cosmo.model.filter.ItemFilter;
 import org.unitedinternet.cosmo.model.filter.NoteItemFilter;
 import org.unitedinternet.cosmo.security.CosmoSecurityContext;
+import org.unitedinternet.cosmo.security.Permission;
 
 /**
  * Contains methods that help determine if a
  * security context has sufficient privileges for certain
  * resources.
+ * 
+ * Access granted to the children of a collection is remembered for the rest
+ * of the request, so that the members of a collection are authorized without
+ * walking their parents, tickets and subscriptions again.
  */
 public class SecurityHelper {
     
+    // access decisions of the current request, see clearAccessDecisions()
+    private static final ThreadLocal<AccessDecisions> DECISIONS = new ThreadLocal<AccessDecisions>();
+    
     private UserDao userDao;
     
     public SecurityHelper(ContentDao contentDao, UserDao userDao) {
@@ -99,14 +111,7 @@ public class SecurityHelper {
      *         to view the item
      */
     public boolean hasReadAccess(CosmoSecurityContext context, Item item) {
-        if(context.getUser()!=null) {
-            return hasReadAccess(context.getUser(), item, context.getTickets());
-        }
-        else if(context.getTicket()!=null) {
-            return  hasReadAccess(context.getTicket(), item, context.getTickets());
-        }
-        
-        return false;
+        return hasAccess(context, item, Permission.READ);
     }
     
    
@@ -119,17 +124,11 @@ public class SecurityHelper {
             return true;
         }
         
-        // Case 4: check subscriptions refresh user to prevent lazy init exceptions
-        User user = userDao.getUser(context.getUser().getUsername());
-        if (user != null) {
-            for (CollectionSubscription cs : user.getSubscriptions()) {
-                Ticket ticket = cs.getTicket();
-                if (ticket == null) {
-                    continue;
-                }
-                if (hasWriteAccess(ticket, item)) {
-                    return true;
-                }
+        // Case 4: check subscriptions
+        AccessDecisions decisions = getAccessDecisions(context.getUser(), context.getTickets());
+        for (Ticket ticket : getSubscriptionTickets(decisions, context.getUser())) {
+            if (hasTicketAccess(ticket, item, Permission.WRITE)) {
+                return true;
             }
         }
 
@@ -143,128 +142,87 @@ public class SecurityHelper {
      *         to update the item
      */
     public boolean hasWriteAccess(CosmoSecurityContext context, Item item) {
-        if(context.getUser()!=null) {
-            return hasWriteAccess(context.getUser(), item, context.getTickets());
-        }
-        else if(context.getTicket()!=null) {
-            return  hasWriteAccess(context.getTicket(), item, context.getTickets());
-        }
-        
-        return false;
+        return hasAccess(context, item, Permission.WRITE);
     }
     
-    private boolean hasReadAccess(User user, Item item, Set<Ticket> tickets) {
-        // Admin always has access
-        if (user.getAdmin() != null && user.getAdmin().booleanValue()) {
-            return true;
-        }
-
-        // Case 1. User owns item
-        if (item.getOwner().equals(user)) {
-            return true;
+    /**
+     * Forgets the access decisions made for the current thread. Called when
+     * the request ends.
+     */
+    public static void clearAccessDecisions() {
+        DECISIONS.remove();
+    }
+    
+    private boolean hasAccess(CosmoSecurityContext context, Item item, int permission) {
+        User user = context.getUser();
+        Ticket principalTicket = user == null ? context.getTicket() : null;
+        if (user == null && principalTicket == null) {
+            return false;
         }
-
-        // Case 2: User owns collection that item is in
-        for (CollectionItem parent : item.getParents()) {
-            if (parent.getOwner().equals(user)) {
+        
+        if (user != null) {
+            // Admin always has access
+            if (user.getAdmin() != null && user.getAdmin().booleanValue()) {
                 return true;
             }
-        }
-
-        // Case 3: ticket for item present
-        if (tickets != null) {
-            for (Ticket ticket : tickets) {
-                if (hasReadAccess(ticket, item)) {
-                    return true;
-                }
+            
+            // Case 1. User owns item
+            if (item.getOwner().equals(user)) {
+                return true;
             }
         }
-
-        /*
-         * Case 4: check subscriptions. Refresh user to prevent lazy init exceptions
-         */
-        user = this.userDao.getUser(user.getUsername());
-        if (user != null) {
-             for(CollectionSubscription cs: user.getSubscriptions()) {
-                 Ticket ticket = cs.getTicket();
-                 if(ticket == null) {
-                     continue;
-                 }
-                 if(hasReadAccess(ticket, item)) {
-                     return true;
-                 }
-             }
-        }
-
-        // Otherwise no access
-        return false;
-    }
-    
-    private boolean hasReadAccess(Ticket ticket, Item item, Set<Ticket> tickets) {
-        // check principal ticket
-        if(hasReadAccess(ticket,item)) {
-            return true;
-        }
         
-        // check other tickets
-        if(tickets!=null) {
-            for(Ticket t: tickets) {
-                if(hasReadAccess(t, item)) {
-                    return true;
-                }
+        AccessDecisions decisions = getAccessDecisions(user != null ? user : principalTicket, context.getTickets());
+        
+        // Case 2: User owns collection that item is in, or a ticket
+        // grants access to it and so to all of its children
+        for (CollectionItem parent : item.getParents()) {
+            if (hasAccessToChildren(decisions, user, principalTicket, parent, permission)) {
+                return true;
             }
         }
         
-        // otherwise no access
-        return false;
+        // Case 3 and 4: ticket or subscription for item present
+        return hasTicketAccess(decisions, user, principalTicket, item, permission);
     }
     
-    private boolean hasReadAccess(Ticket ticket, Item item) {
-        // ticket must be valid
-        if(ticket.isGranted(item) && !ticket.hasTimedOut()) {
+    private boolean hasAccessToChildren(AccessDecisions decisions, User user, Ticket principalTicket,
+            CollectionItem collection, int permission) {
+        String key = collection.getUid() != null ? collection.getUid() + ":" + permission : null;
+        if (key != null && decisions.isGranted(key)) {
             return true;
         }
-       
-        // otherwise no access
-        return false;
+        
+        boolean granted = user != null && collection.getOwner().equals(user)
+                || hasTicketAccess(decisions, user, principalTicket, collection, permission);
+        // only grants are remembered, access given during the request is
+        // seen by the next check
+        if (granted && key != null) {
+            decisions.grant(key);
+        }
+        return granted;
     }
     
-    private boolean hasWriteAccess(User user, Item item, Set<Ticket> tickets) {
-        // Admin always has access
-        if(user.getAdmin()!=null && user.getAdmin().booleanValue()) {
-            return true;
-        }
-        
-        // Case 1. User owns item
-        if(item.getOwner().equals(user)) {
+    private boolean hasTicketAccess(AccessDecisions decisions, User user, Ticket principalTicket, Item item,
+            int permission) {
+        // check principal ticket
+        if (principalTicket != null && hasTicketAccess(principalTicket, item, permission)) {
             return true;
         }
         
-        // Case 2: User owns collection that item is in
-        for(CollectionItem parent: item.getParents()) {
-            if(parent.getOwner().equals(user)) {
-                return true;
-            }
-        }
-        
-        // Case 3: ticket for item present
-        if (tickets != null) {
-            for(Ticket ticket: tickets) {
-                if(hasWriteAccess(ticket, item)) {
+        // check other tickets
+        if (decisions.tickets != null) {
+            for (Ticket ticket : decisions.tickets) {
+                if (hasTicketAccess(ticket, item, permission)) {
                     return true;
                 }
             }
         }
         
-        // Case 4: check subscriptions refresh user to prevent lazy init exceptions
-        user = userDao.getUser(user.getUsername());
+        // check subscriptions of the user
         if (user != null) {
-            for (CollectionSubscription cs : user.getSubscriptions()) {
-                Ticket ticket = cs.getTicket();
-                if (ticket == null) {
-                    continue;
-                }
-                if (hasWriteAccess(ticket, item)) {
+            for (Ticket ticket : getSubscriptionTickets(decisions, user)) {
+                if (hasTicketAccess(ticket, item, permission)) {
                     return true;
                 }
             }
@@ -274,34 +232,70 @@ public class SecurityHelper {
         return false;
     }
     
-    private boolean hasWriteAccess(Ticket ticket, Item item, Set<Ticket> tickets) {
-        // check principal ticket
-        if(hasWriteAccess(ticket,item)) {
-            return true;
+    private boolean hasTicketAccess(Ticket ticket, Item item, int permission) {
+        // ticket must be valid
+        if (ticket.hasTimedOut() || permission == Permission.WRITE && !ticket.isReadWrite()) {
+            return false;
         }
-        
-        // check other tickets
-        if(tickets!=null) {
-            for(Ticket t: tickets) {
-                if(hasWriteAccess(t, item)) {
-                    return true;
+        return ticket.isGranted(item);
+    }
+    
+    /**
+     * Tickets of the subscriptions of the user, loaded once per request and
+     * only when neither ownership nor the request tickets give access.
+     */
+    private List<Ticket> getSubscriptionTickets(AccessDecisions decisions, User user) {
+        if (decisions.subscriptionTickets == null) {
+            List<Ticket> tickets = new ArrayList<Ticket>();
+            // refresh user to prevent lazy init exceptions
+            User current = userDao.getUser(user.getUsername());
+            if (current != null) {
+                for (CollectionSubscription cs : current.getSubscriptions()) {
+                    if (cs.getTicket() != null) {
+                        tickets.add(cs.getTicket());
+                    }
                 }
             }
+            decisions.subscriptionTickets = tickets;
         }
-            
-        // otherwise no access
-        return false;
+        return decisions.subscriptionTickets;
     }
     
-    private boolean hasWriteAccess(Ticket ticket, Item item) {
-        // ticket must be valid
-        if(ticket.isGranted(item) && !ticket.hasTimedOut() && ticket.isReadWrite()) {
-            return true;
+    private AccessDecisions getAccessDecisions(Object principal, Set<Ticket> tickets) {
+        AccessDecisions decisions = DECISIONS.get();
+        if (decisions == null || !decisions.isFor(principal, tickets)) {
+            decisions = new AccessDecisions(principal, tickets);
+            DECISIONS.set(decisions);
         }
-       
-        // otherwise no access
-        return false;
+        return decisions;
     }
-   
     
+    /**
+     * Collections a principal was granted access to the children of, by
+     * permission, and the tickets of its subscriptions. Kept for the
+     * principal and tickets of the current request.
+     */
+    private static final class AccessDecisions {
+        private final Object principal;
+        private final Set<Ticket> tickets;
+        private final Set<String> granted = new HashSet<String>();
+        private List<Ticket> subscriptionTickets;
+        
+        AccessDecisions(Object principal, Set<Ticket> tickets) {
+            this.principal = principal;
+            this.tickets = tickets != null ? new HashSet<Ticket>(tickets) : null;
+        }
+        
+        boolean isFor(Object principal, Set<Ticket> tickets) {
+            return this.principal == principal && Objects.equals(this.tickets, tickets);
+        }
+        
+        boolean isGranted(String key) {
+            return granted.contains(key);
+        }
+        
+        void grant(String key) {
+            granted.add(key);
+        }
+    }
 }
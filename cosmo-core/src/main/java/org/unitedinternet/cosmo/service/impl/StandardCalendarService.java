@@ -18,6 +18,7 @@ import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.unitedinternet.cosmo.calendar.util.TimeZoneService;
 import org.unitedinternet.cosmo.dao.CalendarDao;
 import org.unitedinternet.cosmo.dao.ContentDao;
 import org.unitedinternet.cosmo.dao.external.UuidExternalGenerator;
@@ -35,8 +36,6 @@ import org.unitedinternet.cosmo.service.CalendarService;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Date;
 import net.fortuna.ical4j.model.TimeZone;
-import net.fortuna.ical4j.model.TimeZoneRegistry;
-import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
 
 /**
  * 
@@ -48,7 +47,6 @@ import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
 @Service
 public class StandardCalendarService implements CalendarService {
 
-    private static final TimeZoneRegistry TIMEZONE_REGISTRY = TimeZoneRegistryFactory.getInstance().createRegistry();
 
     @Autowired
     private CalendarDao calendarDao;
@@ -67,7 +65,7 @@ public class StandardCalendarService implements CalendarService {
             EventStampFilter eventFilter = new EventStampFilter();
             eventFilter.setTimeRange(rangeStart, rangeEnd);
             if (timeZoneId != null) {
-                TimeZone timezone = TIMEZONE_REGISTRY.getTimeZone(timeZoneId);
+                TimeZone timezone = TimeZoneService.getInstance().getTimeZone(timeZoneId);
                 eventFilter.setTimezone(timezone);
             }
             filter.getStampFilters().add(eventFilter);
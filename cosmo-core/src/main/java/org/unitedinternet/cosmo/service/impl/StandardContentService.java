@@ -20,14 +20,21 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.unitedinternet.cosmo.acegisecurity.providers.ticket.TicketCache;
 import org.unitedinternet.cosmo.calendar.RecurrenceExpander;
 import org.unitedinternet.cosmo.dao.ContentDao;
 import org.unitedinternet.cosmo.dao.DuplicateItemNameException;
@@ -38,6 +45,7 @@ import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.EventStamp;
 import org.unitedinternet.cosmo.model.HomeCollectionItem;
 import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.ItemTombstone;
 import org.unitedinternet.cosmo.model.ModificationUid;
 import org.unitedinternet.cosmo.model.NoteItem;
 import org.unitedinternet.cosmo.model.NoteOccurrence;
@@ -79,13 +87,37 @@ public class StandardContentService implements ContentService {
     private final TriageStatusQueryProcessor triageStatusQueryProcessor;
   
     private long lockTimeout = 100;
+
+    private TicketCache ticketCache;
+
+    private final Timer lockAcquired;
+
+    private final Timer lockTimedOut;
     
-    public StandardContentService( @Autowired ContentDao contentDao,  @Autowired LockManager lockManager,
-            @Autowired TriageStatusQueryProcessor triageStatusQueryProcessor) {
+    @Autowired
+    public StandardContentService(ContentDao contentDao, LockManager lockManager,
+            TriageStatusQueryProcessor triageStatusQueryProcessor) {
+        this(contentDao, lockManager, triageStatusQueryProcessor, Metrics.globalRegistry);
+    }
+
+    public StandardContentService(ContentDao contentDao, LockManager lockManager,
+            TriageStatusQueryProcessor triageStatusQueryProcessor, MeterRegistry registry) {
         super();
         this.contentDao = contentDao;
         this.lockManager = lockManager;
         this.triageStatusQueryProcessor = triageStatusQueryProcessor;
+        this.lockAcquired = lockWaitTimer(registry, "acquired");
+        this.lockTimedOut = lockWaitTimer(registry, "timeout");
+    }
+
+    private Timer lockWaitTimer(MeterRegistry registry, String result) {
+        return Timer.builder("cosmo.lock.wait").tag("manager", lockManager.getClass().getSimpleName())
+                .tag("result", result).register(registry);
+    }
+
+    @Autowired(required = false)
+    public void setTicketCache(TicketCache ticketCache) {
+        this.ticketCache = ticketCache;
     }
 
     // ContentService methods
@@ -202,7 +234,35 @@ public class StandardContentService implements ContentService {
         }
         return contentDao.findItemByPath(path, parentUid);
     }
+
+    /**
+     * Find the children of a collection that have one of the given names.
+     * @param parent The parent collection.
+     * @param names The names of the children to find.
+     * @return The children found.
+     */
+    @Transactional(readOnly = true)
+    public Set<Item> findItemsByParentAndNames(CollectionItem parent, Set<String> names) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Finding {} items below parent {}", names.size(), parent.getUid());
+        }
+        return contentDao.findItemsByParentAndNames(parent, names);
+    }
     
+    /**
+     * Find the entity tag of the content item at the given path without
+     * loading the item.
+     * @param path The given path.
+     * @return The entity tag or <code>null</code>.
+     */
+    @Transactional(readOnly = true)
+    public String findEntityTagByPath(String path) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Finding entity tag of item at path {}", path);
+        }
+        return contentDao.findEntityTagByPath(path);
+    }
+
     /**
      * Find content item's parent by path. Path is of the format:
      * /username/parent1/parent2/itemname.  In this example,
@@ -271,14 +331,11 @@ public class StandardContentService implements ContentService {
                 throw new IllegalArgumentException("targetParent must mach target path");
             }
            
-            // if we can't get lock, then throw exception
-            if (!lockManager.lockCollection(parent, lockTimeout)) {
-                throw new CollectionLockedException(
-                        "unable to obtain collection lock");
-            }
+            lockCollection(parent);
 
             try {
                 contentDao.copyItem(item, path, deepCopy);
+                contentDao.updateCollectionTimestamp(parent);
             } finally {
                 lockManager.unlockCollection(parent);
             }
@@ -286,6 +343,26 @@ public class StandardContentService implements ContentService {
         else { 
             // no need to synchronize if not ContentItem
             contentDao.copyItem(item, path, deepCopy);
+            Item copy = contentDao.findItemByPath(path);
+            if (copy instanceof CollectionItem) {
+                updateCopiedCollection((CollectionItem) copy);
+            }
+            if (targetParent != null) {
+                contentDao.updateCollectionTimestamp(targetParent);
+            }
+        }
+    }
+
+    /**
+     * Assigns a sync sequence to the members of a copied collection and of
+     * the collections copied along with it.
+     */
+    private void updateCopiedCollection(CollectionItem collection) {
+        contentDao.updateCollectionTimestamp(collection);
+        for (Item child : collection.getChildren()) {
+            if (child instanceof CollectionItem) {
+                updateCopiedCollection((CollectionItem) child);
+            }
         }
     }
   
@@ -388,6 +465,56 @@ public class StandardContentService implements ContentService {
         return contentDao.loadChildren(collection, timestamp);
     }
 
+    /**
+     * Load the children of a collection changed after a given sync
+     * sequence. If no sync sequence is specified, then return all children.
+     * 
+     * @param collection
+     *            collection
+     * @param syncSequence
+     *            sync sequence
+     * @return children of collection changed after syncSequence, or all
+     *         children if syncSequence is null
+     */
+    @Transactional(readOnly = true)
+    public Set<ContentItem> loadChangedChildren(CollectionItem collection, Long syncSequence) {
+        return contentDao.loadChangedChildren(collection, syncSequence);
+    }
+
+    /**
+     * Load a page of the master notes of a collection, ordered by uid.
+     * 
+     * @param collection
+     *            collection
+     * @param afterUid
+     *            uid of the last note of the previous page, or null for the
+     *            first page
+     * @param maxResults
+     *            maximum number of notes to return
+     * @return detached master notes following afterUid
+     */
+    @Transactional(readOnly = true)
+    public List<NoteItem> loadMasterNotes(CollectionItem collection, String afterUid, int maxResults) {
+        return contentDao.loadMasterNotes(collection, afterUid, maxResults);
+    }
+
+    /**
+     * Load the item tombstones of a collection created after a given sync
+     * sequence. If no sync sequence is specified, then return all item
+     * tombstones.
+     * 
+     * @param collection
+     *            collection
+     * @param syncSequence
+     *            sync sequence
+     * @return item tombstones of collection created after syncSequence,
+     *         or all item tombstones if syncSequence is null
+     */
+    @Transactional(readOnly = true)
+    public Set<ItemTombstone> loadTombstones(CollectionItem collection, Long syncSequence) {
+        return contentDao.loadTombstones(collection, syncSequence);
+    }
+
     /**
      * Create a new collection.
      * 
@@ -491,9 +618,7 @@ public class StandardContentService implements ContentService {
      */
     public CollectionItem updateCollection(CollectionItem collection) {
         
-        if (! lockManager.lockCollection(collection, lockTimeout)) {
-            throw new CollectionLockedException("unable to obtain collection lock");
-        }
+        lockCollection(collection);
         
         try {
             return contentDao.updateCollection(collection);
@@ -702,9 +827,7 @@ public class StandardContentService implements ContentService {
         }
         
         checkDatesForEvents(contentItems);
-        if (! lockManager.lockCollection(parent, lockTimeout)) {
-            throw new CollectionLockedException("unable to obtain collection lock");
-        }
+        lockCollection(parent);
         try {
             for(ContentItem content : contentItems) {
                 contentDao.createContent(parent, content);
@@ -718,9 +841,7 @@ public class StandardContentService implements ContentService {
 
     @Override
     public void updateCollectionTimestamp(CollectionItem parent) {
-        if (! lockManager.lockCollection(parent, lockTimeout)) {
-            throw new CollectionLockedException("unable to obtain collection lock");
-        }
+        lockCollection(parent);
         try {
             contentDao.updateCollectionTimestamp(parent); 
             LOG.debug("collection timestamp updated");
@@ -736,11 +857,26 @@ public class StandardContentService implements ContentService {
         }
         
         checkDatesForEvents(contentItems);
-        if (! lockManager.lockCollection(parent, lockTimeout)) {
-            throw new CollectionLockedException("unable to obtain collection lock");
-        }
+        lockCollection(parent);
         try {
             contentDao.createBatchContent(parent, contentItems);
+            contentDao.updateCollectionTimestamp(parent);
+        } finally {
+            lockManager.unlockCollection(parent);
+        }   
+    }
+    
+    @Override
+    public void importContentItems(CollectionItem parent, Set<ContentItem> contentItems) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("importing {} content items into {}", contentItems.size(), parent.getName());
+        }
+        
+        checkDatesForEvents(contentItems);
+        lockCollection(parent);
+        try {
+            contentDao.importContent(parent, contentItems);
+            contentDao.updateCollectionTimestamp(parent);
         } finally {
             lockManager.unlockCollection(parent);
         }   
@@ -753,9 +889,7 @@ public class StandardContentService implements ContentService {
         }
         
         checkDatesForEvents(contentItems);
-        if (! lockManager.lockCollection(parent, lockTimeout)) {
-            throw new CollectionLockedException("unable to obtain collection lock");
-        }
+        lockCollection(parent);
         try {
             contentDao.updateBatchContent(contentItems);
             contentDao.updateCollectionTimestamp(parent);
@@ -771,9 +905,7 @@ public class StandardContentService implements ContentService {
         }
         
         checkDatesForEvents(contentItems);
-        if (! lockManager.lockCollection(parent, lockTimeout)) {
-            throw new CollectionLockedException("unable to obtain collection lock");
-        }
+        lockCollection(parent);
         try {
             contentDao.removeBatchContent(parent, contentItems);
             contentDao.updateCollectionTimestamp(parent);
@@ -953,6 +1085,7 @@ public class StandardContentService implements ContentService {
             LOG.debug("creating ticket on item {}", item.getUid());
         }
         contentDao.createTicket(item, ticket);
+        invalidateTicket(ticket.getKey());
     }
 
     /**
@@ -971,6 +1104,7 @@ public class StandardContentService implements ContentService {
             throw new IllegalArgumentException("item not found for path " + path);
         }
         contentDao.createTicket(item, ticket);
+        invalidateTicket(ticket.getKey());
     }
 
     /**
@@ -1003,6 +1137,7 @@ public class StandardContentService implements ContentService {
             LOG.debug("removing ticket {} on item {}",ticket.getKey(), item.getUid());
         }
         contentDao.removeTicket(item, ticket);
+        invalidateTicket(ticket.getKey());
     }
 
     /**
@@ -1026,6 +1161,13 @@ public class StandardContentService implements ContentService {
             return;
         }
         contentDao.removeTicket(item, ticket);
+        invalidateTicket(key);
+    }
+
+    private void invalidateTicket(String key) {
+        if (ticketCache != null) {
+            ticketCache.invalidate(key);
+        }
     }
 
 
@@ -1061,9 +1203,7 @@ public class StandardContentService implements ContentService {
         // Get locks for all collections involved
         try {
             
-            if (! lockManager.lockCollection(collection, lockTimeout)) {
-                throw new CollectionLockedException("unable to obtain collection lock");
-            }
+            lockCollection(collection);
             
             locks.add(collection);
             
@@ -1101,9 +1241,7 @@ public class StandardContentService implements ContentService {
             if(locks.contains(parent)) {
                 continue;
             }
-            if (! lockManager.lockCollection(parent, lockTimeout)) {
-                throw new CollectionLockedException("unable to obtain collection lock");
-            }
+            lockCollection(parent);
             locks.add(parent);
         }
         
@@ -1119,6 +1257,22 @@ public class StandardContentService implements ContentService {
         }
     }
     
+    /**
+     * Locks the given collection, publishing how long the caller waited as <code>cosmo.lock.wait</code>, tagged with
+     * the lock manager and whether the lock was acquired.
+     *
+     * @throws CollectionLockedException if the lock could not be obtained within the lock timeout
+     */
+    private void lockCollection(CollectionItem collection) {
+        long start = System.nanoTime();
+        boolean acquired = lockManager.lockCollection(collection, lockTimeout);
+        long wait = System.nanoTime() - start;
+        (acquired ? lockAcquired : lockTimedOut).record(wait, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            throw new CollectionLockedException("unable to obtain collection lock");
+        }
+    }
+
     private void releaseLocks(Set<CollectionItem> locks) {
         for(CollectionItem lock : locks) {
             lockManager.unlockCollection(lock);
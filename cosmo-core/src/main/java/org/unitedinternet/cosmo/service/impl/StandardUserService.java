@@ -17,6 +17,7 @@ package org.unitedinternet.cosmo.service.impl;
 
 import java.nio.charset.Charset;
 import java.security.MessageDigest;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.codec.binary.Hex;
@@ -28,7 +29,10 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.security.core.token.TokenService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.unitedinternet.cosmo.CosmoException;
+import org.unitedinternet.cosmo.acegisecurity.userdetails.PrincipalCache;
 import org.unitedinternet.cosmo.dao.ContentDao;
 import org.unitedinternet.cosmo.dao.DuplicateEmailException;
 import org.unitedinternet.cosmo.dao.DuplicateUsernameException;
@@ -68,6 +72,9 @@ public class StandardUserService extends BaseService implements UserService {
     @Autowired
     private UserDao userDao;
 
+    @Autowired(required = false)
+    private PrincipalCache principalCache;
+
     @Value("${cosmo.user.password.min.length:5}")
     private int passwordLengthMin;
 
@@ -108,6 +115,24 @@ public class StandardUserService extends BaseService implements UserService {
         return userDao.getUserByEmail(email);
     }
 
+    /**
+     * Returns a page of the user accounts whose username, email address, first name or last name contains the given
+     * text, ignoring case, ordered by username.
+     *
+     * @param text
+     *            the text to search for, all accounts if empty
+     * @param afterUsername
+     *            the username of the last account of the previous page, <code>null</code> for the first page
+     * @param max
+     *            the maximum number of accounts to return
+     */
+    public List<User> findUsersContaining(String text, String afterUsername, int max) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("finding at most {} users after {} containing {}", max, afterUsername, text);
+        }
+        return userDao.findUsersContaining(text, afterUsername, max);
+    }
+
     /**
      * Creates a user account in the repository. Digests the raw password and uses the result to replace the raw
      * password. Returns a new instance of <code>User</code> after saving the original one.
@@ -195,6 +220,8 @@ public class StandardUserService extends BaseService implements UserService {
         user.setPassword(digestPassword(user.getPassword()));
 
         userDao.updateUser(user);
+        invalidatePrincipal(user.getOldUsername());
+        invalidatePrincipal(user.getUsername());
 
         User newUser = userDao.getUser(user.getUsername());
         if (isUsernameChanged) {
@@ -221,6 +248,7 @@ public class StandardUserService extends BaseService implements UserService {
         }
         User user = userDao.getUser(username);
         removeUserAndItems(user);
+        invalidatePrincipal(username);
     }
 
     /**
@@ -401,6 +429,18 @@ public class StandardUserService extends BaseService implements UserService {
         this.userDao = userDao;
     }
 
+    /**
+     */
+    public PrincipalCache getPrincipalCache() {
+        return this.principalCache;
+    }
+
+    /**
+     */
+    public void setPrincipalCache(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
+
 
     public int getPasswordLengthMin() {
         return this.passwordLengthMin;
@@ -433,6 +473,27 @@ public class StandardUserService extends BaseService implements UserService {
         // (items that only exist in other user's collections)
         contentDao.removeUserContent(user);
         userDao.removeUser(user);
+        invalidatePrincipal(user.getUsername());
+    }
+
+    /**
+     * Invalidates the cached principal once the transaction is committed, so
+     * that it is not loaded again with the state before the change.
+     */
+    private void invalidatePrincipal(final String username) {
+        if (principalCache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            principalCache.invalidate(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                principalCache.invalidate(username);
+            }
+        });
     }
 
 
@@ -0,0 +1,132 @@
+package org.unitedinternet.cosmo.service.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.unitedinternet.cosmo.CosmoException;
+import org.unitedinternet.cosmo.CosmoInterruptedException;
+import org.unitedinternet.cosmo.model.CollectionItem;
+
+/**
+ * Implementation of <code>LockManager</code> that supports locking within a single JVM without a global monitor.
+ * Locks are kept in a <code>ConcurrentHashMap</code> together with the number of threads holding or waiting for
+ * them, so that threads locking different collections never contend, and a lock is removed from memory as soon as
+ * no thread uses it anymore.
+ * 
+ * This is the default <code>LockManager</code>. Set <code>cosmo.lock.manager</code> to <code>single-vm</code> or
+ * <code>database</code> to use another one.
+ *
+ * @see LockManager
+ */
+@Component
+@ConditionalOnProperty(name = "cosmo.lock.manager", havingValue = "concurrent", matchIfMissing = true)
+public class ConcurrentLockManager implements LockManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrentLockManager.class);
+
+    private final ConcurrentMap<String, CollectionLock> locks = new ConcurrentHashMap<String, CollectionLock>();
+
+    /**
+     * Check if a collection is locked
+     * 
+     * @param collection The collection.
+     * @return true if collection is locked
+     */
+    public boolean isLocked(CollectionItem collection) {
+        CollectionLock lock = locks.get(collection.getUid());
+        return lock != null && lock.isLocked();
+    }
+
+    /**
+     * Return the number of threads waiting on collection lock
+     * 
+     * @param collection The collection.
+     * @return number of threads waiting on collection lock
+     */
+    public int getNumWaitingThreads(CollectionItem collection) {
+        CollectionLock lock = locks.get(collection.getUid());
+        return lock != null ? lock.getQueueLength() : 0;
+    }
+
+    /**
+     * Return the current number of locks in memory.
+     * 
+     * @return number of locks currently in memory
+     */
+    public int getNumLocksInMemory() {
+        return locks.size();
+    }
+
+    @Override
+    public void lockCollection(CollectionItem collection) {
+        lockCollection(collection, -1);
+    }
+
+    @Override
+    public boolean lockCollection(CollectionItem collection, long timeout) {
+        String uid = collection.getUid();
+        CollectionLock lock = locks.compute(uid, (key, existing) -> {
+            CollectionLock used = existing != null ? existing : new CollectionLock();
+            used.users++;
+            return used;
+        });
+
+        boolean acquired = false;
+        try {
+            if (timeout < 0) {
+                lock.lock();
+                acquired = true;
+                LOG.info("Lock collection: {}", uid);
+            } else {
+                acquired = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            throw new CosmoInterruptedException("thread interrupted, no lock acquired", e);
+        } finally {
+            if (!acquired) {
+                release(uid);
+            }
+        }
+        return acquired;
+    }
+
+    @Override
+    public void unlockCollection(CollectionItem collection) {
+        String uid = collection.getUid();
+        CollectionLock lock = locks.get(uid);
+
+        // unlock if there is a lock to unlock
+        if (lock != null) {
+            if (!lock.isHeldByCurrentThread()) {
+                throw new CosmoException("Current thread does not own lock", new CosmoException());
+            }
+            lock.unlock();
+            release(uid);
+            LOG.info("Unlock collection: {}", uid);
+        }
+    }
+
+    /**
+     * Drops one use of the lock, removing it from memory once it is not used anymore.
+     */
+    private void release(String uid) {
+        locks.computeIfPresent(uid, (key, lock) -> --lock.users == 0 ? null : lock);
+    }
+
+    /**
+     * Lock that counts the threads holding or waiting for it. The count is only modified while the map entry is
+     * being computed.
+     */
+    static class CollectionLock extends ReentrantLock {
+
+        private static final long serialVersionUID = -6482437453094851539L;
+
+        int users = 0;
+    }
+}
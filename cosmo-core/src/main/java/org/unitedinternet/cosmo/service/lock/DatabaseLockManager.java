@@ -0,0 +1,88 @@
+package org.unitedinternet.cosmo.service.lock;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.unitedinternet.cosmo.CosmoException;
+import org.unitedinternet.cosmo.model.CollectionItem;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementation of <code>LockManager</code> backed by MariaDB/MySQL named locks (<code>GET_LOCK</code> and
+ * <code>RELEASE_LOCK</code>), so that a collection is locked across all Cosmo nodes sharing the database.
+ * 
+ * Named locks belong to the database connection that acquired them, and only that connection can release them.
+ * The shared <code>EntityManager</code> is only bound to one connection for the length of a transaction, so a
+ * collection must be locked and unlocked within the same transaction, as <code>StandardContentService</code> does.
+ * Locking or unlocking without an active transaction fails with an <code>IllegalStateException</code> rather than
+ * running each statement on whichever pooled connection is free. Enabled by setting <code>cosmo.lock.manager</code>
+ * to <code>database</code>.
+ *
+ * @see LockManager
+ */
+@Component
+@ConditionalOnProperty(name = "cosmo.lock.manager", havingValue = "database")
+public class DatabaseLockManager implements LockManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DatabaseLockManager.class);
+
+    private static final String LOCK_PREFIX = "cosmo.collection.";
+
+    /**
+     * Maximum length of a lock name supported by the database.
+     */
+    private static final int MAX_LOCK_NAME_LENGTH = 64;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public void lockCollection(CollectionItem collection) {
+        lockCollection(collection, -1);
+    }
+
+    @Override
+    public boolean lockCollection(CollectionItem collection, long timeout) {
+        // a negative timeout waits forever, the database expects seconds
+        checkTransaction();
+        double seconds = timeout < 0 ? -1 : timeout / 1000.0;
+        Number result = (Number) em.createNativeQuery("select get_lock(:name, :timeout)")
+                .setParameter("name", lockName(collection)).setParameter("timeout", seconds).getSingleResult();
+        boolean acquired = result != null && result.intValue() == 1;
+        if (acquired) {
+            LOG.info("Lock collection: {}", collection.getUid());
+        }
+        return acquired;
+    }
+
+    @Override
+    public void unlockCollection(CollectionItem collection) {
+        checkTransaction();
+        Number result = (Number) em.createNativeQuery("select release_lock(:name)")
+                .setParameter("name", lockName(collection)).getSingleResult();
+
+        // null means there was no lock to unlock
+        if (result != null) {
+            if (result.intValue() != 1) {
+                throw new CosmoException("Current thread does not own lock", new CosmoException());
+            }
+            LOG.info("Unlock collection: {}", collection.getUid());
+        }
+    }
+
+    private static void checkTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Database collection locks require an active transaction");
+        }
+    }
+
+    static String lockName(CollectionItem collection) {
+        String name = LOCK_PREFIX + collection.getUid();
+        return name.length() <= MAX_LOCK_NAME_LENGTH ? name : LOCK_PREFIX + DigestUtils.sha1Hex(collection.getUid());
+    }
+}
@@ -23,6 +23,7 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.unitedinternet.cosmo.CosmoException;
 import org.unitedinternet.cosmo.CosmoInterruptedException;
@@ -35,10 +36,14 @@ import org.unitedinternet.cosmo.model.CollectionItem;
  * 
  * Once a lock is released by a thread, it stays in memory. Unused locks are cleared from memory after maxLocks are in
  * memory to prevent memory leaks.
+ * 
+ * Every lock and unlock synchronizes on the manager itself. Enabled by setting <code>cosmo.lock.manager</code> to
+ * <code>single-vm</code>, {@link ConcurrentLockManager} is used by default.
  *
  * @see LockManager
  */
 @Component
+@ConditionalOnProperty(name = "cosmo.lock.manager", havingValue = "single-vm")
 public class SingleVMLockManager implements LockManager {
     
     private static final Logger LOG = LoggerFactory.getLogger(SingleVMLockManager.class);
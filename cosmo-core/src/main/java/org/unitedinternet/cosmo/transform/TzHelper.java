@@ -15,14 +15,13 @@ import java.util.Scanner;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.unitedinternet.cosmo.calendar.util.TimeZoneService;
 
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Component;
 import net.fortuna.ical4j.model.DateTime;
-import net.fortuna.ical4j.model.DefaultTimeZoneRegistryFactory;
 import net.fortuna.ical4j.model.Parameter;
 import net.fortuna.ical4j.model.Property;
-import net.fortuna.ical4j.model.TimeZoneRegistry;
 import net.fortuna.ical4j.model.component.CalendarComponent;
 import net.fortuna.ical4j.model.component.VTimeZone;
 import net.fortuna.ical4j.model.parameter.TzId;
@@ -43,9 +42,6 @@ public class TzHelper {
     private static final Map<String, String> MS_TIMEZONE_IDS = new HashMap<String, String>();
     private static final Map<String, String> MS_TIMEZONE_NAMES = new HashMap<String, String>();
 
-    private static final TimeZoneRegistry TIMEZONE_REGISTRY = DefaultTimeZoneRegistryFactory.getInstance()
-            .createRegistry();
-
     private static final String[] PROPERTIES_WITH_TIMEZONES = { Property.DTSTART, Property.DTEND, Property.EXDATE,
             Property.RDATE, Property.RECURRENCE_ID };
 
@@ -123,7 +119,7 @@ public class TzHelper {
             String value = property.getValue();
             correctTzParameter(property, newTimezone);
             if (newTimezone != null) {
-                property.setTimeZone(TIMEZONE_REGISTRY.getTimeZone(newTimezone));
+                property.setTimeZone(TimeZoneService.getInstance().getTimeZone(newTimezone));
                 try {
                     property.setValue(value);
                 } catch (ParseException e) {
@@ -166,13 +162,13 @@ public class TzHelper {
     private static String getCorrectedTimeZoneIdFrom(String value) {
         if (value != null) {
             value = value.contains("\"") ? value.replaceAll("\"", "") : value;
-            if (TIMEZONE_REGISTRY.getTimeZone(value) != null) {
-                return TIMEZONE_REGISTRY.getTimeZone(value).getID();
+            if (TimeZoneService.getInstance().getTimeZone(value) != null) {
+                return TimeZoneService.getInstance().getTimeZone(value).getID();
             }
             String nameCandidate = MS_TIMEZONE_NAMES.get(value);
             if (nameCandidate != null) {
-                return TIMEZONE_REGISTRY.getTimeZone(nameCandidate) != null
-                        ? TIMEZONE_REGISTRY.getTimeZone(nameCandidate).getID()
+                return TimeZoneService.getInstance().getTimeZone(nameCandidate) != null
+                        ? TimeZoneService.getInstance().getTimeZone(nameCandidate).getID()
                         : nameCandidate;
             }
             return MS_TIMEZONE_IDS.get(value);
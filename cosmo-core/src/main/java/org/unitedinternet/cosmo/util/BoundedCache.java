@@ -0,0 +1,165 @@
+package org.unitedinternet.cosmo.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Thread safe cache that holds the most recently used entries up to a
+ * maximum number. Entries may also expire a fixed time after they were put,
+ * expired entries are dropped when they are looked up.
+ * </p>
+ * <p>
+ * Hits, misses and evictions are counted so that they can be published as
+ * metrics.
+ * </p>
+ *
+ * @param <K>
+ *            type of the keys
+ * @param <V>
+ *            type of the values
+ */
+public class BoundedCache<K, V> {
+
+    private final long ttlMillis;
+
+    private final Map<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache whose entries don't expire.
+     *
+     * @param maxEntries
+     *            maximum number of entries
+     */
+    public BoundedCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a cache whose entries expire after the given time. Nothing is
+     * cached if the time is not positive.
+     *
+     * @param maxEntries
+     *            maximum number of entries
+     * @param ttlMillis
+     *            number of milliseconds an entry is used after it was put
+     */
+    public BoundedCache(final int maxEntries, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param key
+     *            the key
+     * @return the cached value, or <code>null</code> if there is none or it
+     *         expired
+     */
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && System.currentTimeMillis() >= entry.expires) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.value;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches the given value, replacing any value cached with the same key.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    public void put(K key, V value) {
+        if (key == null || ttlMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expires = ttlMillis > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + ttlMillis;
+        synchronized (entries) {
+            entries.put(key, new Entry<V>(value, expires));
+        }
+    }
+
+    /**
+     * Removes the value cached with the given key.
+     *
+     * @param key
+     *            the key
+     */
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes all cached values.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expires;
+
+        Entry(V value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+}
@@ -31,8 +31,10 @@ CREATE TABLE `collection_item` (
   `createdate` bigint(20) NOT NULL,
   `itemid` bigint(20) NOT NULL,
   `collectionid` bigint(20) NOT NULL,
+  `syncseq` bigint(20) DEFAULT NULL,
   PRIMARY KEY (`collectionid`,`itemid`),
   KEY `FK3F30F814FF55C69C` (`itemid`),
+  KEY `idx_collection_item_syncseq` (`collectionid`,`syncseq`),
   CONSTRAINT `FK3F30F8144D31C165` FOREIGN KEY (`collectionid`) REFERENCES `item` (`id`),
   CONSTRAINT `FK3F30F814FF55C69C` FOREIGN KEY (`itemid`) REFERENCES `item` (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
@@ -85,15 +87,35 @@ CREATE TABLE `event_stamp` (
   `isfloating` tinyint(4) DEFAULT NULL,
   `isrecurring` tinyint(4) DEFAULT NULL,
   `startdate` varchar(16) DEFAULT NULL,
+  `occurrencehorizon` varchar(16) DEFAULT NULL,
+  `occurrencestart` varchar(16) DEFAULT NULL,
+  `status` varchar(255) DEFAULT NULL,
+  `organizer` varchar(1024) DEFAULT NULL,
+  `attendees` longtext DEFAULT NULL,
+  `categories` longtext DEFAULT NULL,
   `stampid` bigint(20) NOT NULL,
   PRIMARY KEY (`stampid`),
   KEY `idx_floating` (`isfloating`),
   KEY `idx_recurring` (`isrecurring`),
   KEY `idx_startdt` (`startdate`),
   KEY `idx_enddt` (`enddate`),
+  KEY `idx_occhorizon` (`occurrencehorizon`),
+  KEY `idx_status` (`status`),
   CONSTRAINT `FK1ACFBDDE227B4573` FOREIGN KEY (`stampid`) REFERENCES `stamp` (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+DROP TABLE IF EXISTS `event_occurrence`;
+CREATE TABLE `event_occurrence` (
+  `stampid` bigint(20) NOT NULL,
+  `startdate` varchar(16) NOT NULL,
+  `enddate` varchar(16) NOT NULL,
+  `isfloating` tinyint(4) NOT NULL,
+  KEY `idx_occ_stamp` (`stampid`),
+  KEY `idx_occ_startdt` (`startdate`),
+  KEY `idx_occ_enddt` (`enddate`),
+  CONSTRAINT `FK_event_occurrence_stamp` FOREIGN KEY (`stampid`) REFERENCES `stamp` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 
 DROP TABLE IF EXISTS `item`;
 CREATE TABLE `item` (
@@ -121,6 +143,10 @@ CREATE TABLE `item` (
   `contentLength` bigint(20) DEFAULT NULL,
   `contentType` varchar(64) DEFAULT NULL,
   `hasmodifications` tinyint(4) DEFAULT NULL,
+  `calendarlength` bigint(20) DEFAULT NULL,
+  `freebusystart` bigint(20) DEFAULT NULL,
+  `freebusyend` bigint(20) DEFAULT NULL,
+  `syncseq` bigint(20) DEFAULT NULL,
   `ownerid` bigint(20) NOT NULL,
   `contentdataid` bigint(20) DEFAULT NULL,
   `modifiesitemid` bigint(20) DEFAULT NULL,
@@ -222,12 +248,14 @@ CREATE TABLE `tickets` (
   `etag` varchar(255) DEFAULT NULL,
   `modifydate` bigint(20) DEFAULT NULL,
   `creationdate` datetime DEFAULT NULL,
+  `expirationdate` datetime DEFAULT NULL,
   `ticketkey` varchar(255) NOT NULL,
   `tickettimeout` varchar(255) NOT NULL,
   `itemid` bigint(20) DEFAULT NULL,
   `ownerid` bigint(20) DEFAULT NULL,
   PRIMARY KEY (`id`),
   UNIQUE KEY `ticketkey` (`ticketkey`),
+  KEY `idx_ticketexpires` (`expirationdate`),
   KEY `FKB124F6E7FF55C69C` (`itemid`),
   KEY `FKB124F6E76BE46F4` (`ownerid`),
   CONSTRAINT `FKB124F6E76BE46F4` FOREIGN KEY (`ownerid`) REFERENCES `users` (`id`),
@@ -247,8 +275,10 @@ CREATE TABLE `tombstones` (
   `itemuid` varchar(255) DEFAULT NULL,
   `itemid` bigint(20) NOT NULL,
   `itemname` varchar(255) DEFAULT NULL,
+  `syncseq` bigint(20) DEFAULT NULL,
   PRIMARY KEY (`id`),
   KEY `FK40CA41FEFF55C69C` (`itemid`),
+  KEY `idx_tombstone_item_syncseq` (`itemid`,`syncseq`),
   CONSTRAINT `FK40CA41FEFF55C69C` FOREIGN KEY (`itemid`) REFERENCES `item` (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
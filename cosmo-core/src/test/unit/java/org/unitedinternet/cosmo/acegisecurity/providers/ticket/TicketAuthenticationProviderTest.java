@@ -0,0 +1,105 @@
+package org.unitedinternet.cosmo.acegisecurity.providers.ticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitedinternet.cosmo.TestHelper;
+import org.unitedinternet.cosmo.dao.mock.MockContentDao;
+import org.unitedinternet.cosmo.dao.mock.MockDaoStorage;
+import org.unitedinternet.cosmo.dao.mock.MockUserDao;
+import org.unitedinternet.cosmo.model.CollectionItem;
+import org.unitedinternet.cosmo.model.HomeCollectionItem;
+import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.Ticket;
+import org.unitedinternet.cosmo.model.User;
+
+/**
+ * Test case for <code>TicketAuthenticationProvider</code>.
+ */
+public class TicketAuthenticationProviderTest {
+
+    private TestHelper testHelper;
+    private CountingContentDao contentDao;
+    private TicketCache ticketCache;
+    private TicketAuthenticationProvider provider;
+    private User user;
+    private CollectionItem collection;
+
+    /**
+     * Setup.
+     */
+    @BeforeEach
+    public void setUp() {
+        testHelper = new TestHelper();
+        MockDaoStorage storage = new MockDaoStorage();
+        contentDao = new CountingContentDao(storage);
+        user = new MockUserDao(storage).createUser(testHelper.makeDummyUser());
+        HomeCollectionItem home = contentDao.createRootItem(user);
+        collection = contentDao.createCollection(home, testHelper.makeDummyCollection(user));
+
+        ticketCache = new TicketCache(300, 10);
+        provider = new TicketAuthenticationProvider();
+        provider.setContentDao(contentDao);
+        provider.setTicketCache(ticketCache);
+    }
+
+    /**
+     * Tests that a ticket is looked up once and then found among the
+     * tickets of the requested item.
+     */
+    @Test
+    public void testCachedTicket() {
+        Ticket ticket = testHelper.makeDummyTicket(user);
+        contentDao.createTicket(collection, ticket);
+
+        assertEquals(ticket, authenticate(ticket.getKey()).getPrincipal());
+        assertEquals(1, contentDao.lookups);
+        assertNotNull(ticketCache.get(ticket.getKey()));
+
+        assertEquals(ticket, authenticate(ticket.getKey()).getPrincipal());
+        assertEquals(1, contentDao.lookups);
+    }
+
+    /**
+     * Tests that a timed out ticket is rejected and removed.
+     */
+    @Test
+    public void testTimedOutTicket() {
+        Ticket ticket = testHelper.makeDummyTicket(60);
+        ticket.setOwner(user);
+        ticket.setKey("timedout");
+        ticket.setCreated(new Date(System.currentTimeMillis() - 120000));
+        contentDao.createTicket(collection, ticket);
+
+        assertThrows(TicketException.class, () -> authenticate(ticket.getKey()));
+        assertNull(ticketCache.get(ticket.getKey()));
+        assertNull(contentDao.getTicket(collection, ticket.getKey()));
+    }
+
+    private TicketAuthenticationToken authenticate(String key) {
+        TicketAuthenticationToken token = new TicketAuthenticationToken("/collection/" + collection.getUid(),
+                Collections.singleton(key));
+        return (TicketAuthenticationToken) provider.authenticate(token);
+    }
+
+    private static class CountingContentDao extends MockContentDao {
+        private int lookups;
+
+        CountingContentDao(MockDaoStorage storage) {
+            super(storage);
+        }
+
+        @Override
+        public Ticket getTicket(Item item, String key) {
+            lookups++;
+            return super.getTicket(item, key);
+        }
+    }
+}
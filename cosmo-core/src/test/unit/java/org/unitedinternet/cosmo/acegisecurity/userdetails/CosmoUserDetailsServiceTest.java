@@ -0,0 +1,103 @@
+package org.unitedinternet.cosmo.acegisecurity.userdetails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.unitedinternet.cosmo.TestHelper;
+import org.unitedinternet.cosmo.dao.mock.MockDaoStorage;
+import org.unitedinternet.cosmo.dao.mock.MockUserDao;
+import org.unitedinternet.cosmo.model.User;
+
+/**
+ * Test case for <code>CosmoUserDetailsService</code>.
+ */
+public class CosmoUserDetailsServiceTest {
+
+    private CountingUserDao userDao;
+    private PrincipalCache principalCache;
+    private CosmoUserDetailsService service;
+    private TestHelper testHelper;
+
+    /**
+     * Setup.
+     */
+    @BeforeEach
+    public void setUp() {
+        testHelper = new TestHelper();
+        userDao = new CountingUserDao(new MockDaoStorage());
+        principalCache = new PrincipalCache(30, 10);
+        service = new CosmoUserDetailsService();
+        service.setUserDao(userDao);
+        service.setPrincipalCache(principalCache);
+    }
+
+    /**
+     * Tests that a cached user is authenticated without looking it up and
+     * only loaded when it is asked for.
+     */
+    @Test
+    public void testCachedUserNotLookedUp() {
+        User user = testHelper.makeDummyUser();
+        user.setAdmin(Boolean.TRUE);
+        userDao.createUser(user);
+
+        CosmoUserDetails details = (CosmoUserDetails) service.loadUserByUsername(user.getUsername());
+        assertEquals(1, userDao.lookups);
+
+        CosmoUserDetails cached = (CosmoUserDetails) service.loadUserByUsername(user.getUsername());
+        assertEquals(1, userDao.lookups);
+        assertEquals(details.getUsername(), cached.getUsername());
+        assertEquals(details.getPassword(), cached.getPassword());
+        assertEquals(details.getAuthorities(), cached.getAuthorities());
+        assertTrue(cached.isEnabled());
+        assertTrue(cached.isAccountNonLocked());
+
+        assertEquals(user, cached.getUser());
+        cached.getUser();
+        assertEquals(2, userDao.lookups);
+    }
+
+    /**
+     * Tests that unknown users are not cached.
+     */
+    @Test
+    public void testUnknownUser() {
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("unknown"));
+        assertNull(principalCache.get("unknown"));
+    }
+
+    /**
+     * Tests that nothing is cached with a ttl of 0.
+     */
+    @Test
+    public void testDisabledCache() {
+        principalCache = new PrincipalCache(0, 10);
+        service.setPrincipalCache(principalCache);
+        User user = testHelper.makeDummyUser();
+        userDao.createUser(user);
+
+        service.loadUserByUsername(user.getUsername());
+        service.loadUserByUsername(user.getUsername());
+        assertEquals(2, userDao.lookups);
+        assertEquals(0, principalCache.size());
+    }
+
+    private static class CountingUserDao extends MockUserDao {
+        private int lookups;
+
+        CountingUserDao(MockDaoStorage storage) {
+            super(storage);
+        }
+
+        @Override
+        public User getUser(String username) {
+            lookups++;
+            return super.getUser(username);
+        }
+    }
+}
@@ -24,6 +24,10 @@ import net.fortuna.ical4j.model.DateTime;
 import net.fortuna.ical4j.model.TimeZone;
 import net.fortuna.ical4j.model.TimeZoneRegistry;
 import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.property.DtStart;
+import net.fortuna.ical4j.model.property.Duration;
+import net.fortuna.ical4j.model.property.RRule;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -198,6 +202,52 @@ public class RecurrenceExpanderTest {
         assertFalse(expander.isOccurrence(calendar, new DateTime("20070102T100001", ctz)));
     }
     
+    /**
+     * Tests that the end of rules repeating in fixed steps is computed from
+     * COUNT and UNTIL, including across daylight saving time changes.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testRecurrenceRangeFromCountAndUntil() throws Exception {
+        RecurrenceExpander expander = new RecurrenceExpander();
+        TimeZone ctz = TIMEZONE_REGISTRY.getTimeZone("America/Chicago");
+        
+        Date[] range = expander.calculateRecurrenceRange(event(new DateTime("20070101T100000", ctz),
+                "FREQ=WEEKLY;COUNT=20"));
+        assertEquals("20070514T120000", range[1].toString());
+        
+        range = expander.calculateRecurrenceRange(event(new DateTime("20070101T100000", ctz),
+                "FREQ=DAILY;INTERVAL=3;UNTIL=20070401T150000Z"));
+        assertEquals("20070401T120000", range[1].toString());
+        
+        range = expander.calculateRecurrenceRange(event(new DateTime("20070101T100000Z"),
+                "FREQ=HOURLY;INTERVAL=5;UNTIL=20070101T195959Z"));
+        assertEquals("20070101T170000Z", range[1].toString());
+        
+        // rules ending after 2030 are no longer cut off
+        range = expander.calculateRecurrenceRange(event(new Date("20070101"), "FREQ=WEEKLY;UNTIL=20400101"));
+        assertEquals("20391227", range[1].toString());
+        
+        // rules not repeating in fixed steps are expanded
+        range = expander.calculateRecurrenceRange(event(new DateTime("20070101T100000", ctz),
+                "FREQ=MONTHLY;BYDAY=1MO;COUNT=3"));
+        assertEquals("20070305T120000", range[1].toString());
+        
+        range = expander.calculateRecurrenceRange(event(new DateTime("20070101T100000", ctz),
+                "FREQ=DAILY;UNTIL=20061231T000000Z"));
+        assertEquals("20070101T120000", range[1].toString());
+    }
+    
+    private VEvent event(Date start, String rule) throws Exception {
+        VEvent event = new VEvent();
+        event.getProperties().add(new DtStart(start));
+        if (start instanceof DateTime) {
+            event.getProperties().add(new Duration(java.time.Duration.ofHours(2)));
+        }
+        event.getProperties().add(new RRule(rule));
+        return event;
+    }
+    
     /**
      * Gets calendar.
      * @param name The name.
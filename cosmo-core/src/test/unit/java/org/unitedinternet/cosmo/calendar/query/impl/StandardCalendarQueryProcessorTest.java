@@ -39,7 +39,6 @@ import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.DateTime;
 import net.fortuna.ical4j.model.Parameter;
 import net.fortuna.ical4j.model.Period;
-import net.fortuna.ical4j.model.PeriodList;
 import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.PropertyList;
 import net.fortuna.ical4j.model.TimeZone;
@@ -116,9 +115,9 @@ public class StandardCalendarQueryProcessorTest {
      */
     @Test
     public void testAddBusyPeriodsRecurringAllDay() throws Exception {
-        PeriodList busyPeriods = new PeriodList();
-        PeriodList busyTentativePeriods = new PeriodList();
-        PeriodList busyUnavailablePeriods = new PeriodList();
+        BusyIntervals busyPeriods = new BusyIntervals();
+        BusyIntervals busyTentativePeriods = new BusyIntervals();
+        BusyIntervals busyUnavailablePeriods = new BusyIntervals();
         
         // the range
         DateTime start = new DateTime("20070103T090000Z");
@@ -133,21 +132,21 @@ public class StandardCalendarQueryProcessorTest {
         
         queryProcessor.addBusyPeriods(calendar, tz, fbRange, busyPeriods, busyTentativePeriods, busyUnavailablePeriods);
         
-        assertEquals("20070108T060000Z/20070109T060000Z,20070115T060000Z/20070116T060000Z", busyPeriods.toString());
+        assertEquals("20070108T060000Z/20070109T060000Z,20070115T060000Z/20070116T060000Z", busyPeriods.toPeriodList().toString());
         
-        busyPeriods.clear();
+        busyPeriods = new BusyIntervals();
         
         tz = TIMEZONE_REGISTRY.getTimeZone("America/Los_Angeles");
         queryProcessor.addBusyPeriods(calendar, tz, fbRange, busyPeriods, busyTentativePeriods, busyUnavailablePeriods);
         
-        assertEquals("20070108T080000Z/20070109T080000Z,20070115T080000Z/20070116T080000Z", busyPeriods.toString());
+        assertEquals("20070108T080000Z/20070109T080000Z,20070115T080000Z/20070116T080000Z", busyPeriods.toPeriodList().toString());
         
-        busyPeriods.clear();
+        busyPeriods = new BusyIntervals();
         
         tz = TIMEZONE_REGISTRY.getTimeZone("Australia/Sydney");
         queryProcessor.addBusyPeriods(calendar, tz, fbRange, busyPeriods, busyTentativePeriods, busyUnavailablePeriods);
         
-        assertEquals("20070107T130000Z/20070108T130000Z,20070114T130000Z/20070115T130000Z", busyPeriods.toString());
+        assertEquals("20070107T130000Z/20070108T130000Z,20070114T130000Z/20070115T130000Z", busyPeriods.toPeriodList().toString());
     }
 
     /**
@@ -187,6 +186,61 @@ public class StandardCalendarQueryProcessorTest {
         verifyPeriods(vfb, FbType.BUSY_UNAVAILABLE, "20060105T010000Z/20060105T020000Z");
     }
     
+    /**
+     * Tests that the free-busy query of a user merges the periods of all calendars.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testUserFreeBusyQuery() throws Exception {
+        User user = contentDao.findItemByUid(CALENDAR_UID).getOwner();
+        CollectionItem root = contentDao.getRootItem(user);
+
+        CollectionItem other = generateCalendar("othercalendar", user);
+        other.setUid(CALENDAR_UID + "other");
+        other.setName(other.getUid());
+        contentDao.createCollection(root, other);
+        ContentItem event = generateEvent("other.ics", "eventwithtimezone1.ics", user);
+        event.setUid(CALENDAR_UID + "other1");
+        contentDao.createContent(other, event);
+
+        CollectionItem excluded = generateCalendar("excludedcalendar", user);
+        excluded.setUid(CALENDAR_UID + "excluded");
+        excluded.setName(excluded.getUid());
+        excluded.setExcludeFreeBusyRollup(true);
+        contentDao.createCollection(root, excluded);
+        event = generateEvent("excluded.ics", "eventwithtimezone2.ics", user);
+        event.setUid(CALENDAR_UID + "excluded1");
+        contentDao.createContent(excluded, event);
+
+        Period period = new Period(new DateTime("20070507T051500Z"), new DateTime("20070516T051500Z"));
+        VFreeBusy vfb = queryProcessor.freeBusyQuery(user, period);
+
+        verifyPeriods(vfb, FbType.BUSY, "20070508T081500Z/20070508T091500Z,"
+               + "20070509T081500Z/20070509T091500Z,20070510T081500Z/20070510T091500Z,"
+               + "20070511T081500Z/20070511T091500Z,20070512T081500Z/20070512T091500Z,"
+               + "20070513T081500Z/20070513T091500Z,20070514T081500Z/20070514T091500Z,"
+               + "20070515T081500Z/20070515T091500Z");
+        verifyPeriods(vfb, FbType.BUSY_TENTATIVE, "20070508T101500Z/20070508T111500Z,"
+                + "20070515T101500Z/20070515T111500Z");
+    }
+
+    /**
+     * Tests merging of busy intervals.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testBusyIntervalsMerge() throws Exception {
+        BusyIntervals intervals = new BusyIntervals();
+        intervals.add(new Period(new DateTime("20070101T120000Z"), new DateTime("20070101T130000Z")));
+        intervals.add(new Period(new DateTime("20070101T100000Z"), new DateTime("20070101T110000Z")));
+        intervals.add(new Period(new DateTime("20070101T103000Z"), new DateTime("20070101T104500Z")));
+        intervals.add(new Period(new DateTime("20070101T110000Z"), new DateTime("20070101T113000Z")));
+        intervals.add(new Period(new DateTime("20070101T140000Z"), new DateTime("20070101T140000Z")));
+
+        assertEquals("20070101T100000Z/20070101T113000Z,20070101T120000Z/20070101T130000Z",
+                intervals.toPeriodList().toString());
+    }
+
     /**
      * Gets user.
      * @param userDao UserDao.
@@ -0,0 +1,37 @@
+package org.unitedinternet.cosmo.calendar.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test case for <code>CalendarCacheMetrics</code>.
+ */
+public class CalendarCacheMetricsTest {
+
+    /**
+     * Tests that the meters read the statistics of the given caches.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testBindsGivenCaches() throws Exception {
+        ParsedCalendarCache parsed = new ParsedCalendarCache(10, 1024 * 1024);
+        RenderedCalendarCache rendered = new RenderedCalendarCache(10, 1024);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new CalendarCacheMetrics(parsed, rendered).bindTo(registry);
+
+        rendered.get("etag");
+        rendered.put("etag", new byte[10]);
+        rendered.get("etag");
+
+        assertEquals(1, registry.get("cosmo.cache.gets").tag("cache", "rendered").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, registry.get("cosmo.cache.gets").tag("cache", "rendered").tag("result", "miss")
+                .functionCounter().count());
+        assertEquals(10, registry.get("cosmo.cache.bytes").tag("cache", "rendered").gauge().value());
+        assertEquals(1, registry.get("cosmo.cache.size").tag("cache", "rendered").gauge().value());
+        assertEquals(0, registry.get("cosmo.cache.size").tag("cache", "parsed").gauge().value());
+    }
+}
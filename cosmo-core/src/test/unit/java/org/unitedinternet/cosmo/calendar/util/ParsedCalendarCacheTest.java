@@ -0,0 +1,135 @@
+package org.unitedinternet.cosmo.calendar.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import org.junit.jupiter.api.Test;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.property.Summary;
+
+/**
+ * Test case for <code>ParsedCalendarCache</code>.
+ */
+public class ParsedCalendarCacheTest {
+
+    private static final String EVENT = "BEGIN:VCALENDAR\r\n"
+            + "VERSION:2.0\r\n"
+            + "PRODID:-//PYVOBJECT//NONSGML Version 1//EN\r\n"
+            + "BEGIN:VEVENT\r\n"
+            + "UID:%s\r\n"
+            + "DTSTART;VALUE=DATE:20070101\r\n"
+            + "DTEND;VALUE=DATE:20070102\r\n"
+            + "DTSTAMP:20070516T181406Z\r\n"
+            + "SUMMARY:New Event\r\n"
+            + "END:VEVENT\r\n"
+            + "END:VCALENDAR\r\n";
+
+    /**
+     * Tests that repeated reads are served from the cache.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testHitAndMiss() throws Exception {
+        ParsedCalendarCache cache = new ParsedCalendarCache(10, ParsedCalendarCache.DEFAULT_MAX_BYTES);
+        String icaldata = String.format(EVENT, "1");
+
+        cache.getCalendar(1L, 1000L, icaldata);
+        cache.getCalendar(1L, 1000L, icaldata);
+        cache.getCalendar(1L, 1000L, icaldata);
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Tests that a modified stamp is parsed again.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testModifiedStamp() throws Exception {
+        ParsedCalendarCache cache = new ParsedCalendarCache(10, ParsedCalendarCache.DEFAULT_MAX_BYTES);
+
+        cache.getCalendar(1L, 1000L, String.format(EVENT, "1"));
+        Calendar modified = cache.getCalendar(1L, 2000L, String.format(EVENT, "changed"));
+
+        assertEquals(2, cache.getMissCount());
+        assertEquals("changed", ((VEvent) modified.getComponent(Component.VEVENT)).getUid().getValue());
+    }
+
+    /**
+     * Tests that stamps which are not persisted are not cached.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testNotPersisted() throws Exception {
+        ParsedCalendarCache cache = new ParsedCalendarCache(10, ParsedCalendarCache.DEFAULT_MAX_BYTES);
+
+        cache.getCalendar(null, null, String.format(EVENT, "1"));
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    /**
+     * Tests that changes to a returned calendar do not leak into the cache.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testCopyOnRead() throws Exception {
+        ParsedCalendarCache cache = new ParsedCalendarCache(10, ParsedCalendarCache.DEFAULT_MAX_BYTES);
+        String icaldata = String.format(EVENT, "1");
+
+        Calendar first = cache.getCalendar(1L, 1000L, icaldata);
+        VEvent event = (VEvent) first.getComponent(Component.VEVENT);
+        event.getSummary().setValue("Changed");
+
+        Calendar second = cache.getCalendar(1L, 1000L, icaldata);
+        assertNotSame(first, second);
+        Summary summary = ((VEvent) second.getComponent(Component.VEVENT)).getSummary();
+        assertEquals("New Event", summary.getValue());
+    }
+
+    /**
+     * Tests that the least recently used entries are evicted.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testEviction() throws Exception {
+        ParsedCalendarCache cache = new ParsedCalendarCache(2, ParsedCalendarCache.DEFAULT_MAX_BYTES);
+
+        cache.getCalendar(1L, 1000L, String.format(EVENT, "1"));
+        cache.getCalendar(2L, 1000L, String.format(EVENT, "2"));
+        cache.getCalendar(1L, 1000L, String.format(EVENT, "1"));
+        cache.getCalendar(3L, 1000L, String.format(EVENT, "3"));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        // "2" was the least recently used entry
+        cache.getCalendar(2L, 1000L, String.format(EVENT, "2"));
+        assertEquals(4, cache.getMissCount());
+    }
+
+    /**
+     * Tests that entries are evicted when the cache grows beyond its size in bytes.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testByteBound() throws Exception {
+        long weight = (long) String.format(EVENT, "1").length() * ParsedCalendarCache.ESTIMATED_BYTES_PER_CHAR;
+        ParsedCalendarCache cache = new ParsedCalendarCache(10, 2 * weight);
+
+        cache.getCalendar(1L, 1000L, String.format(EVENT, "1"));
+        cache.getCalendar(2L, 1000L, String.format(EVENT, "2"));
+        assertEquals(2 * weight, cache.getByteCount());
+
+        cache.getCalendar(3L, 1000L, String.format(EVENT, "3"));
+        assertEquals(2, cache.size());
+        assertEquals(2 * weight, cache.getByteCount());
+        assertEquals(1, cache.getEvictionCount());
+    }
+}
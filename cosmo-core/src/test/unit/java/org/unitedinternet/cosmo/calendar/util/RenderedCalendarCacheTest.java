@@ -0,0 +1,81 @@
+package org.unitedinternet.cosmo.calendar.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for <code>RenderedCalendarCache</code>.
+ */
+public class RenderedCalendarCacheTest {
+
+    /**
+     * Tests that stored calendars are served until they are evicted.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testHitAndMiss() throws Exception {
+        RenderedCalendarCache cache = new RenderedCalendarCache(10, 1024);
+
+        assertNull(cache.get("etag"));
+        cache.put("etag", new byte[10]);
+        assertNotNull(cache.get("etag"));
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(10, cache.getByteCount());
+    }
+
+    /**
+     * Tests that the least recently used entries are evicted first.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testEvictionByCount() throws Exception {
+        RenderedCalendarCache cache = new RenderedCalendarCache(2, 1024);
+
+        cache.put("1", new byte[1]);
+        cache.put("2", new byte[1]);
+        cache.get("1");
+        cache.put("3", new byte[1]);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("1"));
+        assertNull(cache.get("2"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    /**
+     * Tests that the cache does not hold more than its maximum number of bytes.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testEvictionBySize() throws Exception {
+        RenderedCalendarCache cache = new RenderedCalendarCache(10, 100);
+
+        cache.put("1", new byte[60]);
+        cache.put("2", new byte[60]);
+
+        assertEquals(1, cache.size());
+        assertEquals(60, cache.getByteCount());
+        assertNotNull(cache.get("2"));
+
+        cache.put("2", new byte[30]);
+        assertEquals(30, cache.getByteCount());
+    }
+
+    /**
+     * Tests that calendars above the cacheable length are not kept.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testLargeCalendarNotCached() throws Exception {
+        RenderedCalendarCache cache = new RenderedCalendarCache(10, Long.MAX_VALUE);
+
+        cache.put("1", new byte[RenderedCalendarCache.MAX_CACHEABLE_LENGTH + 1]);
+
+        assertEquals(0, cache.size());
+    }
+}
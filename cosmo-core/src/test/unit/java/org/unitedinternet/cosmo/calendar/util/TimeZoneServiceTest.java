@@ -0,0 +1,143 @@
+package org.unitedinternet.cosmo.calendar.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.TimeZone;
+import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.component.VTimeZone;
+import net.fortuna.ical4j.model.property.DtStart;
+
+/**
+ * Test case for <code>TimeZoneService</code>.
+ */
+public class TimeZoneServiceTest {
+
+    private static final String EVENT = "BEGIN:VCALENDAR\r\n"
+            + "VERSION:2.0\r\n"
+            + "PRODID:-//PYVOBJECT//NONSGML Version 1//EN\r\n"
+            + "BEGIN:VTIMEZONE\r\n"
+            + "TZID:Custom/Berlin\r\n"
+            + "BEGIN:DAYLIGHT\r\n"
+            + "TZOFFSETFROM:+0100\r\n"
+            + "TZOFFSETTO:+0200\r\n"
+            + "DTSTART:19700329T020000\r\n"
+            + "RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=-1SU\r\n"
+            + "END:DAYLIGHT\r\n"
+            + "BEGIN:STANDARD\r\n"
+            + "TZOFFSETFROM:+0200\r\n"
+            + "TZOFFSETTO:+0100\r\n"
+            + "DTSTART:19701025T030000\r\n"
+            + "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU\r\n"
+            + "END:STANDARD\r\n"
+            + "END:VTIMEZONE\r\n"
+            + "BEGIN:VEVENT\r\n"
+            + "UID:%s\r\n"
+            + "DTSTART;TZID=Custom/Berlin:20070101T100000\r\n"
+            + "DTEND;TZID=Custom/Berlin:20070101T110000\r\n"
+            + "DTSTAMP:20070516T181406Z\r\n"
+            + "SUMMARY:New Event\r\n"
+            + "END:VEVENT\r\n"
+            + "END:VCALENDAR\r\n";
+
+    private final TimeZoneService service = TimeZoneService.getInstance();
+
+    /**
+     * Tests that lookups by id return one shared timezone.
+     */
+    @Test
+    public void testSameTimeZoneForSameId() {
+        TimeZone berlin = service.getTimeZone("Europe/Berlin");
+        assertNotNull(berlin);
+        assertSame(berlin, service.getTimeZone("Europe/Berlin"));
+        assertSame(berlin, service.getTimeZone(berlin.getVTimeZone()));
+        assertNull(service.getTimeZone("Unknown/Zone"));
+    }
+
+    /**
+     * Tests that the offset table answers the same offsets as the timezone
+     * definition, around the transitions and outside of the table.
+     */
+    @Test
+    public void testOffsetsMatchDefinition() {
+        TimeZone registered = TimeZoneRegistryFactory.getInstance().createRegistry().getTimeZone("America/New_York");
+        TimeZone plain = new TimeZone(registered.getVTimeZone());
+        TimeZone shared = service.getTimeZone("America/New_York");
+
+        // 2021-03-14T07:00:00Z and 2021-11-07T06:00:00Z
+        long[] transitions = { 1615705200000L, 1636264800000L };
+        for (long transition : transitions) {
+            for (long time = transition - 2; time <= transition + 2; time++) {
+                assertEquals(plain.getOffset(time), shared.getOffset(time));
+            }
+        }
+        for (long time = -86400000L * 400; time < OffsetTableTimeZone.TABLE_END + 86400000L * 400;
+                time += 86400000L * 13 + 3600000L * 7) {
+            assertEquals(plain.getOffset(time), shared.getOffset(time));
+        }
+        assertTrue(shared.equals(plain));
+    }
+
+    /**
+     * Tests that timezones defined in calendar data are interned.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testDefinitionsInterned() throws Exception {
+        Calendar first = parse(String.format(EVENT, "1"));
+        Calendar second = parse(String.format(EVENT, "2"));
+
+        TimeZone firstTz = ((DtStart) ((VEvent) first.getComponent(Component.VEVENT)).getStartDate()).getTimeZone();
+        TimeZone secondTz = ((DtStart) ((VEvent) second.getComponent(Component.VEVENT)).getStartDate()).getTimeZone();
+        assertNotNull(firstTz);
+        assertSame(firstTz, secondTz);
+
+        VTimeZone vtz = (VTimeZone) second.getComponent(Component.VTIMEZONE);
+        assertSame(firstTz, service.getTimeZone(vtz));
+        assertSame(firstTz.getVTimeZone(), service.intern(vtz));
+    }
+
+    /**
+     * Tests that the least recently used definitions are evicted.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testLeastRecentlyUsedDefinitionsEvicted() throws Exception {
+        TimeZoneService bounded = new TimeZoneService(2);
+        VTimeZone first = definition("Custom/First");
+        VTimeZone second = definition("Custom/Second");
+        VTimeZone third = definition("Custom/Third");
+
+        TimeZone firstTz = bounded.getTimeZone(first);
+        TimeZone secondTz = bounded.getTimeZone(second);
+        assertSame(firstTz, bounded.getTimeZone(first));
+        bounded.getTimeZone(third);
+
+        assertSame(firstTz, bounded.getTimeZone(first));
+        TimeZone evicted = bounded.getTimeZone(second);
+        assertNotSame(secondTz, evicted);
+        assertEquals(secondTz, evicted);
+        assertEquals(secondTz.hashCode(), evicted.hashCode());
+    }
+
+    private VTimeZone definition(String tzid) throws Exception {
+        Calendar calendar = parse(String.format(EVENT, tzid).replace("Custom/Berlin", tzid));
+        return (VTimeZone) calendar.getComponent(Component.VTIMEZONE);
+    }
+
+    private Calendar parse(String icaldata) throws Exception {
+        return new CalendarBuilder(service.createRegistry()).build(new StringReader(icaldata));
+    }
+}
@@ -10,8 +10,12 @@ import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.context.ApplicationContext;
@@ -127,4 +131,31 @@ public class ContentDaoInvocationHandlerTest {
             this.contentDaoProxy.updateCollection(item, children);
         });
     }
+
+    @Test
+    public void shouldTimeCallsPerMethodAndImplementation() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            HibCollectionItem delegate = new HibCollectionItem();
+            delegate.setUid(UuidExternalGenerator.get().getNext());
+            CollectionItem item = new ExternalCollectionItem(delegate, new HashSet<Item>());
+            NoteItem child = new HibNoteItem();
+            when(contentDaoExternal.createContent(item, child)).thenThrow(new CaldavExceptionForbidden(""));
+            String uuid = UUID.randomUUID().toString();
+
+            this.contentDaoProxy.findItemByPath(uuid);
+            this.contentDaoProxy.findItemByPath(uuid);
+            assertThrows(CaldavExceptionForbidden.class, () -> {
+                this.contentDaoProxy.createContent(item, child);
+            });
+
+            assertEquals(2, registry.get("cosmo.dao.calls").tag("method", "findItemByPath")
+                    .tag("dao", "internal").tag("exception", "none").timer().count());
+            assertEquals(1, registry.get("cosmo.dao.calls").tag("method", "createContent")
+                    .tag("dao", "external").tag("exception", "CaldavExceptionForbidden").timer().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
 }
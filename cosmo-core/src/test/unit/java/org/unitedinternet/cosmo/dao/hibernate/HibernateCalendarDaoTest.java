@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.GregorianCalendar;
 import java.util.Set;
 
@@ -29,24 +30,34 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
 import org.unitedinternet.cosmo.calendar.query.ComponentFilter;
 import org.unitedinternet.cosmo.calendar.query.IsNotDefinedFilter;
+import org.unitedinternet.cosmo.calendar.query.ParamFilter;
 import org.unitedinternet.cosmo.calendar.query.PropertyFilter;
 import org.unitedinternet.cosmo.calendar.query.TextMatchFilter;
 import org.unitedinternet.cosmo.calendar.query.TimeRangeFilter;
 import org.unitedinternet.cosmo.calendar.util.CalendarUtils;
 import org.unitedinternet.cosmo.dao.UserDao;
+import org.unitedinternet.cosmo.hibernate.StatementCountingInspector;
 import org.unitedinternet.cosmo.model.CalendarCollectionStamp;
 import org.unitedinternet.cosmo.model.CollectionItem;
 import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.EventStamp;
+import org.unitedinternet.cosmo.model.FreeBusyItem;
 import org.unitedinternet.cosmo.model.ICalendarItem;
 import org.unitedinternet.cosmo.model.NoteItem;
 import org.unitedinternet.cosmo.model.User;
 import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
 import org.unitedinternet.cosmo.model.hibernate.HibCalendarCollectionStamp;
 import org.unitedinternet.cosmo.model.hibernate.HibCollectionItem;
+import org.unitedinternet.cosmo.model.hibernate.HibCollectionSubscription;
+import org.unitedinternet.cosmo.model.hibernate.HibCollectionSubscriptionItem;
 import org.unitedinternet.cosmo.model.hibernate.HibEventStamp;
+import org.unitedinternet.cosmo.model.hibernate.HibFreeBusyItem;
 import org.unitedinternet.cosmo.model.hibernate.HibNoteItem;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.DateTime;
 import net.fortuna.ical4j.model.Period;
@@ -65,6 +76,12 @@ public class HibernateCalendarDaoTest extends AbstractSpringDaoTestCase {
     @Autowired
     protected UserDaoImpl userDao;
 
+    @Autowired
+    private StatementCountingInspector statementCounter;
+
+    @PersistenceContext
+    private EntityManager em;
+
     private CollectionItem calendar;
     private CalendarFilter filter;
     private ComponentFilter eventFilter;
@@ -217,6 +234,97 @@ public class HibernateCalendarDaoTest extends AbstractSpringDaoTestCase {
         assertEquals(0, queryEvents.size());
     }
 
+    @Test
+    public void shouldLoadMatchingItemsWithConstantNumberOfQueries() throws Exception {
+        eventFilter.getPropFilters().clear();
+        DateTime start = new DateTime();
+        DateTime end = new DateTime();
+        start.setTime(new GregorianCalendar(1996, 1, 22).getTimeInMillis());
+        end.setTime(System.currentTimeMillis());
+        eventFilter.setTimeRangeFilter(new TimeRangeFilter(new Period(start, end)));
+
+        statementCounter.reset();
+        assertEquals(5, calendarDao.findCalendarItems(calendar, filter).size());
+        int statements = statementCounter.getCount();
+
+        calendar = (CollectionItem) contentDao.findItemByUid(calendar.getUid());
+        for (int i = 1; i <= 5; i++) {
+            NoteItem event = generateEvent("more" + i + ".ics", "cal" + i + ".ics", "testuser");
+            event.setIcalUid("more" + i);
+            contentDao.createContent(calendar, event);
+        }
+        this.clearSession();
+        calendar = (CollectionItem) contentDao.findItemByUid(calendar.getUid());
+
+        statementCounter.reset();
+        assertEquals(10, calendarDao.findCalendarItems(calendar, filter).size());
+        assertEquals(statements, statementCounter.getCount());
+    }
+
+    @Test
+    public void shouldEvaluateUntranslatablePartsOnFirstPassResults() throws Exception {
+        contentDao.createContent(calendar, generateEvent("meeting.ics", "meeting.ics", "testuser"));
+        this.clearSession();
+        calendar = (CollectionItem) contentDao.findItemByUid(calendar.getUid());
+
+        PropertyFilter attendeeFilter = new PropertyFilter("ATTENDEE");
+        attendeeFilter.setTextMatchFilter(new TextMatchFilter("BOB@example.com"));
+        ParamFilter partstatFilter = new ParamFilter("PARTSTAT");
+        partstatFilter.setTextMatchFilter(new TextMatchFilter("ACCEPTED"));
+        attendeeFilter.getParamFilters().add(partstatFilter);
+        eventFilter.getPropFilters().add(attendeeFilter);
+
+        Set<ICalendarItem> queryEvents = calendarDao.findCalendarItems(calendar, filter);
+        assertEquals(1, queryEvents.size());
+        assertEquals("meeting.ics", queryEvents.iterator().next().getName());
+
+        partstatFilter.getTextMatchFilter().setValue("TENTATIVE");
+        assertEquals(0, calendarDao.findCalendarItems(calendar, filter).size());
+    }
+
+    @Test
+    public void shouldMatchIndexedEventProperties() throws Exception {
+        contentDao.createContent(calendar, generateEvent("meeting.ics", "meeting.ics", "testuser"));
+        this.clearSession();
+        calendar = (CollectionItem) contentDao.findItemByUid(calendar.getUid());
+
+        PropertyFilter statusFilter = new PropertyFilter("STATUS");
+        statusFilter.setIsNotDefinedFilter(new IsNotDefinedFilter());
+        eventFilter.getPropFilters().add(statusFilter);
+        assertEquals(5, calendarDao.findCalendarItems(calendar, filter).size());
+
+        statusFilter.setIsNotDefinedFilter(null);
+        statusFilter.setTextMatchFilter(new TextMatchFilter("confirmed"));
+        PropertyFilter categoriesFilter = new PropertyFilter("CATEGORIES");
+        categoriesFilter.setTextMatchFilter(new TextMatchFilter("Planning"));
+        eventFilter.getPropFilters().add(categoriesFilter);
+        PropertyFilter organizerFilter = new PropertyFilter("ORGANIZER");
+        organizerFilter.setTextMatchFilter(new TextMatchFilter("alice"));
+        eventFilter.getPropFilters().add(organizerFilter);
+
+        calendar = (CollectionItem) contentDao.findItemByUid(calendar.getUid());
+        Set<ICalendarItem> queryEvents = calendarDao.findCalendarItems(calendar, filter);
+        assertEquals(1, queryEvents.size());
+        assertEquals("meeting.ics", queryEvents.iterator().next().getName());
+    }
+
+    @Test
+    public void shouldMatchEventsIndexedBeforePropertyIndex() throws Exception {
+        contentDao.createContent(calendar, generateEvent("meeting.ics", "meeting.ics", "testuser"));
+        this.clearSession();
+        em.createNativeQuery("update event_stamp set status=null, organizer=null, attendees=null, categories=null")
+                .executeUpdate();
+        calendar = (CollectionItem) contentDao.findItemByUid(calendar.getUid());
+
+        PropertyFilter attendeeFilter = new PropertyFilter("ATTENDEE");
+        attendeeFilter.setTextMatchFilter(new TextMatchFilter("carol"));
+        eventFilter.getPropFilters().add(attendeeFilter);
+
+        Set<ICalendarItem> queryEvents = calendarDao.findCalendarItems(calendar, filter);
+        assertEquals(1, queryEvents.size());
+        assertEquals("meeting.ics", queryEvents.iterator().next().getName());
+    }
+
     // Query-filters END
 
     @Test
@@ -339,6 +447,64 @@ public class HibernateCalendarDaoTest extends AbstractSpringDaoTestCase {
         assertEquals(event.getUid(), queryEvent.getUid());
     }
 
+    @Test
+    public void shouldFindFreeBusyItemsOfSeveralCalendars() throws Exception {
+        CollectionItem other = generateCalendar("other", "testuser");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(getUser(userDao, "testuser"));
+        other = contentDao.createCollection(root, other);
+        contentDao.createContent(other, generateEvent("other.ics", "cal1.ics", "testuser"));
+        this.clearSession();
+
+        calendar = (CollectionItem) contentDao.findItemByUid(calendar.getUid());
+        other = (CollectionItem) contentDao.findItemByUid(other.getUid());
+        Period period = new Period(new DateTime("20050817T115000Z"), new DateTime("20050818T115000Z"));
+
+        Set<ICalendarItem> items = calendarDao.findFreeBusyItems(Arrays.asList(calendar, other), period, null);
+        assertEquals(2, items.size());
+        for (ICalendarItem item : items) {
+            assertEquals("68ADA955-67FF-4D49-BBAC-AF182C620CF6", item.getIcalUid());
+        }
+
+        items = calendarDao.findFreeBusyItems(Arrays.asList(other), period, null);
+        assertEquals(1, items.size());
+        assertEquals("other.ics", items.iterator().next().getName());
+    }
+
+    @Test
+    public void shouldFindFreeBusyItemsOfSubscribedCalendars() throws Exception {
+        this.clearSession();
+        calendar = (CollectionItem) contentDao.findItemByUid(calendar.getUid());
+        HibCollectionSubscription subscription = new HibCollectionSubscription();
+        subscription.setTargetCollection(calendar);
+        HibCollectionSubscriptionItem subscribed = new HibCollectionSubscriptionItem();
+        subscribed.setSubscription(subscription);
+        Period period = new Period(new DateTime("20050817T115000Z"), new DateTime("20050818T115000Z"));
+
+        Set<ICalendarItem> items = calendarDao.findFreeBusyItems(Arrays.asList(subscribed), period, null);
+        assertEquals(1, items.size());
+        assertEquals("68ADA955-67FF-4D49-BBAC-AF182C620CF6", items.iterator().next().getIcalUid());
+    }
+
+    @Test
+    public void shouldFindFreeBusyItemsOverlappingPeriod() throws Exception {
+        FreeBusyItem freeBusy = new HibFreeBusyItem();
+        freeBusy.setName("freebusy");
+        freeBusy.setOwner(getUser(userDao, "testuser"));
+        freeBusy.setIcalUid("freebusy");
+        freeBusy.setFreeBusyCalendar(new CalendarBuilder().build(helper.getInputStream("vfreebusy.ics")));
+        contentDao.createContent(calendar, freeBusy);
+        this.clearSession();
+
+        calendar = (CollectionItem) contentDao.findItemByUid(calendar.getUid());
+        Period period = new Period(new DateTime("20060103T000000Z"), new DateTime("20060104T000000Z"));
+        Set<ICalendarItem> items = calendarDao.findFreeBusyItems(Arrays.asList(calendar), period, null);
+        assertEquals(1, items.size());
+        assertEquals("freebusy", items.iterator().next().getName());
+
+        period = new Period(new DateTime("20060107T000000Z"), new DateTime("20060108T000000Z"));
+        assertEquals(0, calendarDao.findFreeBusyItems(Arrays.asList(calendar), period, null).size());
+    }
+
     private NoteItem generateEvent(String name, String file, String owner) throws Exception {
         NoteItem event = new HibNoteItem();
         event.setName(name);
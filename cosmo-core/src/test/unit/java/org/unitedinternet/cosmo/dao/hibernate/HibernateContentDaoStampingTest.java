@@ -23,6 +23,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,18 +42,24 @@ import org.unitedinternet.cosmo.model.NoteItem;
 import org.unitedinternet.cosmo.model.Stamp;
 import org.unitedinternet.cosmo.model.User;
 import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
+import org.unitedinternet.cosmo.model.hibernate.EventStampInterceptor;
 import org.unitedinternet.cosmo.model.hibernate.HibCalendarCollectionStamp;
 import org.unitedinternet.cosmo.model.hibernate.HibEventExceptionStamp;
+import org.unitedinternet.cosmo.model.hibernate.HibEventOccurrence;
 import org.unitedinternet.cosmo.model.hibernate.HibEventStamp;
 import org.unitedinternet.cosmo.model.hibernate.HibMessageStamp;
 import org.unitedinternet.cosmo.model.hibernate.HibNoteItem;
 import org.unitedinternet.cosmo.model.hibernate.HibQName;
 import org.unitedinternet.cosmo.model.hibernate.HibStringAttribute;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.validation.ConstraintViolationException;
+import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Component;
 import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.DateTime;
 import net.fortuna.ical4j.model.component.VEvent;
 import net.fortuna.ical4j.model.property.DtStart;
 
@@ -62,11 +71,19 @@ import net.fortuna.ical4j.model.property.DtStart;
 public class HibernateContentDaoStampingTest extends AbstractSpringDaoTestCase {
     
     private static final Logger LOG = LoggerFactory.getLogger(HibernateContentDaoStampingTest.class);
+
+    private static final long ONE_HOUR_MILLIS = 60L * 60 * 1000;
+
+    private static final long ONE_DAY_MILLIS = 24 * ONE_HOUR_MILLIS;
     
     @Autowired
     private UserDaoImpl userDao;
     @Autowired
     private ContentDaoImpl contentDao;
+    @Autowired
+    private EventOccurrenceIndexExtender occurrenceIndexExtender;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     
 
@@ -180,6 +197,96 @@ public class HibernateContentDaoStampingTest extends AbstractSpringDaoTestCase {
         assertTrue(event.getTimeRangeIndex().getIsFloating().booleanValue());
     }
     
+    /**
+     * Tests that the occurrences of recurring events are indexed.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testOccurrencesIndexed() throws Exception {
+        User user = getUser(userDao, "testuser");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(user);
+
+        NoteItem item = generateTestContent();
+        HibEventStamp event = new HibEventStamp();
+        DateTime start = utcDateTime(System.currentTimeMillis());
+        event.setEventCalendar(recurringCalendar(start.toString(), "RRULE:FREQ=DAILY;COUNT=5"));
+        item.addStamp(event);
+
+        ContentItem newItem = contentDao.createContent(root, item);
+        clearSession();
+
+        ContentItem queryItem = (ContentItem) contentDao.findItemByUid(newItem.getUid());
+        event = (HibEventStamp) queryItem.getStamp(EventStamp.class);
+        assertEquals(5, event.getOccurrences().size());
+        long third = start.getTime() / 1000 * 1000 + 2 * ONE_DAY_MILLIS;
+        assertTrue(event.getOccurrences().contains(new HibEventOccurrence(utcDateTime(third).toString(),
+                utcDateTime(third + ONE_HOUR_MILLIS).toString(), false)));
+        assertEquals(HibEventStamp.TIME_INFINITY, event.getTimeRangeIndex().getOccurrenceHorizon());
+        assertNull(event.getTimeRangeIndex().getOccurrenceStart());
+
+        event.setEventCalendar(recurringCalendar("RRULE:FREQ=WEEKLY"));
+        contentDao.updateContent(queryItem);
+        clearSession();
+
+        queryItem = (ContentItem) contentDao.findItemByUid(newItem.getUid());
+        event = (HibEventStamp) queryItem.getStamp(EventStamp.class);
+        String horizon = event.getTimeRangeIndex().getOccurrenceHorizon();
+        assertNotNull(horizon);
+        assertTrue(horizon.compareTo("20070101T100000Z") > 0 && horizon.endsWith("Z"));
+        assertTrue(event.getOccurrences().size() > 52);
+        // a series that started long ago is only indexed from the recent past on
+        String occurrenceStart = event.getTimeRangeIndex().getOccurrenceStart();
+        assertNotNull(occurrenceStart);
+        assertTrue(occurrenceStart.compareTo("20070101T100000Z") > 0 && occurrenceStart.endsWith("Z"));
+        assertTrue(event.getOccurrences().size() < 70);
+
+        assertTrue(occurrenceIndexExtender.extendOccurrenceIndexes("99990101T000000Z") > 0);
+        clearSession();
+
+        queryItem = (ContentItem) contentDao.findItemByUid(newItem.getUid());
+        event = (HibEventStamp) queryItem.getStamp(EventStamp.class);
+        assertTrue(event.getTimeRangeIndex().getOccurrenceHorizon().compareTo(horizon) >= 0);
+
+        event.setEventCalendar(recurringCalendar(null));
+        contentDao.updateContent(queryItem);
+        clearSession();
+
+        queryItem = (ContentItem) contentDao.findItemByUid(newItem.getUid());
+        event = (HibEventStamp) queryItem.getStamp(EventStamp.class);
+        assertTrue(event.getOccurrences().isEmpty());
+        assertNull(event.getTimeRangeIndex().getOccurrenceHorizon());
+    }
+
+    /**
+     * Tests that series with too many occurrences are indexed for a shorter
+     * window starting now.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testTooManyOccurrencesWindowed() throws Exception {
+        User user = getUser(userDao, "testuser");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(user);
+
+        NoteItem item = generateTestContent();
+        HibEventStamp event = new HibEventStamp();
+        event.setEventCalendar(recurringCalendar("RRULE:FREQ=DAILY;BYHOUR=0,1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,"
+                + "17,18,19,20,21,22,23"));
+        item.addStamp(event);
+
+        ContentItem newItem = contentDao.createContent(root, item);
+        clearSession();
+
+        ContentItem queryItem = (ContentItem) contentDao.findItemByUid(newItem.getUid());
+        event = (HibEventStamp) queryItem.getStamp(EventStamp.class);
+        assertEquals(EventStampInterceptor.MAX_INDEXED_OCCURRENCES, event.getOccurrences().size());
+        String occurrenceStart = event.getTimeRangeIndex().getOccurrenceStart();
+        String horizon = event.getTimeRangeIndex().getOccurrenceHorizon();
+        assertTrue(occurrenceStart.compareTo(utcDateTime(System.currentTimeMillis()).toString()) > 0);
+        assertTrue(horizon.compareTo(occurrenceStart) > 0);
+        assertTrue(horizon.compareTo(utcDateTime(System.currentTimeMillis()
+                + EventStampInterceptor.OCCURRENCE_HORIZON_MILLIS).toString()) < 0);
+    }
+
     /**
      * Test stamps update. 
      * @throws Exception - if something is wrong this exception is thrown.
@@ -240,6 +347,66 @@ public class HibernateContentDaoStampingTest extends AbstractSpringDaoTestCase {
         assertEquals(es.getEventCalendar().toString(), newCal.toString());
     }
     
+    /**
+     * Tests that the length of the serialized calendar is cleared when the
+     * calendar changes and kept otherwise.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testCalendarLengthStored() throws Exception {
+        User user = getUser(userDao, "testuser");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(user);
+
+        NoteItem item = generateTestContent();
+        item.setIcalUid("icaluid");
+
+        EventStamp event = new HibEventStamp();
+        event.setEventCalendar(helper.getCalendar("cal1.ics"));
+        item.addStamp(event);
+
+        ContentItem newItem = contentDao.createContent(root, item);
+        clearSession();
+
+        // the length is only calculated after commit
+        NoteItem queryItem = (NoteItem) contentDao.findItemByUid(newItem.getUid());
+        assertNull(((HibNoteItem) queryItem).getCalendarLength());
+
+        assignCalendarLength((HibNoteItem) queryItem);
+        clearSession();
+
+        queryItem = (NoteItem) contentDao.findItemByUid(newItem.getUid());
+        assertEquals(Long.valueOf(renderedLength(queryItem)), ((HibNoteItem) queryItem).getCalendarLength());
+
+        // an update that does not change the calendar keeps the stored length
+        queryItem.getAttributes().size();
+        queryItem.getStamps().size();
+        contentDao.updateContent(queryItem);
+        clearSession();
+
+        queryItem = (NoteItem) contentDao.findItemByUid(newItem.getUid());
+        assertEquals(Long.valueOf(renderedLength(queryItem)), ((HibNoteItem) queryItem).getCalendarLength());
+
+        // changing the calendar clears it
+        queryItem.getAttributes().size();
+        EventStamp es = (EventStamp) queryItem.getStamp(EventStamp.class);
+        es.setEventCalendar(helper.getCalendar("cal2.ics"));
+        contentDao.updateContent(queryItem);
+        clearSession();
+
+        queryItem = (NoteItem) contentDao.findItemByUid(newItem.getUid());
+        assertNull(((HibNoteItem) queryItem).getCalendarLength());
+    }
+
+    private void assignCalendarLength(HibNoteItem note) {
+        entityManager.createNamedQuery("noteItem.calendarLength.assign")
+                .setParameter("length", Long.valueOf(renderedLength(note))).setParameter("id", note.getId())
+                .setParameter("etag", note.getEntityTag()).executeUpdate();
+    }
+
+    private static int renderedLength(NoteItem note) {
+        return new EntityConverter(null).convertNote(note).toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+
     /**
      * Test event stamp validation.
      * @throws Exception - if something is wrong this exception is thrown.
@@ -516,6 +683,26 @@ public class HibernateContentDaoStampingTest extends AbstractSpringDaoTestCase {
         return helper.getUser(userDao, contentDao, username);
     }
 
+    private Calendar recurringCalendar(String rrule) throws Exception {
+        return recurringCalendar("20070101T100000Z", rrule);
+    }
+
+    private Calendar recurringCalendar(String dtstart, String rrule) throws Exception {
+        DateTime end = new DateTime(new DateTime(dtstart).getTime() + ONE_HOUR_MILLIS);
+        end.setUtc(true);
+        String ics = "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//test//EN\r\nBEGIN:VEVENT\r\n"
+                + "UID:occurrences\r\nDTSTAMP:20070101T000000Z\r\nDTSTART:" + dtstart + "\r\n"
+                + "DTEND:" + end + "\r\nSUMMARY:recurring\r\n" + (rrule != null ? rrule + "\r\n" : "")
+                + "END:VEVENT\r\nEND:VCALENDAR\r\n";
+        return new CalendarBuilder().build(new StringReader(ics));
+    }
+
+    private static DateTime utcDateTime(long time) {
+        DateTime date = new DateTime(time);
+        date.setUtc(true);
+        return date;
+    }
+
     /**
      * Generates test content.
      * @return The note item.
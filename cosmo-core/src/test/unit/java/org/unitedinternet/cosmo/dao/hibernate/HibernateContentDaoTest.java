@@ -25,10 +25,13 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -50,6 +53,7 @@ import org.unitedinternet.cosmo.model.BooleanAttribute;
 import org.unitedinternet.cosmo.model.CollectionItem;
 import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.DictionaryAttribute;
+import org.unitedinternet.cosmo.model.EventStamp;
 import org.unitedinternet.cosmo.model.FileItem;
 import org.unitedinternet.cosmo.model.FreeBusyItem;
 import org.unitedinternet.cosmo.model.HomeCollectionItem;
@@ -60,8 +64,10 @@ import org.unitedinternet.cosmo.model.Item;
 import org.unitedinternet.cosmo.model.ItemTombstone;
 import org.unitedinternet.cosmo.model.MultiValueStringAttribute;
 import org.unitedinternet.cosmo.model.NoteItem;
+import org.unitedinternet.cosmo.model.StampUtils;
 import org.unitedinternet.cosmo.model.StringAttribute;
 import org.unitedinternet.cosmo.model.Ticket;
+import org.unitedinternet.cosmo.model.TicketType;
 import org.unitedinternet.cosmo.model.TimestampAttribute;
 import org.unitedinternet.cosmo.model.Tombstone;
 import org.unitedinternet.cosmo.model.TriageStatus;
@@ -72,11 +78,13 @@ import org.unitedinternet.cosmo.model.XmlAttribute;
 import org.unitedinternet.cosmo.model.filter.EqualsExpression;
 import org.unitedinternet.cosmo.model.filter.ItemFilter;
 import org.unitedinternet.cosmo.model.filter.StringAttributeFilter;
+import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
 import org.unitedinternet.cosmo.model.hibernate.HibAvailabilityItem;
 import org.unitedinternet.cosmo.model.hibernate.HibBooleanAttribute;
 import org.unitedinternet.cosmo.model.hibernate.HibCollectionItem;
 import org.unitedinternet.cosmo.model.hibernate.HibContentItem;
 import org.unitedinternet.cosmo.model.hibernate.HibDictionaryAttribute;
+import org.unitedinternet.cosmo.model.hibernate.HibEventStamp;
 import org.unitedinternet.cosmo.model.hibernate.HibFileItem;
 import org.unitedinternet.cosmo.model.hibernate.HibFreeBusyItem;
 import org.unitedinternet.cosmo.model.hibernate.HibICalendarAttribute;
@@ -112,6 +120,9 @@ public class HibernateContentDaoTest extends AbstractSpringDaoTestCase {
     @Autowired
     private ContentDaoImpl contentDao;
 
+    @Autowired
+    private ExpiredTicketRemover expiredTicketRemover;
+
     /**
      * Constructor.
      */
@@ -176,6 +187,111 @@ public class HibernateContentDaoTest extends AbstractSpringDaoTestCase {
         assertEquals(1, children.size());
     }
 
+    /**
+     * Tests that changes and removals are reported after the sync sequence they
+     * were assigned, regardless of their timestamps.
+     * 
+     * @throws Exception
+     *             - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testContentDaoLoadChangedChildren() throws Exception {
+        User user = getUser(userDao, "testuser");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(user);
+
+        ContentItem first = generateTestContent("first", "testuser");
+        first = contentDao.createContent(root, first);
+        root = contentDao.updateCollectionTimestamp(root);
+        Long firstSequence = root.getSyncSequence();
+        assertNotNull(firstSequence);
+
+        clearSession();
+
+        root = (CollectionItem) contentDao.getRootItem(user);
+        assertEquals(firstSequence, root.getSyncSequence());
+        ContentItem second = generateTestContent("second", "testuser");
+        second = contentDao.createContent(root, second);
+        root = contentDao.updateCollectionTimestamp(root);
+        Long secondSequence = root.getSyncSequence();
+        assertEquals(firstSequence + 1, secondSequence.longValue());
+
+        clearSession();
+
+        root = (CollectionItem) contentDao.getRootItem(user);
+        assertEquals(2, contentDao.loadChangedChildren(root, null).size());
+        Set<ContentItem> changed = contentDao.loadChangedChildren(root, firstSequence);
+        assertEquals(1, changed.size());
+        assertEquals(second.getUid(), changed.iterator().next().getUid());
+        assertEquals(0, contentDao.loadChangedChildren(root, secondSequence).size());
+
+        ContentItem queryItem = (ContentItem) contentDao.findItemByUid(first.getUid());
+        contentDao.removeContent(queryItem);
+        root = contentDao.updateCollectionTimestamp(root);
+        Long thirdSequence = root.getSyncSequence();
+
+        clearSession();
+
+        root = (CollectionItem) contentDao.getRootItem(user);
+        assertEquals(0, contentDao.loadChangedChildren(root, secondSequence).size());
+        Set<ItemTombstone> removed = contentDao.loadTombstones(root, secondSequence);
+        assertEquals(1, removed.size());
+        assertEquals(first.getUid(), removed.iterator().next().getItemUid());
+        assertEquals(0, contentDao.loadTombstones(root, thirdSequence).size());
+
+        queryItem = (ContentItem) contentDao.findItemByUid(second.getUid());
+        contentDao.updateContent(queryItem);
+        contentDao.updateCollectionTimestamp(root);
+
+        clearSession();
+
+        root = (CollectionItem) contentDao.getRootItem(user);
+        changed = contentDao.loadChangedChildren(root, thirdSequence);
+        assertEquals(1, changed.size());
+        assertEquals(second.getUid(), changed.iterator().next().getUid());
+    }
+
+    /**
+     * Tests finding children of a collection by name.
+     * 
+     * @throws Exception
+     *             - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testFindItemsByParentAndNames() throws Exception {
+        User user = getUser(userDao, "testuser");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(user);
+
+        ContentItem item1 = generateTestContent();
+        item1.setName("test1");
+        contentDao.createContent(root, item1);
+
+        ContentItem item2 = generateTestContent();
+        item2.setName("test2");
+        contentDao.createContent(root, item2);
+
+        clearSession();
+
+        Set<String> names = new HashSet<String>();
+        names.add("test1");
+        names.add("test2");
+        names.add("missing");
+        Set<Item> items = contentDao.findItemsByParentAndNames(root, names);
+        assertEquals(2, items.size());
+        for (Item item : items) {
+            assertEquals(1, item.getParents().size());
+            assertEquals(root.getUid(), item.getParents().iterator().next().getUid());
+        }
+
+        names.clear();
+        names.add("test2");
+        items = contentDao.findItemsByParentAndNames(root, names);
+        assertEquals(1, items.size());
+        assertEquals("test2", items.iterator().next().getName());
+
+        names.clear();
+        assertEquals(0, contentDao.findItemsByParentAndNames(root, names).size());
+    }
+
     /**
      * Test content dao create content duplicate uid.
      * 
@@ -1151,11 +1267,16 @@ public class HibernateContentDaoTest extends AbstractSpringDaoTestCase {
 
         // verify that move works
         b = (CollectionItem) contentDao.findItemByPath("/testuser2/a/b");
+        assertNotNull(contentDao.findItemByPath("/testuser2/a/b/c"));
 
         contentDao.moveItem("/testuser2/a/b", "/testuser2/a/e/b");
 
         clearSession();
 
+        // the cached paths of the moved collection are forgotten
+        assertNull(contentDao.findItemByPath("/testuser2/a/b"));
+        assertNull(contentDao.findItemByPath("/testuser2/a/b/c"));
+
         CollectionItem queryCollection = (CollectionItem) contentDao.findItemByPath("/testuser2/a/e/b");
         assertNotNull(queryCollection);
 
@@ -1170,6 +1291,88 @@ public class HibernateContentDaoTest extends AbstractSpringDaoTestCase {
         assertTrue(queryItem instanceof ContentItem);
     }
 
+    /**
+     * Tests finding the entity tag of a content item by path.
+     * 
+     * @throws Exception
+     *             - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testFindEntityTagByPath() throws Exception {
+        User user = getUser(userDao, "testuser2");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(user);
+
+        CollectionItem a = new HibCollectionItem();
+        a.setName("a");
+        a.setOwner(user);
+        a = contentDao.createCollection(root, a);
+
+        ContentItem b = generateTestContent("b", "testuser2");
+        b = contentDao.createContent(a, b);
+
+        clearSession();
+
+        ContentItem queryItem = (ContentItem) contentDao.findItemByPath("/testuser2/a/b");
+        assertNotNull(queryItem.getEntityTag());
+        assertEquals(queryItem.getEntityTag(), contentDao.findEntityTagByPath("/testuser2/a/b"));
+        assertNull(contentDao.findEntityTagByPath("/testuser2/a"));
+        assertNull(contentDao.findEntityTagByPath("/testuser2/a/c"));
+        assertNull(contentDao.findEntityTagByPath("/testuser2/c/b"));
+        assertNull(contentDao.findEntityTagByPath("/testuser2"));
+
+        // once the parent collection is cached
+        assertNotNull(contentDao.findItemByPath("/testuser2/a"));
+        assertEquals(queryItem.getEntityTag(), contentDao.findEntityTagByPath("/testuser2/a/b"));
+        assertNull(contentDao.findEntityTagByPath("/testuser2/a/c"));
+    }
+
+    /**
+     * Tests that path resolution follows moves and removals.
+     * 
+     * @throws Exception
+     *             - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testFindItemByPathAfterMoveAndRemove() throws Exception {
+        User testuser2 = getUser(userDao, "testuser2");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(testuser2);
+
+        CollectionItem a = new HibCollectionItem();
+        a.setName("a");
+        a.setOwner(testuser2);
+        a = contentDao.createCollection(root, a);
+
+        CollectionItem b = new HibCollectionItem();
+        b.setName("b");
+        b.setOwner(testuser2);
+        b = contentDao.createCollection(a, b);
+
+        ContentItem c = generateTestContent("c", "testuser2");
+        c = contentDao.createContent(b, c);
+
+        clearSession();
+
+        assertEquals(c.getUid(), contentDao.findItemByPath("/testuser2/a/b/c").getUid());
+        assertEquals(b.getUid(), contentDao.findItemByPath("/testuser2/a/b").getUid());
+        assertEquals(c.getUid(), contentDao.findItemByPath("b/c", a.getUid()).getUid());
+        assertNull(contentDao.findItemByPath("/testuser2/a/c"));
+        assertNull(contentDao.findItemByPath("/testuser2/b/c"));
+
+        contentDao.moveItem("/testuser2/a/b", "/testuser2/a/bnew");
+        clearSession();
+
+        assertNull(contentDao.findItemByPath("/testuser2/a/b"));
+        assertNull(contentDao.findItemByPath("/testuser2/a/b/c"));
+        assertEquals(c.getUid(), contentDao.findItemByPath("/testuser2/a/bnew/c").getUid());
+
+        contentDao.removeCollection((CollectionItem) contentDao.findItemByPath("/testuser2/a/bnew"));
+        clearSession();
+
+        assertNull(contentDao.findItemByPath("/testuser2/a/bnew"));
+        assertNull(contentDao.findItemByPath("/testuser2/a/bnew/c"));
+        assertNotNull(contentDao.findItemByPath("/testuser2/a"));
+    }
+
     /**
      * Tests item dao copy.
      * 
@@ -1367,6 +1570,46 @@ public class HibernateContentDaoTest extends AbstractSpringDaoTestCase {
         assertEquals(0, tickets.size());
     }
 
+    /**
+     * Tests that timed out tickets are deleted by the sweeper.
+     * 
+     * @throws Exception
+     *             - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testExpiredTicketsSwept() throws Exception {
+        User testuser = getUser(userDao, "testuser");
+        ContentItem item = generateTestContent("sweep:" + System.currentTimeMillis(), "testuser");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(testuser);
+        ContentItem newItem = contentDao.createContent(root, item);
+
+        Ticket timed = new HibTicket(TicketType.READ_ONLY);
+        timed.setKey("timed");
+        timed.setTimeout(10);
+        timed.setOwner(testuser);
+        contentDao.createTicket(newItem, timed);
+
+        Ticket infinite = new HibTicket(TicketType.READ_ONLY);
+        infinite.setKey("infinite");
+        infinite.setTimeout(Ticket.TIMEOUT_INFINITE);
+        infinite.setOwner(testuser);
+        contentDao.createTicket(newItem, infinite);
+
+        clearSession();
+
+        assertNotNull(contentDao.findTicket("timed").getExpires());
+        assertNull(contentDao.findTicket("infinite").getExpires());
+        assertEquals(0, expiredTicketRemover.removeExpiredTickets(new Date()));
+        assertEquals(1, expiredTicketRemover.removeExpiredTickets(new Date(System.currentTimeMillis() + 60000)));
+
+        clearSession();
+
+        assertNull(contentDao.findTicket("timed"));
+        assertNotNull(contentDao.findTicket("infinite"));
+        newItem = (ContentItem) contentDao.findItemByUid(newItem.getUid());
+        assertEquals(1, newItem.getTickets().size());
+    }
+
     /**
      * Tests item in multiple collections.
      * 
@@ -1807,6 +2050,112 @@ public class HibernateContentDaoTest extends AbstractSpringDaoTestCase {
         }
     }
 
+    /**
+     * Tests content dao import content.
+     * 
+     * @throws Exception
+     *             - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testContentDaoImportContent() throws Exception {
+        User user = getUser(userDao, "testuser");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(user);
+
+        NoteItem note1 = generateTestNote("test1", "testuser");
+        NoteItem note2 = generateTestNote("test2", "testuser");
+        NoteItem note3 = generateTestNote("test3", "testuser");
+
+        note1.setUid("1");
+        note1.setIcalUid("ical1");
+        EventStamp event = new HibEventStamp();
+        event.setEventCalendar(helper.getCalendar("cal1.ics"));
+        note1.addStamp(event);
+        note2.setUid("1:20070101");
+        note2.setModifies(note1);
+        note3.setUid("3");
+        note3.setIcalUid("ical3");
+
+        // modification first, the import must still create the master before it
+        Set<ContentItem> items = new LinkedHashSet<ContentItem>();
+        items.add(note2);
+        items.add(note1);
+        items.add(note3);
+
+        contentDao.importContent(root, items);
+        clearSession();
+
+        note1 = (NoteItem) contentDao.findItemByUid("1");
+        assertNotNull(note1);
+        assertEquals(1, note1.getModifications().size());
+        assertTrue(note1.getParents().contains(root));
+        HibEventStamp stamp = (HibEventStamp) note1.getStamp(EventStamp.class);
+        assertEquals("20050817T115000Z", stamp.getTimeRangeIndex().getStartDate());
+        note2 = (NoteItem) contentDao.findItemByUid("1:20070101");
+        assertNotNull(note2.getModifies());
+        assertNotNull(contentDao.findItemByUid("3"));
+
+        NoteItem note4 = generateTestNote("test4", "testuser");
+        note4.setUid("4");
+        note4.setIcalUid("ical1");
+        try {
+            contentDao.importContent(root, Collections.<ContentItem>singleton(note4));
+            fail("able to import duplicate icaluid");
+        } catch (IcalUidInUseException e) {
+        }
+
+        NoteItem note5 = generateTestNote("test5", "testuser");
+        note5.setUid("3");
+        note5.setIcalUid("ical5");
+        try {
+            contentDao.importContent(root, Collections.<ContentItem>singleton(note5));
+            fail("able to import duplicate uid");
+        } catch (UidInUseException e) {
+        }
+    }
+
+    @Test
+    public void testContentDaoLoadMasterNotes() throws Exception {
+        User user = getUser(userDao, "testuser");
+        CollectionItem root = (CollectionItem) contentDao.getRootItem(user);
+
+        NoteItem note1 = generateTestNote("test1", "testuser");
+        NoteItem note2 = generateTestNote("test2", "testuser");
+        NoteItem note3 = generateTestNote("test3", "testuser");
+
+        note1.setUid("1");
+        note1.setIcalUid("ical1");
+        EventStamp event = new HibEventStamp();
+        event.setEventCalendar(helper.getCalendar("cal1.ics"));
+        note1.addStamp(event);
+        note2.setUid("1:20070101");
+        note2.setModifies(note1);
+        note3.setUid("3");
+        note3.setIcalUid("ical3");
+
+        Set<ContentItem> items = new LinkedHashSet<ContentItem>();
+        items.add(note1);
+        items.add(note2);
+        items.add(note3);
+        contentDao.importContent(root, items);
+        clearSession();
+
+        List<NoteItem> page = contentDao.loadMasterNotes(root, null, 1);
+        assertEquals(1, page.size());
+        note1 = page.get(0);
+        assertEquals("1", note1.getUid());
+        // returned with everything needed to render it
+        assertEquals(1, note1.getModifications().size());
+        assertEquals(0, note1.getModifications().iterator().next().getStamps().size());
+        assertNotNull(StampUtils.getEventStamp(note1).getEventCalendar());
+        assertNotNull(new EntityConverter(null).convertNote(note1));
+
+        page = contentDao.loadMasterNotes(root, "1", 1);
+        assertEquals(1, page.size());
+        assertEquals("3", page.get(0).getUid());
+
+        assertTrue(contentDao.loadMasterNotes(root, "3", 1).isEmpty());
+    }
+
     @Test
     public void shouldCorrectlyCountAllItems() throws Exception {
         String username = "testuser";
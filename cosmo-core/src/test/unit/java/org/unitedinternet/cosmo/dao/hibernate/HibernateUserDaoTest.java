@@ -15,6 +15,8 @@
  */
 package org.unitedinternet.cosmo.dao.hibernate;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -109,6 +111,39 @@ public class HibernateUserDaoTest extends AbstractSpringDaoTestCase {
         userDao.removeUser("user2");
     }
 
+    /**
+     * Tests find users containing a text.
+     */
+    @Test
+    public void testFindUsersContaining() {
+        createUser("alice", "Alice", "Smith", "alice@example.com");
+        createUser("bob", "Bob", "Smithers", "bob@example.org");
+        createUser("carol_x", "Carol", "Jones", "carol@example.com");
+
+        clearSession();
+
+        List<User> users = userDao.findUsersContaining("SMI", null, 10);
+        assertEquals(2, users.size());
+        assertEquals("alice", users.get(0).getUsername());
+        assertEquals("bob", users.get(1).getUsername());
+
+        users = userDao.findUsersContaining("mith", "alice", 10);
+        assertEquals(1, users.size());
+        assertEquals("bob", users.get(0).getUsername());
+
+        users = userDao.findUsersContaining("ob@", null, 10);
+        assertEquals(1, users.size());
+        assertEquals("bob", users.get(0).getUsername());
+
+        users = userDao.findUsersContaining("ol_", null, 10);
+        assertEquals(1, users.size());
+        assertEquals("carol_x", users.get(0).getUsername());
+
+        // wildcards are matched literally
+        assertEquals(0, userDao.findUsersContaining("c%", null, 10).size());
+        assertEquals(0, userDao.findUsersContaining("_ob", null, 10).size());
+    }
+
     /**
      * Tests create duplicate user email.
      */
@@ -325,4 +360,21 @@ public class HibernateUserDaoTest extends AbstractSpringDaoTestCase {
         assertEquals(user1.getLastName(), user2.getLastName());
         assertEquals(user1.getPassword(), user2.getPassword());
     }
+
+    /**
+     * Creates a user.
+     * 
+     * @return the created user.
+     */
+    private User createUser(String username, String firstName, String lastName, String email) {
+        User user = new HibUser();
+        user.setUsername(username);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setPassword(username + "password");
+        user.setAdmin(Boolean.FALSE);
+        return userDao.createUser(user);
+    }
+
 }
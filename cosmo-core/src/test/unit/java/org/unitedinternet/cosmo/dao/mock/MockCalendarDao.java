@@ -15,21 +15,28 @@
  */
 package org.unitedinternet.cosmo.dao.mock;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
 import org.unitedinternet.cosmo.calendar.query.CalendarFilterEvaluater;
+import org.unitedinternet.cosmo.calendar.query.ComponentFilter;
+import org.unitedinternet.cosmo.calendar.query.TimeRangeFilter;
 import org.unitedinternet.cosmo.dao.CalendarDao;
 import org.unitedinternet.cosmo.model.CollectionItem;
 import org.unitedinternet.cosmo.model.ContentItem;
+import org.unitedinternet.cosmo.model.FreeBusyItem;
 import org.unitedinternet.cosmo.model.ICalendarItem;
 import org.unitedinternet.cosmo.model.Item;
 import org.unitedinternet.cosmo.model.User;
 import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
 
 import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
 import net.fortuna.ical4j.model.Date;
+import net.fortuna.ical4j.model.Period;
+import net.fortuna.ical4j.model.TimeZone;
 
 /**
  * Mock implementation of <code>CalendarDao</code> useful for testing.
@@ -126,6 +133,36 @@ public class MockCalendarDao extends MockItemDao implements CalendarDao {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Finds the events of the calendars that occur in the period and all
+     * free-busy items by evaluating each child.
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<ICalendarItem> findFreeBusyItems(Collection<CollectionItem> calendars, Period period,
+            TimeZone timezone) {
+        ComponentFilter eventFilter = new ComponentFilter(Component.VEVENT);
+        eventFilter.setTimeRangeFilter(new TimeRangeFilter(period.getStart(), period.getEnd()));
+        if (timezone != null) {
+            eventFilter.getTimeRangeFilter().setTimezone(timezone.getVTimeZone());
+        }
+        ComponentFilter calFilter = new ComponentFilter(Calendar.VCALENDAR);
+        calFilter.getComponentFilters().add(eventFilter);
+        CalendarFilter filter = new CalendarFilter();
+        filter.setFilter(calFilter);
+
+        HashSet<ICalendarItem> results = new HashSet<ICalendarItem>();
+        for (CollectionItem calendar : calendars) {
+            for (Item child : calendar.getChildren()) {
+                if (child instanceof FreeBusyItem) {
+                    results.add((FreeBusyItem) child);
+                }
+            }
+            results.addAll(findCalendarItems(calendar, filter));
+        }
+        return results;
+    }
+
     @Override
     public Set<ICalendarItem> findCalendarEvents(Calendar calendar, User cosmoUser) {
         throw new UnsupportedOperationException();
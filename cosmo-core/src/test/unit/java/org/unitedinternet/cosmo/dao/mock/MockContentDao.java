@@ -15,7 +15,10 @@
  */
 package org.unitedinternet.cosmo.dao.mock;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.springframework.dao.ConcurrencyFailureException;
@@ -23,10 +26,15 @@ import org.unitedinternet.cosmo.dao.ContentDao;
 import org.unitedinternet.cosmo.model.CollectionItem;
 import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.Item;
+import org.unitedinternet.cosmo.model.ItemTombstone;
+import org.unitedinternet.cosmo.model.NoteItem;
+import org.unitedinternet.cosmo.model.Tombstone;
 import org.unitedinternet.cosmo.model.UidInUseException;
 import org.unitedinternet.cosmo.model.User;
 import org.unitedinternet.cosmo.model.mock.MockCollectionItem;
+import org.unitedinternet.cosmo.model.mock.MockCollectionItemDetails;
 import org.unitedinternet.cosmo.model.mock.MockItem;
+import org.unitedinternet.cosmo.model.mock.MockItemTombstone;
 
 /**
  * Mock implementation of <code>ContentDao</code> useful for testing.
@@ -175,6 +183,9 @@ public class MockContentDao extends MockItemDao implements ContentDao {
             throw new UidInUseException(content.getUid(), "Uid " + content.getUid() + " already in use");
         }
         
+        for (CollectionItem parent : content.getParents()) {
+            markChanged(content, parent);
+        }
         getStorage().updateItem((Item) content);
 
         return content;
@@ -296,7 +307,22 @@ public class MockContentDao extends MockItemDao implements ContentDao {
      * @return CollectionItem.
      */
     public CollectionItem updateCollectionTimestamp(CollectionItem collection) {
-        ((MockCollectionItem) collection).setModifiedDate(System.currentTimeMillis());
+        MockCollectionItem mockCollection = (MockCollectionItem) collection;
+        mockCollection.setModifiedDate(System.currentTimeMillis());
+        Long syncSequence = mockCollection.getSyncSequence() != null ? mockCollection.getSyncSequence() + 1 : 1;
+        mockCollection.setSyncSequence(syncSequence);
+        for (Item child : collection.getChildren()) {
+            MockCollectionItemDetails details = (MockCollectionItemDetails) child.getParentDetails(collection);
+            if (details != null && details.getSyncSequence() == null) {
+                details.setSyncSequence(syncSequence);
+            }
+        }
+        for (Tombstone tombstone : collection.getTombstones()) {
+            if (tombstone instanceof MockItemTombstone
+                    && ((MockItemTombstone) tombstone).getSyncSequence() == null) {
+                ((MockItemTombstone) tombstone).setSyncSequence(syncSequence);
+            }
+        }
         getStorage().updateItem(collection);
         return collection;
     }
@@ -320,6 +346,67 @@ public class MockContentDao extends MockItemDao implements ContentDao {
         return items;
     }
 
+    /**
+     * Loads children changed after a sync sequence.
+     * {@inheritDoc}
+     * @param collection The collection.
+     * @param syncSequence The sync sequence.
+     * @return Set<ContentItem>.
+     */
+    public Set<ContentItem> loadChangedChildren(CollectionItem collection, Long syncSequence) {
+        Set<ContentItem> items = new HashSet<ContentItem>();
+        for (Item item : collection.getChildren()) {
+            if (item instanceof ContentItem) {
+                Long changed = getSyncSequence(item, collection);
+                if (syncSequence == null || changed == null || changed > syncSequence) {
+                    items.add((ContentItem) item);
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Loads a page of master notes ordered by uid.
+     * {@inheritDoc}
+     * @param collection The collection.
+     * @param afterUid The uid of the last note of the previous page.
+     * @param maxResults The maximum number of notes.
+     * @return List<NoteItem>.
+     */
+    public List<NoteItem> loadMasterNotes(CollectionItem collection, String afterUid, int maxResults) {
+        List<NoteItem> notes = new ArrayList<NoteItem>();
+        for (Item item : collection.getChildren()) {
+            if (item instanceof NoteItem && ((NoteItem) item).getModifies() == null
+                    && (afterUid == null || item.getUid().compareTo(afterUid) > 0)) {
+                notes.add((NoteItem) item);
+            }
+        }
+        notes.sort(Comparator.comparing(NoteItem::getUid));
+        return notes.size() > maxResults ? notes.subList(0, maxResults) : notes;
+    }
+
+    /**
+     * Loads tombstones.
+     * {@inheritDoc}
+     * @param collection The collection.
+     * @param syncSequence The sync sequence.
+     * @return Set<ItemTombstone>.
+     */
+    public Set<ItemTombstone> loadTombstones(CollectionItem collection, Long syncSequence) {
+        Set<ItemTombstone> tombstones = new HashSet<ItemTombstone>();
+        for (Tombstone tombstone : collection.getTombstones()) {
+            if (tombstone instanceof ItemTombstone) {
+                Long removed = tombstone instanceof MockItemTombstone
+                        ? ((MockItemTombstone) tombstone).getSyncSequence() : null;
+                if (syncSequence == null || removed == null || removed > syncSequence) {
+                    tombstones.add((ItemTombstone) tombstone);
+                }
+            }
+        }
+        return tombstones;
+    }
+
     @Override
     public void removeItemsFromCollection(CollectionItem collection) {
         
@@ -330,6 +417,13 @@ public class MockContentDao extends MockItemDao implements ContentDao {
         
     }
 
+    @Override
+    public void importContent(CollectionItem parent, Set<ContentItem> contents) {
+        for (ContentItem content : contents) {
+            createContent(parent, content);
+        }
+    }
+
     @Override
     public void updateBatchContent(Set<ContentItem> contents) {
         
@@ -340,4 +434,15 @@ public class MockContentDao extends MockItemDao implements ContentDao {
         
     }
     
+    private void markChanged(Item item, CollectionItem collection) {
+        MockCollectionItemDetails details = (MockCollectionItemDetails) item.getParentDetails(collection);
+        if (details != null) {
+            details.setSyncSequence(null);
+        }
+    }
+
+    private Long getSyncSequence(Item item, CollectionItem collection) {
+        MockCollectionItemDetails details = (MockCollectionItemDetails) item.getParentDetails(collection);
+        return details != null ? details.getSyncSequence() : null;
+    }
 }
@@ -28,6 +28,7 @@ import org.unitedinternet.cosmo.dao.ItemDao;
 import org.unitedinternet.cosmo.dao.ItemNotFoundException;
 import org.unitedinternet.cosmo.model.Attribute;
 import org.unitedinternet.cosmo.model.CollectionItem;
+import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.HomeCollectionItem;
 import org.unitedinternet.cosmo.model.Item;
 import org.unitedinternet.cosmo.model.NoteItem;
@@ -382,6 +383,34 @@ public class MockItemDao implements ItemDao {
         return null;
     }
 
+    /**
+     * Finds the entity tag of the content item at the given path.
+     * {@inheritDoc}
+     * @param path The path.
+     * @return The entity tag.
+     */
+    public String findEntityTagByPath(String path) {
+        Item item = findItemByPath(path);
+        return item instanceof ContentItem ? item.getEntityTag() : null;
+    }
+
+    /**
+     * Finds items by parent and names.
+     * {@inheritDoc}
+     * @param parent The parent collection.
+     * @param names The names.
+     * @return The items found.
+     */
+    public Set<Item> findItemsByParentAndNames(CollectionItem parent, Set<String> names) {
+        Set<Item> items = new HashSet<Item>();
+        for (Item child : parent.getChildren()) {
+            if (names.contains(child.getName())) {
+                items.add(child);
+            }
+        }
+        return items;
+    }
+
     /**
      * Removes item by path.
      * {@inheritDoc}
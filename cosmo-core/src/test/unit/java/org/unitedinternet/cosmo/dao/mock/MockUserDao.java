@@ -15,11 +15,15 @@
  */
 package org.unitedinternet.cosmo.dao.mock;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.apache.commons.lang3.StringUtils;
 import org.unitedinternet.cosmo.dao.DuplicateEmailException;
 import org.unitedinternet.cosmo.dao.DuplicateUsernameException;
 import org.unitedinternet.cosmo.dao.UserDao;
@@ -257,6 +261,34 @@ public class MockUserDao implements UserDao {
         emailIdx.remove(user.getEmail());
     }
 
+    /**
+     * Finds users containing the text.
+     * {@inheritDoc}
+     * @param text The text.
+     * @param afterUsername The username of the last user of the previous page.
+     * @param max The maximum number of users.
+     * @return The users.
+     */
+    public List<User> findUsersContaining(String text, String afterUsername, int max) {
+        List<User> users = new ArrayList<User>();
+        for (Object value : usernameIdx.values()) {
+            User user = (User) value;
+            if (afterUsername != null && user.getUsername().compareTo(afterUsername) <= 0) {
+                continue;
+            }
+            if (contains(user.getUsername(), text) || contains(user.getEmail(), text)
+                    || contains(user.getFirstName(), text) || contains(user.getLastName(), text)) {
+                users.add(user);
+            }
+        }
+        users.sort(Comparator.comparing(User::getUsername));
+        return users.subList(0, Math.min(max, users.size()));
+    }
+
+    private static boolean contains(String value, String text) {
+        return value != null && StringUtils.containsIgnoreCase(value, text);
+    }
+
     // Dao methods
 
     /**
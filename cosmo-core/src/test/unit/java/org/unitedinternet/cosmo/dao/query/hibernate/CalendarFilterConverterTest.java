@@ -23,10 +23,12 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import org.unitedinternet.cosmo.calendar.query.CalendarFilter;
 import org.unitedinternet.cosmo.calendar.query.ComponentFilter;
+import org.unitedinternet.cosmo.calendar.query.ParamFilter;
 import org.unitedinternet.cosmo.calendar.query.PropertyFilter;
 import org.unitedinternet.cosmo.calendar.query.TextMatchFilter;
 import org.unitedinternet.cosmo.calendar.query.TimeRangeFilter;
@@ -156,6 +158,57 @@ public class CalendarFilterConverterTest {
         assertEquals(true, sf.isMissing());
     }
     
+    /**
+     * Tests that the translatable parts of a filter end up in the first pass
+     * filter.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testGetFirstPassFilterForEventProperties() throws Exception {
+        CollectionItem calendar = new HibCollectionItem();
+        calendar.setUid("calendar");
+        CalendarFilter calFilter = new CalendarFilter();
+        ComponentFilter rootComp = new ComponentFilter();
+        rootComp.setName("VCALENDAR");
+        calFilter.setFilter(rootComp);
+        ComponentFilter eventComp = new ComponentFilter();
+        eventComp.setName("VEVENT");
+        rootComp.getComponentFilters().add(eventComp);
+
+        PropertyFilter uidFilter = new PropertyFilter("UID");
+        uidFilter.setTextMatchFilter(new TextMatchFilter("uid"));
+        eventComp.getPropFilters().add(uidFilter);
+
+        PropertyFilter attendeeFilter = new PropertyFilter("ATTENDEE");
+        attendeeFilter.setTextMatchFilter(new TextMatchFilter("mailto:bob"));
+        ParamFilter partstatFilter = new ParamFilter("PARTSTAT");
+        partstatFilter.setTextMatchFilter(new TextMatchFilter("ACCEPTED"));
+        attendeeFilter.getParamFilters().add(partstatFilter);
+        eventComp.getPropFilters().add(attendeeFilter);
+
+        PropertyFilter categoriesFilter = new PropertyFilter("CATEGORIES");
+        TextMatchFilter categoriesMatch = new TextMatchFilter("private");
+        categoriesMatch.setNegateCondition(true);
+        categoriesFilter.setTextMatchFilter(categoriesMatch);
+        eventComp.getPropFilters().add(categoriesFilter);
+
+        try {
+            converter.translateToItemFilter(calendar, calFilter);
+            fail("shouldn't get here");
+        } catch(IllegalArgumentException e) {}
+
+        NoteItemFilter noteFilter = (NoteItemFilter) converter.getFirstPassFilter(calendar, calFilter);
+        assertNotNull(noteFilter);
+        assertTrue(noteFilter.getIcalUid() instanceof ILikeExpression);
+        verifyFilterExpressionValue(noteFilter.getIcalUid(), "uid");
+
+        EventStampFilter sf = (EventStampFilter) noteFilter.getStampFilter(EventStampFilter.class);
+        assertTrue(sf.getAttendee() instanceof ILikeExpression);
+        verifyFilterExpressionValue(sf.getAttendee(), "mailto:bob");
+        // negated matches may match another category
+        assertNull(sf.getCategories());
+    }
+
     /**
      * Verify filter expression value.
      * @param fc Filter criteria.
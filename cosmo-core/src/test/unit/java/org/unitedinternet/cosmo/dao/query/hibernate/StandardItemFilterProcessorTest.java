@@ -298,7 +298,17 @@ public class StandardItemFilterProcessorTest extends AbstractSpringDaoTestCase {
                 + "es.timeRangeIndex.endDate > '20070101T100000Z') or "
                 + "(es.timeRangeIndex.startDate=es.timeRangeIndex.endDate and "
                 + "(es.timeRangeIndex.startDate='20070101T040000' or "
-                + "es.timeRangeIndex.startDate='20070101T100000Z')))", query.getQueryString());
+                + "es.timeRangeIndex.startDate='20070101T100000Z'))) "
+                + "and (es.timeRangeIndex.occurrenceHorizon is null "
+                + "or (es.timeRangeIndex.isFloating=true and es.timeRangeIndex.occurrenceHorizon < '20070201T040000') "
+                + "or (es.timeRangeIndex.isFloating=false and es.timeRangeIndex.occurrenceHorizon < '20070201T100000Z') "
+                + "or (es.timeRangeIndex.isFloating=true and es.timeRangeIndex.occurrenceStart > '20070101T040000') "
+                + "or (es.timeRangeIndex.isFloating=false and es.timeRangeIndex.occurrenceStart > '20070101T100000Z') "
+                + "or exists (select o.startDate from HibBaseEventStamp os join os.occurrences o where os=es and "
+                + "((o.isFloating=true and o.startDate < '20070201T040000' and o.endDate > '20070101T040000') "
+                + "or (o.isFloating=false and o.startDate < '20070201T100000Z' and o.endDate > '20070101T100000Z') "
+                + "or (o.startDate=o.endDate and (o.startDate='20070101T040000' "
+                + "or o.startDate='20070101T100000Z')))))", query.getQueryString());
     }
 
     /**
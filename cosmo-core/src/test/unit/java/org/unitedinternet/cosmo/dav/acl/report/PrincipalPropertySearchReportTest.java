@@ -0,0 +1,214 @@
+package org.unitedinternet.cosmo.dav.acl.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitedinternet.cosmo.dav.BadRequestException;
+import org.unitedinternet.cosmo.dav.WebDavResource;
+import org.unitedinternet.cosmo.dav.acl.resource.DavUserPrincipal;
+import org.unitedinternet.cosmo.dav.acl.resource.DavUserPrincipalCollection;
+import org.unitedinternet.cosmo.dav.report.BaseReportTestCase;
+import org.unitedinternet.cosmo.model.User;
+
+/**
+ * Test case for <code>PrincipalPropertySearchReport</code>.
+ */
+public class PrincipalPropertySearchReportTest extends BaseReportTestCase {
+
+    private DavUserPrincipalCollection principals;
+
+    /**
+     * Creates the users searched by the tests.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @BeforeEach
+    public void setUpUsers() throws Exception {
+        testHelper.logIn();
+        createUser("alice", "Alice", "Smith");
+        createUser("bob", "Bob", "Smithers");
+        createUser("carol", "Carol", "Jones");
+        principals = new DavUserPrincipalCollection(testHelper.createLocator("/users"),
+                testHelper.getResourceFactory());
+    }
+
+    /**
+     * Tests search by prefix of the last name.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testSearchDisplayName() throws Exception {
+        PrincipalPropertySearchReport report = makeReport(search("smi", null));
+        report.runQuery();
+
+        assertEquals(usernames("alice", "bob"), usernames(report.getResults()));
+    }
+
+    /**
+     * Tests search by text within and across names.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testSearchSubstring() throws Exception {
+        PrincipalPropertySearchReport report = makeReport(search("MITHER", null));
+        report.runQuery();
+        assertEquals(usernames("bob"), usernames(report.getResults()));
+
+        report = makeReport(search("ol Jo", null));
+        report.runQuery();
+        assertEquals(usernames("carol"), usernames(report.getResults()));
+    }
+
+    /**
+     * Tests that a match with several words finds the users containing its
+     * longest word and returns the ones whose display name contains all of it.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testSearchWords() throws Exception {
+        PrincipalPropertySearchReport report = makeReport(search("Bob Smi", null));
+        report.runQuery();
+        assertEquals(usernames("bob"), usernames(report.getResults()));
+    }
+
+    /**
+     * Tests that a search without a spec on the display name or calendar
+     * user addresses is rejected rather than testing every user.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testSearchWithoutUserProperties() throws Exception {
+        String xml = "<D:principal-property-search xmlns:D=\"DAV:\">"
+                + "<D:property-search><D:prop><D:principal-URL/></D:prop><D:match>alice</D:match>"
+                + "</D:property-search></D:principal-property-search>";
+        PrincipalPropertySearchReport report = makeReport(xml);
+        boolean rejected = false;
+        try {
+            report.runQuery();
+        } catch (BadRequestException e) {
+            rejected = true;
+        }
+        assertTrue(rejected, "search of every user accepted");
+    }
+
+    /**
+     * Tests that an empty match is rejected.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testBlankMatch() throws Exception {
+        boolean rejected = false;
+        try {
+            makeReport(search(" ", null));
+        } catch (BadRequestException e) {
+            rejected = true;
+        }
+        assertTrue(rejected, "blank DAV:match accepted");
+    }
+
+    /**
+     * Tests that every search spec has to match.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testSearchAllSpecs() throws Exception {
+        String xml = "<D:principal-property-search xmlns:D=\"DAV:\">"
+                + propertySearch("smi") + propertySearch("smithers")
+                + "</D:principal-property-search>";
+        PrincipalPropertySearchReport report = makeReport(xml);
+        report.runQuery();
+
+        assertEquals(usernames("bob"), usernames(report.getResults()));
+    }
+
+    /**
+     * Tests DAV:limit.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testLimit() throws Exception {
+        PrincipalPropertySearchReport report = makeReport(search("smi",
+                "<D:limit><D:nresults>1</D:nresults></D:limit>"));
+        assertEquals(1, report.getLimit());
+        report.runQuery();
+
+        assertEquals(usernames("alice"), usernames(report.getResults()));
+    }
+
+    /**
+     * Tests that DAV:limit applies to the principals that match every
+     * search spec.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testLimitAfterMatch() throws Exception {
+        String xml = "<D:principal-property-search xmlns:D=\"DAV:\">"
+                + propertySearch("smi") + propertySearch("bob")
+                + "<D:limit><D:nresults>1</D:nresults></D:limit>"
+                + "</D:principal-property-search>";
+        PrincipalPropertySearchReport report = makeReport(xml);
+        report.runQuery();
+
+        assertEquals(usernames("bob"), usernames(report.getResults()));
+    }
+
+    /**
+     * Tests an invalid DAV:limit.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testInvalidLimit() throws Exception {
+        boolean rejected = false;
+        try {
+            makeReport(search("smi", "<D:limit><D:nresults>none</D:nresults></D:limit>"));
+        } catch (BadRequestException e) {
+            rejected = true;
+        }
+        assertTrue(rejected, "invalid DAV:nresults accepted");
+    }
+
+    private PrincipalPropertySearchReport makeReport(String xml) throws Exception {
+        return (PrincipalPropertySearchReport) makeReport(PrincipalPropertySearchReport.class,
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), DEPTH_0, principals);
+    }
+
+    private static String search(String match, String limit) {
+        return "<D:principal-property-search xmlns:D=\"DAV:\">" + propertySearch(match)
+                + "<D:prop><D:displayname/></D:prop>" + (limit != null ? limit : "")
+                + "</D:principal-property-search>";
+    }
+
+    private static String propertySearch(String match) {
+        return "<D:property-search><D:prop><D:displayname/></D:prop><D:match>" + match
+                + "</D:match></D:property-search>";
+    }
+
+    private void createUser(String username, String firstName, String lastName) {
+        User user = testHelper.makeDummyUser(username, "password");
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        testHelper.getUserService().createUser(user);
+    }
+
+    private static Set<String> usernames(String... usernames) {
+        Set<String> result = new HashSet<String>();
+        for (String username : usernames) {
+            result.add(username);
+        }
+        return result;
+    }
+
+    private static Set<String> usernames(Set<WebDavResource> resources) {
+        Set<String> result = new HashSet<String>();
+        for (WebDavResource resource : resources) {
+            result.add(((DavUserPrincipal) resource).getUser().getUsername());
+        }
+        return result;
+    }
+}
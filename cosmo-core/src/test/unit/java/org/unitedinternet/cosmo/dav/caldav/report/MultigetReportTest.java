@@ -16,15 +16,21 @@
 package org.unitedinternet.cosmo.dav.caldav.report;
 
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import org.apache.jackrabbit.webdav.version.report.ReportInfo;
+import org.apache.jackrabbit.webdav.xml.DomUtil;
 import org.unitedinternet.cosmo.dav.BadRequestException;
 import org.unitedinternet.cosmo.dav.BaseDavTestCase;
 import org.unitedinternet.cosmo.dav.CosmoDavException;
 import org.unitedinternet.cosmo.dav.impl.DavCalendarCollection;
 import org.unitedinternet.cosmo.dav.impl.DavEvent;
+import org.unitedinternet.cosmo.model.NoteItem;
+import org.unitedinternet.cosmo.model.TriageStatusUtil;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
 
 /**
  * Test case for <code>MultigetReport</code>.
@@ -135,6 +141,34 @@ public class MultigetReportTest extends BaseDavTestCase {
         report.init(de, makeReportInfo("multiget5.xml"));
     }
 
+    /**
+     * Tests that members are resolved and missing hrefs are reported as not found.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testResolveMembers() throws Exception {
+        testHelper.logIn();
+        DavCalendarCollection dcc =
+            testHelper.initializeDavCalendarCollection("multiget");
+        DavEvent de = testHelper.initializeDavEvent(dcc, "foo.ics");
+        TriageStatusUtil.initialize(((NoteItem) de.getItem()).getTriageStatus());
+
+        MultigetReport report = new MultigetReport();
+        report.init(dcc, makeReportInfo("multiget2.xml"));
+
+        Element multistatus = report.toXml(DomUtil.createDocument());
+        NodeList responses = multistatus.getElementsByTagNameNS(NAMESPACE.getURI(), XML_RESPONSE);
+        assertEquals(2, responses.getLength());
+        int found = 0;
+        for (int i = 0; i < responses.getLength(); i++) {
+            Element response = (Element) responses.item(i);
+            if (DomUtil.hasChildElement(response, XML_PROPSTAT, NAMESPACE)) {
+                found++;
+            }
+        }
+        assertEquals(1, found);
+    }
+
     /**
      * Tests incorrect hrefs.
      * @throws Exception - if something is wrong this exception is thrown.
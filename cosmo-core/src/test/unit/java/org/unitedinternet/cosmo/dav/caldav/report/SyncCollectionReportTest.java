@@ -0,0 +1,249 @@
+package org.unitedinternet.cosmo.dav.caldav.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.jackrabbit.webdav.version.report.ReportInfo;
+import org.apache.jackrabbit.webdav.xml.DomUtil;
+import org.junit.jupiter.api.Test;
+import org.unitedinternet.cosmo.dav.BadRequestException;
+import org.unitedinternet.cosmo.dav.BaseDavTestCase;
+import org.unitedinternet.cosmo.dav.CosmoDavException;
+import org.unitedinternet.cosmo.dav.impl.DavCalendarCollection;
+import org.unitedinternet.cosmo.dav.impl.DavEvent;
+import org.unitedinternet.cosmo.dav.property.SyncToken;
+import org.unitedinternet.cosmo.model.CollectionItem;
+import org.unitedinternet.cosmo.model.ContentItem;
+import org.unitedinternet.cosmo.model.NoteItem;
+import org.unitedinternet.cosmo.model.TriageStatusUtil;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Test case for <code>SyncCollectionReport</code>.
+ */
+public class SyncCollectionReportTest extends BaseDavTestCase {
+
+    /**
+     * Tests wrong type.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testWrongType() throws Exception {
+        DavCalendarCollection dcc =
+            testHelper.initializeDavCalendarCollection("sync");
+
+        SyncCollectionReport report = new SyncCollectionReport();
+        try {
+            report.init(dcc, makeReportInfo("freebusy1.xml"));
+            fail("Freebusy report initalized");
+        } catch (CosmoDavException e) {}
+    }
+
+    /**
+     * Tests a sync token that was not issued by the server.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testForeignSyncToken() throws Exception {
+        DavCalendarCollection dcc =
+            testHelper.initializeDavCalendarCollection("sync");
+
+        SyncCollectionReport report = new SyncCollectionReport();
+        try {
+            report.init(dcc, makeReportInfo("sync2.xml"));
+            fail("Report with foreign sync token initalized");
+        } catch (InvalidSyncTokenException e) {}
+    }
+
+    /**
+     * Tests an unsupported sync level.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testInfiniteSyncLevel() throws Exception {
+        DavCalendarCollection dcc =
+            testHelper.initializeDavCalendarCollection("sync");
+
+        SyncCollectionReport report = new SyncCollectionReport();
+        try {
+            report.init(dcc, makeReportInfo("sync3.xml"));
+            fail("Report with infinite sync level initalized");
+        } catch (BadRequestException e) {}
+    }
+
+    /**
+     * Tests that an initial sync returns every member and a new sync token.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testInitialSync() throws Exception {
+        testHelper.logIn();
+        DavCalendarCollection dcc =
+            testHelper.initializeDavCalendarCollection("sync");
+        DavEvent de = testHelper.initializeDavEvent(dcc, "event");
+        TriageStatusUtil.initialize(((NoteItem) de.getItem()).getTriageStatus());
+
+        SyncCollectionReport report = new SyncCollectionReport();
+        report.init(dcc, makeReportInfo("sync1.xml"));
+
+        Document document = DomUtil.createDocument();
+        Element multistatus = report.toXml(document);
+        assertEquals(1, multistatus.getElementsByTagNameNS(NAMESPACE.getURI(), XML_RESPONSE).getLength());
+        assertEquals(dcc.getSyncSequence(), report.getNewSyncSequence());
+        Element token = DomUtil.getChildElement(multistatus, XML_SYNC_TOKEN, NAMESPACE);
+        assertEquals(SyncToken.toToken(report.getNewSyncSequence()), DomUtil.getText(token));
+    }
+
+    /**
+     * Tests that a sync with the returned token only reports the members
+     * changed after it.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testIncrementalSync() throws Exception {
+        testHelper.logIn();
+        DavCalendarCollection dcc =
+            testHelper.initializeDavCalendarCollection("sync");
+        DavEvent first = testHelper.initializeDavEvent(dcc, "first");
+        TriageStatusUtil.initialize(((NoteItem) first.getItem()).getTriageStatus());
+
+        SyncCollectionReport report = new SyncCollectionReport();
+        report.init(dcc, makeReportInfo("sync1.xml"));
+        report.toXml(DomUtil.createDocument());
+        String token = SyncToken.toToken(report.getNewSyncSequence());
+
+        DavEvent second = testHelper.initializeDavEvent(dcc, "second");
+        TriageStatusUtil.initialize(((NoteItem) second.getItem()).getTriageStatus());
+        assertEquals(report.getNewSyncSequence() + 1, dcc.getSyncSequence());
+
+        report = new SyncCollectionReport();
+        report.init(dcc, makeSyncReportInfo(token));
+        Element multistatus = report.toXml(DomUtil.createDocument());
+        NodeList responses = multistatus.getElementsByTagNameNS(NAMESPACE.getURI(), XML_RESPONSE);
+        assertEquals(1, responses.getLength());
+        Element href = DomUtil.getChildElement((Element) responses.item(0), XML_HREF, NAMESPACE);
+        assertEquals(second.getResourceLocator().getHref(false), DomUtil.getText(href));
+    }
+
+    /**
+     * Tests that imported members are reported once, by the first sync after
+     * the import, and that the import changes the sync token.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testSyncAfterImport() throws Exception {
+        testHelper.logIn();
+        DavCalendarCollection dcc =
+            testHelper.initializeDavCalendarCollection("sync");
+        DavEvent first = testHelper.initializeDavEvent(dcc, "first");
+        TriageStatusUtil.initialize(((NoteItem) first.getItem()).getTriageStatus());
+
+        SyncCollectionReport report = new SyncCollectionReport();
+        report.init(dcc, makeReportInfo("sync1.xml"));
+        report.toXml(DomUtil.createDocument());
+        long beforeImport = report.getNewSyncSequence();
+
+        Set<ContentItem> imported = new HashSet<ContentItem>();
+        for (String name : new String[] { "second", "third" }) {
+            NoteItem item = testHelper.makeDummyItem(testHelper.getUser(), name);
+            TriageStatusUtil.initialize(item.getTriageStatus());
+            imported.add(item);
+        }
+        testHelper.getContentService().importContentItems((CollectionItem) dcc.getItem(), imported);
+
+        report = new SyncCollectionReport();
+        report.init(dcc, makeSyncReportInfo(SyncToken.toToken(beforeImport)));
+        Element multistatus = report.toXml(DomUtil.createDocument());
+        assertEquals(2, multistatus.getElementsByTagNameNS(NAMESPACE.getURI(), XML_RESPONSE).getLength());
+        long afterImport = report.getNewSyncSequence();
+        assertNotEquals(beforeImport, afterImport);
+
+        report = new SyncCollectionReport();
+        report.init(dcc, makeSyncReportInfo(SyncToken.toToken(afterImport)));
+        multistatus = report.toXml(DomUtil.createDocument());
+        assertEquals(0, multistatus.getElementsByTagNameNS(NAMESPACE.getURI(), XML_RESPONSE).getLength());
+        assertEquals(afterImport, report.getNewSyncSequence());
+    }
+
+    /**
+     * Tests that a sync with more changes than DAV:limit allows fails with
+     * 507, and that one within the limit succeeds.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testLimit() throws Exception {
+        testHelper.logIn();
+        DavCalendarCollection dcc =
+            testHelper.initializeDavCalendarCollection("sync");
+        for (String name : new String[] { "first", "second" }) {
+            DavEvent event = testHelper.initializeDavEvent(dcc, name);
+            TriageStatusUtil.initialize(((NoteItem) event.getItem()).getTriageStatus());
+        }
+
+        SyncCollectionReport report = new SyncCollectionReport();
+        report.init(dcc, makeSyncReportInfo("", 1));
+        try {
+            report.runQuery();
+            fail("Sync exceeding the limit succeeded");
+        } catch (NumberOfMatchesExceededException e) {
+            assertEquals(507, e.getErrorCode());
+        }
+
+        report = new SyncCollectionReport();
+        report.init(dcc, makeSyncReportInfo("", 2));
+        Element multistatus = report.toXml(DomUtil.createDocument());
+        assertEquals(2, multistatus.getElementsByTagNameNS(NAMESPACE.getURI(), XML_RESPONSE).getLength());
+    }
+
+    /**
+     * Makes report info.
+     * @param resource The resource.
+     * @return The report info.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    private ReportInfo makeReportInfo(String resource)
+        throws Exception {
+        Document doc = testHelper.loadXml(this.getClass().getResourceAsStream(resource));
+        return new ReportInfo(doc.getDocumentElement(), DEPTH_0);
+    }
+
+    /**
+     * Makes report info for a sync with the given token.
+     * @param token The sync token.
+     * @return The report info.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    private ReportInfo makeSyncReportInfo(String token)
+        throws Exception {
+        return makeSyncReportInfo(token, null);
+    }
+
+    /**
+     * Makes report info for a sync with the given token and limit.
+     * @param token The sync token.
+     * @param limit The maximum number of results, or null for none.
+     * @return The report info.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    private ReportInfo makeSyncReportInfo(String token, Integer limit)
+        throws Exception {
+        Document doc = DomUtil.createDocument();
+        Element sync = DomUtil.createElement(doc, XML_SYNC_COLLECTION, NAMESPACE);
+        doc.appendChild(sync);
+        DomUtil.addChildElement(sync, XML_SYNC_TOKEN, NAMESPACE, token);
+        DomUtil.addChildElement(sync, XML_SYNC_LEVEL, NAMESPACE, "1");
+        if (limit != null) {
+            Element limitElement = DomUtil.addChildElement(sync, XML_LIMIT, NAMESPACE);
+            DomUtil.addChildElement(limitElement, XML_NRESULTS, NAMESPACE, limit.toString());
+        }
+        Element prop = DomUtil.addChildElement(sync, XML_PROP, NAMESPACE);
+        DomUtil.addChildElement(prop, PROPERTY_GETETAG, NAMESPACE);
+        return new ReportInfo(sync, DEPTH_0);
+    }
+}
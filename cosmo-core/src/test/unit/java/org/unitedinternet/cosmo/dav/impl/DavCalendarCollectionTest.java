@@ -15,10 +15,13 @@
  */
 package org.unitedinternet.cosmo.dav.impl;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
@@ -40,6 +43,10 @@ import org.unitedinternet.cosmo.model.hibernate.HibCollectionSubscription;
 import org.unitedinternet.cosmo.model.hibernate.HibCollectionSubscriptionItem;
 import org.unitedinternet.cosmo.model.hibernate.HibTicket;
 
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+
 /**
  * 
  * @author daniel grigore
@@ -72,6 +79,77 @@ public class DavCalendarCollectionTest extends BaseDavTestCase implements Extend
         }
     }
 
+    @Test
+    public void shouldImportWholeCalendar() throws Exception {
+        String ics = "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//test//EN\r\n"
+                + "BEGIN:VEVENT\r\nUID:first\r\nDTSTAMP:20240101T000000Z\r\nDTSTART:20240102T100000Z\r\n"
+                + "DTEND:20240102T110000Z\r\nSUMMARY:first\r\nEND:VEVENT\r\n"
+                + "BEGIN:VEVENT\r\nUID:second\r\nDTSTAMP:20240101T000000Z\r\nDTSTART:20240103T100000Z\r\n"
+                + "DTEND:20240103T110000Z\r\nSUMMARY:second\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n";
+        Calendar calendar = new CalendarBuilder().build(new StringReader(ics));
+
+        this.instance.importCalendar(calendar);
+
+        assertNotNull(this.testHelper.findMember(this.instance, "first.ics"));
+        assertNotNull(this.testHelper.findMember(this.instance, "second.ics"));
+    }
+
+    @Test
+    public void shouldGenerateMemberNameForUnsafeUid() throws Exception {
+        String ics = "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//test//EN\r\n"
+                + "BEGIN:VEVENT\r\nUID:../first\r\nDTSTAMP:20240101T000000Z\r\nDTSTART:20240102T100000Z\r\n"
+                + "DTEND:20240102T110000Z\r\nSUMMARY:first\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n";
+        this.instance.importCalendar(new CalendarBuilder().build(new StringReader(ics)));
+
+        CollectionItem collection = (CollectionItem) this.instance.getItem();
+        assertEquals(1, collection.getChildren().size());
+        String name = collection.getChildren().iterator().next().getName();
+        assertFalse(name.contains("/"));
+        assertTrue(name.endsWith(".ics"));
+    }
+
+    @Test
+    public void shouldWriteWholeCalendarWithTimezonesFirst() throws Exception {
+        String tz = "BEGIN:VTIMEZONE\r\nTZID:Europe/Berlin\r\nBEGIN:STANDARD\r\nDTSTART:19701025T030000\r\n"
+                + "TZOFFSETFROM:+0200\r\nTZOFFSETTO:+0100\r\nEND:STANDARD\r\nEND:VTIMEZONE\r\n";
+        String ics = "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//test//EN\r\n" + tz
+                + "BEGIN:VEVENT\r\nUID:first\r\nDTSTAMP:20240101T000000Z\r\n"
+                + "DTSTART;TZID=Europe/Berlin:20240102T100000\r\nSUMMARY:first\r\nEND:VEVENT\r\n"
+                + "BEGIN:VEVENT\r\nUID:second\r\nDTSTAMP:20240101T000000Z\r\n"
+                + "DTSTART;TZID=Europe/Berlin:20240103T100000\r\nSUMMARY:second\r\nEND:VEVENT\r\n"
+                + "END:VCALENDAR\r\n";
+        this.instance.importCalendar(new CalendarBuilder().build(new StringReader(ics)));
+
+        StringWriter writer = new StringWriter();
+        this.instance.writeCalendar(writer, "-//test//EN");
+
+        Calendar calendar = new CalendarBuilder().build(new StringReader(writer.toString()));
+        assertEquals(1, calendar.getComponents(Component.VTIMEZONE).size());
+        assertEquals(2, calendar.getComponents(Component.VEVENT).size());
+        assertEquals(Component.VTIMEZONE, ((Component) calendar.getComponents().get(0)).getName());
+    }
+
+    @Test
+    public void shouldWriteTimezoneDefinedDifferentlyOnce() throws Exception {
+        String event = "BEGIN:VEVENT\r\nUID:%s\r\nDTSTAMP:20240101T000000Z\r\n"
+                + "DTSTART;TZID=Europe/Berlin:20240102T100000\r\nSUMMARY:%s\r\nEND:VEVENT\r\n";
+        String tz = "BEGIN:VTIMEZONE\r\nTZID:Europe/Berlin\r\nBEGIN:STANDARD\r\nDTSTART:19701025T030000\r\n"
+                + "TZOFFSETFROM:%s\r\nTZOFFSETTO:+0100\r\nEND:STANDARD\r\nEND:VTIMEZONE\r\n";
+        for (String uid : new String[] {"first", "second"}) {
+            String ics = "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//test//EN\r\n"
+                    + String.format(tz, "first".equals(uid) ? "+0200" : "+0100") + String.format(event, uid, uid)
+                    + "END:VCALENDAR\r\n";
+            this.instance.importCalendar(new CalendarBuilder().build(new StringReader(ics)));
+        }
+
+        StringWriter writer = new StringWriter();
+        this.instance.writeCalendar(writer, "-//test//EN");
+
+        Calendar calendar = new CalendarBuilder().build(new StringReader(writer.toString()));
+        assertEquals(1, calendar.getComponents(Component.VTIMEZONE).size());
+        assertEquals(2, calendar.getComponents(Component.VEVENT).size());
+    }
+
     @Test
     public void shouldHaveOnlyReadPrivilegesForExternalItem() throws Exception {
         this.instance.getItem().setUid(UuidExternalGenerator.get().getNext());
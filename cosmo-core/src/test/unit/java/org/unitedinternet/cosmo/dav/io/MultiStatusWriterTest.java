@@ -0,0 +1,104 @@
+package org.unitedinternet.cosmo.dav.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+
+import org.apache.jackrabbit.webdav.MultiStatusResponse;
+import org.apache.jackrabbit.webdav.property.DavPropertyName;
+import org.apache.jackrabbit.webdav.property.DavPropertyNameSet;
+import org.apache.jackrabbit.webdav.xml.DomUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.unitedinternet.cosmo.dav.BaseDavTestCase;
+import org.unitedinternet.cosmo.dav.caldav.CaldavConstants;
+import org.unitedinternet.cosmo.dav.caldav.property.CalendarData;
+import org.unitedinternet.cosmo.dav.impl.DavCalendarCollection;
+import org.unitedinternet.cosmo.dav.impl.DavEvent;
+import org.unitedinternet.cosmo.model.NoteItem;
+import org.unitedinternet.cosmo.model.TriageStatusUtil;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Test case for <code>MultiStatusWriter</code>.
+ */
+public class MultiStatusWriterTest extends BaseDavTestCase {
+
+    /**
+     * Tests that a collection and its members are written as one response
+     * each.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testWriteResourceProperties() throws Exception {
+        testHelper.logIn();
+        DavCalendarCollection dcc = testHelper.initializeDavCalendarCollection("stream");
+        for (String name : new String[] { "event1", "event2" }) {
+            DavEvent de = testHelper.initializeDavEvent(dcc, name);
+            TriageStatusUtil.initialize(((NoteItem) de.getItem()).getTriageStatus());
+        }
+
+        DavPropertyNameSet props = new DavPropertyNameSet();
+        props.add(DavPropertyName.GETETAG);
+        props.add(DavPropertyName.DISPLAYNAME);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MultiStatusWriter writer = new MultiStatusWriter(response);
+        writer.writeResourceProperties(dcc, props, PROPFIND_BY_PROPERTY, DEPTH_1);
+        writer.close();
+
+        assertEquals(207, response.getStatus());
+        assertEquals("text/xml;charset=UTF-8", response.getContentType().replace(" ", ""));
+
+        Element multistatus = parse(response).getDocumentElement();
+        assertEquals(XML_MULTISTATUS, multistatus.getLocalName());
+        assertEquals(NAMESPACE.getURI(), multistatus.getNamespaceURI());
+        assertEquals(3, multistatus.getElementsByTagNameNS(NAMESPACE.getURI(), XML_RESPONSE).getLength());
+        assertEquals(3, multistatus.getElementsByTagNameNS(NAMESPACE.getURI(), XML_HREF).getLength());
+    }
+
+    /**
+     * Tests that closing a writer without responses writes an empty
+     * multistatus.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testEmpty() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MultiStatusWriter(response).close();
+
+        assertEquals(207, response.getStatus());
+        Element multistatus = parse(response).getDocumentElement();
+        assertEquals(XML_MULTISTATUS, multistatus.getLocalName());
+        assertFalse(DomUtil.hasChildElement(multistatus, XML_RESPONSE, NAMESPACE));
+    }
+
+    /**
+     * Tests that calendar data keeps its CRLF line endings.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testCalendarDataLineEndings() throws Exception {
+        String calendarData = "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nEND:VCALENDAR\r\n";
+        MultiStatusResponse msr = new MultiStatusResponse("/dav/test/calendar/event.ics", null);
+        msr.add(new CalendarData(calendarData));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MultiStatusWriter writer = new MultiStatusWriter(response);
+        writer.write(msr);
+        writer.close();
+
+        assertTrue(response.getContentAsString().contains("VERSION:2.0&#13;"));
+        Element multistatus = parse(response).getDocumentElement();
+        Element element = (Element) multistatus.getElementsByTagNameNS(CaldavConstants.NAMESPACE_CALDAV.getURI(),
+                CaldavConstants.ELEMENT_CALDAV_CALENDAR_DATA).item(0);
+        assertEquals(calendarData, DomUtil.getText(element));
+    }
+
+    private Document parse(MockHttpServletResponse response) throws Exception {
+        return DomUtil.parseDocument(new ByteArrayInputStream(response.getContentAsByteArray()));
+    }
+}
@@ -43,6 +43,7 @@ import org.unitedinternet.cosmo.dav.DavResourceLocatorFactory;
 import org.unitedinternet.cosmo.dav.DavResponse;
 import org.unitedinternet.cosmo.dav.DavTestContext;
 import org.unitedinternet.cosmo.dav.ForbiddenException;
+import org.unitedinternet.cosmo.dav.NotFoundException;
 import org.unitedinternet.cosmo.dav.NotModifiedException;
 import org.unitedinternet.cosmo.dav.PreconditionFailedException;
 import org.unitedinternet.cosmo.dav.WebDavResource;
@@ -222,6 +223,48 @@ public class StandardRequestHandlerTest extends BaseDavTestCase {
         assertEquals(HttpStatus.SC_PRECONDITION_FAILED, ctx.getDavResponse().getStatus());
     }
 
+    @Test
+    public void testIfNoneMatchAnsweredFromEntityTag() throws Exception {
+        DavTestContext ctx = testHelper.createTestContext();
+        ctx.getHttpRequest().setMethod("GET");
+        ctx.getHttpRequest().addHeader("If-None-Match", "\"aeiou\"");
+
+        DavResourceFactory factoryMock = mock(DavResourceFactory.class);
+        DavResourceLocatorFactory locatorFactoryMock = mock(DavResourceLocatorFactory.class);
+        DavResourceLocator mockLocator = mock(DavResourceLocator.class);
+        when(locatorFactoryMock.createResourceLocatorByUri(any(), any())).thenReturn(mockLocator);
+        when(factoryMock.findEntityTag(mockLocator)).thenReturn("aeiou");
+
+        StandardRequestHandler handler = new StandardRequestHandler(locatorFactoryMock, factoryMock,
+                mock(EntityFactory.class));
+        handler.handleRequest(ctx.getDavRequest(), ctx.getDavResponse());
+
+        assertEquals(HttpStatus.SC_NOT_MODIFIED, ctx.getDavResponse().getStatus());
+        assertEquals("\"aeiou\"", ctx.getHttpResponse().getHeader("ETag"));
+        Mockito.verify(factoryMock, Mockito.never()).resolve(any(), any());
+    }
+
+    @Test
+    public void testIfNoneMatchNotAnsweredFromChangedEntityTag() throws Exception {
+        DavTestContext ctx = testHelper.createTestContext();
+        ctx.getHttpRequest().setMethod("GET");
+        ctx.getHttpRequest().addHeader("If-None-Match", "\"aeiou\"");
+
+        DavResourceFactory factoryMock = mock(DavResourceFactory.class);
+        DavResourceLocatorFactory locatorFactoryMock = mock(DavResourceLocatorFactory.class);
+        DavResourceLocator mockLocator = mock(DavResourceLocator.class);
+        when(locatorFactoryMock.createResourceLocatorByUri(any(), any())).thenReturn(mockLocator);
+        when(factoryMock.findEntityTag(mockLocator)).thenReturn("xyz");
+        when(factoryMock.resolve(any(), any())).thenThrow(new NotFoundException());
+
+        StandardRequestHandler handler = new StandardRequestHandler(locatorFactoryMock, factoryMock,
+                mock(EntityFactory.class));
+        handler.handleRequest(ctx.getDavRequest(), ctx.getDavResponse());
+
+        assertEquals(HttpStatus.SC_NOT_FOUND, ctx.getDavResponse().getStatus());
+        Mockito.verify(factoryMock).resolve(any(), any());
+    }
+
     /**
      * Tests if modified since unmodified.
      * 
@@ -0,0 +1,126 @@
+package org.unitedinternet.cosmo.ext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitedinternet.cosmo.model.NoteItem;
+import org.unitedinternet.cosmo.model.hibernate.EntityConverter;
+import org.unitedinternet.cosmo.model.hibernate.HibEntityFactory;
+
+import com.sun.net.httpserver.HttpServer;
+
+import jakarta.validation.Validator;
+
+/**
+ * Test class for {@link SimpleUrlContentReader}.
+ */
+public class SimpleUrlContentReaderTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    private static final String CALENDAR = "BEGIN:VCALENDAR\r\n" + "VERSION:2.0\r\n" + "PRODID:-//test//EN\r\n"
+            + "BEGIN:VEVENT\r\n" + "UID:event1\r\n" + "DTSTAMP:20240101T000000Z\r\n"
+            + "DTSTART:20240102T100000Z\r\n" + "DTEND:20240102T110000Z\r\n" + "SUMMARY:event\r\n"
+            + "END:VEVENT\r\n" + "END:VCALENDAR\r\n";
+
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+
+    private HttpServer server;
+    private ExternalContentParamConfig config;
+    private SimpleUrlContentReader reader;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/feed.ics", exchange -> {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedResponses.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                fullResponses.incrementAndGet();
+                byte[] body = CALENDAR.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("ETag", ETAG);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+
+        config = new ExternalContentParamConfig();
+        config.setMaxSize(1024 * 1024);
+        config.setUserAgent("COSMO");
+        config.setMaxRedirects(10);
+        config.setMaxHeaderCount(50);
+        config.setMaxLineLength(8192);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (reader != null) {
+            reader.destroy();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldServeCachedContentWithinTtl() {
+        reader = newReader();
+
+        Set<NoteItem> first = reader.getContent(url(), 5000);
+        Set<NoteItem> second = reader.getContent(url(), 5000);
+
+        assertEquals(1, first.size());
+        assertEquals(1, second.size());
+        assertNotSame(first.iterator().next(), second.iterator().next());
+        assertEquals("event1.ics", second.iterator().next().getName());
+        assertEquals(1, fullResponses.get());
+        assertEquals(0, notModifiedResponses.get());
+    }
+
+    @Test
+    public void shouldRevalidateExpiredContent() {
+        config.setCacheTtl(0);
+        config.setCacheStaleTtl(0);
+        reader = newReader();
+
+        reader.getContent(url(), 5000);
+        Set<NoteItem> revalidated = reader.getContent(url(), 5000);
+
+        assertEquals(1, revalidated.size());
+        assertEquals(1, fullResponses.get());
+        assertEquals(1, notModifiedResponses.get());
+    }
+
+    @Test
+    public void shouldRejectContentLargerThanMaxSize() {
+        config.setMaxSize(100);
+        reader = newReader();
+
+        assertThrows(ExternalContentTooLargeException.class, () -> reader.getContent(url(), 5000));
+    }
+
+    private SimpleUrlContentReader newReader() {
+        return new SimpleUrlContentReader(new ContentConverter(new EntityConverter(new HibEntityFactory())),
+                mock(Validator.class), new ContentSourceProcessorDefault(), new ProxyFactoryDefault(), config);
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/feed.ics";
+    }
+}
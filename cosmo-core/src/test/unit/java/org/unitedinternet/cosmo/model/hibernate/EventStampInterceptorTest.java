@@ -17,6 +17,8 @@ package org.unitedinternet.cosmo.model.hibernate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.unitedinternet.cosmo.calendar.ICalendarUtils.createBaseCalendar;
 
@@ -153,4 +155,58 @@ public class EventStampInterceptorTest {
         assertEquals("20070213T084500", index.getEndDate());
     }
     
+    /**
+     * Tests that the index is only recalculated when the icalendar data changed.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testIndexOnlyRecalculatedForChangedIcaldata() throws Exception {
+        HibNoteItem master = new HibNoteItem();
+        HibEventStamp eventStamp = new HibEventStamp(master);
+        VEvent vEvent = new VEvent(); 
+        Calendar calendar = createBaseCalendar(vEvent);
+        vEvent.getProperties().add(new DtStart(new DateTime("20070212T074500")));
+        vEvent.getProperties().add(new DtEnd(new DateTime("20070212T094500")));
+        eventStamp.setEventCalendar(calendar);
+        master.addStamp(eventStamp);
+        
+        String[] propertyNames = new String[] {"icaldata", "timeRangeIndex"};
+        HibEventTimeRangeIndex index = interceptor.calculateEventStampIndexes(eventStamp);
+        Object[] previousState = new Object[] {eventStamp.getIcaldata(), index};
+        Object[] currentState = new Object[] {eventStamp.getIcaldata(), index};
+        
+        assertFalse(interceptor.onFlushDirty(eventStamp, null, currentState, previousState, propertyNames, null));
+        
+        vEvent.getEndDate().setDate(new DateTime("20070212T104500"));
+        eventStamp.setEventCalendar(calendar);
+        currentState[0] = eventStamp.getIcaldata();
+        
+        assertTrue(interceptor.onFlushDirty(eventStamp, null, currentState, previousState, propertyNames, null));
+        assertEquals("20070212T104500", ((HibEventTimeRangeIndex) currentState[1]).getEndDate());
+    }
+    
+    /**
+     * Tests that the index is calculated from the calendar that was set, which
+     * is handed out once and not copied.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testIndexUsesCalendarSet() throws Exception {
+        HibNoteItem master = new HibNoteItem();
+        HibEventStamp eventStamp = new HibEventStamp(master);
+        VEvent vEvent = new VEvent(); 
+        Calendar calendar = createBaseCalendar(vEvent);
+        vEvent.getProperties().add(new DtStart(new DateTime("20070212T074500")));
+        vEvent.getProperties().add(new DtEnd(new DateTime("20070212T094500")));
+        eventStamp.setEventCalendar(calendar);
+        master.addStamp(eventStamp);
+        
+        assertSame(calendar, eventStamp.takeIndexCalendar());
+        assertNotSame(calendar, eventStamp.takeIndexCalendar());
+        
+        HibEventTimeRangeIndex index = interceptor.calculateEventStampIndexes(eventStamp);
+        assertEquals("20070212T074500", index.getStartDate());
+        assertEquals("20070212T094500", index.getEndDate());
+    }
+    
 }
@@ -41,6 +41,8 @@ public class MockCollectionItem extends MockItem implements CollectionItem {
         new MockQName(CollectionItem.class, "hue");
 
     private Set<CollectionItemDetails> childDetails = new HashSet<CollectionItemDetails>(0);
+
+    private Long syncSequence = null;
     
     /**
      * Constructor.
@@ -185,6 +187,22 @@ public class MockCollectionItem extends MockItem implements CollectionItem {
     public void setHue(Long value) {
         MockIntegerAttribute.setValue(this, ATTR_HUE, value);
     }
+
+    /**
+     * Gets sync sequence.
+     * @return The sync sequence.
+     */
+    public Long getSyncSequence() {
+        return syncSequence;
+    }
+
+    /**
+     * Sets sync sequence.
+     * @param syncSequence The sync sequence.
+     */
+    public void setSyncSequence(Long syncSequence) {
+        this.syncSequence = syncSequence;
+    }
     
     /* (non-Javadoc)
      * @see org.unitedinternet.cosmo.model.copy.InterfaceCollectionItem#removeTombstone(org.unitedinternet.cosmo.model.copy.Item)
@@ -27,6 +27,7 @@ public class MockCollectionItemDetails implements CollectionItemDetails {
     private CollectionItem collection = null;
     private Item item = null;
     private Long createDate = System.currentTimeMillis();
+    private Long syncSequence = null;
 
     public MockCollectionItemDetails(CollectionItem collection, Item item) {
         this.collection = collection;
@@ -44,4 +45,12 @@ public class MockCollectionItemDetails implements CollectionItemDetails {
     public Long getTimestamp() {
         return createDate;
     }
+
+    public Long getSyncSequence() {
+        return syncSequence;
+    }
+
+    public void setSyncSequence(Long syncSequence) {
+        this.syncSequence = syncSequence;
+    }
 }
@@ -29,6 +29,7 @@ public class MockItemTombstone extends MockTombstone implements ItemTombstone {
     
     private String itemUid = null;
     private String itemName = null;
+    private Long syncSequence = null;
 
     /**
      * Contructor.
@@ -46,6 +47,22 @@ public class MockItemTombstone extends MockTombstone implements ItemTombstone {
         itemUid = item.getUid();
     }
     
+    /**
+     * Gets sync sequence.
+     * @return The sync sequence.
+     */
+    public Long getSyncSequence() {
+        return syncSequence;
+    }
+
+    /**
+     * Sets sync sequence.
+     * @param syncSequence The sync sequence.
+     */
+    public void setSyncSequence(Long syncSequence) {
+        this.syncSequence = syncSequence;
+    }
+
     /* (non-Javadoc)
      * @see org.unitedinternet.cosmo.model.copy.InterfaceItemTombstone#getItemUid()
      */
@@ -231,8 +231,17 @@ public class MockTicket extends MockAuditableObject implements Comparable<Ticket
      * @return The boolean: hasTimeout.
      */
     public boolean hasTimedOut() {
+        Date expiry = getExpires();
+        return expiry != null && Calendar.getInstance().getTime().after(expiry);
+    }
+
+    /**
+     * Gets expires.
+     * @return The time the ticket times out.
+     */
+    public Date getExpires() {
         if (timeout == null || timeout.equals(TIMEOUT_INFINITE)) {
-            return false;
+            return null;
         }
 
         int seconds = Integer.parseInt(timeout.substring(7));
@@ -240,8 +249,7 @@ public class MockTicket extends MockAuditableObject implements Comparable<Ticket
         Calendar expiry = Calendar.getInstance();
         expiry.setTime(created);
         expiry.add(Calendar.SECOND, seconds);
-
-        return Calendar.getInstance().after(expiry);
+        return expiry.getTime();
     }
 
     /* (non-Javadoc)
@@ -19,6 +19,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -64,6 +65,14 @@ public class SecurityHelperTest {
         securityHelper = new SecurityHelper(contentDao, userDao);
     }
 
+    /**
+     * Ends the request.
+     */
+    @AfterEach
+    public void tearDown() {
+        SecurityHelper.clearAccessDecisions();
+    }
+
     /**
      * Tests collection user access.
      * @throws Exception - if something is wrong this exception is thrown.
@@ -320,6 +329,48 @@ public class SecurityHelperTest {
         
     }
     
+    @Test
+    public void shouldRememberAccessToChildrenForRequest() {
+        User sharer = testHelper.makeDummyUser("sharer", "passwd1");
+        this.userDao.createUser(sharer);
+        User sharee = testHelper.makeDummyUser("sharee", "passwd2");
+        this.userDao.createUser(sharee);
+        
+        MockCollectionItem collectionItem = new MockCollectionItem();
+        collectionItem.setOwner(sharer);
+        collectionItem.setUid("col1");
+        MockNoteItem note1 = new MockNoteItem();
+        note1.setUid("note1");
+        note1.setOwner(sharer);
+        note1.addParent(collectionItem);
+        MockNoteItem note2 = new MockNoteItem();
+        note2.setUid("note2");
+        note2.setOwner(sharer);
+        note2.addParent(collectionItem);
+        
+        Ticket ticket  =  testHelper.makeDummyTicket(sharer);
+        ticket.getPrivileges().add(Ticket.PRIVILEGE_WRITE);
+        ticket.setItem(collectionItem);
+        collectionItem.addTicket(ticket);
+        
+        CollectionSubscription subscription =testHelper.makeDummySubscription(collectionItem, ticket);
+        subscription.setOwner(sharee);
+        subscription.setTargetCollection(collectionItem);
+        subscription.setTicket(ticket);
+        sharee.getSubscriptions().add(subscription);
+        
+        CosmoSecurityContext context = this.getSecurityContext(sharee);
+        assertTrue(this.securityHelper.hasWriteAccess(context, note1));
+        
+        // access to the children of the collection is not checked again
+        // during the request
+        sharee.getSubscriptions().clear();
+        assertTrue(this.securityHelper.hasWriteAccess(context, note2));
+        
+        SecurityHelper.clearAccessDecisions();
+        assertFalse(this.securityHelper.hasWriteAccess(context, note2));
+    }
+    
     /**
      * Gets security context.
      * @param user The user.
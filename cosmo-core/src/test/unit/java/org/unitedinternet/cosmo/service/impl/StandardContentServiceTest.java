@@ -19,6 +19,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.text.ParseException;
@@ -26,6 +27,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +36,7 @@ import org.unitedinternet.cosmo.TestHelper;
 import org.unitedinternet.cosmo.dao.mock.MockContentDao;
 import org.unitedinternet.cosmo.dao.mock.MockDaoStorage;
 import org.unitedinternet.cosmo.model.CollectionItem;
+import org.unitedinternet.cosmo.model.CollectionLockedException;
 import org.unitedinternet.cosmo.model.ContentItem;
 import org.unitedinternet.cosmo.model.EventExceptionStamp;
 import org.unitedinternet.cosmo.model.EventStamp;
@@ -48,6 +52,7 @@ import org.unitedinternet.cosmo.model.mock.MockEventStamp;
 import org.unitedinternet.cosmo.model.mock.MockNoteItem;
 import org.unitedinternet.cosmo.service.lock.SingleVMLockManager;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Component;
@@ -70,6 +75,7 @@ public class StandardContentServiceTest {
     private MockDaoStorage storage;
     private SingleVMLockManager lockManager;
     private TestHelper testHelper;
+    private SimpleMeterRegistry registry;
 
     /**
      * Set up.
@@ -81,7 +87,54 @@ public class StandardContentServiceTest {
         storage = new MockDaoStorage();        
         contentDao = new MockContentDao(storage);
         lockManager = new SingleVMLockManager();
-        service = new StandardContentService(contentDao, lockManager, new StandardTriageStatusQueryProcessor());                
+        registry = new SimpleMeterRegistry();
+        service = new StandardContentService(contentDao, lockManager, new StandardTriageStatusQueryProcessor(),
+                registry);
+    }
+
+    /**
+     * Tests that content can not be created while another thread holds the
+     * collection lock, and can be again once it is released.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testCollectionLockedWhileHeld() throws Exception {
+        User user = testHelper.makeDummyUser();
+        CollectionItem rootCollection = contentDao.createRootItem(user);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            lockManager.lockCollection(rootCollection);
+            locked.countDown();
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lockManager.unlockCollection(rootCollection);
+            }
+        });
+        holder.start();
+        try {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            ContentItem other = new MockNoteItem();
+            other.setName("bar");
+            other.setOwner(user);
+            assertThrows(CollectionLockedException.class, () -> service.createContent(rootCollection, other));
+        } finally {
+            done.countDown();
+            holder.join();
+        }
+
+        ContentItem content = new MockNoteItem();
+        content.setName("foo");
+        content.setOwner(user);
+        service.createContent(rootCollection, content);
+        assertNotNull(contentDao.findItemByUid(content.getUid()));
+
+        assertEquals(1, registry.get("cosmo.lock.wait").tag("result", "acquired").timer().count());
+        assertEquals(1, registry.get("cosmo.lock.wait").tag("result", "timeout").timer().count());
     }
 
     /**
@@ -106,6 +159,28 @@ public class StandardContentServiceTest {
 
         contentDao.removeContent(dummyContent);
     }
+
+    /**
+     * Tests that creating a batch of content advances the sync sequence of
+     * the parent collection.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testCreateBatchContentItemsAdvancesSyncSequence() throws Exception {
+        User user = testHelper.makeDummyUser();
+        MockCollectionItem rootCollection = (MockCollectionItem) contentDao.createRootItem(user);
+        Long before = rootCollection.getSyncSequence();
+
+        ContentItem content = new MockNoteItem();
+        content.setName("foo");
+        content.setOwner(user);
+        Set<ContentItem> contentItems = new HashSet<ContentItem>();
+        contentItems.add(content);
+        service.createBatchContentItems(rootCollection, contentItems);
+
+        assertNotNull(rootCollection.getSyncSequence());
+        assertTrue(before == null || rootCollection.getSyncSequence() > before);
+    }
     
     /**
      * Tests invalid mod uid.
@@ -28,7 +28,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.security.core.token.KeyBasedPersistenceTokenService;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 import org.unitedinternet.cosmo.TestHelper;
+import org.unitedinternet.cosmo.acegisecurity.userdetails.PrincipalCache;
 import org.unitedinternet.cosmo.dao.mock.MockContentDao;
 import org.unitedinternet.cosmo.dao.mock.MockDaoStorage;
 import org.unitedinternet.cosmo.dao.mock.MockUserDao;
@@ -193,6 +196,55 @@ public class StandardUserServiceTest {
         assertNull(service.getUser(u1.getUsername()), "User not removed");
     }
 
+    /**
+     * Tests that updating and removing a user invalidates its cached principal.
+     * 
+     * @throws Exception
+     *             - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testPrincipalInvalidated() throws Exception {
+        PrincipalCache principalCache = new PrincipalCache(30, 10);
+        service.setPrincipalCache(principalCache);
+
+        User u1 = service.createUser(testHelper.makeDummyUser());
+        principalCache.put(u1);
+        u1.setPassword("changedpwd");
+        service.updateUser(u1);
+        assertNull(principalCache.get(u1.getUsername()), "Principal not invalidated on update");
+
+        principalCache.put(u1);
+        service.removeUser(u1.getUsername());
+        assertNull(principalCache.get(u1.getUsername()), "Principal not invalidated on remove");
+    }
+
+    /**
+     * Tests that within a transaction the cached principal is invalidated
+     * after commit.
+     * 
+     * @throws Exception
+     *             - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testPrincipalInvalidatedAfterCommit() throws Exception {
+        PrincipalCache principalCache = new PrincipalCache(30, 10);
+        service.setPrincipalCache(principalCache);
+
+        User u1 = service.createUser(testHelper.makeDummyUser());
+        principalCache.put(u1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            u1.setPassword("changedpwd");
+            service.updateUser(u1);
+            assertNotNull(principalCache.get(u1.getUsername()), "Principal invalidated before commit");
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertNull(principalCache.get(u1.getUsername()), "Principal not invalidated after commit");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     /**
      * Tests remove user by username.
      * 
@@ -0,0 +1,109 @@
+package org.unitedinternet.cosmo.service.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.unitedinternet.cosmo.CosmoException;
+import org.unitedinternet.cosmo.model.CollectionItem;
+import org.unitedinternet.cosmo.model.hibernate.HibCollectionItem;
+
+/**
+ * Test ConcurrentLockManager
+ */
+public class ConcurrentLockManagerTest {
+
+    private ConcurrentLockManager lockManager = new ConcurrentLockManager();
+
+    @Test
+    public void shouldRemoveLockOnceUnlocked() throws Exception {
+        CollectionItem collection = collection("1");
+
+        assertTrue(lockManager.lockCollection(collection, 100));
+        // locks are reentrant
+        assertTrue(lockManager.lockCollection(collection, 100));
+        assertTrue(lockManager.isLocked(collection));
+        assertEquals(1, lockManager.getNumLocksInMemory());
+
+        lockManager.unlockCollection(collection);
+        assertTrue(lockManager.isLocked(collection));
+        lockManager.unlockCollection(collection);
+        assertFalse(lockManager.isLocked(collection));
+        assertEquals(0, lockManager.getNumLocksInMemory());
+
+        // nothing to unlock anymore
+        lockManager.unlockCollection(collection);
+    }
+
+    @Test
+    public void shouldTimeOutOnLockHeldByAnotherThread() throws Exception {
+        CollectionItem collection = collection("1");
+        CollectionItem other = collection("2");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> {
+            lockManager.lockCollection(collection);
+            locked.countDown();
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lockManager.unlockCollection(collection);
+            }
+        });
+        holder.start();
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        assertFalse(lockManager.lockCollection(collection, 100));
+        assertThrows(CosmoException.class, () -> lockManager.unlockCollection(collection));
+        // other collections are not affected
+        assertTrue(lockManager.lockCollection(other, 100));
+        lockManager.unlockCollection(other);
+        assertEquals(1, lockManager.getNumLocksInMemory());
+
+        done.countDown();
+        holder.join();
+        assertEquals(0, lockManager.getNumLocksInMemory());
+        assertTrue(lockManager.lockCollection(collection, 100));
+        lockManager.unlockCollection(collection);
+    }
+
+    @Test
+    public void shouldWaitForLockToBeReleased() throws Exception {
+        CollectionItem collection = collection("1");
+        assertTrue(lockManager.lockCollection(collection, 100));
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            lockManager.lockCollection(collection);
+            acquired.countDown();
+            lockManager.unlockCollection(collection);
+        });
+        waiter.start();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lockManager.getNumWaitingThreads(collection) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, lockManager.getNumWaitingThreads(collection));
+        assertEquals(1, acquired.getCount());
+
+        lockManager.unlockCollection(collection);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(0, lockManager.getNumLocksInMemory());
+    }
+
+    private static CollectionItem collection(String uid) {
+        CollectionItem collection = new HibCollectionItem();
+        collection.setUid(uid);
+        return collection;
+    }
+}
@@ -0,0 +1,81 @@
+package org.unitedinternet.cosmo.service.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.unitedinternet.cosmo.dao.hibernate.AbstractSpringDaoTestCase;
+import org.unitedinternet.cosmo.model.CollectionItem;
+import org.unitedinternet.cosmo.model.hibernate.HibCollectionItem;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Test DatabaseLockManager
+ */
+public class DatabaseLockManagerTest extends AbstractSpringDaoTestCase {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private DatabaseLockManager lockManager;
+
+    @BeforeEach
+    public void setUpLockManager() {
+        lockManager = new DatabaseLockManager();
+        ReflectionTestUtils.setField(lockManager, "em", em);
+    }
+
+    @Test
+    public void shouldLockAndUnlockCollection() {
+        CollectionItem collection = new HibCollectionItem();
+        collection.setUid("1");
+
+        assertTrue(lockManager.lockCollection(collection, 100));
+        assertEquals(connectionId(), lockOwner(collection));
+
+        lockManager.unlockCollection(collection);
+        assertNull(lockOwner(collection));
+
+        // nothing to unlock anymore
+        lockManager.unlockCollection(collection);
+    }
+
+    @Test
+    public void shouldShortenLongLockNames() {
+        CollectionItem collection = new HibCollectionItem();
+        collection.setUid("a-very-long-collection-uid-that-does-not-fit-into-a-lock-name");
+
+        String name = DatabaseLockManager.lockName(collection);
+        assertTrue(name.length() <= 64);
+        assertTrue(lockManager.lockCollection(collection, 100));
+        lockManager.unlockCollection(collection);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldRequireTransaction() {
+        CollectionItem collection = new HibCollectionItem();
+        collection.setUid("1");
+
+        assertThrows(IllegalStateException.class, () -> lockManager.lockCollection(collection, 100));
+        assertThrows(IllegalStateException.class, () -> lockManager.unlockCollection(collection));
+    }
+
+    private Long lockOwner(CollectionItem collection) {
+        Number owner = (Number) em.createNativeQuery("select is_used_lock(:name)")
+                .setParameter("name", DatabaseLockManager.lockName(collection)).getSingleResult();
+        return owner != null ? owner.longValue() : null;
+    }
+
+    private Long connectionId() {
+        return ((Number) em.createNativeQuery("select connection_id()").getSingleResult()).longValue();
+    }
+}
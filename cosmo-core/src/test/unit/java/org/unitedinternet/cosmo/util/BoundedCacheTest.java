@@ -0,0 +1,75 @@
+package org.unitedinternet.cosmo.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for <code>BoundedCache</code>.
+ */
+public class BoundedCacheTest {
+
+    /**
+     * Tests that the least recently used entry is evicted.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Tests that expired entries are not returned.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testExpiry() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(10, 1);
+        cache.put("a", "1");
+        Thread.sleep(5);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests that nothing is cached without a positive time to live.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testDisabled() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(10, 0);
+        cache.put("a", "1");
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests invalidation of a single entry.
+     * @throws Exception - if something is wrong this exception is thrown.
+     */
+    @Test
+    public void testInvalidate() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(10);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.invalidate("a");
+
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+    }
+}